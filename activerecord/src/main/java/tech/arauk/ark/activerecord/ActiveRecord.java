@@ -1,17 +1,40 @@
 package tech.arauk.ark.activerecord;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import tech.arauk.ark.activemodel.ActiveModel;
 import tech.arauk.ark.activerecord.connectionadapters.AbstractAdapter;
 import tech.arauk.ark.activesupport.annotations.Beta;
+import tech.arauk.ark.activesupport.collections.DoubleArray;
+import tech.arauk.ark.activesupport.collections.IntArray;
+import tech.arauk.ark.activesupport.collections.LongArray;
 
 /**
+ * The base class of the models, which also exposes the finders and the
+ * scoping of connections. The connection adapter established with
+ * {@link #establishConnection(AbstractAdapter)} is shared by every thread,
+ * and every thread runs its queries on its own connection:
+ * <pre>{@code
+ * ActiveRecord.withConnection(new Callable<User>() {
+ *     public User call() {
+ *         // Both queries run on the same connection.
+ *         User user = ActiveRecord.where("id = ?", 1).first(User.class);
+ *         return ActiveRecord.where("id = ?", user.getId() + 1).first(User.class);
+ *     }
+ * });
+ * }</pre>
+ *
  * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
  */
 @Beta
 public class ActiveRecord extends ActiveModel {
-    private static AbstractAdapter mConnectionAdapter;
+    private static final ConcurrentHashMap<Class<? extends ActiveRecord>, ConcurrentHashMap<String, Scope<?>>> sScopes = new ConcurrentHashMap<>();
+    private static final ThreadLocal<AbstractAdapter> sThreadConnectionAdapter = new ThreadLocal<>();
+    private static volatile AbstractAdapter mConnectionAdapter;
 
     /**
      * Establishes the connection to the database.
@@ -19,36 +42,212 @@ public class ActiveRecord extends ActiveModel {
      * @param connectionAdapter
      */
     public static void establishConnection(AbstractAdapter connectionAdapter) {
+        connectionAdapter.initializeConnection();
         mConnectionAdapter = connectionAdapter;
-        mConnectionAdapter.initializeConnection();
     }
 
     /**
-     * Returns the current connection adapter for the ActiveRecord.
+     * Returns the current connection adapter for the ActiveRecord, which is
+     * the adapter the current thread is {@link #connectedTo connected to}, if
+     * any, or the established one.
      *
      * @return The current ConnectionAdapter for the ActiveRecord.
      */
     public static AbstractAdapter getConnectionAdapter() {
-        return mConnectionAdapter;
+        AbstractAdapter connectionAdapter = sThreadConnectionAdapter.get();
+        return connectionAdapter != null ? connectionAdapter : mConnectionAdapter;
+    }
+
+    /**
+     * Runs a block with the given adapter as the connection adapter of the
+     * current thread, for instance to read from a replica. Other threads keep
+     * using their own adapter.
+     *
+     * @param connectionAdapter The adapter, whose connection must be
+     *                          initialized.
+     * @param block             The block to run.
+     * @return The result of the block.
+     */
+    public static <V> V connectedTo(AbstractAdapter connectionAdapter, Callable<V> block) {
+        AbstractAdapter previousAdapter = sThreadConnectionAdapter.get();
+        sThreadConnectionAdapter.set(connectionAdapter);
+        try {
+            return call(block);
+        } finally {
+            if (previousAdapter == null) {
+                sThreadConnectionAdapter.remove();
+            } else {
+                sThreadConnectionAdapter.set(previousAdapter);
+            }
+        }
+    }
+
+    /**
+     * Runs a block with a connection bound to the current thread, so every
+     * query of the block runs on the same connection, which is returned to
+     * the pool afterwards.
+     *
+     * @param block The block to run.
+     * @return The result of the block.
+     * @see AbstractAdapter#bindConnection()
+     */
+    public static <V> V withConnection(Callable<V> block) {
+        AbstractAdapter connectionAdapter = getConnectionAdapter();
+        connectionAdapter.bindConnection();
+        try {
+            return call(block);
+        } finally {
+            connectionAdapter.unbindConnection();
+        }
+    }
+
+    /**
+     * Runs a block within a transaction of the current thread, which is
+     * committed if the block returns and rolled back if it throws.
+     *
+     * @param block The block to run.
+     * @return The result of the block.
+     */
+    public static <V> V transaction(Callable<V> block) {
+        AbstractAdapter connectionAdapter = getConnectionAdapter();
+        connectionAdapter.beginTransaction();
+
+        V result;
+        try {
+            result = call(block);
+        } catch (RuntimeException | Error ex) {
+            try {
+                connectionAdapter.rollbackTransaction();
+            } catch (RuntimeException ignored) {
+                // The failure of the block is more relevant.
+            }
+            throw ex;
+        }
+
+        connectionAdapter.commitTransaction();
+        return result;
+    }
+
+    private static <V> V call(Callable<V> block) {
+        try {
+            return block.call();
+        } catch (RuntimeException ruEx) {
+            throw ruEx;
+        } catch (Exception ex) {
+            throw new ActiveRecordException("The block failed.", ex);
+        }
+    }
+
+    /**
+     * Declares a named scope of a model, which replaces any scope of the
+     * model with the same name. The conditions of the relation take a
+     * placeholder for each argument, which is given when the scope runs:
+     * <pre>{@code
+     * public static final Scope<User> BY_EMAIL = ActiveRecord.scope(User.class, "byEmail",
+     *         ActiveRecord.where("email = ?"));
+     * }</pre>
+     *
+     * @param type     The model class.
+     * @param name     The name of the scope.
+     * @param relation The relation of the scope, without arguments.
+     * @return The scope.
+     */
+    public static <T extends ActiveRecord> Scope<T> scope(Class<T> type, String name, ActiveRelation relation) {
+        Scope<T> scope = new Scope<>(type, name, relation);
+
+        ConcurrentHashMap<String, Scope<?>> scopes = sScopes.get(type);
+        if (scopes == null) {
+            scopes = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, Scope<?>> previousScopes = sScopes.putIfAbsent(type, scopes);
+            if (previousScopes != null) {
+                scopes = previousScopes;
+            }
+        }
+        scopes.put(name, scope);
+
+        return scope;
+    }
+
+    /**
+     * Returns a scope declared with {@link #scope(Class, String, ActiveRelation)}.
+     *
+     * @param type The model class.
+     * @param name The name of the scope.
+     * @return The scope.
+     * @throws IllegalArgumentException If the model has no such scope.
+     */
+    public static <T extends ActiveRecord> Scope<T> scope(Class<T> type, String name) {
+        ConcurrentHashMap<String, Scope<?>> scopes = sScopes.get(type);
+        Scope<?> scope = scopes == null ? null : scopes.get(name);
+        if (scope == null) {
+            throw new IllegalArgumentException("Undefined scope " + name + " of " + type.getSimpleName() + ".");
+        }
+
+        @SuppressWarnings("unchecked")
+        Scope<T> typedScope = (Scope<T>) scope;
+        return typedScope;
+    }
+
+    /**
+     * Generates and validates the SQL of every declared scope on its
+     * connection adapter, so invalid scopes fail at startup rather than on
+     * their first run. Scopes are declared when their model class is
+     * initialized, which must happen before.
+     *
+     * @throws ActiveRecordException If the database does not accept a scope.
+     */
+    public static void compileScopes() {
+        for (ConcurrentHashMap<String, Scope<?>> scopes : sScopes.values()) {
+            for (Scope<?> scope : scopes.values()) {
+                scope.compile();
+            }
+        }
     }
 
     private static ActiveRelation getActiveRelation() {
-        ActiveRelation activeRelation = new ActiveRelation();
-        activeRelation.setConnectionAdapter(getConnectionAdapter());
+        // Without an adapter of its own, a relation runs on the adapter of the
+        // thread when it runs, so relations kept in constants follow
+        // connectedTo.
+        return new ActiveRelation();
+    }
 
-        return activeRelation;
+    /**
+     * Caches the records of the relation in the query cache of the connection
+     * adapter.
+     *
+     * @param ttl  How long the records may be cached.
+     * @param unit The unit of the time to live.
+     * @return A new relation whose records are cached.
+     * @see ActiveRelation#cached(long, TimeUnit)
+     */
+    public static ActiveRelation cached(long ttl, TimeUnit unit) {
+        return getActiveRelation().cached(ttl, unit);
     }
 
     /**
      * Performs a joins using the specified argument.
      *
-     * @param join A string specified the join clause to be used in the query.
+     * @param join The name of an association of the model, or a string
+     *             specifying the join clause to be used in the query.
      * @return A new relation containing the new join clause.
+     * @see ActiveRelation#joins(String)
      */
     public static ActiveRelation joins(String join) {
         return getActiveRelation().joins(join);
     }
 
+    /**
+     * Preloads associations of the records retrieved, with one query per
+     * association.
+     *
+     * @param associations The names of the associations.
+     * @return A new relation with the associations to preload.
+     * @see ActiveRelation#includes(String...)
+     */
+    public static ActiveRelation includes(String... associations) {
+        return getActiveRelation().includes(associations);
+    }
+
     /**
      * Specifies a limit for the number of records to retrieve.
      *
@@ -131,6 +330,53 @@ public class ActiveRecord extends ActiveModel {
         return getActiveRelation().all(type);
     }
 
+    /**
+     * Opens a cursor over every record, which fetches them from the database
+     * as they are iterated.
+     *
+     * @param type The class to be used for instantiating the results.
+     * @return A cursor over the records, which must be closed unless it is
+     * read to the end.
+     */
+    public static <T extends ActiveRecord> Cursor<T> cursor(Class<T> type) {
+        return getActiveRelation().cursor(type);
+    }
+
+    /**
+     * Passes every record to the callback, one at a time, without loading
+     * them all in memory.
+     *
+     * @param type     The class to be used for instantiating the results.
+     * @param callback The callback called for every record.
+     */
+    public static <T extends ActiveRecord> void each(Class<T> type, RecordCallback<? super T> callback) {
+        getActiveRelation().each(type, callback);
+    }
+
+    /**
+     * Passes every record to the callback in batches, ordered by primary key.
+     *
+     * @param type      The class to be used for instantiating the results.
+     * @param batchSize The maximum number of records of each batch.
+     * @param callback  The callback called for every batch.
+     * @see ActiveRelation#findInBatches(Class, int, BatchCallback)
+     */
+    public static <T extends ActiveRecord> void findInBatches(Class<T> type, int batchSize, BatchCallback<T> callback) {
+        getActiveRelation().findInBatches(type, batchSize, callback);
+    }
+
+    /**
+     * Passes every record to the callback, fetching them in batches ordered by
+     * primary key.
+     *
+     * @param type     The class to be used for instantiating the results.
+     * @param callback The callback called for every record.
+     * @see ActiveRelation#findInBatches(Class, int, BatchCallback)
+     */
+    public static <T extends ActiveRecord> void findEach(Class<T> type, RecordCallback<? super T> callback) {
+        getActiveRelation().findEach(type, callback);
+    }
+
     /**
      * Find the first record. If no order is defined it will order by primary
      * key.
@@ -176,4 +422,173 @@ public class ActiveRecord extends ActiveModel {
     public static <T extends ActiveRecord> List<T> last(Class<T> type, Integer limit) {
         return getActiveRelation().last(type, limit);
     }
+
+    /**
+     * Counts every record in the database, without retrieving them.
+     *
+     * @param type The model class.
+     * @return The number of records.
+     */
+    public static <T extends ActiveRecord> long count(Class<T> type) {
+        return getActiveRelation().count(type);
+    }
+
+    /**
+     * Checks whether there is any record, without retrieving it.
+     *
+     * @param type The model class.
+     * @return Whether there is a record.
+     */
+    public static <T extends ActiveRecord> boolean exists(Class<T> type) {
+        return getActiveRelation().exists(type);
+    }
+
+    /**
+     * Sums a column of every record in the database.
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The sum, or 0 if there is no record.
+     * @see ActiveRelation#sum(Class, String)
+     */
+    public static <T extends ActiveRecord> Number sum(Class<T> type, String column) {
+        return getActiveRelation().sum(type, column);
+    }
+
+    /**
+     * Finds the minimum of a column of every record in the database.
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The minimum, or null if there is no record.
+     * @see ActiveRelation#min(Class, String)
+     */
+    public static <T extends ActiveRecord> Object min(Class<T> type, String column) {
+        return getActiveRelation().min(type, column);
+    }
+
+    /**
+     * Finds the maximum of a column of every record in the database.
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The maximum, or null if there is no record.
+     * @see ActiveRelation#max(Class, String)
+     */
+    public static <T extends ActiveRecord> Object max(Class<T> type, String column) {
+        return getActiveRelation().max(type, column);
+    }
+
+    /**
+     * Averages a column of every record in the database.
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The average, or null if there is no record.
+     */
+    public static <T extends ActiveRecord> Double average(Class<T> type, String column) {
+        return getActiveRelation().average(type, column);
+    }
+
+    /**
+     * Retrieves a column of every record, without instantiating them.
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The values of the column, as returned by the driver.
+     * @see ActiveRelation#pluck(Class, String)
+     */
+    public static <T extends ActiveRecord> List<Object> pluck(Class<T> type, String column) {
+        return getActiveRelation().pluck(type, column);
+    }
+
+    /**
+     * Retrieves a numeric column of every record as long values, without
+     * boxing them.
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The values of the column.
+     * @see ActiveRelation#pluckLongs(Class, String)
+     */
+    public static <T extends ActiveRecord> LongArray pluckLongs(Class<T> type, String column) {
+        return getActiveRelation().pluckLongs(type, column);
+    }
+
+    /**
+     * Retrieves a numeric column of every record as int values, without
+     * boxing them.
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The values of the column.
+     * @see ActiveRelation#pluckInts(Class, String)
+     */
+    public static <T extends ActiveRecord> IntArray pluckInts(Class<T> type, String column) {
+        return getActiveRelation().pluckInts(type, column);
+    }
+
+    /**
+     * Retrieves a numeric column of every record as double values, without
+     * boxing them.
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The values of the column.
+     * @see ActiveRelation#pluckDoubles(Class, String)
+     */
+    public static <T extends ActiveRecord> DoubleArray pluckDoubles(Class<T> type, String column) {
+        return getActiveRelation().pluckDoubles(type, column);
+    }
+
+    /**
+     * Inserts the records in batches of the default batch size of the
+     * connection adapter, within a single transaction.
+     * <pre>{@code
+     * BulkResult result = ActiveRecord.insertAll(users);
+     * }</pre>
+     *
+     * @param records The records to insert, all of the same class.
+     * @return The outcome of the writes, with their throughput.
+     */
+    public static <T extends ActiveRecord> BulkResult insertAll(Collection<T> records) {
+        return insertAll(records, getConnectionAdapter().getBatchSize());
+    }
+
+    /**
+     * Inserts the records in batches, within a single transaction.
+     *
+     * @param records   The records to insert, all of the same class.
+     * @param batchSize The maximum number of records of each batch.
+     * @return The outcome of the writes, with their throughput.
+     */
+    public static <T extends ActiveRecord> BulkResult insertAll(Collection<T> records, int batchSize) {
+        return getConnectionAdapter().insertAll(records, batchSize);
+    }
+
+    /**
+     * Inserts the records in batches of the default batch size of the
+     * connection adapter, within a single transaction, updating the rows that
+     * already exist with the same primary key instead.
+     *
+     * @param records The records to insert or update, all of the same class
+     *                and with a primary key.
+     * @return The outcome of the writes, with their throughput.
+     */
+    public static <T extends ActiveRecord> BulkResult upsertAll(Collection<T> records) {
+        return upsertAll(records, getConnectionAdapter().getBatchSize());
+    }
+
+    /**
+     * Inserts the records in batches, within a single transaction, updating
+     * the rows that already exist with the same primary key instead.
+     *
+     * @param records   The records to insert or update, all of the same class
+     *                  and with a primary key.
+     * @param batchSize The maximum number of records of each batch.
+     * @return The outcome of the writes, with their throughput.
+     */
+    public static <T extends ActiveRecord> BulkResult upsertAll(Collection<T> records, int batchSize) {
+        return getConnectionAdapter().upsertAll(records, batchSize);
+    }
 }
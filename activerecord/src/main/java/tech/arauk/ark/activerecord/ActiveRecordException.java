@@ -0,0 +1,22 @@
+package tech.arauk.ark.activerecord;
+
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * Generic ActiveRecord exception class. Errors raised by the database driver
+ * are wrapped in it, with the original exception as its cause.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public class ActiveRecordException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ActiveRecordException(String message) {
+        super(message);
+    }
+
+    public ActiveRecordException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
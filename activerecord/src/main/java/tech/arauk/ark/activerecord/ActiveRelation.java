@@ -1,40 +1,151 @@
 package tech.arauk.ark.activerecord;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import tech.arauk.ark.activerecord.connectionadapters.AbstractAdapter;
 import tech.arauk.ark.activesupport.annotations.Beta;
+import tech.arauk.ark.activesupport.collections.DoubleArray;
+import tech.arauk.ark.activesupport.collections.IntArray;
+import tech.arauk.ark.activesupport.collections.LongArray;
 
 /**
+ * A query over the records of a model. Relations are immutable: every method
+ * that refines a relation returns a new relation and leaves the relation it
+ * was called on unchanged, sharing its clauses instead of copying them. A
+ * base relation may therefore be kept in a constant and refined by many
+ * threads at once:
+ * <pre>{@code
+ * static final ActiveRelation ADULTS = ActiveRecord.where("age >= ?", 18).order("name");
+ *
+ * List<User> page = ADULTS.limit(20).offset(40).all(User.class);
+ * User adult = ADULTS.where("id = ?", id).first(User.class);
+ * }</pre>
+ * A relation without a connection adapter runs on the current adapter of
+ * {@link ActiveRecord#getConnectionAdapter()}.
+ *
  * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
  */
 @Beta
 public class ActiveRelation {
-    private AbstractAdapter mConnectionAdapter;
-    private Integer mLimit;
-    private Integer mOffset;
-    private List<String> mConditions;
-    private List<Object> mConditionsArguments;
-    private List<String> mJoins;
-    private List<String> mOrder;
-    private List<String> mSelect;
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    private final AbstractAdapter mConnectionAdapter;
+    private final Long mCacheTtl;
+    private final Integer mFetchSize;
+    private final Integer mLimit;
+    private final Integer mOffset;
+    private final ClauseList<String> mConditions;
+    private final ClauseList<Object> mConditionsArguments;
+    private final ClauseList<String> mJoins;
+    private final ClauseList<String> mOrder;
+    private final ClauseList<String> mSelect;
+    private final ClauseList<String> mIncludes;
+    // Every field of a fingerprint is final, so it may be published racily.
+    private Fingerprint mFingerprint;
+
+    public ActiveRelation() {
+        this(null);
+    }
+
+    /**
+     * Creates a relation without clauses that runs on the given adapter.
+     *
+     * @param connectionAdapter The connection adapter, or null for the
+     *                          current adapter of {@link ActiveRecord}.
+     */
+    public ActiveRelation(AbstractAdapter connectionAdapter) {
+        mConnectionAdapter = connectionAdapter;
+        mCacheTtl = null;
+        mFetchSize = null;
+        mLimit = null;
+        mOffset = null;
+        mConditions = ClauseList.empty();
+        mConditionsArguments = ClauseList.empty();
+        mJoins = ClauseList.empty();
+        mOrder = ClauseList.empty();
+        mSelect = ClauseList.empty();
+        mIncludes = ClauseList.empty();
+    }
+
+    private ActiveRelation(ActiveRelation activeRelation, AbstractAdapter connectionAdapter, Long cacheTtl,
+                           Integer fetchSize, Integer limit, Integer offset, ClauseList<String> conditions,
+                           ClauseList<Object> conditionsArguments, ClauseList<String> joins, ClauseList<String> order,
+                           ClauseList<String> select, ClauseList<String> includes) {
+        mConnectionAdapter = connectionAdapter;
+        mCacheTtl = cacheTtl;
+        mFetchSize = fetchSize;
+        mLimit = limit;
+        mOffset = offset;
+        mConditions = conditions;
+        mConditionsArguments = conditionsArguments;
+        mJoins = joins;
+        mOrder = order;
+        mSelect = select;
+        mIncludes = includes;
+
+        // Clauses that do not change the structure keep the fingerprint.
+        if (activeRelation.mConditions == conditions && activeRelation.mJoins == joins && activeRelation.mOrder == order
+                && activeRelation.mSelect == select && equal(activeRelation.mLimit, limit) && equal(activeRelation.mOffset, offset)) {
+            mFingerprint = activeRelation.mFingerprint;
+        }
+    }
+
+    private static boolean equal(Integer first, Integer second) {
+        return first == null ? second == null : first.equals(second);
+    }
+
+    /**
+     * Returns a relation that may be refined without changing this relation,
+     * which is this relation itself, as relations are immutable.
+     *
+     * @return This relation.
+     * @deprecated Relations are immutable, there is no need to copy them.
+     */
+    @Deprecated
+    public ActiveRelation spawn() {
+        return this;
+    }
 
     /**
-     * Returns the current connection adapter for this ActiveRelation.
+     * Returns the connection adapter of this relation, or the current adapter
+     * of {@link ActiveRecord} if it has none.
      *
-     * @return The current ConnectionAdapter of this object.
+     * @return The ConnectionAdapter this relation runs on.
      */
     public AbstractAdapter getConnectionAdapter() {
-        if (mConnectionAdapter != null) {
-            return mConnectionAdapter;
+        AbstractAdapter connectionAdapter = mConnectionAdapter != null ? mConnectionAdapter : ActiveRecord.getConnectionAdapter();
+        if (connectionAdapter != null) {
+            return connectionAdapter;
         } else {
             throw new RuntimeException("Database adapter not configured for ActiveRelation.");
         }
     }
 
-    public void setConnectionAdapter(AbstractAdapter connectionAdapter) {
-        mConnectionAdapter = connectionAdapter;
+    /**
+     * Returns a relation like this one that runs on the given adapter.
+     *
+     * @param connectionAdapter The connection adapter, or null for the
+     *                          current adapter of {@link ActiveRecord}.
+     * @return A new relation.
+     */
+    public ActiveRelation withConnectionAdapter(AbstractAdapter connectionAdapter) {
+        return new ActiveRelation(this, connectionAdapter, mCacheTtl, mFetchSize, mLimit, mOffset, mConditions,
+                mConditionsArguments, mJoins, mOrder, mSelect, mIncludes);
+    }
+
+    /**
+     * Returns how long the records of this relation may be cached.
+     *
+     * @param unit The unit of the returned time to live.
+     * @return The time to live, or null if the relation is not cached.
+     */
+    public Long getCacheTtl(TimeUnit unit) {
+        return mCacheTtl == null ? null : unit.convert(mCacheTtl, TimeUnit.NANOSECONDS);
+    }
+
+    public Boolean isCached() {
+        return mCacheTtl != null;
     }
 
     public Integer getLimit() {
@@ -45,6 +156,14 @@ public class ActiveRelation {
         return getLimit() != null;
     }
 
+    public Integer getFetchSize() {
+        return mFetchSize;
+    }
+
+    public Boolean hasFetchSize() {
+        return getFetchSize() != null;
+    }
+
     public Integer getOffset() {
         return mOffset;
     }
@@ -53,10 +172,10 @@ public class ActiveRelation {
         return getOffset() != null;
     }
 
+    /**
+     * @return The conditions of the relation, which cannot be changed.
+     */
     public List<String> getConditions() {
-        if (mConditions == null) {
-            mConditions = new ArrayList<String>();
-        }
         return mConditions;
     }
 
@@ -64,10 +183,11 @@ public class ActiveRelation {
         return !getConditions().isEmpty();
     }
 
+    /**
+     * @return The arguments of the conditions of the relation, which cannot
+     * be changed.
+     */
     public List<Object> getConditionsArguments() {
-        if (mConditionsArguments == null) {
-            mConditionsArguments = new ArrayList<Object>();
-        }
         return mConditionsArguments;
     }
 
@@ -75,10 +195,10 @@ public class ActiveRelation {
         return !getConditionsArguments().isEmpty();
     }
 
+    /**
+     * @return The joins of the relation, which cannot be changed.
+     */
     public List<String> getJoins() {
-        if (mJoins == null) {
-            mJoins = new ArrayList<String>();
-        }
         return mJoins;
     }
 
@@ -86,10 +206,10 @@ public class ActiveRelation {
         return !getJoins().isEmpty();
     }
 
+    /**
+     * @return The order of the relation, which cannot be changed.
+     */
     public List<String> getOrder() {
-        if (mOrder == null) {
-            mOrder = new ArrayList<String>();
-        }
         return mOrder;
     }
 
@@ -97,10 +217,10 @@ public class ActiveRelation {
         return !getOrder().isEmpty();
     }
 
+    /**
+     * @return The selected fields of the relation, which cannot be changed.
+     */
     public List<String> getSelect() {
-        if (mSelect == null) {
-            mSelect = new ArrayList<String>();
-        }
         return mSelect;
     }
 
@@ -108,43 +228,164 @@ public class ActiveRelation {
         return !getSelect().isEmpty();
     }
 
+    /**
+     * @return The associations preloaded by the relation, which cannot be
+     * changed.
+     */
+    public List<String> getIncludes() {
+        return mIncludes;
+    }
+
+    public Boolean hasIncludes() {
+        return !getIncludes().isEmpty();
+    }
+
+    /**
+     * Returns a structural fingerprint of the relation, made of its select,
+     * joins, conditions, order, limit and offset but not of the arguments of
+     * its conditions. Relations with equal fingerprints generate the same SQL
+     * for the same model, so adapters may use it to cache the generated SQL:
+     * <pre>{@code
+     * ActiveRecord.where("id = ?", 1).getFingerprint()
+     *         .equals(ActiveRecord.where("id = ?", 2).getFingerprint()) == true
+     * ActiveRecord.where("id = ?", 1).getFingerprint()
+     *         .equals(ActiveRecord.where("id = 1").getFingerprint()) == false
+     * }</pre>
+     * The fingerprint is computed once per relation and shared by the
+     * relations derived from it that only differ in their arguments, fetch
+     * size, caching or preloaded associations.
+     *
+     * @return The fingerprint of the relation.
+     */
+    public Fingerprint getFingerprint() {
+        Fingerprint fingerprint = mFingerprint;
+        if (fingerprint == null) {
+            fingerprint = new Fingerprint(this);
+            mFingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Stores the records of this relation in the query cache of the adapter,
+     * shared by every thread, and reads them from there for as long as the
+     * time to live, unless a write through the adapter touches the tables of
+     * the relation first. Meant for reads of tables that seldom change:
+     * <pre>{@code
+     * List<Country> countries = ActiveRecord.order("name").cached(10, TimeUnit.MINUTES).all(Country.class);
+     * }</pre>
+     * Every caller gets its own copies of the cached records, which it may
+     * change without changing them for the others.
+     *
+     * @param ttl  How long the records may be cached.
+     * @param unit The unit of the time to live.
+     * @return A new relation whose records are cached.
+     */
+    public ActiveRelation cached(long ttl, TimeUnit unit) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("The time to live must be positive.");
+        }
+
+        return new ActiveRelation(this, mConnectionAdapter, unit.toNanos(ttl), mFetchSize, mLimit, mOffset, mConditions,
+                mConditionsArguments, mJoins, mOrder, mSelect, mIncludes);
+    }
+
+    /**
+     * Joins the relation with another table, given either the name of an
+     * association of the model, which is joined with an INNER JOIN by its
+     * conventional keys, or a join clause:
+     * <pre>{@code
+     * ActiveRecord.joins("posts").where("posts.published = ?", true).all(User.class);
+     * ActiveRecord.joins("LEFT JOIN posts ON posts.user_id = users.id").all(User.class);
+     * }</pre>
+     * Without a select, only the columns of the table of the model are
+     * retrieved.
+     *
+     * @param joins The association name or join clause.
+     * @return A new relation with the join.
+     */
     public ActiveRelation joins(String joins) {
-        throw new UnsupportedOperationException("Not implemented yet");
+        return new ActiveRelation(this, mConnectionAdapter, mCacheTtl, mFetchSize, mLimit, mOffset, mConditions,
+                mConditionsArguments, mJoins.append(joins), mOrder, mSelect, mIncludes);
+    }
+
+    /**
+     * Preloads associations of the records retrieved, with one query per
+     * association rather than one per record:
+     * <pre>{@code
+     * // SELECT * FROM users LIMIT 20
+     * // SELECT * FROM posts WHERE user_id IN (?, ?, ...) ORDER BY id
+     * List<User> users = ActiveRecord.includes("posts").limit(20).all(User.class);
+     * }</pre>
+     * Associations are preloaded by all, first, last and the batches of
+     * {@link #findInBatches}, but not by cursors.
+     *
+     * @param associations The names of the associations.
+     * @return A new relation with the associations to preload.
+     * @see tech.arauk.ark.activerecord.connectionadapters.RecordMapping.Association
+     */
+    public ActiveRelation includes(String... associations) {
+        return new ActiveRelation(this, mConnectionAdapter, mCacheTtl, mFetchSize, mLimit, mOffset, mConditions,
+                mConditionsArguments, mJoins, mOrder, mSelect, mIncludes.appendAll(associations));
+    }
+
+    /**
+     * Sets the number of rows fetched from the database at a time by the
+     * cursors of the relation. It does not change the records retrieved.
+     *
+     * @param fetchSize The number of rows fetched at a time.
+     * @return A new relation with the fetch size.
+     */
+    public ActiveRelation fetchSize(Integer fetchSize) {
+        return new ActiveRelation(this, mConnectionAdapter, mCacheTtl, fetchSize, mLimit, mOffset, mConditions,
+                mConditionsArguments, mJoins, mOrder, mSelect, mIncludes);
     }
 
     public ActiveRelation limit(Integer limit) {
-        mLimit = limit;
-        return this;
+        return new ActiveRelation(this, mConnectionAdapter, mCacheTtl, mFetchSize, limit, mOffset, mConditions,
+                mConditionsArguments, mJoins, mOrder, mSelect, mIncludes);
     }
 
     public ActiveRelation offset(Integer offset) {
-        mOffset = offset;
-        return this;
+        return new ActiveRelation(this, mConnectionAdapter, mCacheTtl, mFetchSize, mLimit, offset, mConditions,
+                mConditionsArguments, mJoins, mOrder, mSelect, mIncludes);
     }
 
     public ActiveRelation order(String order) {
-        getOrder().add(order);
-        return this;
+        return new ActiveRelation(this, mConnectionAdapter, mCacheTtl, mFetchSize, mLimit, mOffset, mConditions,
+                mConditionsArguments, mJoins, mOrder.append(order), mSelect, mIncludes);
     }
 
     public ActiveRelation reorder(String order) {
-        getOrder().clear();
-        return this.order(order);
+        return new ActiveRelation(this, mConnectionAdapter, mCacheTtl, mFetchSize, mLimit, mOffset, mConditions,
+                mConditionsArguments, mJoins, ClauseList.<String>empty().append(order), mSelect, mIncludes);
     }
 
     public ActiveRelation select(String... fields) {
-        for (String field : fields) {
-            getSelect().add(field);
-        }
-        return this;
+        return new ActiveRelation(this, mConnectionAdapter, mCacheTtl, mFetchSize, mLimit, mOffset, mConditions,
+                mConditionsArguments, mJoins, mOrder, mSelect.appendAll(fields), mIncludes);
     }
 
     public ActiveRelation where(String conditions, Object... arguments) {
-        getConditions().add(conditions);
-        for (Object argument : arguments) {
-            getConditionsArguments().add(argument);
-        }
-        return this;
+        return new ActiveRelation(this, mConnectionAdapter, mCacheTtl, mFetchSize, mLimit, mOffset, mConditions.append(conditions),
+                mConditionsArguments.appendAll(arguments), mJoins, mOrder, mSelect, mIncludes);
+    }
+
+    /**
+     * Returns a relation like this one whose conditions take the given
+     * arguments instead of their current ones. It keeps the fingerprint of
+     * this relation, so the SQL generated for it is the same:
+     * <pre>{@code
+     * ActiveRelation byName = ActiveRecord.where("name = ?");
+     * User john = byName.withArguments("John").first(User.class);
+     * }</pre>
+     *
+     * @param arguments The arguments of every condition, in order.
+     * @return A new relation with the arguments.
+     */
+    public ActiveRelation withArguments(Object... arguments) {
+        return new ActiveRelation(this, mConnectionAdapter, mCacheTtl, mFetchSize, mLimit, mOffset, mConditions,
+                ClauseList.empty().appendAll(arguments), mJoins, mOrder, mSelect, mIncludes);
     }
 
     public <T extends ActiveRecord> List<T> all(Class<T> type) {
@@ -167,7 +408,308 @@ public class ActiveRelation {
         return getConnectionAdapter().last(this, type, limit);
     }
 
+    /**
+     * Opens a cursor over the records of this relation, which fetches them
+     * from the database as they are iterated.
+     *
+     * @param type The class to be used for instantiating the results.
+     * @return A cursor over the records, which must be closed unless it is
+     * read to the end.
+     * @see Cursor
+     */
+    public <T extends ActiveRecord> Cursor<T> cursor(Class<T> type) {
+        return getConnectionAdapter().cursor(this, type);
+    }
+
+    /**
+     * Passes every record of this relation to the callback, one at a time,
+     * without loading them all in memory.
+     *
+     * @param type     The class to be used for instantiating the results.
+     * @param callback The callback called for every record.
+     */
+    public <T extends ActiveRecord> void each(Class<T> type, RecordCallback<? super T> callback) {
+        getConnectionAdapter().each(this, type, callback);
+    }
+
+    /**
+     * Passes the records of this relation to the callback in batches of
+     * {@link #DEFAULT_BATCH_SIZE} records.
+     *
+     * @param type     The class to be used for instantiating the results.
+     * @param callback The callback called for every batch.
+     * @see #findInBatches(Class, int, BatchCallback)
+     */
+    public <T extends ActiveRecord> void findInBatches(Class<T> type, BatchCallback<T> callback) {
+        findInBatches(type, DEFAULT_BATCH_SIZE, callback);
+    }
+
+    /**
+     * Passes the records of this relation to the callback in batches, ordered
+     * by primary key. Each batch is fetched by its own query, starting after
+     * the primary key of the last record of the previous batch instead of
+     * skipping the previous records with an offset, so every batch costs the
+     * same however deep into the table it is:
+     * <pre>{@code
+     * SELECT * FROM users WHERE (age > ?) ORDER BY id ASC LIMIT 500
+     * SELECT * FROM users WHERE (age > ?) AND (id > ?) ORDER BY id ASC LIMIT 500
+     * }</pre>
+     * The relation may only be ordered by its primary key, ascending or
+     * descending, and may not have an offset. Its limit, if any, caps the
+     * total number of records.
+     *
+     * @param type      The class to be used for instantiating the results.
+     * @param batchSize The maximum number of records of each batch.
+     * @param callback  The callback called for every batch.
+     * @throws IllegalStateException If the relation is ordered by something
+     *                               else than its primary key or has an
+     *                               offset.
+     */
+    public <T extends ActiveRecord> void findInBatches(Class<T> type, int batchSize, BatchCallback<T> callback) {
+        getConnectionAdapter().findInBatches(this, type, batchSize, callback);
+    }
+
+    /**
+     * Passes every record of this relation to the callback, fetching them in
+     * batches of {@link #DEFAULT_BATCH_SIZE} records.
+     *
+     * @param type     The class to be used for instantiating the results.
+     * @param callback The callback called for every record.
+     * @see #findInBatches(Class, int, BatchCallback)
+     */
+    public <T extends ActiveRecord> void findEach(Class<T> type, RecordCallback<? super T> callback) {
+        findEach(type, DEFAULT_BATCH_SIZE, callback);
+    }
+
+    /**
+     * Passes every record of this relation to the callback, fetching them in
+     * batches.
+     *
+     * @param type      The class to be used for instantiating the results.
+     * @param batchSize The maximum number of records fetched at once.
+     * @param callback  The callback called for every record.
+     * @see #findInBatches(Class, int, BatchCallback)
+     */
+    public <T extends ActiveRecord> void findEach(Class<T> type, int batchSize, final RecordCallback<? super T> callback) {
+        findInBatches(type, batchSize, new BatchCallback<T>() {
+            @Override
+            public void call(List<T> records) {
+                for (T record : records) {
+                    callback.call(record);
+                }
+            }
+        });
+    }
+
+    /**
+     * Counts the records of the relation in the database, without retrieving
+     * them:
+     * <pre>{@code
+     * long adults = ActiveRecord.where("age >= ?", 18).count(User.class);
+     * }</pre>
+     *
+     * @param type The model class.
+     * @return The number of records.
+     */
+    public <T extends ActiveRecord> long count(Class<T> type) {
+        return getConnectionAdapter().count(this, type);
+    }
+
+    /**
+     * Checks whether the relation has any record, retrieving at most one row
+     * and no record.
+     *
+     * @param type The model class.
+     * @return Whether there is a record.
+     */
+    public <T extends ActiveRecord> boolean exists(Class<T> type) {
+        return getConnectionAdapter().exists(this, type);
+    }
+
+    /**
+     * Sums a column of the records of the relation in the database.
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The sum, of the type returned by the driver, or 0 if there is
+     * no record.
+     */
+    public <T extends ActiveRecord> Number sum(Class<T> type, String column) {
+        return getConnectionAdapter().sum(this, type, column);
+    }
+
+    /**
+     * Finds the minimum of a column of the records of the relation in the
+     * database.
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The minimum, of the type returned by the driver, or null if
+     * there is no record.
+     */
+    public <T extends ActiveRecord> Object min(Class<T> type, String column) {
+        return getConnectionAdapter().min(this, type, column);
+    }
+
+    /**
+     * Finds the maximum of a column of the records of the relation in the
+     * database.
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The maximum, of the type returned by the driver, or null if
+     * there is no record.
+     */
+    public <T extends ActiveRecord> Object max(Class<T> type, String column) {
+        return getConnectionAdapter().max(this, type, column);
+    }
+
+    /**
+     * Averages a column of the records of the relation in the database.
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The average, or null if there is no record.
+     */
+    public <T extends ActiveRecord> Double average(Class<T> type, String column) {
+        return getConnectionAdapter().average(this, type, column);
+    }
+
+    /**
+     * Retrieves a column of the records of the relation, in the order of the
+     * relation, without instantiating the records:
+     * <pre>{@code
+     * List<Object> names = ActiveRecord.order("name").pluck(User.class, "name");
+     * }</pre>
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The values of the column, as returned by the driver.
+     */
+    public <T extends ActiveRecord> List<Object> pluck(Class<T> type, String column) {
+        return getConnectionAdapter().pluck(this, type, column);
+    }
+
+    /**
+     * Retrieves a numeric column of the records of the relation as long
+     * values, in the order of the relation, without instantiating the records
+     * or boxing the values. Columns with null values are rejected, as they
+     * would be indistinguishable from 0.
+     * <pre>{@code
+     * LongArray ids = ActiveRecord.where("active = ?", true).order("id").pluckLongs(User.class, "id");
+     * }</pre>
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The values of the column.
+     * @throws ActiveRecordException If the column has a null value.
+     */
+    public <T extends ActiveRecord> LongArray pluckLongs(Class<T> type, String column) {
+        return getConnectionAdapter().pluckLongs(this, type, column);
+    }
+
+    /**
+     * Retrieves a numeric column of the records of the relation as int
+     * values, in the order of the relation, without instantiating the records
+     * or boxing the values. Columns with null values are rejected, as they
+     * would be indistinguishable from 0.
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The values of the column.
+     * @throws ActiveRecordException If the column has a null value.
+     */
+    public <T extends ActiveRecord> IntArray pluckInts(Class<T> type, String column) {
+        return getConnectionAdapter().pluckInts(this, type, column);
+    }
+
+    /**
+     * Retrieves a numeric column of the records of the relation as double
+     * values, in the order of the relation, without instantiating the records
+     * or boxing the values. Columns with null values are rejected, as they
+     * would be indistinguishable from 0.
+     *
+     * @param type   The model class.
+     * @param column The column, or an SQL expression.
+     * @return The values of the column.
+     * @throws ActiveRecordException If the column has a null value.
+     */
+    public <T extends ActiveRecord> DoubleArray pluckDoubles(Class<T> type, String column) {
+        return getConnectionAdapter().pluckDoubles(this, type, column);
+    }
+
     public <T extends ActiveRecord> String toSQL(Class<T> type) {
         return getConnectionAdapter().toSQL(this, type);
     }
+
+    /**
+     * An immutable snapshot of the structure of an {@link ActiveRelation}.
+     *
+     * @see ActiveRelation#getFingerprint()
+     */
+    public static final class Fingerprint {
+        private static final String[] EMPTY = new String[0];
+        private final String[] mSelect;
+        private final String[] mJoins;
+        private final String[] mConditions;
+        private final String[] mOrder;
+        private final Integer mLimit;
+        private final Integer mOffset;
+        private final int mHashCode;
+
+        private Fingerprint(ActiveRelation activeRelation) {
+            mSelect = toArray(activeRelation.mSelect);
+            mJoins = toArray(activeRelation.mJoins);
+            mConditions = toArray(activeRelation.mConditions);
+            mOrder = toArray(activeRelation.mOrder);
+            mLimit = activeRelation.mLimit;
+            mOffset = activeRelation.mOffset;
+
+            int hashCode = Arrays.hashCode(mSelect);
+            hashCode = 31 * hashCode + Arrays.hashCode(mJoins);
+            hashCode = 31 * hashCode + Arrays.hashCode(mConditions);
+            hashCode = 31 * hashCode + Arrays.hashCode(mOrder);
+            hashCode = 31 * hashCode + (mLimit == null ? 0 : mLimit.hashCode());
+            hashCode = 31 * hashCode + (mOffset == null ? 0 : mOffset.hashCode());
+            mHashCode = hashCode;
+        }
+
+        private static String[] toArray(List<String> list) {
+            if (list == null || list.isEmpty()) {
+                return EMPTY;
+            }
+            return list.toArray(new String[list.size()]);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof Fingerprint)) {
+                return false;
+            }
+
+            Fingerprint fingerprint = (Fingerprint) object;
+            return mHashCode == fingerprint.mHashCode
+                    && Arrays.equals(mConditions, fingerprint.mConditions)
+                    && Arrays.equals(mSelect, fingerprint.mSelect)
+                    && Arrays.equals(mJoins, fingerprint.mJoins)
+                    && Arrays.equals(mOrder, fingerprint.mOrder)
+                    && (mLimit == null ? fingerprint.mLimit == null : mLimit.equals(fingerprint.mLimit))
+                    && (mOffset == null ? fingerprint.mOffset == null : mOffset.equals(fingerprint.mOffset));
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+
+        @Override
+        public String toString() {
+            return "Fingerprint{select=" + Arrays.toString(mSelect) + ", joins=" + Arrays.toString(mJoins)
+                    + ", conditions=" + Arrays.toString(mConditions) + ", order=" + Arrays.toString(mOrder)
+                    + ", limit=" + mLimit + ", offset=" + mOffset + "}";
+        }
+    }
 }
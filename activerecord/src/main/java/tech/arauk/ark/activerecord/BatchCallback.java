@@ -0,0 +1,22 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.List;
+
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * Receives the records of a query in batches.
+ * <pre>{@code
+ * ActiveRecord.where("age > ?", 18).findInBatches(User.class, 500, new BatchCallback<User>() {
+ *     public void call(List<User> users) {
+ *         // ...
+ *     }
+ * });
+ * }</pre>
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public interface BatchCallback<T extends ActiveRecord> {
+    void call(List<T> records);
+}
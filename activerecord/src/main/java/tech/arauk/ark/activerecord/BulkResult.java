@@ -0,0 +1,74 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.concurrent.TimeUnit;
+
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * The outcome of a bulk write, such as {@link ActiveRecord#insertAll}, with
+ * the figures needed to monitor its throughput:
+ * <pre>{@code
+ * BulkResult result = ActiveRecord.insertAll(users);
+ * logger.info(result.getRowCount() + " rows at " + result.getRowsPerSecond() + " rows/s");
+ * }</pre>
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public final class BulkResult {
+    private final int mRowCount;
+    private final int mUpdateCount;
+    private final int mBatchCount;
+    private final long mElapsedNanos;
+
+    public BulkResult(int rowCount, int updateCount, int batchCount, long elapsedNanos) {
+        mRowCount = rowCount;
+        mUpdateCount = updateCount;
+        mBatchCount = batchCount;
+        mElapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return The number of records written.
+     */
+    public int getRowCount() {
+        return mRowCount;
+    }
+
+    /**
+     * @return The number of rows the database reported as changed, which
+     * depends on the database for upserts and is 0 for drivers that do not
+     * report it.
+     */
+    public int getUpdateCount() {
+        return mUpdateCount;
+    }
+
+    /**
+     * @return The number of batches sent to the database.
+     */
+    public int getBatchCount() {
+        return mBatchCount;
+    }
+
+    public long getElapsedTime(TimeUnit unit) {
+        return unit.convert(mElapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return The number of records written per second, including the time
+     * spent committing.
+     */
+    public double getRowsPerSecond() {
+        if (mElapsedNanos <= 0) {
+            return 0;
+        }
+        return mRowCount * (double) TimeUnit.SECONDS.toNanos(1) / mElapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResult{rows=" + mRowCount + ", updates=" + mUpdateCount + ", batches=" + mBatchCount
+                + ", elapsed=" + getElapsedTime(TimeUnit.MILLISECONDS) + "ms, rowsPerSecond=" + Math.round(getRowsPerSecond()) + "}";
+    }
+}
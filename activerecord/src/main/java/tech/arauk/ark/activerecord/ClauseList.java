@@ -0,0 +1,87 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list that grows by returning a new list, which shares every
+ * previous element with the list it was appended to:
+ * <pre>{@code
+ * ClauseList<String> base = ClauseList.<String>empty().append("age > ?");
+ * ClauseList<String> first = base.append("id = ?");   // shares "age > ?"
+ * ClauseList<String> second = base.append("name = ?"); // shares it too
+ * }</pre>
+ * Appending allocates a single node. The elements are copied into an array
+ * the first time they are read by index, once per list.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+final class ClauseList<E> extends AbstractList<E> implements RandomAccess {
+    private static final Object[] NO_ELEMENTS = new Object[0];
+    private static final ClauseList<Object> EMPTY = new ClauseList<>(null, null, 0);
+    private final ClauseList<E> mPrevious;
+    private final E mLast;
+    private final int mSize;
+    // Threads racing to copy the elements compute the same array.
+    private volatile Object[] mElements;
+
+    private ClauseList(ClauseList<E> previous, E last, int size) {
+        mPrevious = previous;
+        mLast = last;
+        mSize = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> ClauseList<E> empty() {
+        return (ClauseList<E>) EMPTY;
+    }
+
+    ClauseList<E> append(E element) {
+        return new ClauseList<>(this, element, mSize + 1);
+    }
+
+    @SafeVarargs
+    final ClauseList<E> appendAll(E... elements) {
+        ClauseList<E> list = this;
+        for (E element : elements) {
+            list = list.append(element);
+        }
+        return list;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+        if (index == mSize - 1) {
+            return mLast;
+        }
+        return (E) elements()[index];
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return elements().clone();
+    }
+
+    private Object[] elements() {
+        Object[] elements = mElements;
+        if (elements == null) {
+            elements = mSize == 0 ? NO_ELEMENTS : new Object[mSize];
+            ClauseList<E> list = this;
+            for (int i = mSize - 1; i >= 0; i--) {
+                elements[i] = list.mLast;
+                list = list.mPrevious;
+            }
+            mElements = elements;
+        }
+        return elements;
+    }
+}
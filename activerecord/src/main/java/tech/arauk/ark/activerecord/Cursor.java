@@ -0,0 +1,32 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.Iterator;
+
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * Iterates over the records of a query one at a time, fetching the rows from
+ * the database in batches as it goes, so the memory used does not depend on
+ * the number of records:
+ * <pre>{@code
+ * try (Cursor<User> users = ActiveRecord.where("age > ?", 18).cursor(User.class)) {
+ *     for (User user : users) {
+ *         // ...
+ *     }
+ * }
+ * }</pre>
+ * A cursor holds a database connection until it is closed. It is closed
+ * automatically once every record was read, but must be closed explicitly
+ * when the iteration stops early. A cursor may only be iterated once.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public interface Cursor<T extends ActiveRecord> extends Iterator<T>, Iterable<T>, AutoCloseable {
+    /**
+     * Releases the result set, the statement and the connection of the cursor.
+     * Calling it more than once has no effect.
+     */
+    @Override
+    void close();
+}
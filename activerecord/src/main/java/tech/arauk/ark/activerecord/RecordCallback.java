@@ -0,0 +1,20 @@
+package tech.arauk.ark.activerecord;
+
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * Receives the records of a query one at a time.
+ * <pre>{@code
+ * ActiveRecord.where("age > ?", 18).each(User.class, new RecordCallback<User>() {
+ *     public void call(User user) {
+ *         // ...
+ *     }
+ * });
+ * }</pre>
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public interface RecordCallback<T extends ActiveRecord> {
+    void call(T record);
+}
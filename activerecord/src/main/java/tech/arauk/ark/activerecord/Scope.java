@@ -0,0 +1,165 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import tech.arauk.ark.activerecord.connectionadapters.AbstractAdapter;
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * A named relation of a model, declared once with a placeholder for each
+ * argument of its conditions and run with only those arguments:
+ * <pre>{@code
+ * public class User extends ActiveRecord {
+ *     public static final Scope<User> ADULTS_IN = ActiveRecord.scope(User.class, "adultsIn",
+ *             ActiveRecord.where("age >= ?").where("city = ?").order("name"));
+ * }
+ *
+ * List<User> users = User.ADULTS_IN.all(18, "Porto Alegre");
+ * }</pre>
+ * The SQL of a scope is generated and validated by the database once per
+ * connection adapter, on {@link ActiveRecord#compileScopes()} at startup or
+ * on the first run of the scope, so a run only binds its arguments. Table
+ * names are derived from the inflections, which must be set up before.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public final class Scope<T extends ActiveRecord> {
+    private final Class<T> mType;
+    private final String mName;
+    private final ActiveRelation mRelation;
+    private final ConcurrentHashMap<AbstractAdapter, Compiled> mCompiled;
+    private volatile Compiled mLastCompiled;
+
+    Scope(Class<T> type, String name, ActiveRelation relation) {
+        if (relation.hasConditionsArguments()) {
+            throw new IllegalArgumentException("The scope " + name + " must take its arguments when it runs.");
+        }
+
+        mType = type;
+        mName = name;
+        mRelation = relation;
+        mCompiled = new ConcurrentHashMap<>();
+    }
+
+    public Class<T> getType() {
+        return mType;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public ActiveRelation getRelation() {
+        return mRelation;
+    }
+
+    /**
+     * @return The SQL run by {@link #all(Object...)} on the connection
+     * adapter of the scope.
+     */
+    public String getSQL() {
+        return compile(mRelation.getConnectionAdapter()).mSQL;
+    }
+
+    /**
+     * Retrieves the records of the scope.
+     *
+     * @param arguments The arguments of the conditions, in order.
+     * @return The records retrieved.
+     */
+    public List<T> all(Object... arguments) {
+        Compiled compiled = compile(mRelation.getConnectionAdapter());
+        compiled.checkArguments(compiled.mParameterCount, arguments);
+
+        return compiled.mAdapter.all(mRelation.withArguments(arguments), mType, compiled.mSQL);
+    }
+
+    /**
+     * Finds the first record of the scope. If the scope has no order it will
+     * order by primary key.
+     *
+     * @param arguments The arguments of the conditions, in order.
+     * @return The first record, or null if there is none.
+     */
+    public T first(Object... arguments) {
+        Compiled compiled = compile(mRelation.getConnectionAdapter());
+        compiled.checkArguments(compiled.mFirstParameterCount, arguments);
+
+        List<T> records = compiled.mAdapter.all(compiled.mFirstRelation.withArguments(arguments), mType, compiled.mFirstSQL);
+        return records.isEmpty() ? null : records.get(0);
+    }
+
+    /**
+     * Generates and validates the SQL of the scope on its connection adapter,
+     * unless it already was.
+     *
+     * @throws ActiveRecordException If the database does not accept it.
+     */
+    public void compile() {
+        compile(mRelation.getConnectionAdapter());
+    }
+
+    private Compiled compile(AbstractAdapter connectionAdapter) {
+        Compiled compiled = mLastCompiled;
+        if (compiled != null && compiled.mAdapter == connectionAdapter) {
+            return compiled;
+        }
+
+        compiled = mCompiled.get(connectionAdapter);
+        if (compiled == null) {
+            try {
+                compiled = new Compiled(connectionAdapter);
+            } catch (ActiveRecordException acReEx) {
+                throw new ActiveRecordException("Invalid scope " + mName + " of " + mType.getSimpleName() + ".", acReEx);
+            }
+
+            Compiled previous = mCompiled.putIfAbsent(connectionAdapter, compiled);
+            if (previous != null) {
+                compiled = previous;
+            }
+        }
+
+        mLastCompiled = compiled;
+        return compiled;
+    }
+
+    @Override
+    public String toString() {
+        return mType.getSimpleName() + "." + mName;
+    }
+
+    /**
+     * The SQL of a scope on one connection adapter.
+     */
+    private final class Compiled {
+        final AbstractAdapter mAdapter;
+        final String mSQL;
+        final int mParameterCount;
+        final ActiveRelation mFirstRelation;
+        final String mFirstSQL;
+        final int mFirstParameterCount;
+
+        Compiled(AbstractAdapter connectionAdapter) {
+            mAdapter = connectionAdapter;
+            mSQL = connectionAdapter.toSQL(mRelation, mType);
+            mParameterCount = connectionAdapter.validate(mSQL);
+
+            ActiveRelation firstRelation = mRelation;
+            if (!firstRelation.hasOrder()) {
+                firstRelation = firstRelation.order(connectionAdapter.getPrimaryKey(mType) + " ASC");
+            }
+            mFirstRelation = firstRelation.limit(1);
+            mFirstSQL = connectionAdapter.toSQL(mFirstRelation, mType);
+            mFirstParameterCount = connectionAdapter.validate(mFirstSQL);
+        }
+
+        void checkArguments(int parameterCount, Object[] arguments) {
+            if (parameterCount >= 0 && arguments.length != parameterCount) {
+                throw new IllegalArgumentException("The scope " + Scope.this + " takes " + parameterCount
+                        + " arguments, " + arguments.length + " given.");
+            }
+        }
+    }
+}
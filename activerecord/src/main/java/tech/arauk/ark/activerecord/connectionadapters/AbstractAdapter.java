@@ -1,11 +1,26 @@
 package tech.arauk.ark.activerecord.connectionadapters;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import tech.arauk.ark.activerecord.ActiveRecord;
+import tech.arauk.ark.activerecord.ActiveRecordException;
 import tech.arauk.ark.activerecord.ActiveRelation;
+import tech.arauk.ark.activerecord.BatchCallback;
+import tech.arauk.ark.activerecord.BulkResult;
+import tech.arauk.ark.activerecord.Cursor;
+import tech.arauk.ark.activerecord.RecordCallback;
+import tech.arauk.ark.activesupport.Inflector;
 import tech.arauk.ark.activesupport.annotations.Beta;
+import tech.arauk.ark.activesupport.collections.DoubleArray;
+import tech.arauk.ark.activesupport.collections.IntArray;
+import tech.arauk.ark.activesupport.collections.LongArray;
 
 /**
  * An abstract class to expose a standardized database connection API.
@@ -37,20 +52,38 @@ public abstract class AbstractAdapter {
     public abstract void terminateConnection();
 
     /**
-     * Starts a transaction within the database connection.
+     * Starts a transaction within the database connection. The transaction
+     * belongs to the current thread, which must end it.
      */
     public abstract void beginTransaction();
 
     /**
-     * Sets the transaction as successful and commits all changes to the database.
+     * Sets the transaction of the current thread as successful and commits
+     * all changes to the database.
      */
     public abstract void commitTransaction();
 
     /**
-     * Sets the transaction as unsuccessful and cancel all changes to the database.
+     * Sets the transaction of the current thread as unsuccessful and cancel
+     * all changes to the database.
      */
     public abstract void rollbackTransaction();
 
+    /**
+     * Binds a database connection to the current thread, so the queries it
+     * runs until {@link #unbindConnection()} share it. Calls may nest.
+     * Adapters without connections of their own ignore it.
+     */
+    public void bindConnection() {
+    }
+
+    /**
+     * Releases the connection bound to the current thread by
+     * {@link #bindConnection()}.
+     */
+    public void unbindConnection() {
+    }
+
     /**
      * Fetch all records based on your ActiveRelation query.
      *
@@ -98,6 +131,546 @@ public abstract class AbstractAdapter {
      */
     public abstract <T extends ActiveRecord> List<T> last(ActiveRelation activeRelation, Class<T> type, Integer limit);
 
+    /**
+     * Opens a cursor over the records of your ActiveRelation query, which
+     * fetches them from the database as they are iterated instead of loading
+     * them all at once. Adapters that cannot stream records throw an
+     * UnsupportedOperationException.
+     *
+     * @param activeRelation The ActiveRelation instance.
+     * @param type           Model class type for query and returning objects.
+     * @return A cursor over the records, which must be closed unless it is
+     * read to the end.
+     */
+    public <T extends ActiveRecord> Cursor<T> cursor(ActiveRelation activeRelation, Class<T> type) {
+        throw new UnsupportedOperationException("This adapter does not support cursors.");
+    }
+
+    /**
+     * Passes every record of your ActiveRelation query to the callback, one at
+     * a time, through a {@link #cursor(ActiveRelation, Class) cursor}.
+     *
+     * @param activeRelation The ActiveRelation instance.
+     * @param type           Model class type for query and returning objects.
+     * @param callback       The callback called for every record.
+     */
+    public <T extends ActiveRecord> void each(ActiveRelation activeRelation, Class<T> type, RecordCallback<? super T> callback) {
+        Cursor<T> cursor = cursor(activeRelation, type);
+        try {
+            while (cursor.hasNext()) {
+                callback.call(cursor.next());
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Returns the name of the table holding the records of the given model.
+     *
+     * @param type The model class.
+     * @return The table name.
+     */
+    public String getTableName(Class<? extends ActiveRecord> type) {
+        return Inflector.tableize(type.getSimpleName());
+    }
+
+    /**
+     * Returns the primary key column of a model.
+     *
+     * @param type Model class type.
+     * @return The name of the primary key column, "id" by default.
+     */
+    public String getPrimaryKey(Class<? extends ActiveRecord> type) {
+        return "id";
+    }
+
+    /**
+     * Returns the primary key of a record. Adapters that cannot read it throw
+     * an UnsupportedOperationException.
+     *
+     * @param record The record.
+     * @return The value of the primary key of the record.
+     */
+    public Object getPrimaryKeyValue(ActiveRecord record) {
+        throw new UnsupportedOperationException("This adapter cannot read primary keys.");
+    }
+
+    /**
+     * Returns the foreign key column of an association. A model belongs to a
+     * record by a column of its own named after the association, and has many
+     * records by a column of theirs named after the model:
+     * <pre>{@code
+     * Post.mAuthor   -> posts.author_id
+     * User.mPosts    -> posts.user_id
+     * }</pre>
+     *
+     * @param type        Model class type declaring the association.
+     * @param association The association.
+     * @return The name of the foreign key column.
+     */
+    public String getForeignKey(Class<? extends ActiveRecord> type, RecordMapping.Association association) {
+        if (association.isCollection()) {
+            return Inflector.foreignKey(type.getSimpleName());
+        }
+        return Inflector.foreignKey(association.getName());
+    }
+
+    /**
+     * Loads associations of the records with one query per association, of
+     * the associated records whose keys are among the keys of the records,
+     * and assigns them to the records. Collections are ordered by primary
+     * key, and records without associated records get an empty list or null.
+     *
+     * @param records      The records, all of the given class.
+     * @param type         Model class type of the records.
+     * @param associations The names of the associations.
+     * @throws IllegalArgumentException If the model has no such association.
+     */
+    public <T extends ActiveRecord> void preload(List<T> records, Class<T> type, List<String> associations) {
+        RecordMapping<T> mapping = RecordMapping.of(type);
+
+        for (String name : associations) {
+            RecordMapping.Association association = mapping.getAssociation(name);
+            if (association == null) {
+                throw new IllegalArgumentException("Undefined association " + name + " of " + type.getSimpleName() + ".");
+            }
+
+            if (records.isEmpty()) {
+                continue;
+            }
+
+            if (association.isCollection()) {
+                preloadMany(records, type, association);
+            } else {
+                preloadOne(records, type, association);
+            }
+        }
+    }
+
+    private <T extends ActiveRecord> void preloadOne(List<T> records, Class<T> type, RecordMapping.Association association) {
+        RecordMapping.Attribute foreignKey = getForeignKeyAttribute(type, getForeignKey(type, association));
+
+        Set<Object> keys = new LinkedHashSet<>();
+        for (T record : records) {
+            Object key = foreignKey.get(record);
+            if (key != null) {
+                keys.add(IdentityMap.normalize(key));
+            }
+        }
+
+        Map<Object, ActiveRecord> associatedRecords = new HashMap<>();
+        for (ActiveRecord associatedRecord : findByKeys(association.getType(), getPrimaryKey(association.getType()), keys)) {
+            associatedRecords.put(IdentityMap.normalize(getPrimaryKeyValue(associatedRecord)), associatedRecord);
+        }
+
+        for (T record : records) {
+            Object key = foreignKey.get(record);
+            association.set(record, key == null ? null : associatedRecords.get(IdentityMap.normalize(key)));
+        }
+    }
+
+    private <T extends ActiveRecord> void preloadMany(List<T> records, Class<T> type, RecordMapping.Association association) {
+        String foreignKeyName = getForeignKey(type, association);
+        RecordMapping.Attribute foreignKey = getForeignKeyAttribute(association.getType(), foreignKeyName);
+
+        Set<Object> keys = new LinkedHashSet<>();
+        for (T record : records) {
+            Object key = getPrimaryKeyValue(record);
+            if (key != null) {
+                keys.add(IdentityMap.normalize(key));
+            }
+        }
+
+        Map<Object, List<ActiveRecord>> associatedRecords = new HashMap<>();
+        for (ActiveRecord associatedRecord : findByKeys(association.getType(), foreignKeyName, keys)) {
+            Object key = IdentityMap.normalize(foreignKey.get(associatedRecord));
+            List<ActiveRecord> list = associatedRecords.get(key);
+            if (list == null) {
+                list = new ArrayList<>();
+                associatedRecords.put(key, list);
+            }
+            list.add(associatedRecord);
+        }
+
+        for (T record : records) {
+            Object key = getPrimaryKeyValue(record);
+            List<ActiveRecord> list = key == null ? null : associatedRecords.get(IdentityMap.normalize(key));
+            association.set(record, list == null ? new ArrayList<>() : new ArrayList<>(list));
+        }
+    }
+
+    private static RecordMapping.Attribute getForeignKeyAttribute(Class<? extends ActiveRecord> type, String foreignKey) {
+        RecordMapping.Attribute attribute = RecordMapping.of(type).getAttribute(foreignKey);
+        if (attribute == null) {
+            throw new ActiveRecordException(type.getSimpleName() + " has no field for the foreign key " + foreignKey + ".");
+        }
+        return attribute;
+    }
+
+    /**
+     * Finds the records whose column holds one of the keys, with one query
+     * per batch of keys. The placeholders of a batch are padded to a power of
+     * two with its last key, so few distinct statements are generated.
+     */
+    private <T extends ActiveRecord> List<T> findByKeys(Class<T> type, String column, Collection<Object> keys) {
+        List<T> records = new ArrayList<>();
+        List<Object> batch = new ArrayList<>(keys);
+        int batchSize = getBatchSize();
+
+        for (int start = 0; start < batch.size(); start += batchSize) {
+            List<Object> arguments = new ArrayList<>(batch.subList(start, Math.min(start + batchSize, batch.size())));
+
+            int size = Math.min(Integer.highestOneBit(arguments.size() * 2 - 1), batchSize);
+            while (arguments.size() < size) {
+                arguments.add(arguments.get(arguments.size() - 1));
+            }
+
+            StringBuilder condition = new StringBuilder(column).append(" IN (");
+            for (int i = 0; i < arguments.size(); i++) {
+                condition.append(i > 0 ? ", ?" : "?");
+            }
+            condition.append(')');
+
+            ActiveRelation activeRelation = new ActiveRelation(this)
+                    .where(condition.toString(), arguments.toArray())
+                    .order(getPrimaryKey(type));
+            records.addAll(all(activeRelation, type));
+        }
+
+        return records;
+    }
+
+    /**
+     * Passes the records of your ActiveRelation query to the callback in
+     * batches, paginating over the primary key: every batch is fetched with a
+     * condition on the primary key of the last record of the previous batch
+     * instead of an offset.
+     *
+     * @param activeRelation The ActiveRelation instance.
+     * @param type           Model class type for query and returning objects.
+     * @param batchSize      The maximum number of records of each batch.
+     * @param callback       The callback called for every batch.
+     * @throws IllegalStateException If the relation is ordered by something
+     *                               else than the primary key or has an
+     *                               offset.
+     * @throws ActiveRecordException If the records are retrieved without
+     *                               their primary key.
+     */
+    public <T extends ActiveRecord> void findInBatches(ActiveRelation activeRelation, Class<T> type, int batchSize, BatchCallback<T> callback) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive.");
+        }
+        if (activeRelation.hasOffset()) {
+            throw new IllegalStateException("Batches are paginated by primary key and cannot be combined with an offset.");
+        }
+
+        // Qualified, as joined tables may have a column of the same name.
+        String primaryKey = getTableName(type) + "." + getPrimaryKey(type);
+        boolean descending = isOrderedDescending(activeRelation, getPrimaryKey(type));
+        String order = primaryKey + (descending ? " DESC" : " ASC");
+        String condition = primaryKey + (descending ? " < ?" : " > ?");
+
+        Integer remaining = activeRelation.getLimit();
+        Object lastPrimaryKey = null;
+
+        while (remaining == null || remaining > 0) {
+            int limit = remaining == null ? batchSize : Math.min(batchSize, remaining);
+
+            ActiveRelation batchRelation = activeRelation.reorder(order).limit(limit);
+            if (lastPrimaryKey != null) {
+                batchRelation = batchRelation.where(condition, lastPrimaryKey);
+            }
+
+            List<T> records = all(batchRelation, type);
+            if (records.isEmpty()) {
+                return;
+            }
+
+            boolean lastBatch = records.size() < limit || (remaining != null && remaining == records.size());
+            if (!lastBatch) {
+                lastPrimaryKey = getPrimaryKeyValue(records.get(records.size() - 1));
+                if (lastPrimaryKey == null) {
+                    throw new ActiveRecordException("Batches are paginated by primary key, but the records of "
+                            + type.getSimpleName() + " were retrieved without it.");
+                }
+            }
+
+            callback.call(records);
+
+            if (lastBatch) {
+                return;
+            }
+            if (remaining != null) {
+                remaining -= records.size();
+            }
+        }
+    }
+
+    private static boolean isOrderedDescending(ActiveRelation activeRelation, String primaryKey) {
+        if (!activeRelation.hasOrder()) {
+            return false;
+        }
+
+        List<String> order = activeRelation.getOrder();
+        if (order.size() == 1) {
+            String clause = order.get(0).trim().replaceAll("\\s+", " ").toLowerCase(Locale.ENGLISH);
+            String column = clause;
+            boolean descending = false;
+
+            if (clause.endsWith(" desc")) {
+                column = clause.substring(0, clause.length() - 5);
+                descending = true;
+            } else if (clause.endsWith(" asc")) {
+                column = clause.substring(0, clause.length() - 4);
+            }
+
+            String lowerCasedPrimaryKey = primaryKey.toLowerCase(Locale.ENGLISH);
+            if (column.equals(lowerCasedPrimaryKey) || column.endsWith("." + lowerCasedPrimaryKey)) {
+                return descending;
+            }
+        }
+
+        throw new IllegalStateException("Batches are ordered by primary key, but the relation is ordered by " + order + ".");
+    }
+
+    /**
+     * Returns the number of records bulk writes send to the database at once
+     * when no batch size is given.
+     *
+     * @return The default batch size of bulk writes.
+     */
+    public int getBatchSize() {
+        return ActiveRelation.DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Inserts the records in batches, within a single transaction. Adapters
+     * that cannot write records throw an UnsupportedOperationException.
+     *
+     * @param records   The records to insert, all of the same class.
+     * @param batchSize The maximum number of records of each batch.
+     * @return The outcome of the writes.
+     */
+    public <T extends ActiveRecord> BulkResult insertAll(Collection<T> records, int batchSize) {
+        throw new UnsupportedOperationException("This adapter does not support bulk inserts.");
+    }
+
+    /**
+     * Inserts the records in batches, within a single transaction, updating
+     * the rows that already exist with the same primary key instead. Adapters
+     * that cannot write records throw an UnsupportedOperationException.
+     *
+     * @param records   The records to insert or update, all of the same class
+     *                  and with a primary key.
+     * @param batchSize The maximum number of records of each batch.
+     * @return The outcome of the writes.
+     */
+    public <T extends ActiveRecord> BulkResult upsertAll(Collection<T> records, int batchSize) {
+        throw new UnsupportedOperationException("This adapter does not support bulk upserts.");
+    }
+
+    /**
+     * Counts the records of a relation in the database, without retrieving
+     * them. Adapters that cannot calculate throw an
+     * UnsupportedOperationException, as they do for every calculation.
+     *
+     * @param activeRelation The ActiveRelation instance.
+     * @param type           Model class type for query.
+     * @return The number of records.
+     */
+    public <T extends ActiveRecord> long count(ActiveRelation activeRelation, Class<T> type) {
+        throw new UnsupportedOperationException("This adapter does not support calculations.");
+    }
+
+    /**
+     * Checks whether a relation has any record, without retrieving it.
+     *
+     * @param activeRelation The ActiveRelation instance.
+     * @param type           Model class type for query.
+     * @return Whether there is a record.
+     */
+    public <T extends ActiveRecord> boolean exists(ActiveRelation activeRelation, Class<T> type) {
+        throw new UnsupportedOperationException("This adapter does not support calculations.");
+    }
+
+    /**
+     * Sums a column of the records of a relation in the database.
+     *
+     * @param activeRelation The ActiveRelation instance.
+     * @param type           Model class type for query.
+     * @param column         The column, or an SQL expression.
+     * @return The sum, of the type returned by the driver, or 0 if there is
+     * no record.
+     */
+    public <T extends ActiveRecord> Number sum(ActiveRelation activeRelation, Class<T> type, String column) {
+        throw new UnsupportedOperationException("This adapter does not support calculations.");
+    }
+
+    /**
+     * Finds the minimum of a column of the records of a relation in the
+     * database.
+     *
+     * @param activeRelation The ActiveRelation instance.
+     * @param type           Model class type for query.
+     * @param column         The column, or an SQL expression.
+     * @return The minimum, of the type returned by the driver, or null if
+     * there is no record.
+     */
+    public <T extends ActiveRecord> Object min(ActiveRelation activeRelation, Class<T> type, String column) {
+        throw new UnsupportedOperationException("This adapter does not support calculations.");
+    }
+
+    /**
+     * Finds the maximum of a column of the records of a relation in the
+     * database.
+     *
+     * @param activeRelation The ActiveRelation instance.
+     * @param type           Model class type for query.
+     * @param column         The column, or an SQL expression.
+     * @return The maximum, of the type returned by the driver, or null if
+     * there is no record.
+     */
+    public <T extends ActiveRecord> Object max(ActiveRelation activeRelation, Class<T> type, String column) {
+        throw new UnsupportedOperationException("This adapter does not support calculations.");
+    }
+
+    /**
+     * Averages a column of the records of a relation in the database.
+     *
+     * @param activeRelation The ActiveRelation instance.
+     * @param type           Model class type for query.
+     * @param column         The column, or an SQL expression.
+     * @return The average, or null if there is no record.
+     */
+    public <T extends ActiveRecord> Double average(ActiveRelation activeRelation, Class<T> type, String column) {
+        throw new UnsupportedOperationException("This adapter does not support calculations.");
+    }
+
+    /**
+     * Retrieves a column of the records of a relation, in the order of the
+     * relation, without instantiating the records.
+     *
+     * @param activeRelation The ActiveRelation instance.
+     * @param type           Model class type for query.
+     * @param column         The column, or an SQL expression.
+     * @return The values of the column, as returned by the driver.
+     */
+    public <T extends ActiveRecord> List<Object> pluck(ActiveRelation activeRelation, Class<T> type, String column) {
+        throw new UnsupportedOperationException("This adapter does not support calculations.");
+    }
+
+    /**
+     * Retrieves a numeric column of the records of a relation as long values,
+     * in the order of the relation, without boxing them. The default
+     * implementation converts the values of
+     * {@link #pluck(ActiveRelation, Class, String)}.
+     *
+     * @param activeRelation The ActiveRelation instance.
+     * @param type           Model class type for query.
+     * @param column         The column, or an SQL expression.
+     * @return The values of the column.
+     * @throws ActiveRecordException If the column has a null value.
+     */
+    public <T extends ActiveRecord> LongArray pluckLongs(ActiveRelation activeRelation, Class<T> type, String column) {
+        List<Object> values = pluck(activeRelation, type, column);
+
+        LongArray array = new LongArray(values.size());
+        for (Object value : values) {
+            if (value == null) {
+                throw newNullValueException(column);
+            }
+            array.add(((Number) value).longValue());
+        }
+        return array;
+    }
+
+    /**
+     * Retrieves a numeric column of the records of a relation as int values,
+     * in the order of the relation, without boxing them. The default
+     * implementation converts the values of
+     * {@link #pluck(ActiveRelation, Class, String)}.
+     *
+     * @param activeRelation The ActiveRelation instance.
+     * @param type           Model class type for query.
+     * @param column         The column, or an SQL expression.
+     * @return The values of the column.
+     * @throws ActiveRecordException If the column has a null value.
+     */
+    public <T extends ActiveRecord> IntArray pluckInts(ActiveRelation activeRelation, Class<T> type, String column) {
+        List<Object> values = pluck(activeRelation, type, column);
+
+        IntArray array = new IntArray(values.size());
+        for (Object value : values) {
+            if (value == null) {
+                throw newNullValueException(column);
+            }
+            array.add(((Number) value).intValue());
+        }
+        return array;
+    }
+
+    /**
+     * Retrieves a numeric column of the records of a relation as double values,
+     * in the order of the relation, without boxing them. The default
+     * implementation converts the values of
+     * {@link #pluck(ActiveRelation, Class, String)}.
+     *
+     * @param activeRelation The ActiveRelation instance.
+     * @param type           Model class type for query.
+     * @param column         The column, or an SQL expression.
+     * @return The values of the column.
+     * @throws ActiveRecordException If the column has a null value.
+     */
+    public <T extends ActiveRecord> DoubleArray pluckDoubles(ActiveRelation activeRelation, Class<T> type, String column) {
+        List<Object> values = pluck(activeRelation, type, column);
+
+        DoubleArray array = new DoubleArray(values.size());
+        for (Object value : values) {
+            if (value == null) {
+                throw newNullValueException(column);
+            }
+            array.add(((Number) value).doubleValue());
+        }
+        return array;
+    }
+
+    /**
+     * Primitive values cannot tell a null value from 0, so the primitive
+     * plucks reject null values instead.
+     */
+    static ActiveRecordException newNullValueException(String column) {
+        return new ActiveRecordException("The column " + column + " has null values, which cannot be plucked as primitives.");
+    }
+
+    /**
+     * Retrieves the records of a relation with SQL already generated for it
+     * by {@link #toSQL(ActiveRelation, Class)}, or for a relation with the
+     * same fingerprint, which {@link tech.arauk.ark.activerecord.Scope scopes}
+     * use to skip generating it. The default implementation generates it
+     * again.
+     *
+     * @param activeRelation The ActiveRelation instance.
+     * @param type           Model class type for query.
+     * @param sql            The SQL of the relation.
+     * @return The records retrieved by the query.
+     */
+    public <T extends ActiveRecord> List<T> all(ActiveRelation activeRelation, Class<T> type, String sql) {
+        return all(activeRelation, type);
+    }
+
+    /**
+     * Checks that the database accepts a query, without running it. The
+     * default implementation does not check anything.
+     *
+     * @param sql The SQL of the query.
+     * @return The number of parameters of the query, or -1 if the adapter
+     * cannot tell.
+     */
+    public int validate(String sql) {
+        return -1;
+    }
+
     /**
      * Converts your ActiveRelation query to a SQL String.
      *
@@ -0,0 +1,748 @@
+package tech.arauk.ark.activerecord.connectionadapters;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import tech.arauk.ark.activerecord.ActiveRecordException;
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * A bounded pool of JDBC connections. A thread checks a connection out, uses
+ * it and checks it back in so other threads may use it; a new connection is
+ * only opened when every pooled connection is in use and the pool has not
+ * reached its maximum size yet. When it has, the thread waits for a connection
+ * to be checked in and a {@link ConnectionTimeoutException} is raised if none
+ * is within the checkout timeout.
+ * <p/>
+ * The pool is configured with the same settings as the {@link JdbcAdapter}:
+ * <pre>{@code
+ * HashMap<String, String> settings = new HashMap<>();
+ * settings.put("url", "jdbc:h2:mem:development");
+ * settings.put("pool", "10");              // at most 10 connections
+ * settings.put("min_pool", "2");           // keep 2 connections open
+ * settings.put("checkout_timeout", "5");   // wait 5 seconds for a connection
+ * settings.put("idle_timeout", "300");     // close connections idle for 5 minutes
+ * settings.put("reaping_frequency", "60"); // look for idle connections every minute
+ * settings.put("validation_query", "SELECT 1");
+ * settings.put("statement_limit", "1000"); // cache 1000 statements per connection
+ *
+ * ConnectionPool pool = new ConnectionPool(settings);
+ * Connection connection = pool.checkout();
+ * try {
+ *     // ...
+ * } finally {
+ *     pool.checkin(connection);
+ * }
+ * }</pre>
+ * Durations are given in seconds. Idle connections are handed out in last in,
+ * first out order, so the connections that are not needed under the current
+ * load stay idle and get closed by the reaper once they exceed the idle
+ * timeout, down to the minimum size of the pool. When a validation query is
+ * set, it is run on every connection before handing it out and connections
+ * that fail it are discarded.
+ * <p/>
+ * Every connection has its own {@link StatementCache}, holding up to the
+ * statement limit of prepared statements; set the limit to 0 or the
+ * prepared_statements setting to false to disable it.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public class ConnectionPool {
+    public static final String SETTING_URL = "url";
+    public static final String SETTING_USERNAME = "username";
+    public static final String SETTING_PASSWORD = "password";
+    public static final String SETTING_MAXIMUM_SIZE = "pool";
+    public static final String SETTING_MINIMUM_SIZE = "min_pool";
+    public static final String SETTING_CHECKOUT_TIMEOUT = "checkout_timeout";
+    public static final String SETTING_IDLE_TIMEOUT = "idle_timeout";
+    public static final String SETTING_REAPING_FREQUENCY = "reaping_frequency";
+    public static final String SETTING_VALIDATION_QUERY = "validation_query";
+    public static final String SETTING_PREPARED_STATEMENTS = "prepared_statements";
+    public static final String SETTING_STATEMENT_LIMIT = "statement_limit";
+    public static final int DEFAULT_MAXIMUM_SIZE = 5;
+    public static final int DEFAULT_MINIMUM_SIZE = 0;
+    public static final double DEFAULT_CHECKOUT_TIMEOUT = 5;
+    public static final double DEFAULT_IDLE_TIMEOUT = 300;
+    public static final double DEFAULT_REAPING_FREQUENCY = 60;
+    private final AtomicLong mRetiredStatementEvictionCount;
+    private final AtomicLong mRetiredStatementHitCount;
+    private final AtomicLong mRetiredStatementMissCount;
+    private final AtomicLong mCheckoutCount;
+    private final AtomicLong mCreatedCount;
+    private final AtomicLong mDestroyedCount;
+    private final AtomicLong mTimeoutCount;
+    private final AtomicLong mWaitTime;
+    private final ArrayDeque<PooledConnection> mIdleConnections;
+    private final Condition mAvailable;
+    private final ReentrantLock mLock;
+    private final Properties mProperties;
+    private final Map<Connection, PooledConnection> mBusyConnections;
+    private final String mUrl;
+    private final String mValidationQuery;
+    private final Thread mReaper;
+    private final int mMaximumSize;
+    private final int mMinimumSize;
+    private final int mStatementLimit;
+    private final long mCheckoutTimeout;
+    private final long mIdleTimeout;
+    private boolean mClosed;
+    private int mSize;
+    private int mWaitingCount;
+
+    /**
+     * Creates a pool from the given connection settings. No connection is
+     * opened until {@link #fill()} or {@link #checkout()} is called.
+     *
+     * @param settings The connection settings, as described above. Only the
+     *                 url is required.
+     */
+    public ConnectionPool(Map<String, String> settings) {
+        mUrl = settings.get(SETTING_URL);
+        if (mUrl == null) {
+            throw new IllegalArgumentException("The \"" + SETTING_URL + "\" connection setting is required.");
+        }
+
+        mProperties = new Properties();
+        if (settings.get(SETTING_USERNAME) != null) {
+            mProperties.setProperty("user", settings.get(SETTING_USERNAME));
+        }
+        if (settings.get(SETTING_PASSWORD) != null) {
+            mProperties.setProperty("password", settings.get(SETTING_PASSWORD));
+        }
+
+        mMaximumSize = getInteger(settings, SETTING_MAXIMUM_SIZE, DEFAULT_MAXIMUM_SIZE);
+        mMinimumSize = getInteger(settings, SETTING_MINIMUM_SIZE, DEFAULT_MINIMUM_SIZE);
+        if (mMaximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive.");
+        }
+        if (mMinimumSize < 0 || mMinimumSize > mMaximumSize) {
+            throw new IllegalArgumentException("The minimum size must be between zero and the maximum size.");
+        }
+
+        mCheckoutTimeout = getMilliseconds(settings, SETTING_CHECKOUT_TIMEOUT, DEFAULT_CHECKOUT_TIMEOUT);
+        mIdleTimeout = getMilliseconds(settings, SETTING_IDLE_TIMEOUT, DEFAULT_IDLE_TIMEOUT);
+        mValidationQuery = settings.get(SETTING_VALIDATION_QUERY);
+
+        if ("false".equalsIgnoreCase(settings.get(SETTING_PREPARED_STATEMENTS))) {
+            mStatementLimit = 0;
+        } else {
+            mStatementLimit = getInteger(settings, SETTING_STATEMENT_LIMIT, StatementCache.DEFAULT_MAXIMUM_SIZE);
+        }
+
+        mRetiredStatementEvictionCount = new AtomicLong();
+        mRetiredStatementHitCount = new AtomicLong();
+        mRetiredStatementMissCount = new AtomicLong();
+        mCheckoutCount = new AtomicLong();
+        mCreatedCount = new AtomicLong();
+        mDestroyedCount = new AtomicLong();
+        mTimeoutCount = new AtomicLong();
+        mWaitTime = new AtomicLong();
+        mIdleConnections = new ArrayDeque<>();
+        mBusyConnections = new IdentityHashMap<>();
+        mLock = new ReentrantLock();
+        mAvailable = mLock.newCondition();
+
+        long reapingFrequency = getMilliseconds(settings, SETTING_REAPING_FREQUENCY, DEFAULT_REAPING_FREQUENCY);
+        if (reapingFrequency > 0) {
+            mReaper = new Thread(new Reaper(reapingFrequency), "ark-connection-pool-reaper");
+            mReaper.setDaemon(true);
+            mReaper.start();
+        } else {
+            mReaper = null;
+        }
+    }
+
+    private static int getInteger(Map<String, String> settings, String key, int defaultValue) {
+        String value = settings.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException nuFoEx) {
+            throw new IllegalArgumentException("The \"" + key + "\" connection setting must be an integer.", nuFoEx);
+        }
+    }
+
+    private static long getMilliseconds(Map<String, String> settings, String key, double defaultSeconds) {
+        String value = settings.get(key);
+        double seconds = defaultSeconds;
+        if (value != null) {
+            try {
+                seconds = Double.parseDouble(value.trim());
+            } catch (NumberFormatException nuFoEx) {
+                throw new IllegalArgumentException("The \"" + key + "\" connection setting must be a number of seconds.", nuFoEx);
+            }
+        }
+
+        return Math.round(seconds * 1000);
+    }
+
+    /**
+     * Opens connections until the pool holds at least its minimum size.
+     */
+    public void fill() {
+        while (true) {
+            mLock.lock();
+            try {
+                ensureOpen();
+                if (mSize >= mMinimumSize) {
+                    return;
+                }
+                mSize++;
+            } finally {
+                mLock.unlock();
+            }
+
+            PooledConnection pooledConnection = open();
+
+            mLock.lock();
+            try {
+                mIdleConnections.addLast(pooledConnection);
+                mAvailable.signal();
+            } finally {
+                mLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Checks a connection out of the pool, opening a new one if every pooled
+     * connection is in use and the pool is not full.
+     *
+     * @return A connection that must be given back with
+     * {@link #checkin(Connection)}.
+     * @throws ConnectionTimeoutException If no connection was available within
+     *                                    the checkout timeout.
+     */
+    public Connection checkout() {
+        return checkoutPooled().connection;
+    }
+
+    PooledConnection checkoutPooled() {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(mCheckoutTimeout);
+
+        while (true) {
+            PooledConnection pooledConnection = null;
+
+            mLock.lock();
+            try {
+                ensureOpen();
+                while (true) {
+                    pooledConnection = mIdleConnections.pollFirst();
+                    if (pooledConnection != null || mSize < mMaximumSize) {
+                        break;
+                    }
+
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        mTimeoutCount.incrementAndGet();
+                        throw new ConnectionTimeoutException("Could not obtain a connection from the pool within "
+                                + mCheckoutTimeout + " ms; all " + mSize + " connections are in use.");
+                    }
+
+                    mWaitingCount++;
+                    try {
+                        mAvailable.awaitNanos(remaining);
+                    } catch (InterruptedException inEx) {
+                        Thread.currentThread().interrupt();
+                        throw new ActiveRecordException("Interrupted while waiting for a connection.", inEx);
+                    } finally {
+                        mWaitingCount--;
+                    }
+                    ensureOpen();
+                }
+
+                if (pooledConnection == null) {
+                    mSize++;
+                }
+            } finally {
+                mLock.unlock();
+            }
+
+            if (pooledConnection == null) {
+                pooledConnection = open();
+            } else if (!isValid(pooledConnection.connection)) {
+                destroy(pooledConnection);
+                continue;
+            }
+
+            mLock.lock();
+            try {
+                mBusyConnections.put(pooledConnection.connection, pooledConnection);
+            } finally {
+                mLock.unlock();
+            }
+
+            mCheckoutCount.incrementAndGet();
+            mWaitTime.addAndGet(System.nanoTime() - started);
+
+            return pooledConnection;
+        }
+    }
+
+    /**
+     * Gives a connection back to the pool. Any transaction left open on it is
+     * rolled back. If the pool was closed meanwhile, the connection is closed.
+     *
+     * @param connection A connection previously checked out from this pool.
+     */
+    public void checkin(Connection connection) {
+        PooledConnection pooledConnection;
+
+        mLock.lock();
+        try {
+            pooledConnection = mBusyConnections.get(connection);
+        } finally {
+            mLock.unlock();
+        }
+
+        if (pooledConnection == null) {
+            throw new IllegalArgumentException("The connection was not checked out from this pool.");
+        }
+
+        checkin(pooledConnection);
+    }
+
+    void checkin(PooledConnection pooledConnection) {
+        mLock.lock();
+        try {
+            if (mBusyConnections.remove(pooledConnection.connection) == null) {
+                throw new IllegalArgumentException("The connection was not checked out from this pool.");
+            }
+        } finally {
+            mLock.unlock();
+        }
+
+        if (!reset(pooledConnection.connection)) {
+            destroy(pooledConnection);
+            return;
+        }
+
+        mLock.lock();
+        try {
+            if (!mClosed) {
+                pooledConnection.idleSince = System.nanoTime();
+                mIdleConnections.addFirst(pooledConnection);
+                mAvailable.signal();
+                return;
+            }
+        } finally {
+            mLock.unlock();
+        }
+
+        destroy(pooledConnection);
+    }
+
+    /**
+     * Closes the connections that have been idle for longer than the idle
+     * timeout, as long as the pool holds more than its minimum size. This is
+     * called periodically by the reaper thread.
+     *
+     * @return The number of connections closed.
+     */
+    public int reap() {
+        List<PooledConnection> reaped = new ArrayList<>();
+        long now = System.nanoTime();
+        long idleTimeout = TimeUnit.MILLISECONDS.toNanos(mIdleTimeout);
+
+        mLock.lock();
+        try {
+            // The least recently used connections are at the end of the deque.
+            Iterator<PooledConnection> iterator = mIdleConnections.descendingIterator();
+            while (iterator.hasNext() && mSize - reaped.size() > mMinimumSize) {
+                PooledConnection pooledConnection = iterator.next();
+                if (now - pooledConnection.idleSince < idleTimeout) {
+                    break;
+                }
+
+                iterator.remove();
+                reaped.add(pooledConnection);
+            }
+        } finally {
+            mLock.unlock();
+        }
+
+        for (PooledConnection pooledConnection : reaped) {
+            destroy(pooledConnection);
+        }
+
+        return reaped.size();
+    }
+
+    /**
+     * Closes every idle connection and stops the reaper. Connections still in
+     * use are closed as they are checked in, and further checkouts fail.
+     */
+    public void close() {
+        List<PooledConnection> idleConnections;
+
+        mLock.lock();
+        try {
+            mClosed = true;
+            idleConnections = new ArrayList<>(mIdleConnections);
+            mIdleConnections.clear();
+            mAvailable.signalAll();
+        } finally {
+            mLock.unlock();
+        }
+
+        if (mReaper != null) {
+            mReaper.interrupt();
+        }
+
+        for (PooledConnection pooledConnection : idleConnections) {
+            destroy(pooledConnection);
+        }
+    }
+
+    public boolean isClosed() {
+        mLock.lock();
+        try {
+            return mClosed;
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    public String getUrl() {
+        return mUrl;
+    }
+
+    public int getMaximumSize() {
+        return mMaximumSize;
+    }
+
+    public int getMinimumSize() {
+        return mMinimumSize;
+    }
+
+    /**
+     * @return The checkout timeout, in milliseconds.
+     */
+    public long getCheckoutTimeout() {
+        return mCheckoutTimeout;
+    }
+
+    /**
+     * @return The idle timeout, in milliseconds.
+     */
+    public long getIdleTimeout() {
+        return mIdleTimeout;
+    }
+
+    /**
+     * @return The number of open connections, idle or in use.
+     */
+    public int getSize() {
+        mLock.lock();
+        try {
+            return mSize;
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    public int getIdleCount() {
+        mLock.lock();
+        try {
+            return mIdleConnections.size();
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    public int getBusyCount() {
+        mLock.lock();
+        try {
+            return mBusyConnections.size();
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of threads waiting for a connection.
+     */
+    public int getWaitingCount() {
+        mLock.lock();
+        try {
+            return mWaitingCount;
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    public long getCheckoutCount() {
+        return mCheckoutCount.get();
+    }
+
+    public long getCreatedCount() {
+        return mCreatedCount.get();
+    }
+
+    public long getDestroyedCount() {
+        return mDestroyedCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return mTimeoutCount.get();
+    }
+
+    public int getStatementLimit() {
+        return mStatementLimit;
+    }
+
+    /**
+     * @return The number of statements served from the statement caches of
+     * the connections, including the connections already closed.
+     */
+    public long getStatementCacheHitCount() {
+        long count = mRetiredStatementHitCount.get();
+        for (StatementCache statementCache : getStatementCaches()) {
+            count += statementCache.getHitCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of statements prepared because they were not found
+     * in the statement caches of the connections, including the connections
+     * already closed.
+     */
+    public long getStatementCacheMissCount() {
+        long count = mRetiredStatementMissCount.get();
+        for (StatementCache statementCache : getStatementCaches()) {
+            count += statementCache.getMissCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of statements evicted from the statement caches of
+     * the connections, including the connections already closed.
+     */
+    public long getStatementCacheEvictionCount() {
+        long count = mRetiredStatementEvictionCount.get();
+        for (StatementCache statementCache : getStatementCaches()) {
+            count += statementCache.getEvictionCount();
+        }
+        return count;
+    }
+
+    private List<StatementCache> getStatementCaches() {
+        List<StatementCache> statementCaches = new ArrayList<>();
+
+        mLock.lock();
+        try {
+            for (PooledConnection pooledConnection : mIdleConnections) {
+                if (pooledConnection.statementCache != null) {
+                    statementCaches.add(pooledConnection.statementCache);
+                }
+            }
+            for (PooledConnection pooledConnection : mBusyConnections.values()) {
+                if (pooledConnection.statementCache != null) {
+                    statementCaches.add(pooledConnection.statementCache);
+                }
+            }
+        } finally {
+            mLock.unlock();
+        }
+
+        return statementCaches;
+    }
+
+    /**
+     * @param unit The unit of the returned time.
+     * @return The total time threads spent checking connections out,
+     * including opening and validating them.
+     */
+    public long getTotalWaitTime(TimeUnit unit) {
+        return unit.convert(mWaitTime.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns a snapshot of the pool metrics, suitable for logging or
+     * exporting to a monitoring system.
+     *
+     * @return The pool metrics, indexed by name.
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new HashMap<>();
+
+        mLock.lock();
+        try {
+            statistics.put("size", (long) mSize);
+            statistics.put("idle", (long) mIdleConnections.size());
+            statistics.put("busy", (long) mBusyConnections.size());
+            statistics.put("waiting", (long) mWaitingCount);
+        } finally {
+            mLock.unlock();
+        }
+
+        statistics.put("maximum_size", (long) mMaximumSize);
+        statistics.put("minimum_size", (long) mMinimumSize);
+        statistics.put("checkouts", getCheckoutCount());
+        statistics.put("created", getCreatedCount());
+        statistics.put("destroyed", getDestroyedCount());
+        statistics.put("timeouts", getTimeoutCount());
+        statistics.put("wait_time_ms", getTotalWaitTime(TimeUnit.MILLISECONDS));
+        statistics.put("statement_cache_hits", getStatementCacheHitCount());
+        statistics.put("statement_cache_misses", getStatementCacheMissCount());
+        statistics.put("statement_cache_evictions", getStatementCacheEvictionCount());
+
+        return statistics;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool" + getStatistics();
+    }
+
+    /**
+     * Opens a new connection to the database. Subclasses may override it to
+     * obtain connections some other way.
+     *
+     * @param url        The JDBC url of the database.
+     * @param properties The user and password, if any.
+     * @return A new connection.
+     * @throws SQLException If the connection could not be opened.
+     */
+    protected Connection newConnection(String url, Properties properties) throws SQLException {
+        return DriverManager.getConnection(url, properties);
+    }
+
+    private PooledConnection open() {
+        try {
+            Connection connection = newConnection(mUrl, mProperties);
+            mCreatedCount.incrementAndGet();
+            return new PooledConnection(connection, mStatementLimit > 0 ? new StatementCache(mStatementLimit) : null);
+        } catch (SQLException | RuntimeException ex) {
+            release();
+            throw new ActiveRecordException("Could not open a connection to " + mUrl + ".", ex);
+        }
+    }
+
+    private void destroy(PooledConnection pooledConnection) {
+        StatementCache statementCache = pooledConnection.statementCache;
+        if (statementCache != null) {
+            statementCache.clear();
+            mRetiredStatementEvictionCount.addAndGet(statementCache.getEvictionCount());
+            mRetiredStatementHitCount.addAndGet(statementCache.getHitCount());
+            mRetiredStatementMissCount.addAndGet(statementCache.getMissCount());
+        }
+
+        try {
+            pooledConnection.connection.close();
+        } catch (SQLException ignored) {
+            // The connection is being discarded anyway.
+        }
+
+        mDestroyedCount.incrementAndGet();
+        release();
+    }
+
+    private void release() {
+        mLock.lock();
+        try {
+            mSize--;
+            mAvailable.signal();
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    private void ensureOpen() {
+        if (mClosed) {
+            throw new ActiveRecordException("The connection pool is closed.");
+        }
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+
+            if (mValidationQuery != null) {
+                Statement statement = connection.createStatement();
+                try {
+                    statement.execute(mValidationQuery);
+                } finally {
+                    statement.close();
+                }
+            }
+
+            return true;
+        } catch (SQLException sqlEx) {
+            return false;
+        }
+    }
+
+    private boolean reset(Connection connection) {
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+
+            return true;
+        } catch (SQLException sqlEx) {
+            return false;
+        }
+    }
+
+    static final class PooledConnection {
+        final Connection connection;
+        final StatementCache statementCache;
+        long idleSince;
+
+        PooledConnection(Connection connection, StatementCache statementCache) {
+            this.connection = connection;
+            this.statementCache = statementCache;
+            this.idleSince = System.nanoTime();
+        }
+    }
+
+    private final class Reaper implements Runnable {
+        private final long mFrequency;
+
+        Reaper(long frequency) {
+            mFrequency = frequency;
+        }
+
+        @Override
+        public void run() {
+            while (!isClosed()) {
+                try {
+                    Thread.sleep(mFrequency);
+                } catch (InterruptedException inEx) {
+                    return;
+                }
+
+                reap();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package tech.arauk.ark.activerecord.connectionadapters;
+
+import tech.arauk.ark.activerecord.ActiveRecordException;
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * Raised when a connection could not be obtained from a {@link ConnectionPool}
+ * within the checkout timeout, because every connection is in use by another
+ * thread.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public class ConnectionTimeoutException extends ActiveRecordException {
+    private static final long serialVersionUID = 1L;
+
+    public ConnectionTimeoutException(String message) {
+        super(message);
+    }
+}
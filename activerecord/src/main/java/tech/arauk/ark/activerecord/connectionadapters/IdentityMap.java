@@ -0,0 +1,141 @@
+package tech.arauk.ark.activerecord.connectionadapters;
+
+import java.util.HashMap;
+
+import tech.arauk.ark.activerecord.ActiveRecord;
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * The records loaded within a unit of work, keyed by their model class and
+ * primary key, so every row is represented by a single instance and lookups
+ * by primary key can skip the database:
+ * <pre>{@code
+ * adapter.setIdentityMapEnabled(true);
+ * adapter.beginTransaction();
+ * User user = ActiveRecord.where("id = ?", 1).first(User.class); // queries
+ * User same = ActiveRecord.where("id = ?", 1).first(User.class); // does not
+ * assert user == same;
+ * adapter.commitTransaction();
+ * }</pre>
+ * The first instance loaded for a row is kept for the whole unit of work,
+ * even if the row is loaded again with new values.
+ * <p/>
+ * Like the transaction it belongs to, an identity map must only be used by
+ * one thread.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public class IdentityMap {
+    private final HashMap<Key, ActiveRecord> mRecords;
+    private long mHitCount;
+    private long mMissCount;
+
+    public IdentityMap() {
+        mRecords = new HashMap<>();
+    }
+
+    /**
+     * Returns the record loaded with the given primary key, counting a hit
+     * if it was loaded and a miss otherwise.
+     *
+     * @param type       The model class.
+     * @param primaryKey The primary key of the record.
+     * @return The record, or null if it was not loaded.
+     */
+    public <T extends ActiveRecord> T get(Class<T> type, Object primaryKey) {
+        ActiveRecord record = mRecords.get(new Key(type, primaryKey));
+        if (record == null) {
+            mMissCount++;
+            return null;
+        }
+
+        mHitCount++;
+        return type.cast(record);
+    }
+
+    /**
+     * Adds a record, unless a record with the same class and primary key was
+     * already loaded.
+     *
+     * @param record     The record.
+     * @param primaryKey The primary key of the record.
+     * @return The record already loaded, or the given one.
+     */
+    public <T extends ActiveRecord> T put(T record, Object primaryKey) {
+        Key key = new Key(record.getClass(), primaryKey);
+
+        ActiveRecord loaded = mRecords.get(key);
+        if (loaded != null) {
+            @SuppressWarnings("unchecked")
+            T canonical = (T) loaded;
+            return canonical;
+        }
+
+        mRecords.put(key, record);
+        return record;
+    }
+
+    /**
+     * Removes a record, for instance after its row was deleted.
+     *
+     * @param type       The model class.
+     * @param primaryKey The primary key of the record.
+     */
+    public void remove(Class<? extends ActiveRecord> type, Object primaryKey) {
+        mRecords.remove(new Key(type, primaryKey));
+    }
+
+    public void clear() {
+        mRecords.clear();
+    }
+
+    public int getSize() {
+        return mRecords.size();
+    }
+
+    public long getHitCount() {
+        return mHitCount;
+    }
+
+    public long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Integral keys are compared by value, as the id of a record may be a
+     * Long while the argument of a condition, or a foreign key, is an
+     * Integer.
+     */
+    static Object normalize(Object primaryKey) {
+        if (primaryKey instanceof Integer || primaryKey instanceof Short || primaryKey instanceof Byte) {
+            return ((Number) primaryKey).longValue();
+        }
+        return primaryKey;
+    }
+
+    private static final class Key {
+        private final Class<?> mType;
+        private final Object mPrimaryKey;
+
+        Key(Class<?> type, Object primaryKey) {
+            mType = type;
+            mPrimaryKey = normalize(primaryKey);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) object;
+            return mType == key.mType && mPrimaryKey.equals(key.mPrimaryKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mType.hashCode() + mPrimaryKey.hashCode();
+        }
+    }
+}
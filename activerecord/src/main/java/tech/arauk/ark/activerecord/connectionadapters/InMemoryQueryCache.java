@@ -0,0 +1,226 @@
+package tech.arauk.ark.activerecord.connectionadapters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import tech.arauk.ark.activerecord.ActiveRecord;
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * A {@link QueryCache} held in memory, which evicts the least recently used
+ * query once it holds the maximum number of queries and ignores the queries
+ * whose time to live has passed:
+ * <pre>{@code
+ * adapter.setQueryCache(new InMemoryQueryCache(5000));
+ * }</pre>
+ * Every table keeps the keys of the queries that read it, so invalidating a
+ * table only visits its own queries, and counts its invalidations as its
+ * generation.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public class InMemoryQueryCache implements QueryCache {
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+    private final LinkedHashMap<Key, Entry> mEntries;
+    private final HashMap<String, Set<Key>> mKeysByTable;
+    private final HashMap<String, Long> mGenerations;
+    private final int mMaximumSize;
+    private long mClearCount;
+    private long mDiscardCount;
+    private long mEvictionCount;
+    private long mExpirationCount;
+    private long mHitCount;
+    private long mInvalidationCount;
+    private long mMissCount;
+
+    public InMemoryQueryCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a cache that holds at most the given number of queries.
+     *
+     * @param maximumSize The maximum number of queries held by the cache.
+     */
+    public InMemoryQueryCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive.");
+        }
+
+        mEntries = new LinkedHashMap<>(16, 0.75f, true);
+        mKeysByTable = new HashMap<>();
+        mGenerations = new HashMap<>();
+        mMaximumSize = maximumSize;
+    }
+
+    @Override
+    public synchronized List<? extends ActiveRecord> get(Key key) {
+        Entry entry = mEntries.get(key);
+        if (entry == null) {
+            mMissCount++;
+            return null;
+        }
+
+        if (System.nanoTime() - entry.expiresAt >= 0) {
+            remove(key, entry);
+            mExpirationCount++;
+            mMissCount++;
+            return null;
+        }
+
+        mHitCount++;
+        return entry.records;
+    }
+
+    /**
+     * Returns the sum of the invalidations of the tables and of the clears of
+     * the cache, which only grows.
+     */
+    @Override
+    public synchronized long getGeneration(Set<String> tables) {
+        long generation = mClearCount;
+        for (String table : tables) {
+            Long tableGeneration = mGenerations.get(table);
+            if (tableGeneration != null) {
+                generation += tableGeneration;
+            }
+        }
+        return generation;
+    }
+
+    @Override
+    public synchronized void put(Key key, Set<String> tables, long generation, List<? extends ActiveRecord> records,
+                                 long ttl, TimeUnit unit) {
+        if (getGeneration(tables) != generation) {
+            mDiscardCount++;
+            return;
+        }
+
+        Entry previous = mEntries.get(key);
+        if (previous != null) {
+            remove(key, previous);
+        }
+
+        Entry entry = new Entry(Collections.unmodifiableList(new ArrayList<>(records)), new HashSet<>(tables),
+                System.nanoTime() + unit.toNanos(ttl));
+        mEntries.put(key, entry);
+        for (String table : entry.tables) {
+            Set<Key> keys = mKeysByTable.get(table);
+            if (keys == null) {
+                keys = new HashSet<>();
+                mKeysByTable.put(table, keys);
+            }
+            keys.add(key);
+        }
+
+        if (mEntries.size() > mMaximumSize) {
+            Iterator<Map.Entry<Key, Entry>> iterator = mEntries.entrySet().iterator();
+            Map.Entry<Key, Entry> eldest = iterator.next();
+            remove(eldest.getKey(), eldest.getValue());
+            mEvictionCount++;
+        }
+    }
+
+    @Override
+    public synchronized void invalidate(String table) {
+        Long generation = mGenerations.get(table);
+        mGenerations.put(table, generation == null ? 1L : generation + 1);
+
+        Set<Key> keys = mKeysByTable.get(table);
+        if (keys == null) {
+            return;
+        }
+
+        for (Key key : new ArrayList<>(keys)) {
+            Entry entry = mEntries.get(key);
+            if (entry != null) {
+                remove(key, entry);
+                mInvalidationCount++;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        mClearCount++;
+        mEntries.clear();
+        mKeysByTable.clear();
+    }
+
+    private void remove(Key key, Entry entry) {
+        mEntries.remove(key);
+        for (String table : entry.tables) {
+            Set<Key> keys = mKeysByTable.get(table);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    mKeysByTable.remove(table);
+                }
+            }
+        }
+    }
+
+    public synchronized int getSize() {
+        return mEntries.size();
+    }
+
+    public int getMaximumSize() {
+        return mMaximumSize;
+    }
+
+    /**
+     * @return The number of queries not cached because a table they read was
+     * written while they ran.
+     */
+    public synchronized long getDiscardCount() {
+        return mDiscardCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * @return The number of queries found after their time to live.
+     */
+    public synchronized long getExpirationCount() {
+        return mExpirationCount;
+    }
+
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * @return The number of queries removed because a table they read was
+     * written.
+     */
+    public synchronized long getInvalidationCount() {
+        return mInvalidationCount;
+    }
+
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    private static final class Entry {
+        final List<? extends ActiveRecord> records;
+        final Set<String> tables;
+        final long expiresAt;
+
+        Entry(List<? extends ActiveRecord> records, Set<String> tables, long expiresAt) {
+            this.records = records;
+            this.tables = tables;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,1671 @@
+package tech.arauk.ark.activerecord.connectionadapters;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import tech.arauk.ark.activerecord.ActiveRecord;
+import tech.arauk.ark.activerecord.ActiveRecordException;
+import tech.arauk.ark.activerecord.ActiveRelation;
+import tech.arauk.ark.activerecord.BulkResult;
+import tech.arauk.ark.activerecord.Cursor;
+import tech.arauk.ark.activerecord.connectionadapters.ConnectionPool.PooledConnection;
+import tech.arauk.ark.activesupport.Inflector;
+import tech.arauk.ark.activesupport.annotations.Beta;
+import tech.arauk.ark.activesupport.collections.DoubleArray;
+import tech.arauk.ark.activesupport.collections.IntArray;
+import tech.arauk.ark.activesupport.collections.LongArray;
+
+/**
+ * A connection adapter for any database with a JDBC driver. Connections are
+ * taken from a {@link ConnectionPool} configured with the connection
+ * settings:
+ * <pre>{@code
+ * HashMap<String, String> settings = new HashMap<>();
+ * settings.put("driver", "org.h2.Driver");
+ * settings.put("url", "jdbc:h2:mem:development");
+ * settings.put("username", "sa");
+ * settings.put("pool", "10");
+ *
+ * JdbcAdapter adapter = new JdbcAdapter();
+ * adapter.setConnectionSettings(settings);
+ * ActiveRecord.establishConnection(adapter);
+ *
+ * List<User> users = ActiveRecord.where("age > ?", 18).all(User.class);
+ * }</pre>
+ * See {@link ConnectionPool} for the pool settings. The driver setting is
+ * only needed for drivers that do not register themselves.
+ * <p/>
+ * Records are read from the table named after the model class, as returned by
+ * {@link Inflector#tableize(String)}, so the inflections must be initialized
+ * before querying. Columns are mapped to the model fields by the
+ * {@link RecordMapping} of the model class. The primary key is the id column.
+ * <p/>
+ * A transaction binds a connection to the thread that began it, so every
+ * query run by that thread goes through the transaction until it is committed
+ * or rolled back. {@link #bindConnection()} binds a connection to the thread
+ * without a transaction, for instance for the duration of a request. Other
+ * queries check a connection out for as long as they run, so threads never
+ * share a connection.
+ * <p/>
+ * Statements are prepared through the {@link StatementCache} of the
+ * connection they run on, so statements with the same SQL are only prepared
+ * once per connection. The hit, miss and eviction counts of the caches are
+ * part of the pool metrics.
+ * <p/>
+ * The SQL generated for a relation is cached by its
+ * {@link ActiveRelation#getFingerprint() fingerprint} in a {@link SQLCache},
+ * so repeated queries that only differ in their arguments skip building the
+ * SQL. Set the sql_cache setting to false to disable it.
+ * <p/>
+ * Records are written in bulk with {@link #insertAll(Collection, int)} and
+ * {@link #upsertAll(Collection, int)}, which send JDBC batches of the
+ * batch_size setting, 1000 by default, within a single transaction.
+ * <p/>
+ * With the identity_map setting, every transaction keeps an
+ * {@link IdentityMap} of the records it loads, so lookups by primary key
+ * return the same instance without querying the database again. Any write
+ * through the adapter clears it.
+ * <p/>
+ * The records of {@link ActiveRelation#cached(long, TimeUnit) cached}
+ * relations are kept in a {@link QueryCache} shared by every thread, keyed by
+ * their SQL and arguments. Writes through the adapter invalidate the cached
+ * queries that read the written table, and statements the adapter cannot
+ * attribute to a table, such as DDL, invalidate every query.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public class JdbcAdapter extends AbstractAdapter {
+    public static final String SETTING_DRIVER = "driver";
+    public static final String SETTING_SQL_CACHE = "sql_cache";
+    public static final String SETTING_FETCH_SIZE = "fetch_size";
+    public static final String SETTING_BATCH_SIZE = "batch_size";
+    public static final String SETTING_IDENTITY_MAP = "identity_map";
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    public static final String PRIMARY_KEY = "id";
+    private static final int QUERY_ALL = 0;
+    private static final int QUERY_FIRST = 1;
+    private static final int QUERY_LAST = 2;
+    private static final String CALCULATION_AVERAGE = "AVG";
+    private static final String CALCULATION_COUNT = "COUNT";
+    private static final String CALCULATION_EXISTS = "EXISTS";
+    private static final String CALCULATION_MAXIMUM = "MAX";
+    private static final String CALCULATION_MINIMUM = "MIN";
+    private static final String CALCULATION_PLUCK = "PLUCK";
+    private static final String CALCULATION_SUM = "SUM";
+    private static final Pattern ASSOCIATION_NAME = Pattern.compile("\\w+");
+    private static final Pattern JOINED_TABLE = Pattern.compile("(?i)\\bJOIN\\s+([\\w.\"`]+)");
+    private static final Pattern WRITTEN_TABLE = Pattern.compile("(?i)^\\s*(?:INSERT\\s+(?:OR\\s+\\w+\\s+)?INTO|REPLACE\\s+INTO|MERGE\\s+INTO|UPDATE|DELETE\\s+FROM|TRUNCATE\\s+TABLE)\\s+([\\w.\"`]+)");
+    private static final Pattern READ_ONLY_STATEMENT = Pattern.compile("(?i)\\s*SELECT\\b");
+    private static final Pattern PRIMARY_KEY_CONDITION = Pattern.compile("(?i)\\s*(?:[\\w\"`]+\\.)?[\"`]?" + PRIMARY_KEY + "[\"`]?\\s*=\\s*\\?\\s*");
+    private final ThreadLocal<PooledConnection> mTransactionConnection;
+    private final ThreadLocal<Binding> mBinding;
+    private final ThreadLocal<IdentityMap> mIdentityMap;
+    private final ThreadLocal<Set<String>> mWrittenTables;
+    private final AtomicLong mIdentityMapHitCount;
+    private final AtomicLong mIdentityMapMissCount;
+    private volatile boolean mIdentityMapEnabled;
+    private volatile QueryCache mQueryCache;
+    private volatile ConnectionPool mConnectionPool;
+    private volatile SQLCache mSQLCache;
+    private volatile int mFetchSize;
+    private volatile int mBatchSize;
+
+    public JdbcAdapter() {
+        mTransactionConnection = new ThreadLocal<>();
+        mBinding = new ThreadLocal<>();
+        mIdentityMap = new ThreadLocal<>();
+        mWrittenTables = new ThreadLocal<>();
+        mQueryCache = new InMemoryQueryCache();
+        mIdentityMapHitCount = new AtomicLong();
+        mIdentityMapMissCount = new AtomicLong();
+        mSQLCache = new SQLCache();
+        mFetchSize = DEFAULT_FETCH_SIZE;
+        mBatchSize = ActiveRelation.DEFAULT_BATCH_SIZE;
+    }
+
+    public JdbcAdapter(HashMap<String, String> connectionSettings) {
+        this();
+        setConnectionSettings(connectionSettings);
+    }
+
+    /**
+     * Returns the pool the connections of this adapter are taken from, which
+     * exposes the pool metrics.
+     *
+     * @return The connection pool.
+     * @throws IllegalStateException If the connection was not initialized.
+     */
+    public ConnectionPool getConnectionPool() {
+        ConnectionPool connectionPool = mConnectionPool;
+        if (connectionPool == null) {
+            throw new IllegalStateException("The connection was not initialized.");
+        }
+        return connectionPool;
+    }
+
+    /**
+     * Returns the cache of the SQL generated for relations.
+     *
+     * @return The SQL cache, or null if it is disabled.
+     */
+    public SQLCache getSQLCache() {
+        return mSQLCache;
+    }
+
+    public boolean isSQLCacheEnabled() {
+        return mSQLCache != null;
+    }
+
+    /**
+     * Enables or disables the cache of the SQL generated for relations. It is
+     * enabled by default, unless the sql_cache setting is false.
+     *
+     * @param enabled Whether the SQL should be cached.
+     */
+    public void setSQLCacheEnabled(boolean enabled) {
+        if (!enabled) {
+            mSQLCache = null;
+        } else if (mSQLCache == null) {
+            mSQLCache = new SQLCache();
+        }
+    }
+
+    /**
+     * Returns the cache of the records of cached relations.
+     *
+     * @return The query cache, or null if it is disabled.
+     */
+    public QueryCache getQueryCache() {
+        return mQueryCache;
+    }
+
+    /**
+     * Sets the cache of the records of cached relations, an
+     * {@link InMemoryQueryCache} by default.
+     *
+     * @param queryCache The query cache, or null to disable caching.
+     */
+    public void setQueryCache(QueryCache queryCache) {
+        mQueryCache = queryCache;
+    }
+
+    public boolean isIdentityMapEnabled() {
+        return mIdentityMapEnabled;
+    }
+
+    /**
+     * Enables or disables the identity map of the transactions begun from
+     * now on. It is disabled by default, unless the identity_map setting is
+     * true.
+     *
+     * @param enabled Whether transactions should have an identity map.
+     */
+    public void setIdentityMapEnabled(boolean enabled) {
+        mIdentityMapEnabled = enabled;
+    }
+
+    /**
+     * Returns the identity map of the transaction open on the current thread.
+     *
+     * @return The identity map, or null if no transaction is open or the
+     * identity map is disabled.
+     */
+    public IdentityMap getIdentityMap() {
+        return mIdentityMap.get();
+    }
+
+    /**
+     * @return The number of lookups by primary key answered by the identity
+     * maps of the ended transactions, without querying the database.
+     */
+    public long getIdentityMapHitCount() {
+        return mIdentityMapHitCount.get();
+    }
+
+    /**
+     * @return The number of lookups by primary key the identity maps of the
+     * ended transactions could not answer.
+     */
+    public long getIdentityMapMissCount() {
+        return mIdentityMapMissCount.get();
+    }
+
+    /**
+     * Returns the number of records bulk writes send at once when no batch
+     * size is given, which is the batch_size setting or 1000.
+     */
+    @Override
+    public int getBatchSize() {
+        return mBatchSize;
+    }
+
+    /**
+     * Returns the name of the column a field is written to: the field name
+     * without its "m" prefix, underscored.
+     *
+     * @param attribute The field.
+     * @return The column name.
+     */
+    protected String getColumnName(RecordMapping.Attribute attribute) {
+        String name = attribute.getName();
+        if (name.length() > 1 && name.charAt(0) == 'm' && Character.isUpperCase(name.charAt(1))) {
+            name = name.substring(1);
+        }
+        return Inflector.underscore(name);
+    }
+
+    @Override
+    public String getPrimaryKey(Class<? extends ActiveRecord> type) {
+        return PRIMARY_KEY;
+    }
+
+    @Override
+    public Object getPrimaryKeyValue(ActiveRecord record) {
+        RecordMapping.Attribute attribute = RecordMapping.of(record.getClass()).getAttribute(PRIMARY_KEY);
+        if (attribute == null) {
+            throw new ActiveRecordException(record.getClass().getName() + " has no field for the " + PRIMARY_KEY + " column.");
+        }
+
+        return attribute.get(record);
+    }
+
+    /**
+     * Creates the pool connections are taken from. Subclasses may override it
+     * to customize the pool.
+     *
+     * @param connectionSettings The connection settings of the adapter.
+     * @return A new connection pool.
+     */
+    protected ConnectionPool newConnectionPool(HashMap<String, String> connectionSettings) {
+        return new ConnectionPool(connectionSettings);
+    }
+
+    @Override
+    public synchronized void initializeConnection() {
+        if (mConnectionSettings == null) {
+            throw new IllegalStateException("The connection settings were not set.");
+        }
+
+        String driver = mConnectionSettings.get(SETTING_DRIVER);
+        if (driver != null) {
+            try {
+                Class.forName(driver);
+            } catch (ClassNotFoundException clNoFoEx) {
+                throw new ActiveRecordException("The database driver " + driver + " was not found.", clNoFoEx);
+            }
+        }
+
+        setSQLCacheEnabled(!"false".equalsIgnoreCase(mConnectionSettings.get(SETTING_SQL_CACHE)));
+        if (mConnectionSettings.get(SETTING_FETCH_SIZE) != null) {
+            mFetchSize = Integer.parseInt(mConnectionSettings.get(SETTING_FETCH_SIZE).trim());
+        }
+        mIdentityMapEnabled = "true".equalsIgnoreCase(mConnectionSettings.get(SETTING_IDENTITY_MAP));
+        if (mConnectionSettings.get(SETTING_BATCH_SIZE) != null) {
+            mBatchSize = Integer.parseInt(mConnectionSettings.get(SETTING_BATCH_SIZE).trim());
+        }
+
+        ConnectionPool previousPool = mConnectionPool;
+        mConnectionPool = newConnectionPool(mConnectionSettings);
+        if (previousPool != null) {
+            previousPool.close();
+        }
+
+        mConnectionPool.fill();
+    }
+
+    @Override
+    public synchronized void terminateConnection() {
+        if (mConnectionPool != null) {
+            mConnectionPool.close();
+        }
+    }
+
+    @Override
+    public void beginTransaction() {
+        if (mTransactionConnection.get() != null) {
+            throw new IllegalStateException("A transaction is already open on this thread.");
+        }
+
+        PooledConnection pooledConnection = acquireConnection();
+        try {
+            pooledConnection.connection.setAutoCommit(false);
+        } catch (SQLException sqlEx) {
+            releaseConnection(pooledConnection);
+            throw new ActiveRecordException("Could not begin the transaction.", sqlEx);
+        }
+
+        mTransactionConnection.set(pooledConnection);
+        if (mIdentityMapEnabled) {
+            mIdentityMap.set(new IdentityMap());
+        }
+    }
+
+    @Override
+    public void commitTransaction() {
+        PooledConnection pooledConnection = getTransactionConnection();
+        try {
+            pooledConnection.connection.commit();
+        } catch (SQLException sqlEx) {
+            throw new ActiveRecordException("Could not commit the transaction.", sqlEx);
+        } finally {
+            endTransaction(pooledConnection);
+        }
+    }
+
+    @Override
+    public void rollbackTransaction() {
+        PooledConnection pooledConnection = getTransactionConnection();
+        try {
+            pooledConnection.connection.rollback();
+        } catch (SQLException sqlEx) {
+            throw new ActiveRecordException("Could not roll the transaction back.", sqlEx);
+        } finally {
+            endTransaction(pooledConnection);
+        }
+    }
+
+    /**
+     * @return Whether a transaction is open on the current thread.
+     */
+    public boolean isTransactionOpen() {
+        return mTransactionConnection.get() != null;
+    }
+
+    /**
+     * Checks a connection out of the pool and binds it to the current thread,
+     * so every query the thread runs until
+     * {@link #unbindConnection() unbound} goes through it instead of checking
+     * a connection out each time. A transaction begun meanwhile runs on the
+     * bound connection. Bindings may nest, the connection is only returned to
+     * the pool by the outermost unbinding.
+     */
+    @Override
+    public void bindConnection() {
+        Binding binding = mBinding.get();
+        if (binding != null) {
+            binding.depth++;
+            return;
+        }
+
+        PooledConnection pooledConnection = acquireConnection();
+        mBinding.set(new Binding(pooledConnection, pooledConnection != mTransactionConnection.get()));
+    }
+
+    /**
+     * Unbinds the connection bound by {@link #bindConnection()}, returning it
+     * to the pool unless the binding is nested. A transaction begun while
+     * the connection was bound keeps the connection until it ends.
+     */
+    @Override
+    public void unbindConnection() {
+        Binding binding = mBinding.get();
+        if (binding == null) {
+            throw new IllegalStateException("No connection is bound to this thread.");
+        }
+
+        if (--binding.depth > 0) {
+            return;
+        }
+
+        mBinding.remove();
+        if (binding.checkedOut && binding.pooledConnection != mTransactionConnection.get()) {
+            getConnectionPool().checkin(binding.pooledConnection);
+        }
+    }
+
+    /**
+     * @return Whether a connection is bound to the current thread.
+     */
+    public boolean isConnectionBound() {
+        return mBinding.get() != null;
+    }
+
+    private boolean isBound(PooledConnection pooledConnection) {
+        Binding binding = mBinding.get();
+        return binding != null && binding.pooledConnection == pooledConnection;
+    }
+
+    private static void restoreAutoCommit(PooledConnection pooledConnection) {
+        try {
+            pooledConnection.connection.setAutoCommit(true);
+        } catch (SQLException ignored) {
+            // The pool resets the connection when it is checked in anyway.
+        }
+    }
+
+    private PooledConnection getTransactionConnection() {
+        PooledConnection pooledConnection = mTransactionConnection.get();
+        if (pooledConnection == null) {
+            throw new IllegalStateException("No transaction is open on this thread.");
+        }
+        return pooledConnection;
+    }
+
+    private void endTransaction(PooledConnection pooledConnection) {
+        IdentityMap identityMap = mIdentityMap.get();
+        if (identityMap != null) {
+            mIdentityMap.remove();
+            mIdentityMapHitCount.addAndGet(identityMap.getHitCount());
+            mIdentityMapMissCount.addAndGet(identityMap.getMissCount());
+        }
+
+        mTransactionConnection.remove();
+        if (isBound(pooledConnection)) {
+            restoreAutoCommit(pooledConnection);
+        } else {
+            getConnectionPool().checkin(pooledConnection);
+        }
+
+        // Other threads may have cached what the transaction was about to
+        // change before it ended, invalidate its tables again.
+        Set<String> writtenTables = mWrittenTables.get();
+        if (writtenTables != null) {
+            mWrittenTables.remove();
+            for (String table : writtenTables) {
+                invalidateQueryCache(table);
+            }
+        }
+    }
+
+    /**
+     * Runs a SQL statement, such as an INSERT, UPDATE or DDL statement, through
+     * the transaction of the current thread if one is open.
+     * <pre>{@code
+     * adapter.execute("UPDATE users SET age = ? WHERE id = ?", 37, 1);
+     * }</pre>
+     *
+     * @param sql       The SQL statement, with a "?" placeholder for each
+     *                  argument.
+     * @param arguments The arguments bound to the placeholders.
+     * @return The number of rows changed by the statement.
+     */
+    public int execute(String sql, Object... arguments) {
+        clearIdentityMap();
+        boolean write = !READ_ONLY_STATEMENT.matcher(sql).lookingAt();
+        String writtenTable = null;
+        if (write) {
+            Matcher matcher = WRITTEN_TABLE.matcher(sql);
+            writtenTable = matcher.find() ? normalizeTableName(matcher.group(1)) : null;
+            invalidateQueryCache(writtenTable);
+        }
+
+        PooledConnection pooledConnection = acquireConnection();
+        try {
+            PreparedStatement statement = prepare(pooledConnection, sql);
+            try {
+                bind(statement, Arrays.asList(arguments));
+                statement.execute();
+                int updateCount = Math.max(statement.getUpdateCount(), 0);
+
+                // Other threads may have cached the previous rows until the
+                // statement committed, invalidate its table again. Within a
+                // transaction that happens when the transaction ends.
+                if (write && !isTransactionOpen()) {
+                    invalidateQueryCache(writtenTable);
+                }
+                return updateCount;
+            } catch (SQLException sqlEx) {
+                discard(pooledConnection, sql);
+                throw sqlEx;
+            } finally {
+                close(pooledConnection, statement);
+            }
+        } catch (SQLException sqlEx) {
+            throw new ActiveRecordException("Could not run the statement: " + sql, sqlEx);
+        } finally {
+            releaseConnection(pooledConnection);
+        }
+    }
+
+    /**
+     * Prepares the query on a connection, which fails if the database does
+     * not accept it. The statement stays in the statement cache of the
+     * connection, ready for the first run of the query.
+     */
+    @Override
+    public int validate(String sql) {
+        PooledConnection pooledConnection = acquireConnection();
+        try {
+            PreparedStatement statement = prepare(pooledConnection, sql);
+            try {
+                return statement.getParameterMetaData().getParameterCount();
+            } catch (SQLException sqlEx) {
+                discard(pooledConnection, sql);
+                throw sqlEx;
+            } finally {
+                close(pooledConnection, statement);
+            }
+        } catch (SQLException sqlEx) {
+            throw new ActiveRecordException("Invalid query: " + sql, sqlEx);
+        } finally {
+            releaseConnection(pooledConnection);
+        }
+    }
+
+    /**
+     * Inserts the records with JDBC batches of a single INSERT statement,
+     * within the transaction of the current thread or a new one. Every mapped
+     * field is written to the column returned by
+     * {@link #getColumnName(RecordMapping.Attribute)}. Records without a
+     * primary key are inserted without the id column, so the database may
+     * generate it; the generated keys are not read back.
+     */
+    @Override
+    public <T extends ActiveRecord> BulkResult insertAll(Collection<T> records, int batchSize) {
+        return write(records, batchSize, false);
+    }
+
+    /**
+     * Inserts or updates the records with JDBC batches of a single statement
+     * built by {@link #buildUpsertSQL(String, List)}, within the transaction
+     * of the current thread or a new one.
+     */
+    @Override
+    public <T extends ActiveRecord> BulkResult upsertAll(Collection<T> records, int batchSize) {
+        return write(records, batchSize, true);
+    }
+
+    private <T extends ActiveRecord> BulkResult write(Collection<T> records, int batchSize, boolean upsert) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive.");
+        }
+
+        long start = System.nanoTime();
+        if (records.isEmpty()) {
+            return new BulkResult(0, 0, 0, 0);
+        }
+
+        Class<? extends ActiveRecord> type = null;
+        for (T record : records) {
+            if (type == null) {
+                type = record.getClass();
+            } else if (record.getClass() != type) {
+                throw new IllegalArgumentException("The records must all be of the same class, found " + type.getName()
+                        + " and " + record.getClass().getName() + ".");
+            }
+        }
+
+        RecordMapping<? extends ActiveRecord> recordMapping = RecordMapping.of(type);
+        RecordMapping.Attribute primaryKey = recordMapping.getAttribute(PRIMARY_KEY);
+        List<RecordMapping.Attribute> attributes = recordMapping.getAttributes();
+        List<RecordMapping.Attribute> generatedKeyAttributes = new ArrayList<>(attributes);
+        generatedKeyAttributes.remove(primaryKey);
+
+        List<T> keyedRecords = new ArrayList<>(records.size());
+        List<T> unkeyedRecords = new ArrayList<>();
+        for (T record : records) {
+            if (primaryKey != null && primaryKey.get(record) != null) {
+                keyedRecords.add(record);
+            } else {
+                unkeyedRecords.add(record);
+            }
+        }
+
+        if (upsert && !unkeyedRecords.isEmpty()) {
+            throw new IllegalArgumentException("Records without a primary key cannot be upserted.");
+        }
+
+        clearIdentityMap();
+
+        String tableName = getTableName(type);
+        boolean ownTransaction = !isTransactionOpen();
+        if (ownTransaction) {
+            beginTransaction();
+        }
+
+        try {
+            // Within the transaction, so the table is invalidated again once
+            // it commits.
+            invalidateQueryCache(normalizeTableName(tableName));
+            PooledConnection pooledConnection = getTransactionConnection();
+            int updateCount = 0;
+
+            if (!keyedRecords.isEmpty()) {
+                String sql = upsert ? buildUpsertSQL(tableName, getColumnNames(attributes)) : buildInsertSQL(tableName, getColumnNames(attributes));
+                updateCount += writeBatches(pooledConnection, sql, attributes, keyedRecords, batchSize);
+            }
+            if (!unkeyedRecords.isEmpty()) {
+                String sql = buildInsertSQL(tableName, getColumnNames(generatedKeyAttributes));
+                updateCount += writeBatches(pooledConnection, sql, generatedKeyAttributes, unkeyedRecords, batchSize);
+            }
+
+            if (ownTransaction) {
+                commitTransaction();
+            }
+
+            int batchCount = (keyedRecords.size() + batchSize - 1) / batchSize + (unkeyedRecords.size() + batchSize - 1) / batchSize;
+            return new BulkResult(records.size(), updateCount, batchCount, System.nanoTime() - start);
+        } catch (RuntimeException ex) {
+            if (ownTransaction && isTransactionOpen()) {
+                try {
+                    rollbackTransaction();
+                } catch (ActiveRecordException ignored) {
+                    // The original failure is more relevant.
+                }
+            }
+            throw ex;
+        }
+    }
+
+    private int writeBatches(PooledConnection pooledConnection, String sql, List<RecordMapping.Attribute> attributes,
+                             List<? extends ActiveRecord> records, int batchSize) {
+        try {
+            PreparedStatement statement = prepare(pooledConnection, sql);
+            try {
+                List<Object> values = new ArrayList<>(attributes.size());
+                int updateCount = 0;
+                int pending = 0;
+
+                for (ActiveRecord record : records) {
+                    values.clear();
+                    for (RecordMapping.Attribute attribute : attributes) {
+                        values.add(attribute.get(record));
+                    }
+
+                    bind(statement, values);
+                    statement.addBatch();
+
+                    if (++pending == batchSize) {
+                        updateCount += sum(statement.executeBatch());
+                        pending = 0;
+                    }
+                }
+
+                if (pending > 0) {
+                    updateCount += sum(statement.executeBatch());
+                }
+
+                return updateCount;
+            } catch (SQLException sqlEx) {
+                discard(pooledConnection, sql);
+                throw sqlEx;
+            } finally {
+                close(pooledConnection, statement);
+            }
+        } catch (SQLException sqlEx) {
+            throw new ActiveRecordException("Could not run the statement: " + sql, sqlEx);
+        }
+    }
+
+    private static int sum(int[] updateCounts) {
+        int sum = 0;
+        for (int updateCount : updateCounts) {
+            // Drivers may answer SUCCESS_NO_INFO instead of a count.
+            if (updateCount > 0) {
+                sum += updateCount;
+            }
+        }
+        return sum;
+    }
+
+    private List<String> getColumnNames(List<RecordMapping.Attribute> attributes) {
+        List<String> columns = new ArrayList<>(attributes.size());
+        for (RecordMapping.Attribute attribute : attributes) {
+            columns.add(getColumnName(attribute));
+        }
+        return columns;
+    }
+
+    private static String buildInsertSQL(String tableName, List<String> columns) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
+        appendList(sql, columns);
+        sql.append(") VALUES (");
+        appendPlaceholders(sql, columns.size());
+        return sql.append(')').toString();
+    }
+
+    /**
+     * Builds the statement that inserts a row, or updates the row with the
+     * same primary key if there is one. The dialect is chosen by the url
+     * setting: H2, PostgreSQL, MySQL, MariaDB and SQLite are supported.
+     * Subclasses may override it to support other databases.
+     *
+     * @param tableName The name of the table.
+     * @param columns   The columns written, including the primary key.
+     * @return The SQL of the statement, with a "?" placeholder for each
+     * column.
+     * @throws UnsupportedOperationException If the database is not supported.
+     */
+    protected String buildUpsertSQL(String tableName, List<String> columns) {
+        String url = mConnectionSettings == null ? null : mConnectionSettings.get(ConnectionPool.SETTING_URL);
+        String database = url == null ? "" : url.toLowerCase(Locale.ENGLISH);
+
+        if (database.startsWith("jdbc:h2:")) {
+            StringBuilder sql = new StringBuilder("MERGE INTO ").append(tableName).append(" (");
+            appendList(sql, columns);
+            sql.append(") KEY (").append(PRIMARY_KEY).append(") VALUES (");
+            appendPlaceholders(sql, columns.size());
+            return sql.append(')').toString();
+        } else if (database.startsWith("jdbc:sqlite:")) {
+            return buildInsertSQL(tableName, columns).replaceFirst("^INSERT", "INSERT OR REPLACE");
+        }
+
+        StringBuilder sql = new StringBuilder(buildInsertSQL(tableName, columns));
+        List<String> updates = new ArrayList<>();
+
+        if (database.startsWith("jdbc:postgresql:")) {
+            for (String column : columns) {
+                if (!PRIMARY_KEY.equals(column)) {
+                    updates.add(column + " = EXCLUDED." + column);
+                }
+            }
+            sql.append(" ON CONFLICT (").append(PRIMARY_KEY).append(')');
+            if (updates.isEmpty()) {
+                return sql.append(" DO NOTHING").toString();
+            }
+            sql.append(" DO UPDATE SET ");
+        } else if (database.startsWith("jdbc:mysql:") || database.startsWith("jdbc:mariadb:")) {
+            for (String column : columns) {
+                if (!PRIMARY_KEY.equals(column)) {
+                    updates.add(column + " = VALUES(" + column + ")");
+                }
+            }
+            if (updates.isEmpty()) {
+                updates.add(PRIMARY_KEY + " = " + PRIMARY_KEY);
+            }
+            sql.append(" ON DUPLICATE KEY UPDATE ");
+        } else {
+            throw new UnsupportedOperationException("Upserts are not supported for the database at " + url + ".");
+        }
+
+        appendList(sql, updates);
+        return sql.toString();
+    }
+
+    private static void appendPlaceholders(StringBuilder sql, int count) {
+        for (int i = 0; i < count; i++) {
+            sql.append(i > 0 ? ", ?" : "?");
+        }
+    }
+
+    @Override
+    public <T extends ActiveRecord> List<T> all(ActiveRelation activeRelation, Class<T> type) {
+        return load(activeRelation, type, toSQL(activeRelation, type), activeRelation.getLimit());
+    }
+
+    @Override
+    public <T extends ActiveRecord> List<T> all(ActiveRelation activeRelation, Class<T> type, String sql) {
+        return load(activeRelation, type, sql, activeRelation.getLimit());
+    }
+
+    @Override
+    public <T extends ActiveRecord> T first(ActiveRelation activeRelation, Class<T> type) {
+        List<T> records = first(activeRelation, type, 1);
+        return records.isEmpty() ? null : records.get(0);
+    }
+
+    @Override
+    public <T extends ActiveRecord> List<T> first(ActiveRelation activeRelation, Class<T> type, Integer limit) {
+        String sql = toSQL(activeRelation, type, QUERY_FIRST, limit);
+
+        return load(activeRelation, type, sql, limit);
+    }
+
+    @Override
+    public <T extends ActiveRecord> T last(ActiveRelation activeRelation, Class<T> type) {
+        List<T> records = last(activeRelation, type, 1);
+        return records.isEmpty() ? null : records.get(0);
+    }
+
+    @Override
+    public <T extends ActiveRecord> List<T> last(ActiveRelation activeRelation, Class<T> type, Integer limit) {
+        String sql = toSQL(activeRelation, type, QUERY_LAST, limit);
+
+        List<T> records = load(activeRelation, type, sql, limit);
+        Collections.reverse(records);
+        return records;
+    }
+
+    /**
+     * Opens a cursor over the records of the relation. The rows are fetched
+     * in batches of the fetch size of the relation, or of the fetch_size
+     * setting if the relation has none, and mapped to records as they are
+     * iterated. On a connection of its own, outside of transactions and
+     * bound connections, the cursor turns auto-commit off while it is open,
+     * as some drivers only honor the fetch size then.
+     */
+    @Override
+    public <T extends ActiveRecord> Cursor<T> cursor(ActiveRelation activeRelation, Class<T> type) {
+        String sql = toSQL(activeRelation, type);
+        int fetchSize = activeRelation.hasFetchSize() ? activeRelation.getFetchSize() : mFetchSize;
+
+        PooledConnection pooledConnection = acquireConnection();
+        // Decided once, as the cursor may be closed on another thread, or
+        // after a transaction or binding began or ended.
+        boolean ownsConnection = pooledConnection != mTransactionConnection.get() && !isBound(pooledConnection);
+        PreparedStatement statement = null;
+        try {
+            Connection connection = pooledConnection.connection;
+            if (ownsConnection) {
+                connection.setAutoCommit(false);
+            }
+
+            // Cached statements are not used, as the cursor keeps its statement
+            // busy for as long as it is open.
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            bind(statement, activeRelation.getConditionsArguments());
+
+            ResultSet resultSet = statement.executeQuery();
+            return new JdbcCursor<>(pooledConnection, ownsConnection, statement, resultSet, RecordMapping.of(type));
+        } catch (SQLException | RuntimeException ex) {
+            closeQuietly(statement);
+            releaseCursorConnection(pooledConnection, ownsConnection);
+            if (ex instanceof RuntimeException) {
+                throw (RuntimeException) ex;
+            }
+            throw new ActiveRecordException("Could not run the query: " + sql, ex);
+        }
+    }
+
+    @Override
+    public <T extends ActiveRecord> long count(ActiveRelation activeRelation, Class<T> type) {
+        return ((Number) calculate(activeRelation, type, CALCULATION_COUNT, null)).longValue();
+    }
+
+    @Override
+    public <T extends ActiveRecord> boolean exists(ActiveRelation activeRelation, Class<T> type) {
+        if (activeRelation.hasLimit() && activeRelation.getLimit() < 1) {
+            return false;
+        }
+
+        String sql = toCalculationSQL(activeRelation, type, CALCULATION_EXISTS, null);
+        return !queryColumn(sql, activeRelation.getConditionsArguments()).isEmpty();
+    }
+
+    @Override
+    public <T extends ActiveRecord> Number sum(ActiveRelation activeRelation, Class<T> type, String column) {
+        Number sum = (Number) calculate(activeRelation, type, CALCULATION_SUM, column);
+        return sum == null ? 0L : sum;
+    }
+
+    @Override
+    public <T extends ActiveRecord> Object min(ActiveRelation activeRelation, Class<T> type, String column) {
+        return calculate(activeRelation, type, CALCULATION_MINIMUM, column);
+    }
+
+    @Override
+    public <T extends ActiveRecord> Object max(ActiveRelation activeRelation, Class<T> type, String column) {
+        return calculate(activeRelation, type, CALCULATION_MAXIMUM, column);
+    }
+
+    @Override
+    public <T extends ActiveRecord> Double average(ActiveRelation activeRelation, Class<T> type, String column) {
+        Number average = (Number) calculate(activeRelation, type, CALCULATION_AVERAGE, column);
+        return average == null ? null : average.doubleValue();
+    }
+
+    @Override
+    public <T extends ActiveRecord> List<Object> pluck(ActiveRelation activeRelation, Class<T> type, String column) {
+        String sql = toCalculationSQL(activeRelation, type, CALCULATION_PLUCK, column);
+        return queryColumn(sql, activeRelation.getConditionsArguments());
+    }
+
+    @Override
+    public <T extends ActiveRecord> LongArray pluckLongs(ActiveRelation activeRelation, Class<T> type, final String column) {
+        String sql = toCalculationSQL(activeRelation, type, CALCULATION_PLUCK, column);
+        return query(sql, activeRelation.getConditionsArguments(), new ResultSetReader<LongArray>() {
+            @Override
+            public LongArray read(ResultSet resultSet) throws SQLException {
+                LongArray values = new LongArray();
+                while (resultSet.next()) {
+                    values.add(resultSet.getLong(1));
+                    if (resultSet.wasNull()) {
+                        throw newNullValueException(column);
+                    }
+                }
+                return values;
+            }
+        });
+    }
+
+    @Override
+    public <T extends ActiveRecord> IntArray pluckInts(ActiveRelation activeRelation, Class<T> type, final String column) {
+        String sql = toCalculationSQL(activeRelation, type, CALCULATION_PLUCK, column);
+        return query(sql, activeRelation.getConditionsArguments(), new ResultSetReader<IntArray>() {
+            @Override
+            public IntArray read(ResultSet resultSet) throws SQLException {
+                IntArray values = new IntArray();
+                while (resultSet.next()) {
+                    values.add(resultSet.getInt(1));
+                    if (resultSet.wasNull()) {
+                        throw newNullValueException(column);
+                    }
+                }
+                return values;
+            }
+        });
+    }
+
+    @Override
+    public <T extends ActiveRecord> DoubleArray pluckDoubles(ActiveRelation activeRelation, Class<T> type, final String column) {
+        String sql = toCalculationSQL(activeRelation, type, CALCULATION_PLUCK, column);
+        return query(sql, activeRelation.getConditionsArguments(), new ResultSetReader<DoubleArray>() {
+            @Override
+            public DoubleArray read(ResultSet resultSet) throws SQLException {
+                DoubleArray values = new DoubleArray();
+                while (resultSet.next()) {
+                    values.add(resultSet.getDouble(1));
+                    if (resultSet.wasNull()) {
+                        throw newNullValueException(column);
+                    }
+                }
+                return values;
+            }
+        });
+    }
+
+    private <T extends ActiveRecord> Object calculate(ActiveRelation activeRelation, Class<T> type, String operation, String column) {
+        String sql = toCalculationSQL(activeRelation, type, operation, column);
+        List<Object> values = queryColumn(sql, activeRelation.getConditionsArguments());
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    private <T extends ActiveRecord> String toCalculationSQL(ActiveRelation activeRelation, Class<T> type, String operation, String column) {
+        SQLCache sqlCache = mSQLCache;
+        if (sqlCache == null) {
+            return buildCalculationSQL(activeRelation, type, operation, column);
+        }
+
+        String variant = column == null ? operation : operation + " " + column;
+        ActiveRelation.Fingerprint fingerprint = activeRelation.getFingerprint();
+        String sql = sqlCache.get(fingerprint, type, variant);
+        if (sql == null) {
+            sql = buildCalculationSQL(activeRelation, type, operation, column);
+            sqlCache.put(fingerprint, type, variant, sql);
+        }
+
+        return sql;
+    }
+
+    @Override
+    public <T extends ActiveRecord> String toSQL(ActiveRelation activeRelation, Class<T> type) {
+        return toSQL(activeRelation, type, QUERY_ALL, activeRelation.getLimit());
+    }
+
+    private <T extends ActiveRecord> String toSQL(ActiveRelation activeRelation, Class<T> type, int query, Integer limit) {
+        SQLCache sqlCache = mSQLCache;
+        if (sqlCache == null) {
+            return buildSQL(activeRelation, type, query, limit);
+        }
+
+        String variant = null;
+        if (query == QUERY_FIRST) {
+            variant = "first " + limit;
+        } else if (query == QUERY_LAST) {
+            variant = "last " + limit;
+        }
+
+        ActiveRelation.Fingerprint fingerprint = activeRelation.getFingerprint();
+        String sql = sqlCache.get(fingerprint, type, variant);
+        if (sql == null) {
+            sql = buildSQL(activeRelation, type, query, limit);
+            sqlCache.put(fingerprint, type, variant, sql);
+        }
+
+        return sql;
+    }
+
+    private <T extends ActiveRecord> String buildSQL(ActiveRelation activeRelation, Class<T> type, int query, Integer limit) {
+        List<String> order;
+        if (query == QUERY_ALL || activeRelation.hasOrder()) {
+            order = query == QUERY_LAST ? reverseOrder(activeRelation.getOrder()) : activeRelation.getOrder();
+        } else {
+            order = Collections.singletonList(PRIMARY_KEY + (query == QUERY_LAST ? " DESC" : " ASC"));
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ");
+
+        String tableName = getTableName(type);
+        if (activeRelation.hasSelect()) {
+            appendList(sql, activeRelation.getSelect());
+        } else if (activeRelation.hasJoins()) {
+            // The joined tables may have columns with the same names.
+            sql.append(tableName).append(".*");
+        } else {
+            sql.append('*');
+        }
+
+        appendFrom(sql, activeRelation, type, tableName);
+
+        if (!order.isEmpty()) {
+            sql.append(" ORDER BY ");
+            appendList(sql, order);
+        }
+
+        appendPagination(sql, limit, activeRelation.getOffset());
+
+        return sql.toString();
+    }
+
+    /**
+     * Builds the SQL of a calculation, which ignores the select of the
+     * relation. Aggregates of relations with a limit or an offset are
+     * computed over a subquery of the rows within them.
+     */
+    private <T extends ActiveRecord> String buildCalculationSQL(ActiveRelation activeRelation, Class<T> type, String operation, String column) {
+        String tableName = getTableName(type);
+        StringBuilder sql = new StringBuilder("SELECT ");
+
+        if (CALCULATION_EXISTS.equals(operation)) {
+            sql.append('1');
+            appendFrom(sql, activeRelation, type, tableName);
+            appendPagination(sql, 1, activeRelation.getOffset());
+            return sql.toString();
+        }
+
+        if (CALCULATION_PLUCK.equals(operation)) {
+            sql.append(column);
+            appendFrom(sql, activeRelation, type, tableName);
+            appendOrder(sql, activeRelation);
+            appendPagination(sql, activeRelation.getLimit(), activeRelation.getOffset());
+            return sql.toString();
+        }
+
+        String value = column == null ? "*" : column;
+        if (activeRelation.hasLimit() || activeRelation.hasOffset()) {
+            sql.append(aggregate(operation, column == null ? "*" : "calculated_value")).append(" FROM (SELECT ");
+            sql.append(column == null ? "1" : column + " AS calculated_value");
+            appendFrom(sql, activeRelation, type, tableName);
+            appendOrder(sql, activeRelation);
+            appendPagination(sql, activeRelation.getLimit(), activeRelation.getOffset());
+            return sql.append(") AS calculated_rows").toString();
+        }
+
+        sql.append(aggregate(operation, value));
+        appendFrom(sql, activeRelation, type, tableName);
+        return sql.toString();
+    }
+
+    private static String aggregate(String operation, String value) {
+        // Averages of integers would be truncated by some databases.
+        return CALCULATION_AVERAGE.equals(operation) ? "AVG(" + value + " * 1.0)" : operation + "(" + value + ")";
+    }
+
+    private <T extends ActiveRecord> void appendFrom(StringBuilder sql, ActiveRelation activeRelation, Class<T> type, String tableName) {
+        sql.append(" FROM ").append(tableName);
+
+        for (String join : activeRelation.getJoins()) {
+            sql.append(' ').append(toJoinSQL(type, join));
+        }
+
+        if (activeRelation.hasConditions()) {
+            sql.append(" WHERE ");
+            List<String> conditions = activeRelation.getConditions();
+            for (int i = 0; i < conditions.size(); i++) {
+                if (i > 0) {
+                    sql.append(" AND ");
+                }
+                sql.append('(').append(conditions.get(i)).append(')');
+            }
+        }
+    }
+
+    private static void appendOrder(StringBuilder sql, ActiveRelation activeRelation) {
+        if (activeRelation.hasOrder()) {
+            sql.append(" ORDER BY ");
+            appendList(sql, activeRelation.getOrder());
+        }
+    }
+
+    private static void appendPagination(StringBuilder sql, Integer limit, Integer offset) {
+        if (limit != null) {
+            sql.append(" LIMIT ").append(limit);
+        }
+
+        if (offset != null) {
+            sql.append(" OFFSET ").append(offset);
+        }
+    }
+
+    /**
+     * Returns the INNER JOIN of an association of the model, by its
+     * conventional keys, or the join as given if it is a join clause.
+     */
+    private String toJoinSQL(Class<? extends ActiveRecord> type, String join) {
+        if (!ASSOCIATION_NAME.matcher(join).matches()) {
+            return join;
+        }
+
+        RecordMapping.Association association = RecordMapping.of(type).getAssociation(join);
+        if (association == null) {
+            throw new IllegalArgumentException("Undefined association " + join + " of " + type.getSimpleName() + ".");
+        }
+
+        String tableName = getTableName(type);
+        String joinedTableName = getTableName(association.getType());
+        String foreignKey = getForeignKey(type, association);
+
+        if (association.isCollection()) {
+            return "INNER JOIN " + joinedTableName + " ON " + joinedTableName + "." + foreignKey
+                    + " = " + tableName + "." + getPrimaryKey(type);
+        }
+        return "INNER JOIN " + joinedTableName + " ON " + joinedTableName + "." + getPrimaryKey(association.getType())
+                + " = " + tableName + "." + foreignKey;
+    }
+
+    private static void appendList(StringBuilder sql, List<String> items) {
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(items.get(i));
+        }
+    }
+
+    private static List<String> reverseOrder(List<String> order) {
+        List<String> reversed = new ArrayList<>();
+
+        for (String clauses : order) {
+            for (String clause : splitTopLevel(clauses)) {
+                String trimmed = clause.trim();
+                String upperCased = trimmed.toUpperCase(Locale.ENGLISH);
+
+                if (upperCased.endsWith(" DESC")) {
+                    reversed.add(trimmed.substring(0, trimmed.length() - 5) + " ASC");
+                } else if (upperCased.endsWith(" ASC")) {
+                    reversed.add(trimmed.substring(0, trimmed.length() - 4) + " DESC");
+                } else {
+                    reversed.add(trimmed + " DESC");
+                }
+            }
+        }
+
+        return reversed;
+    }
+
+    /**
+     * Splits order clauses on the commas that separate them, leaving the
+     * commas within parentheses and quotes, such as those of
+     * {@code COALESCE(a, b) DESC}, in their clause.
+     */
+    private static List<String> splitTopLevel(String clauses) {
+        List<String> split = new ArrayList<>();
+        int depth = 0;
+        char quote = 0;
+        int start = 0;
+
+        for (int i = 0; i < clauses.length(); i++) {
+            char character = clauses.charAt(i);
+            if (quote != 0) {
+                if (character == quote) {
+                    quote = 0;
+                }
+            } else if (character == '\'' || character == '"' || character == '`') {
+                quote = character;
+            } else if (character == '(') {
+                depth++;
+            } else if (character == ')') {
+                depth--;
+            } else if (character == ',' && depth == 0) {
+                split.add(clauses.substring(start, i));
+                start = i + 1;
+            }
+        }
+        split.add(clauses.substring(start));
+
+        return split;
+    }
+
+    /**
+     * Runs a query and preloads the associations the relation includes.
+     * Cached relations preload their records once, before they are cached,
+     * so the cached records are never changed once other threads share them.
+     */
+    private <T extends ActiveRecord> List<T> load(ActiveRelation activeRelation, Class<T> type, String sql, Integer limit) {
+        // Transactions bypass the query cache, so they see their own writes
+        // and never cache them before they are committed.
+        QueryCache queryCache = mQueryCache;
+        if (queryCache != null && activeRelation.isCached() && !isTransactionOpen()) {
+            return loadCached(queryCache, activeRelation, type, sql);
+        }
+
+        List<T> records = loadRecords(activeRelation, type, sql, limit);
+        if (activeRelation.hasIncludes()) {
+            preload(records, type, activeRelation.getIncludes());
+        }
+
+        return records;
+    }
+
+    private <T extends ActiveRecord> List<T> loadCached(QueryCache queryCache, ActiveRelation activeRelation, Class<T> type, String sql) {
+        List<Object> arguments = activeRelation.getConditionsArguments();
+        QueryCache.Key key = new QueryCache.Key(type, sql, arguments, activeRelation.getIncludes());
+
+        @SuppressWarnings("unchecked")
+        List<T> cachedRecords = (List<T>) queryCache.get(key);
+        if (cachedRecords != null) {
+            return copyRecords(cachedRecords);
+        }
+
+        // Read before the query runs, so the records are not cached if a
+        // write invalidates their tables while it runs.
+        Set<String> tables = getTableNames(activeRelation, type);
+        long generation = queryCache.getGeneration(tables);
+
+        List<T> records = query(sql, arguments, type);
+        if (activeRelation.hasIncludes()) {
+            preload(records, type, activeRelation.getIncludes());
+        }
+        // The cached records never leave the cache, every caller gets copies
+        // it may change.
+        queryCache.put(key, tables, generation, copyRecords(records),
+                activeRelation.getCacheTtl(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        return records;
+    }
+
+    /**
+     * Copies records along with the records preloaded into them. A record
+     * associated with several of them is copied once.
+     */
+    private static <T extends ActiveRecord> List<T> copyRecords(List<T> records) {
+        Map<ActiveRecord, ActiveRecord> copies = new IdentityHashMap<>();
+        List<T> copiedRecords = new ArrayList<>(records.size());
+        for (T record : records) {
+            copiedRecords.add(copyRecord(record, copies));
+        }
+        return copiedRecords;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends ActiveRecord> T copyRecord(T record, Map<ActiveRecord, ActiveRecord> copies) {
+        if (record == null) {
+            return null;
+        }
+
+        T copy = (T) copies.get(record);
+        if (copy != null) {
+            return copy;
+        }
+
+        RecordMapping<? extends ActiveRecord> recordMapping = RecordMapping.of(record.getClass());
+        copy = (T) recordMapping.newInstance();
+        copies.put(record, copy);
+
+        for (RecordMapping.Attribute attribute : recordMapping.getAttributes()) {
+            attribute.set(copy, attribute.get(record));
+        }
+        for (RecordMapping.Association association : recordMapping.getAssociations()) {
+            Object value = association.get(record);
+            if (value instanceof List) {
+                List<ActiveRecord> associatedRecords = new ArrayList<>();
+                for (Object associatedRecord : (List<?>) value) {
+                    associatedRecords.add(copyRecord((ActiveRecord) associatedRecord, copies));
+                }
+                association.set(copy, associatedRecords);
+            } else {
+                association.set(copy, copyRecord((ActiveRecord) value, copies));
+            }
+        }
+
+        return copy;
+    }
+
+    /**
+     * Runs a query through the identity map of the current transaction, if
+     * any. Relations that only look a record up by primary key are answered
+     * by the map when the record was already loaded, and loaded records are
+     * replaced by the instances already in the map. Relations with a select
+     * or joins bypass the map, as their rows may not be whole records.
+     */
+    private <T extends ActiveRecord> List<T> loadRecords(ActiveRelation activeRelation, Class<T> type, String sql, Integer limit) {
+        List<Object> arguments = activeRelation.getConditionsArguments();
+
+        IdentityMap identityMap = mIdentityMap.get();
+        if (identityMap == null || activeRelation.hasSelect() || activeRelation.hasJoins()
+                || RecordMapping.of(type).getAttribute(PRIMARY_KEY) == null) {
+            return query(sql, arguments, type);
+        }
+
+        if (isPrimaryKeyLookup(activeRelation) && (limit == null || limit > 0)) {
+            T record = identityMap.get(type, arguments.get(0));
+            if (record != null) {
+                List<T> records = new ArrayList<>(1);
+                records.add(record);
+                return records;
+            }
+        }
+
+        List<T> records = query(sql, arguments, type);
+        for (int i = 0; i < records.size(); i++) {
+            T record = records.get(i);
+            Object primaryKey = getPrimaryKeyValue(record);
+            if (primaryKey != null) {
+                records.set(i, identityMap.put(record, primaryKey));
+            }
+        }
+
+        return records;
+    }
+
+    private static boolean isPrimaryKeyLookup(ActiveRelation activeRelation) {
+        List<String> conditions = activeRelation.getConditions();
+        List<Object> arguments = activeRelation.getConditionsArguments();
+
+        return conditions.size() == 1 && arguments.size() == 1 && arguments.get(0) != null
+                && !activeRelation.hasOffset() && PRIMARY_KEY_CONDITION.matcher(conditions.get(0)).matches();
+    }
+
+    private Set<String> getTableNames(ActiveRelation activeRelation, Class<? extends ActiveRecord> type) {
+        Set<String> tableNames = new HashSet<>();
+        tableNames.add(normalizeTableName(getTableName(type)));
+
+        for (String join : activeRelation.getJoins()) {
+            Matcher matcher = JOINED_TABLE.matcher(toJoinSQL(type, join));
+            while (matcher.find()) {
+                tableNames.add(normalizeTableName(matcher.group(1)));
+            }
+        }
+
+        // The preloaded records are cached along with the records of the
+        // relation, so writes to their tables invalidate it too.
+        RecordMapping<? extends ActiveRecord> mapping = RecordMapping.of(type);
+        for (String include : activeRelation.getIncludes()) {
+            RecordMapping.Association association = mapping.getAssociation(include);
+            if (association != null) {
+                tableNames.add(normalizeTableName(getTableName(association.getType())));
+            }
+        }
+
+        return tableNames;
+    }
+
+    private static String normalizeTableName(String tableName) {
+        String normalized = tableName.replace("\"", "").replace("`", "").toLowerCase(Locale.ENGLISH);
+        return normalized.substring(normalized.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Removes the cached queries that read a table, or every cached query if
+     * the table is null, and remembers the table to invalidate it again when
+     * the transaction of the current thread ends.
+     */
+    private void invalidateQueryCache(String table) {
+        QueryCache queryCache = mQueryCache;
+        if (queryCache == null) {
+            return;
+        }
+
+        if (table == null) {
+            queryCache.clear();
+        } else {
+            queryCache.invalidate(table);
+        }
+
+        if (isTransactionOpen()) {
+            Set<String> writtenTables = mWrittenTables.get();
+            if (writtenTables == null) {
+                writtenTables = new HashSet<>();
+                mWrittenTables.set(writtenTables);
+            }
+            writtenTables.add(table);
+        }
+    }
+
+    private void clearIdentityMap() {
+        // Writes may change any loaded record, forget them all.
+        IdentityMap identityMap = mIdentityMap.get();
+        if (identityMap != null) {
+            identityMap.clear();
+        }
+    }
+
+    private <T extends ActiveRecord> List<T> query(String sql, List<Object> arguments, final Class<T> type) {
+        return query(sql, arguments, new ResultSetReader<List<T>>() {
+            @Override
+            public List<T> read(ResultSet resultSet) throws SQLException {
+                return map(resultSet, type);
+            }
+        });
+    }
+
+    private List<Object> queryColumn(String sql, List<Object> arguments) {
+        return query(sql, arguments, new ResultSetReader<List<Object>>() {
+            @Override
+            public List<Object> read(ResultSet resultSet) throws SQLException {
+                List<Object> values = new ArrayList<>();
+                while (resultSet.next()) {
+                    values.add(resultSet.getObject(1));
+                }
+                return values;
+            }
+        });
+    }
+
+    private <R> R query(String sql, List<Object> arguments, ResultSetReader<R> reader) {
+        PooledConnection pooledConnection = acquireConnection();
+        try {
+            PreparedStatement statement = prepare(pooledConnection, sql);
+            try {
+                bind(statement, arguments);
+
+                ResultSet resultSet = statement.executeQuery();
+                try {
+                    return reader.read(resultSet);
+                } finally {
+                    resultSet.close();
+                }
+            } catch (SQLException sqlEx) {
+                discard(pooledConnection, sql);
+                throw sqlEx;
+            } finally {
+                close(pooledConnection, statement);
+            }
+        } catch (SQLException sqlEx) {
+            throw new ActiveRecordException("Could not run the query: " + sql, sqlEx);
+        } finally {
+            releaseConnection(pooledConnection);
+        }
+    }
+
+    private PooledConnection acquireConnection() {
+        PooledConnection pooledConnection = mTransactionConnection.get();
+        if (pooledConnection != null) {
+            return pooledConnection;
+        }
+
+        Binding binding = mBinding.get();
+        if (binding != null) {
+            return binding.pooledConnection;
+        }
+
+        return getConnectionPool().checkoutPooled();
+    }
+
+    private void releaseConnection(PooledConnection pooledConnection) {
+        if (pooledConnection != mTransactionConnection.get() && !isBound(pooledConnection)) {
+            getConnectionPool().checkin(pooledConnection);
+        }
+    }
+
+    private void releaseCursorConnection(PooledConnection pooledConnection, boolean ownsConnection) {
+        // Only the connections cursors own had auto-commit turned off, and
+        // are checked in by them.
+        if (ownsConnection) {
+            restoreAutoCommit(pooledConnection);
+            getConnectionPool().checkin(pooledConnection);
+        }
+    }
+
+    private static PreparedStatement prepare(PooledConnection pooledConnection, String sql) throws SQLException {
+        if (pooledConnection.statementCache == null) {
+            return pooledConnection.connection.prepareStatement(sql);
+        }
+        return pooledConnection.statementCache.prepare(pooledConnection.connection, sql);
+    }
+
+    private static void close(PooledConnection pooledConnection, PreparedStatement statement) throws SQLException {
+        if (pooledConnection.statementCache == null) {
+            statement.close();
+        } else if (!statement.isClosed()) {
+            statement.clearParameters();
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Exception ignored) {
+                // The resource is being discarded anyway.
+            }
+        }
+    }
+
+    private static void discard(PooledConnection pooledConnection, String sql) {
+        // A failed statement may be left in an unusable state, prepare it again
+        // the next time.
+        if (pooledConnection.statementCache != null) {
+            pooledConnection.statementCache.remove(sql);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, List<Object> arguments) throws SQLException {
+        for (int i = 0; i < arguments.size(); i++) {
+            Object argument = arguments.get(i);
+
+            if (argument instanceof java.util.Date && !(argument instanceof java.sql.Timestamp)
+                    && !(argument instanceof java.sql.Date) && !(argument instanceof java.sql.Time)) {
+                argument = new Timestamp(((java.util.Date) argument).getTime());
+            } else if (argument instanceof Enum) {
+                argument = ((Enum) argument).name();
+            }
+
+            statement.setObject(i + 1, argument);
+        }
+    }
+
+    private static <T extends ActiveRecord> List<T> map(ResultSet resultSet, Class<T> type) throws SQLException {
+        RecordMapping.Plan<T> plan = RecordMapping.of(type).getPlan(resultSet.getMetaData());
+        List<T> records = new ArrayList<>();
+
+        while (resultSet.next()) {
+            records.add(plan.map(resultSet));
+        }
+
+        return records;
+    }
+
+    private final class JdbcCursor<T extends ActiveRecord> implements Cursor<T> {
+        private final PooledConnection mPooledConnection;
+        private final boolean mOwnsConnection;
+        private final PreparedStatement mStatement;
+        private final ResultSet mResultSet;
+        private final RecordMapping.Plan<T> mPlan;
+        private T mNext;
+        private boolean mClosed;
+        private boolean mIterated;
+
+        JdbcCursor(PooledConnection pooledConnection, boolean ownsConnection, PreparedStatement statement, ResultSet resultSet,
+                   RecordMapping<T> recordMapping) throws SQLException {
+            mPooledConnection = pooledConnection;
+            mOwnsConnection = ownsConnection;
+            mStatement = statement;
+            mResultSet = resultSet;
+            mPlan = recordMapping.getPlan(resultSet.getMetaData());
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            if (mIterated) {
+                throw new IllegalStateException("A cursor may only be iterated once.");
+            }
+            mIterated = true;
+            return this;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (mNext != null) {
+                return true;
+            }
+            if (mClosed) {
+                return false;
+            }
+
+            try {
+                if (mResultSet.next()) {
+                    mNext = mPlan.map(mResultSet);
+                    return true;
+                }
+            } catch (SQLException sqlEx) {
+                close();
+                throw new ActiveRecordException("Could not fetch the next record.", sqlEx);
+            } catch (RuntimeException ruEx) {
+                close();
+                throw ruEx;
+            }
+
+            close();
+            return false;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            T next = mNext;
+            mNext = null;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            if (mClosed) {
+                return;
+            }
+            mClosed = true;
+
+            closeQuietly(mResultSet);
+            closeQuietly(mStatement);
+            releaseCursorConnection(mPooledConnection, mOwnsConnection);
+        }
+    }
+
+    private static final class Binding {
+        final PooledConnection pooledConnection;
+        final boolean checkedOut;
+        int depth;
+
+        Binding(PooledConnection pooledConnection, boolean checkedOut) {
+            this.pooledConnection = pooledConnection;
+            this.checkedOut = checkedOut;
+            this.depth = 1;
+        }
+    }
+
+    /**
+     * Reads the result of a query.
+     */
+    private interface ResultSetReader<R> {
+        R read(ResultSet resultSet) throws SQLException;
+    }
+}
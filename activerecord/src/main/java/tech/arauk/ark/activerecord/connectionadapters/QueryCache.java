@@ -0,0 +1,134 @@
+package tech.arauk.ark.activerecord.connectionadapters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import tech.arauk.ark.activerecord.ActiveRecord;
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * A second-level cache of the records of
+ * {@link tech.arauk.ark.activerecord.ActiveRelation#cached(long, TimeUnit)
+ * cached} relations, shared by every thread. The adapter stores the records
+ * of a query under a {@link Key} made of the model class, the SQL and its
+ * arguments, along with the tables the query reads, and invalidates those
+ * tables when it writes to them.
+ * <p/>
+ * {@link InMemoryQueryCache} is the default implementation. Others, such as
+ * a cache shared between processes, are set with
+ * {@link JdbcAdapter#setQueryCache(QueryCache)}, and must be safe for use by
+ * several threads.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public interface QueryCache {
+    /**
+     * Returns the cached records of a query.
+     *
+     * @param key The key of the query.
+     * @return The records, or null if they are not cached or expired.
+     */
+    List<? extends ActiveRecord> get(Key key);
+
+    /**
+     * Returns the generation of some tables, which changes whenever one of
+     * them is invalidated or the cache is cleared. The adapter reads it
+     * before it runs a query, so records read before a write committed are
+     * not cached once the write invalidated their tables.
+     *
+     * @param tables The lower cased names of the tables.
+     * @return The generation of the tables.
+     */
+    long getGeneration(Set<String> tables);
+
+    /**
+     * Caches the records of a query, unless one of its tables was
+     * invalidated since the given generation.
+     *
+     * @param key        The key of the query.
+     * @param tables     The lower cased names of the tables the query reads.
+     * @param generation The generation of the tables before the query ran.
+     * @param records    The records returned by the query.
+     * @param ttl        How long the records may be cached.
+     * @param unit       The unit of the time to live.
+     */
+    void put(Key key, Set<String> tables, long generation, List<? extends ActiveRecord> records, long ttl, TimeUnit unit);
+
+    /**
+     * Removes every query that reads the given table.
+     *
+     * @param table The lower cased name of the table.
+     */
+    void invalidate(String table);
+
+    /**
+     * Removes every query.
+     */
+    void clear();
+
+    /**
+     * Identifies a query by its model class, SQL and arguments, and the
+     * associations preloaded into its records.
+     */
+    final class Key {
+        private final Class<? extends ActiveRecord> mType;
+        private final String mSQL;
+        private final List<Object> mArguments;
+        private final List<String> mIncludes;
+        private final int mHashCode;
+
+        public Key(Class<? extends ActiveRecord> type, String sql, List<Object> arguments) {
+            this(type, sql, arguments, Collections.<String>emptyList());
+        }
+
+        public Key(Class<? extends ActiveRecord> type, String sql, List<Object> arguments, List<String> includes) {
+            mType = type;
+            mSQL = sql;
+            mArguments = Collections.unmodifiableList(new ArrayList<>(arguments));
+            mIncludes = Collections.unmodifiableList(new ArrayList<>(includes));
+            mHashCode = 31 * (31 * (31 * type.hashCode() + sql.hashCode()) + mArguments.hashCode()) + mIncludes.hashCode();
+        }
+
+        public Class<? extends ActiveRecord> getType() {
+            return mType;
+        }
+
+        public String getSQL() {
+            return mSQL;
+        }
+
+        public List<Object> getArguments() {
+            return mArguments;
+        }
+
+        public List<String> getIncludes() {
+            return mIncludes;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) object;
+            return mHashCode == key.mHashCode && mType == key.mType && mSQL.equals(key.mSQL) && mArguments.equals(key.mArguments)
+                    && mIncludes.equals(key.mIncludes);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+
+        @Override
+        public String toString() {
+            String string = mType.getName() + ": " + mSQL + " " + mArguments;
+            return mIncludes.isEmpty() ? string : string + " includes " + mIncludes;
+        }
+    }
+}
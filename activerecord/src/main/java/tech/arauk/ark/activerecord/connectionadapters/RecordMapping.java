@@ -0,0 +1,606 @@
+package tech.arauk.ark.activerecord.connectionadapters;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import tech.arauk.ark.activerecord.ActiveRecord;
+import tech.arauk.ark.activerecord.ActiveRecordException;
+import tech.arauk.ark.activesupport.Inflector;
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * Maps database columns to the fields of an {@link ActiveRecord} subclass.
+ * Each class is introspected once: its constructor and fields are turned into
+ * method handles, which are composed into a single handle per sequence of
+ * columns, so filling a record from a row costs little more than hand-written
+ * code once the JIT compiler inlines it.
+ * <pre>{@code
+ * RecordMapping<User> mapping = RecordMapping.of(User.class);
+ * RecordMapping.Plan<User> plan = mapping.getPlan(resultSet.getMetaData());
+ * while (resultSet.next()) {
+ *     User user = plan.map(resultSet);
+ * }
+ * }</pre>
+ * Every column is mapped to the field with the same name, its camel cased
+ * name or its camel cased name prefixed by "m", so the created_at column may
+ * be mapped to a field named created_at, createdAt or mCreatedAt. Columns
+ * without a matching field are ignored, as are static, final and transient
+ * fields. Numbers are converted to the numeric type of the field, strings to
+ * enums and anything to strings.
+ * <p/>
+ * Fields holding a record, or a list of records, are not mapped to columns
+ * but are the {@link Association associations} of the class:
+ * <pre>{@code
+ * public class Post extends ActiveRecord {
+ *     private Long mAuthorId;
+ *     private Author mAuthor;           // belongs to an author, by author_id
+ *     private List<Comment> mComments; // has many comments, by their post_id
+ * }
+ * }</pre>
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public final class RecordMapping<T extends ActiveRecord> {
+    private static final ClassValue<RecordMapping<?>> sMappings = new ClassValue<RecordMapping<?>>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected RecordMapping<?> computeValue(Class<?> type) {
+            return new RecordMapping<>((Class<? extends ActiveRecord>) type);
+        }
+    };
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final int MAXIMUM_PLANS = 100;
+    private static final MethodHandle ARRAY_GETTER;
+    private static final MethodHandle CONVERT;
+    private static final MethodHandle IGNORE;
+    private static final MethodHandle IS_INSTANCE;
+    private static final MethodHandle IS_NOT_NULL;
+    private static final MethodHandle RESULT_SET_GETTER;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            ARRAY_GETTER = MethodHandles.arrayElementGetter(Object[].class)
+                    .asType(MethodType.methodType(Object.class, Object.class, int.class));
+            CONVERT = lookup.findVirtual(Attribute.class, "convert", GETTER_TYPE);
+            IGNORE = lookup.findStatic(RecordMapping.class, "ignore", SETTER_TYPE);
+            IS_INSTANCE = lookup.findVirtual(Class.class, "isInstance", MethodType.methodType(boolean.class, Object.class));
+            IS_NOT_NULL = lookup.findStatic(RecordMapping.class, "isNotNull",
+                    MethodType.methodType(boolean.class, Object.class, Object.class));
+            RESULT_SET_GETTER = lookup.findVirtual(ResultSet.class, "getObject", MethodType.methodType(Object.class, int.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, int.class));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    // Initialized after the handles its converter is built from.
+    private static final Attribute MISSING = new Attribute(null, Object.class, null, null);
+    private final Class<T> mType;
+    private final MethodHandle mConstructor;
+    private final Map<String, Attribute> mAttributes;
+    private final List<Attribute> mAttributeList;
+    private final Map<String, Association> mAssociations;
+    private final List<Association> mAssociationList;
+    private final ConcurrentHashMap<String, Attribute> mColumns;
+    private final ConcurrentHashMap<List<String>, Plan<T>> mPlans;
+
+    private RecordMapping(Class<T> type) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        mType = type;
+        mColumns = new ConcurrentHashMap<>();
+        mPlans = new ConcurrentHashMap<>();
+        mAttributes = new LinkedHashMap<>();
+        mAssociations = new LinkedHashMap<>();
+
+        try {
+            java.lang.reflect.Constructor<T> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            mConstructor = lookup.unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException noSuMeEx) {
+            throw new ActiveRecordException(type.getName() + " must declare a constructor without arguments.", noSuMeEx);
+        } catch (IllegalAccessException ilAcEx) {
+            throw new ActiveRecordException("Could not access the constructor of " + type.getName() + ".", ilAcEx);
+        }
+
+        for (Class<?> current = type; current != null && current != ActiveRecord.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || Modifier.isTransient(modifiers)
+                        || mAttributes.containsKey(field.getName()) || mAssociations.containsKey(field.getName())) {
+                    continue;
+                }
+
+                field.setAccessible(true);
+                try {
+                    MethodHandle getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+                    MethodHandle setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+
+                    Class<? extends ActiveRecord> associatedType = getAssociatedType(field);
+                    if (associatedType != null) {
+                        mAssociations.put(field.getName(), new Association(field, associatedType, getter, setter));
+                    } else {
+                        mAttributes.put(field.getName(), new Attribute(field, field.getType(), getter, setter));
+                    }
+                } catch (IllegalAccessException ilAcEx) {
+                    throw new ActiveRecordException("Could not access the field " + field + ".", ilAcEx);
+                }
+            }
+        }
+
+        mAttributeList = Collections.unmodifiableList(new ArrayList<>(mAttributes.values()));
+        mAssociationList = Collections.unmodifiableList(new ArrayList<>(mAssociations.values()));
+    }
+
+    /**
+     * Returns the mapping of a model class, introspecting it the first time.
+     *
+     * @param type The model class.
+     * @return The mapping of the class.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends ActiveRecord> RecordMapping<T> of(Class<T> type) {
+        return (RecordMapping<T>) sMappings.get(type);
+    }
+
+    public Class<T> getType() {
+        return mType;
+    }
+
+    /**
+     * Returns every mapped field of the class, starting with the fields
+     * declared by the class itself, in declaration order, followed by the
+     * inherited ones.
+     *
+     * @return The attributes of the class.
+     */
+    public List<Attribute> getAttributes() {
+        return mAttributeList;
+    }
+
+    /**
+     * Returns the class of the records a field holds, if it holds a record or
+     * a list of records.
+     */
+    private static Class<? extends ActiveRecord> getAssociatedType(Field field) {
+        Class<?> type = field.getType();
+        if (ActiveRecord.class.isAssignableFrom(type)) {
+            return type.asSubclass(ActiveRecord.class);
+        }
+
+        if (type.isAssignableFrom(ArrayList.class) && type != Object.class
+                && field.getGenericType() instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) field.getGenericType()).getActualTypeArguments();
+            if (arguments.length == 1 && arguments[0] instanceof Class
+                    && ActiveRecord.class.isAssignableFrom((Class<?>) arguments[0])) {
+                return ((Class<?>) arguments[0]).asSubclass(ActiveRecord.class);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return The associations of the class, in the order of
+     * {@link #getAttributes()}.
+     */
+    public List<Association> getAssociations() {
+        return mAssociationList;
+    }
+
+    /**
+     * Returns an association by name, which matches its field like a column
+     * does, so the blog_posts association may be held by a field named
+     * blog_posts, blogPosts or mBlogPosts.
+     *
+     * @param name The name of the association.
+     * @return The association, or null if no field matches the name.
+     */
+    public Association getAssociation(String name) {
+        Association association = mAssociations.get(name);
+        if (association != null) {
+            return association;
+        }
+
+        association = mAssociations.get(Inflector.camelize(name, false));
+        if (association != null) {
+            return association;
+        }
+
+        return mAssociations.get("m" + Inflector.camelize(name));
+    }
+
+    /**
+     * Returns the attribute a column is mapped to.
+     *
+     * @param column The name of the column, in any case.
+     * @return The attribute, or null if no field matches the column.
+     */
+    public Attribute getAttribute(String column) {
+        Attribute attribute = mColumns.get(column);
+        if (attribute == null) {
+            attribute = findAttribute(column);
+            mColumns.put(column, attribute == null ? MISSING : attribute);
+        }
+
+        return attribute == MISSING ? null : attribute;
+    }
+
+    private Attribute findAttribute(String column) {
+        Attribute attribute = mAttributes.get(column);
+        if (attribute != null) {
+            return attribute;
+        }
+
+        String underscored = column.toLowerCase(Locale.ENGLISH);
+        attribute = mAttributes.get(Inflector.camelize(underscored, false));
+        if (attribute != null) {
+            return attribute;
+        }
+
+        return mAttributes.get("m" + Inflector.camelize(underscored));
+    }
+
+    /**
+     * Returns the plan that fills records from rows with the given columns,
+     * composing it the first time.
+     *
+     * @param columns The names of the columns, in the order of the row.
+     * @return The plan of the columns.
+     */
+    public Plan<T> getPlan(String... columns) {
+        List<String> key = Arrays.asList(columns.clone());
+
+        Plan<T> plan = mPlans.get(key);
+        if (plan == null) {
+            Attribute[] attributes = new Attribute[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                attributes[i] = getAttribute(columns[i]);
+            }
+
+            plan = new Plan<>(mType, compose(RESULT_SET_GETTER, 1, attributes), compose(ARRAY_GETTER, 0, attributes));
+            if (mPlans.size() >= MAXIMUM_PLANS) {
+                mPlans.clear();
+            }
+            mPlans.put(key, plan);
+        }
+
+        return plan;
+    }
+
+    /**
+     * Returns the plan that fills records from the rows of a result set.
+     *
+     * @param metaData The metadata of the result set.
+     * @return The plan of the columns of the result set.
+     * @throws SQLException If the metadata could not be read.
+     */
+    public Plan<T> getPlan(ResultSetMetaData metaData) throws SQLException {
+        String[] columns = new String[metaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = metaData.getColumnLabel(i + 1);
+        }
+        return getPlan(columns);
+    }
+
+    /**
+     * Composes a single method handle that creates a record and assigns the
+     * converted value of every mapped column, reading the values with a getter
+     * of type (Object row, int index)Object whose first index is the given one. Being a single handle, the JIT
+     * compiler may inline the whole chain once it is hot.
+     */
+    private MethodHandle compose(MethodHandle getter, int firstIndex, Attribute[] attributes) {
+        // (Object record, Object row)void
+        MethodHandle assignments = IGNORE;
+
+        for (int i = attributes.length - 1; i >= 0; i--) {
+            Attribute attribute = attributes[i];
+            if (attribute == null) {
+                continue;
+            }
+
+            // (Object row)Object
+            MethodHandle value = MethodHandles.insertArguments(getter, 1, firstIndex + i);
+            value = MethodHandles.filterReturnValue(value, attribute.mConverter);
+
+            // (Object record, Object value)void
+            MethodHandle assignment = attribute.mSetter;
+            if (attribute.mPrimitive) {
+                assignment = MethodHandles.guardWithTest(IS_NOT_NULL, assignment, IGNORE);
+            }
+
+            assignments = MethodHandles.foldArguments(assignments, MethodHandles.filterArguments(assignment, 1, value));
+        }
+
+        // (Object record, Object row)Object, returning the record.
+        MethodHandle record = MethodHandles.dropArguments(MethodHandles.identity(Object.class), 1, Object.class);
+        return MethodHandles.foldArguments(MethodHandles.foldArguments(record, assignments), mConstructor);
+    }
+
+    private static boolean isNotNull(Object record, Object value) {
+        return value != null;
+    }
+
+    private static void ignore(Object record, Object value) {
+    }
+
+    /**
+     * Creates a new, empty record.
+     *
+     * @return A new record.
+     */
+    @SuppressWarnings("unchecked")
+    public T newInstance() {
+        try {
+            // The call site type must match the handle type exactly.
+            Object record = (Object) mConstructor.invokeExact();
+            return (T) record;
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable throwable) {
+            throw new ActiveRecordException("Could not instantiate " + mType.getName() + ".", throwable);
+        }
+    }
+
+    /**
+     * The composed handles that fill records from rows with a given sequence
+     * of columns, obtained with {@link #getPlan(String...)}. Plans are
+     * immutable and may be shared between threads.
+     *
+     * @param <T> The model class.
+     */
+    public static final class Plan<T extends ActiveRecord> {
+        private final Class<T> mType;
+        private final MethodHandle mResultSetMapper;
+        private final MethodHandle mArrayMapper;
+
+        private Plan(Class<T> type, MethodHandle resultSetMapper, MethodHandle arrayMapper) {
+            mType = type;
+            mResultSetMapper = resultSetMapper;
+            mArrayMapper = arrayMapper;
+        }
+
+        /**
+         * Creates a record from the current row of a result set.
+         *
+         * @param resultSet The result set, positioned on a row.
+         * @return A new record.
+         * @throws SQLException If a column could not be read.
+         */
+        public T map(ResultSet resultSet) throws SQLException {
+            try {
+                // The call site type must match the handle type exactly.
+                Object record = (Object) mResultSetMapper.invokeExact((Object) resultSet);
+                return mType.cast(record);
+            } catch (SQLException | RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable throwable) {
+                throw new ActiveRecordException("Could not map a row to " + mType.getName() + ".", throwable);
+            }
+        }
+
+        /**
+         * Creates a record from a row of values, in the order of the columns of
+         * the plan.
+         *
+         * @param values The values of the row.
+         * @return A new record.
+         */
+        public T map(Object[] values) {
+            try {
+                Object record = (Object) mArrayMapper.invokeExact((Object) values);
+                return mType.cast(record);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable throwable) {
+                throw new ActiveRecordException("Could not map a row to " + mType.getName() + ".", throwable);
+            }
+        }
+    }
+
+    /**
+     * A field of a model, with the method handles to read and write it.
+     */
+    public static final class Attribute {
+        private final Field mField;
+        private final Class<?> mType;
+        private final Class<?> mBoxedType;
+        private final MethodHandle mGetter;
+        private final MethodHandle mSetter;
+        private final MethodHandle mConverter;
+        private final boolean mPrimitive;
+
+        private Attribute(Field field, Class<?> type, MethodHandle getter, MethodHandle setter) {
+            mField = field;
+            mType = type;
+            mBoxedType = MethodType.methodType(type).wrap().returnType();
+            mGetter = getter;
+            mSetter = setter;
+            mPrimitive = type.isPrimitive();
+            // Values of the type of the field skip the conversion.
+            mConverter = MethodHandles.guardWithTest(IS_INSTANCE.bindTo(mBoxedType),
+                    MethodHandles.identity(Object.class), CONVERT.bindTo(this));
+        }
+
+        public String getName() {
+            return mField.getName();
+        }
+
+        public Class<?> getType() {
+            return mType;
+        }
+
+        /**
+         * Reads the field of a record.
+         *
+         * @param record The record.
+         * @return The value of the field, boxed if primitive.
+         */
+        public Object get(Object record) {
+            try {
+                return (Object) mGetter.invokeExact(record);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable throwable) {
+                throw new ActiveRecordException("Could not read the field " + mField + ".", throwable);
+            }
+        }
+
+        /**
+         * Converts a value read from the database to the type of the field and
+         * writes it. Null values are ignored by primitive fields.
+         *
+         * @param record The record.
+         * @param value  The value read from the database.
+         */
+        public void set(Object record, Object value) {
+            Object converted = convert(value);
+            if (converted == null && mPrimitive) {
+                return;
+            }
+
+            try {
+                mSetter.invokeExact(record, converted);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable throwable) {
+                throw new ActiveRecordException("Could not assign the field " + mField + ".", throwable);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        Object convert(Object value) {
+            Class<?> type = mType;
+
+            if (value == null || mBoxedType.isInstance(value)) {
+                return value;
+            } else if (value instanceof Number) {
+                Number number = (Number) value;
+                if (type == Long.class || type == long.class) {
+                    return number.longValue();
+                } else if (type == Integer.class || type == int.class) {
+                    return number.intValue();
+                } else if (type == Double.class || type == double.class) {
+                    return number.doubleValue();
+                } else if (type == Float.class || type == float.class) {
+                    return number.floatValue();
+                } else if (type == Short.class || type == short.class) {
+                    return number.shortValue();
+                } else if (type == Byte.class || type == byte.class) {
+                    return number.byteValue();
+                } else if (type == Boolean.class || type == boolean.class) {
+                    return number.intValue() != 0;
+                } else if (type == BigDecimal.class) {
+                    return new BigDecimal(number.toString());
+                } else if (type == BigInteger.class) {
+                    return new BigDecimal(number.toString()).toBigInteger();
+                }
+            } else if (value instanceof String && type.isEnum()) {
+                return Enum.valueOf((Class<Enum>) type, (String) value);
+            }
+
+            if (type == String.class) {
+                return value.toString();
+            }
+
+            throw new ActiveRecordException("Could not assign a " + value.getClass().getName() + " to the field " + mField + ".");
+        }
+    }
+
+    /**
+     * A field of a model holding the records of another model: a single
+     * record the model belongs to, or the list of records it has many of.
+     */
+    public static final class Association {
+        private final Field mField;
+        private final String mName;
+        private final Class<? extends ActiveRecord> mType;
+        private final boolean mCollection;
+        private final MethodHandle mGetter;
+        private final MethodHandle mSetter;
+
+        private Association(Field field, Class<? extends ActiveRecord> type, MethodHandle getter, MethodHandle setter) {
+            String name = field.getName();
+            if (name.length() > 1 && name.charAt(0) == 'm' && Character.isUpperCase(name.charAt(1))) {
+                name = name.substring(1);
+            }
+
+            mField = field;
+            mName = Inflector.underscore(name);
+            mType = type;
+            mCollection = !ActiveRecord.class.isAssignableFrom(field.getType());
+            mGetter = getter;
+            mSetter = setter;
+        }
+
+        /**
+         * @return The underscored name of the field, without its "m" prefix.
+         */
+        public String getName() {
+            return mName;
+        }
+
+        /**
+         * @return The class of the associated records.
+         */
+        public Class<? extends ActiveRecord> getType() {
+            return mType;
+        }
+
+        /**
+         * @return Whether the field holds a list of records rather than a
+         * single record.
+         */
+        public boolean isCollection() {
+            return mCollection;
+        }
+
+        public Object get(Object record) {
+            try {
+                return (Object) mGetter.invokeExact(record);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable throwable) {
+                throw new ActiveRecordException("Could not read the field " + mField + ".", throwable);
+            }
+        }
+
+        /**
+         * Writes the field of a record.
+         *
+         * @param record The record.
+         * @param value  The associated record, or an ArrayList of them.
+         */
+        public void set(Object record, Object value) {
+            try {
+                mSetter.invokeExact(record, value);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable throwable) {
+                throw new ActiveRecordException("Could not assign the field " + mField + ".", throwable);
+            }
+        }
+    }
+}
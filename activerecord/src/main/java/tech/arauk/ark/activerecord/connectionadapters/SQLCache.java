@@ -0,0 +1,170 @@
+package tech.arauk.ark.activerecord.connectionadapters;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import tech.arauk.ark.activerecord.ActiveRelation;
+import tech.arauk.ark.activesupport.Inflector;
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * A cache of the SQL generated by an adapter for an
+ * {@link ActiveRelation}, keyed by the
+ * {@link ActiveRelation#getFingerprint() fingerprint} of the relation, the
+ * model class and a variant naming the kind of query, such as "first 1".
+ * Relations that only differ in the arguments of their conditions share the
+ * same SQL, so the adapter may skip building the SQL and inflecting the table
+ * name on repeated queries:
+ * <pre>{@code
+ * String sql = cache.get(relation.getFingerprint(), User.class, null);
+ * if (sql == null) {
+ *     sql = buildSQL(relation, User.class);
+ *     cache.put(relation.getFingerprint(), User.class, null, sql);
+ * }
+ * }</pre>
+ * Table names are derived from the inflections, so entries are ignored once
+ * the "en-US" inflections change. When the cache is full it is cleared, which
+ * only happens repeatedly when the conditions embed their values instead of
+ * passing them as arguments.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public class SQLCache {
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+    private final AtomicLong mClearCount;
+    private final AtomicLong mHitCount;
+    private final AtomicLong mMissCount;
+    private final ConcurrentHashMap<Key, Entry> mEntries;
+    private final int mMaximumSize;
+
+    public SQLCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a cache that holds at most the given number of statements.
+     *
+     * @param maximumSize The maximum number of statements held by the cache.
+     */
+    public SQLCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive.");
+        }
+
+        mClearCount = new AtomicLong();
+        mHitCount = new AtomicLong();
+        mMissCount = new AtomicLong();
+        mEntries = new ConcurrentHashMap<>();
+        mMaximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the cached SQL for a relation.
+     *
+     * @param fingerprint The fingerprint of the relation.
+     * @param type        The model class.
+     * @param variant     The kind of query, or null for the relation itself.
+     * @return The cached SQL, or null if it is not cached.
+     */
+    public String get(ActiveRelation.Fingerprint fingerprint, Class<?> type, String variant) {
+        Entry entry = mEntries.get(new Key(fingerprint, type, variant));
+        if (entry != null && entry.revision == getRevision()) {
+            mHitCount.incrementAndGet();
+            return entry.sql;
+        }
+
+        mMissCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches the SQL generated for a relation.
+     *
+     * @param fingerprint The fingerprint of the relation.
+     * @param type        The model class.
+     * @param variant     The kind of query, or null for the relation itself.
+     * @param sql         The generated SQL.
+     */
+    public void put(ActiveRelation.Fingerprint fingerprint, Class<?> type, String variant, String sql) {
+        if (mEntries.size() >= mMaximumSize) {
+            mEntries.clear();
+            mClearCount.incrementAndGet();
+        }
+
+        mEntries.put(new Key(fingerprint, type, variant), new Entry(sql, getRevision()));
+    }
+
+    public void clear() {
+        mEntries.clear();
+    }
+
+    private static long getRevision() {
+        return Inflector.inflections().getRevision();
+    }
+
+    public int getSize() {
+        return mEntries.size();
+    }
+
+    public int getMaximumSize() {
+        return mMaximumSize;
+    }
+
+    /**
+     * @return The number of times the cache was cleared because it was full.
+     */
+    public long getClearCount() {
+        return mClearCount.get();
+    }
+
+    public long getHitCount() {
+        return mHitCount.get();
+    }
+
+    public long getMissCount() {
+        return mMissCount.get();
+    }
+
+    private static final class Entry {
+        final String sql;
+        final long revision;
+
+        Entry(String sql, long revision) {
+            this.sql = sql;
+            this.revision = revision;
+        }
+    }
+
+    private static final class Key {
+        private final ActiveRelation.Fingerprint mFingerprint;
+        private final Class<?> mType;
+        private final String mVariant;
+
+        Key(ActiveRelation.Fingerprint fingerprint, Class<?> type, String variant) {
+            mFingerprint = fingerprint;
+            mType = type;
+            mVariant = variant;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) object;
+            return mType == key.mType
+                    && (mVariant == null ? key.mVariant == null : mVariant.equals(key.mVariant))
+                    && mFingerprint.equals(key.mFingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            int hashCode = mFingerprint.hashCode();
+            hashCode = 31 * hashCode + mType.hashCode();
+            hashCode = 31 * hashCode + (mVariant == null ? 0 : mVariant.hashCode());
+            return hashCode;
+        }
+    }
+}
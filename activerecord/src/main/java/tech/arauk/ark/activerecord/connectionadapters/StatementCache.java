@@ -0,0 +1,211 @@
+package tech.arauk.ark.activerecord.connectionadapters;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * A least recently used cache of the prepared statements of a single
+ * connection. The SQL generated for an
+ * {@link tech.arauk.ark.activerecord.ActiveRelation ActiveRelation} keeps the
+ * arguments of its conditions apart, as "?" placeholders, so repeated finders
+ * generate the same SQL and the database may skip parsing and planning it
+ * again:
+ * <pre>{@code
+ * ActiveRecord.where("id = ?", 1).first(User.class); // prepares the statement
+ * ActiveRecord.where("id = ?", 2).first(User.class); // reuses it
+ * }</pre>
+ * Statements are keyed by their normalized SQL, in which runs of whitespace
+ * outside of quoted literals are collapsed into a single space, and are closed
+ * when they are evicted.
+ * <p/>
+ * Like the connection it belongs to, a cache must only be used by one thread
+ * at a time. The statistics may be read from any thread.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public class StatementCache {
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+    private final AtomicLong mEvictionCount;
+    private final AtomicLong mHitCount;
+    private final AtomicLong mMissCount;
+    private final LinkedHashMap<String, PreparedStatement> mStatements;
+    private final int mMaximumSize;
+
+    /**
+     * Creates a cache that holds at most the given number of statements.
+     *
+     * @param maximumSize The maximum number of statements held by the cache.
+     */
+    public StatementCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive.");
+        }
+
+        mEvictionCount = new AtomicLong();
+        mHitCount = new AtomicLong();
+        mMissCount = new AtomicLong();
+        mMaximumSize = maximumSize;
+        mStatements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Collapses every run of whitespace outside of quoted literals and
+     * identifiers into a single space and trims the result.
+     *
+     * @param sql The SQL to normalize.
+     * @return The normalized SQL, or the same instance if it was already
+     * normalized.
+     */
+    public static String normalize(String sql) {
+        int length = sql.length();
+        if (isNormalized(sql)) {
+            return sql;
+        }
+
+        StringBuilder normalized = new StringBuilder(length);
+        char quote = 0;
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < length; i++) {
+            char c = sql.charAt(i);
+
+            if (quote != 0) {
+                normalized.append(c);
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                if (c == '\'' || c == '"' || c == '`') {
+                    quote = c;
+                }
+                normalized.append(c);
+            }
+        }
+
+        return normalized.toString();
+    }
+
+    private static boolean isNormalized(String sql) {
+        int length = sql.length();
+        if (length == 0) {
+            return true;
+        }
+        if (sql.charAt(0) == ' ' || sql.charAt(length - 1) == ' ') {
+            return false;
+        }
+
+        char previous = 0;
+        for (int i = 0; i < length; i++) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                // Whitespace inside of literals must be kept, take the slow path.
+                return false;
+            }
+            if ((c != ' ' && Character.isWhitespace(c)) || (c == ' ' && previous == ' ')) {
+                return false;
+            }
+            previous = c;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the cached statement for the given SQL, preparing and caching it
+     * on the connection if needed. The returned statement must not be closed
+     * by the caller.
+     *
+     * @param connection The connection the cache belongs to.
+     * @param sql        The SQL of the statement.
+     * @return A prepared statement for the SQL.
+     * @throws SQLException If the statement could not be prepared.
+     */
+    public PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        String key = normalize(sql);
+
+        PreparedStatement statement = mStatements.get(key);
+        if (statement != null) {
+            mHitCount.incrementAndGet();
+            return statement;
+        }
+
+        mMissCount.incrementAndGet();
+        statement = connection.prepareStatement(sql);
+        mStatements.put(key, statement);
+
+        if (mStatements.size() > mMaximumSize) {
+            Iterator<Map.Entry<String, PreparedStatement>> iterator = mStatements.entrySet().iterator();
+            PreparedStatement eldest = iterator.next().getValue();
+            iterator.remove();
+            mEvictionCount.incrementAndGet();
+            close(eldest);
+        }
+
+        return statement;
+    }
+
+    /**
+     * Removes and closes the cached statement for the given SQL, for instance
+     * after it failed.
+     *
+     * @param sql The SQL of the statement.
+     */
+    public void remove(String sql) {
+        PreparedStatement statement = mStatements.remove(normalize(sql));
+        if (statement != null) {
+            close(statement);
+        }
+    }
+
+    /**
+     * Removes and closes every cached statement.
+     */
+    public void clear() {
+        for (PreparedStatement statement : mStatements.values()) {
+            close(statement);
+        }
+        mStatements.clear();
+    }
+
+    private static void close(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // The statement is being discarded anyway.
+        }
+    }
+
+    public int getSize() {
+        return mStatements.size();
+    }
+
+    public int getMaximumSize() {
+        return mMaximumSize;
+    }
+
+    public long getEvictionCount() {
+        return mEvictionCount.get();
+    }
+
+    public long getHitCount() {
+        return mHitCount.get();
+    }
+
+    public long getMissCount() {
+        return mMissCount.get();
+    }
+}
@@ -0,0 +1,135 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+public class ActiveRelationTest extends TestCase {
+    public void testFingerprintIgnoresTheArguments() {
+        ActiveRelation first = new ActiveRelation().where("id = ?", 1).order("name").limit(10);
+        ActiveRelation second = new ActiveRelation().where("id = ?", 2).order("name").limit(10);
+
+        assertEquals(first.getFingerprint(), second.getFingerprint());
+        assertEquals(first.getFingerprint().hashCode(), second.getFingerprint().hashCode());
+    }
+
+    public void testFingerprintDependsOnTheStructure() {
+        ActiveRelation relation = new ActiveRelation().where("id = ?", 1);
+
+        assertFalse(relation.getFingerprint().equals(new ActiveRelation().where("id = 1").getFingerprint()));
+        assertFalse(relation.getFingerprint().equals(new ActiveRelation().where("id = ?", 1).limit(1).getFingerprint()));
+        assertFalse(relation.getFingerprint().equals(new ActiveRelation().where("id = ?", 1).offset(1).getFingerprint()));
+        assertFalse(relation.getFingerprint().equals(new ActiveRelation().where("id = ?", 1).order("id").getFingerprint()));
+        assertFalse(relation.getFingerprint().equals(new ActiveRelation().where("id = ?", 1).select("id").getFingerprint()));
+        assertFalse(new ActiveRelation().select("id").getFingerprint().equals(new ActiveRelation().order("id").getFingerprint()));
+    }
+
+    public void testFingerprintIsASnapshot() {
+        ActiveRelation relation = new ActiveRelation().where("id = ?", 1);
+        ActiveRelation.Fingerprint fingerprint = relation.getFingerprint();
+
+        ActiveRelation refined = relation.where("age > ?", 18);
+
+        assertFalse(fingerprint.equals(refined.getFingerprint()));
+        assertSame(fingerprint, relation.getFingerprint());
+        assertEquals(fingerprint, new ActiveRelation().where("id = ?", 3).getFingerprint());
+    }
+
+    public void testFingerprintIsKeptByClausesThatDoNotChangeTheSQL() {
+        ActiveRelation relation = new ActiveRelation().where("id = ?", 1).limit(1);
+        ActiveRelation.Fingerprint fingerprint = relation.getFingerprint();
+
+        assertSame(fingerprint, relation.fetchSize(100).getFingerprint());
+        assertSame(fingerprint, relation.cached(1, TimeUnit.MINUTES).getFingerprint());
+        assertSame(fingerprint, relation.limit(1).getFingerprint());
+    }
+
+    public void testRefiningARelationLeavesItUnchanged() {
+        ActiveRelation base = new ActiveRelation().where("age >= ?", 18).order("name");
+
+        ActiveRelation first = base.where("id = ?", 1).limit(1);
+        ActiveRelation second = base.where("name = ?", "John").reorder("id").offset(5).select("id");
+
+        assertEquals(Arrays.asList("age >= ?"), base.getConditions());
+        assertEquals(Arrays.<Object>asList(18), base.getConditionsArguments());
+        assertEquals(Arrays.asList("name"), base.getOrder());
+        assertFalse(base.hasLimit());
+        assertFalse(base.hasOffset());
+        assertFalse(base.hasSelect());
+
+        assertEquals(Arrays.asList("age >= ?", "id = ?"), first.getConditions());
+        assertEquals(Arrays.<Object>asList(18, 1), first.getConditionsArguments());
+        assertEquals(Integer.valueOf(1), first.getLimit());
+
+        assertEquals(Arrays.asList("age >= ?", "name = ?"), second.getConditions());
+        assertEquals(Arrays.<Object>asList(18, "John"), second.getConditionsArguments());
+        assertEquals(Arrays.asList("id"), second.getOrder());
+        assertEquals(Integer.valueOf(5), second.getOffset());
+        assertEquals(Arrays.asList("id"), second.getSelect());
+        assertNotSame(base, first);
+    }
+
+    public void testClausesCannotBeChanged() {
+        ActiveRelation relation = new ActiveRelation().where("id = ?", 1);
+
+        try {
+            relation.getConditions().add("age > 18");
+            fail();
+        } catch (UnsupportedOperationException unOpEx) {
+            assertEquals(1, relation.getConditions().size());
+        }
+
+        try {
+            relation.getConditionsArguments().set(0, 2);
+            fail();
+        } catch (UnsupportedOperationException unOpEx) {
+            assertEquals(1, relation.getConditionsArguments().get(0));
+        }
+    }
+
+    public void testChangingTheConnectionAdapterReturnsANewRelation() {
+        ActiveRelation relation = new ActiveRelation().where("id = ?", 1);
+        ActiveRelation copy = relation.withConnectionAdapter(null);
+
+        assertNotSame(relation, copy);
+        assertEquals(relation.getConditions(), copy.getConditions());
+        assertEquals(relation.getConditionsArguments(), copy.getConditionsArguments());
+    }
+
+    public void testABaseRelationCanBeRefinedByManyThreads() throws Exception {
+        final ActiveRelation base = new ActiveRelation().where("age >= ?", 18).order("name");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                final int id = i;
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        ActiveRelation relation = base.where("id = ?", id).limit(1);
+                        return relation.getConditions().equals(Arrays.asList("age >= ?", "id = ?"))
+                                && relation.getConditionsArguments().equals(Arrays.<Object>asList(18, id))
+                                && relation.getFingerprint().equals(base.where("id = ?", -1).limit(1).getFingerprint());
+                    }
+                }));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(Arrays.asList("age >= ?"), base.getConditions());
+        assertEquals(Arrays.<Object>asList(18), base.getConditionsArguments());
+    }
+}
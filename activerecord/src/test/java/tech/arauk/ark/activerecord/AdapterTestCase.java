@@ -0,0 +1,78 @@
+package tech.arauk.ark.activerecord;
+
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+
+import tech.arauk.ark.activerecord.connectionadapters.JdbcAdapter;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+
+/**
+ * Runs every test against a JdbcAdapter established on an in-memory H2
+ * database of its own, named after the test, which is dropped afterwards.
+ * Subclasses override {@link #configure(HashMap)} for the settings of the
+ * adapter and {@link #createSchema()} for the tables and records of their
+ * tests.
+ */
+public abstract class AdapterTestCase extends TestCase {
+    protected JdbcAdapter mAdapter;
+
+    static String getDatabaseURL(String database) {
+        return "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1";
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        DefaultInflections.initializeDefaultInflections();
+
+        HashMap<String, String> settings = new HashMap<>();
+        settings.put("url", getDatabaseURL(getName()));
+        configure(settings);
+
+        mAdapter = new JdbcAdapter(settings);
+        ActiveRecord.establishConnection(mAdapter);
+        createSchema();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mAdapter.execute("DROP ALL OBJECTS");
+        mAdapter.terminateConnection();
+        DefaultInflections.getDefaultInflections().clear();
+        super.tearDown();
+    }
+
+    /**
+     * Adds settings of the adapter to the URL of the database.
+     *
+     * @param settings The settings of the adapter.
+     */
+    protected void configure(HashMap<String, String> settings) {
+    }
+
+    /**
+     * Creates the tables and records of the tests, by default an empty users
+     * table.
+     */
+    protected void createSchema() {
+        mAdapter.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, name VARCHAR(255), age INT, created_at TIMESTAMP)");
+    }
+
+    /**
+     * Renames a user through another adapter, which the adapter of the test
+     * does not see.
+     */
+    protected void renameBehindTheAdapter(long id, String name) {
+        HashMap<String, String> settings = new HashMap<>();
+        settings.put("url", getDatabaseURL(getName()));
+
+        JdbcAdapter adapter = new JdbcAdapter(settings);
+        adapter.initializeConnection();
+        try {
+            adapter.execute("UPDATE users SET name = ? WHERE id = ?", name, id);
+        } finally {
+            adapter.terminateConnection();
+        }
+    }
+}
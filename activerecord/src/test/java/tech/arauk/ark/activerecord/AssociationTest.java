@@ -0,0 +1,171 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import tech.arauk.ark.activerecord.connectionadapters.RecordMapping;
+import tech.arauk.ark.activerecord.connectionadapters.SQLCache;
+
+public class AssociationTest extends AdapterTestCase {
+    @Override
+    protected void configure(HashMap<String, String> settings) {
+        settings.put("batch_size", "2");
+    }
+
+    @Override
+    protected void createSchema() {
+        mAdapter.execute("CREATE TABLE authors (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+        mAdapter.execute("CREATE TABLE posts (id BIGINT PRIMARY KEY, author_id INT, title VARCHAR(255))");
+        mAdapter.execute("INSERT INTO authors (id, name) VALUES (1, 'Alice'), (2, 'Bob'), (3, 'Carol')");
+        mAdapter.execute("INSERT INTO posts (id, author_id, title) VALUES (1, 1, 'First'), (2, 2, 'Second'), "
+                + "(3, 1, 'Third'), (4, NULL, 'Orphan')");
+    }
+
+    private long getQueryCount() {
+        SQLCache sqlCache = mAdapter.getSQLCache();
+        return sqlCache.getHitCount() + sqlCache.getMissCount();
+    }
+
+    public void testRecordsAndListsOfRecordsAreAssociations() {
+        RecordMapping<Author> mapping = RecordMapping.of(Author.class);
+
+        assertNull(mapping.getAttribute("posts"));
+        assertEquals(1, mapping.getAssociations().size());
+        assertEquals("posts", mapping.getAssociation("posts").getName());
+        assertEquals(Post.class, mapping.getAssociation("posts").getType());
+        assertTrue(mapping.getAssociation("posts").isCollection());
+        assertFalse(RecordMapping.of(Post.class).getAssociation("author").isCollection());
+    }
+
+    public void testIncludesPreloadsTheRecordsAModelHasMany() {
+        List<Author> authors = ActiveRecord.includes("posts").order("id").all(Author.class);
+
+        assertEquals(Arrays.asList("First", "Third"), titles(authors.get(0).mPosts));
+        assertEquals(Arrays.asList("Second"), titles(authors.get(1).mPosts));
+        assertTrue(authors.get(2).mPosts.isEmpty());
+    }
+
+    public void testIncludesPreloadsTheRecordsAModelBelongsTo() {
+        long queryCount = getQueryCount();
+        List<Post> posts = ActiveRecord.includes("author").order("id").all(Post.class);
+
+        assertEquals(2, getQueryCount() - queryCount);
+        assertEquals("Alice", posts.get(0).mAuthor.mName);
+        assertEquals("Bob", posts.get(1).mAuthor.mName);
+        assertSame(posts.get(0).mAuthor, posts.get(2).mAuthor);
+        assertNull(posts.get(3).mAuthor);
+    }
+
+    public void testIncludesLoadsTheKeysInBatches() {
+        long queryCount = getQueryCount();
+        List<Author> authors = ActiveRecord.includes("posts").order("id").all(Author.class);
+
+        // The query of the authors, then their 3 keys in batches of 2.
+        assertEquals(3, getQueryCount() - queryCount);
+        assertEquals(3, authors.size());
+        assertEquals(2, authors.get(0).mPosts.size());
+    }
+
+    public void testFirstAndScopesPreloadToo() {
+        assertEquals(2, ActiveRecord.includes("posts").first(Author.class).mPosts.size());
+
+        Scope<Post> titled = ActiveRecord.scope(Post.class, "titled", new ActiveRelation().where("title = ?").includes("author"));
+        assertEquals("Bob", titled.first("Second").mAuthor.mName);
+    }
+
+    public void testCachedRelationsCopyTheRecordsTheyShare() {
+        List<Post> posts = ActiveRecord.cached(1, TimeUnit.MINUTES).includes("author").order("id").all(Post.class);
+        List<Post> cachedPosts = ActiveRecord.cached(1, TimeUnit.MINUTES).includes("author").order("id").all(Post.class);
+
+        assertNotSame(posts.get(0).mAuthor, cachedPosts.get(0).mAuthor);
+        assertSame(cachedPosts.get(0).mAuthor, cachedPosts.get(2).mAuthor);
+        assertEquals("Alice", cachedPosts.get(0).mAuthor.mName);
+    }
+
+    public void testCachedRelationsPreloadOnceBeforeTheyAreCached() {
+        List<Author> authors = ActiveRecord.cached(1, TimeUnit.MINUTES).includes("posts").order("id").all(Author.class);
+        List<Post> posts = authors.get(0).mPosts;
+
+        long queryCount = getQueryCount();
+        List<Author> cachedAuthors = ActiveRecord.cached(1, TimeUnit.MINUTES).includes("posts").order("id").all(Author.class);
+
+        // Only the SQL of the relation is looked up, the posts are not queried again.
+        assertEquals(1, getQueryCount() - queryCount);
+        assertNotSame(authors.get(0), cachedAuthors.get(0));
+        assertNotSame(posts, cachedAuthors.get(0).mPosts);
+        assertEquals(titles(posts), titles(cachedAuthors.get(0).mPosts));
+        assertNull(ActiveRecord.cached(1, TimeUnit.MINUTES).order("id").first(Author.class).mPosts);
+    }
+
+    public void testWritesToIncludedTablesInvalidateTheCachedRelation() {
+        ActiveRecord.cached(1, TimeUnit.MINUTES).includes("posts").order("id").all(Author.class);
+
+        mAdapter.execute("UPDATE posts SET author_id = 3 WHERE id = 4");
+
+        List<Author> authors = ActiveRecord.cached(1, TimeUnit.MINUTES).includes("posts").order("id").all(Author.class);
+        assertEquals(Arrays.asList("Orphan"), titles(authors.get(2).mPosts));
+    }
+
+    public void testJoinsAnAssociationByName() {
+        List<Author> authors = ActiveRecord.joins("posts").where("posts.title = ?", "Third").all(Author.class);
+
+        assertEquals(1, authors.size());
+        assertEquals(Long.valueOf(1), authors.get(0).mId);
+        assertEquals("Alice", authors.get(0).mName);
+        assertNull(authors.get(0).mPosts);
+
+        List<Post> posts = ActiveRecord.joins("author").where("authors.name = ?", "Alice").order("posts.id").all(Post.class);
+        assertEquals(Arrays.asList("First", "Third"), titles(posts));
+    }
+
+    public void testJoinsAClause() {
+        List<Author> authors = ActiveRecord.joins("LEFT JOIN posts ON posts.author_id = authors.id")
+                .where("posts.id IS NULL").all(Author.class);
+
+        assertEquals(1, authors.size());
+        assertEquals("Carol", authors.get(0).mName);
+    }
+
+    public void testUndefinedAssociationsAreRejected() {
+        try {
+            ActiveRecord.includes("comments").all(Author.class);
+            fail();
+        } catch (IllegalArgumentException ilArEx) {
+            assertEquals("Undefined association comments of Author.", ilArEx.getMessage());
+        }
+    }
+
+    public void testAssociationsAreNotWritten() {
+        Post post = new Post();
+        post.mId = 5L;
+        post.mAuthorId = 3;
+        post.mTitle = "Fifth";
+        post.mAuthor = new Author();
+        ActiveRecord.insertAll(Arrays.asList(post));
+
+        assertEquals("Carol", ActiveRecord.includes("author").where("id = ?", 5).first(Post.class).mAuthor.mName);
+    }
+
+    private static List<String> titles(List<Post> posts) {
+        String[] titles = new String[posts.size()];
+        for (int i = 0; i < titles.length; i++) {
+            titles[i] = posts.get(i).mTitle;
+        }
+        return Arrays.asList(titles);
+    }
+
+    public static class Author extends ActiveRecord {
+        private Long mId;
+        private String mName;
+        private List<Post> mPosts;
+    }
+
+    public static class Post extends ActiveRecord {
+        private Long mId;
+        private Integer mAuthorId;
+        private String mTitle;
+        private Author mAuthor;
+    }
+}
@@ -0,0 +1,140 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+public class BatchesTest extends AdapterTestCase {
+    private List<Integer> mBatchSizes;
+    private List<Long> mIds;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mBatchSizes = new ArrayList<>();
+        mIds = new ArrayList<>();
+    }
+
+    @Override
+    protected void createSchema() {
+        super.createSchema();
+        // Every third id is missing, keyset pagination must not depend on
+        // contiguous ids.
+        mAdapter.execute("INSERT INTO users (id, name, age) SELECT x, 'user ' || x, MOD(x, 10) FROM SYSTEM_RANGE(1, 3750) WHERE MOD(x, 3) <> 0");
+    }
+
+    private BatchCallback<User> recorder() {
+        return new BatchCallback<User>() {
+            @Override
+            public void call(List<User> records) {
+                mBatchSizes.add(records.size());
+                for (User user : records) {
+                    mIds.add(user.getId());
+                }
+            }
+        };
+    }
+
+    public void testWalksTheWholeTableInBatches() {
+        ActiveRecord.findInBatches(User.class, 1000, recorder());
+
+        assertEquals(Arrays.asList(1000, 1000, 500), mBatchSizes);
+        assertEquals(2500, mIds.size());
+        for (int i = 1; i < mIds.size(); i++) {
+            assertTrue(mIds.get(i - 1) < mIds.get(i));
+        }
+    }
+
+    public void testCombinesWithTheConditions() {
+        ActiveRecord.where("age = ?", 4).findInBatches(User.class, 100, recorder());
+
+        assertEquals(250, mIds.size());
+        assertEquals(Arrays.asList(100, 100, 50), mBatchSizes);
+        for (Long id : mIds) {
+            assertEquals(4, id % 10);
+        }
+    }
+
+    public void testDescendingPrimaryKeyOrder() {
+        ActiveRecord.order("id DESC").findInBatches(User.class, 1000, recorder());
+
+        assertEquals(2500, mIds.size());
+        assertEquals(Long.valueOf(3749), mIds.get(0));
+        assertEquals(Long.valueOf(1), mIds.get(2499));
+    }
+
+    public void testLimitCapsTheNumberOfRecords() {
+        ActiveRecord.order("users.id ASC").limit(250).findInBatches(User.class, 100, recorder());
+
+        assertEquals(Arrays.asList(100, 100, 50), mBatchSizes);
+        assertEquals(Long.valueOf(374), mIds.get(249));
+    }
+
+    public void testFindEach() {
+        final long[] count = new long[1];
+        ActiveRecord.findEach(User.class, new RecordCallback<User>() {
+            @Override
+            public void call(User user) {
+                count[0]++;
+            }
+        });
+
+        assertEquals(2500, count[0]);
+    }
+
+    public void testNoBatchesForEmptyResults() {
+        ActiveRecord.where("age > ?", 10).findInBatches(User.class, 100, recorder());
+
+        assertTrue(mBatchSizes.isEmpty());
+    }
+
+    public void testRejectsOtherOrdersAndOffsets() {
+        try {
+            ActiveRecord.order("name").findInBatches(User.class, 100, recorder());
+            fail();
+        } catch (IllegalStateException ilStEx) {
+            assertTrue(mBatchSizes.isEmpty());
+        }
+
+        try {
+            ActiveRecord.offset(10).findInBatches(User.class, 100, recorder());
+            fail();
+        } catch (IllegalStateException ilStEx) {
+            assertTrue(mBatchSizes.isEmpty());
+        }
+    }
+
+    public void testCombinesWithJoinedTables() {
+        mAdapter.execute("CREATE TABLE groups (id BIGINT PRIMARY KEY)");
+        mAdapter.execute("INSERT INTO groups VALUES (4)");
+
+        ActiveRecord.joins("INNER JOIN groups ON groups.id = users.age").findInBatches(User.class, 100, recorder());
+
+        assertEquals(Arrays.asList(100, 100, 50), mBatchSizes);
+        assertEquals(Long.valueOf(3734), mIds.get(249));
+    }
+
+    public void testRejectsRecordsWithoutTheirPrimaryKey() {
+        try {
+            ActiveRecord.select("name").findInBatches(User.class, 100, recorder());
+            fail();
+        } catch (ActiveRecordException acReEx) {
+            assertEquals("Batches are paginated by primary key, but the records of User were retrieved without it.",
+                    acReEx.getMessage());
+            assertTrue(mBatchSizes.isEmpty());
+        }
+
+        ActiveRecord.select("name").limit(100).findInBatches(User.class, 100, recorder());
+        assertEquals(Arrays.asList(100), mBatchSizes);
+    }
+
+    public void testDoesNotChangeTheRelation() {
+        ActiveRelation relation = ActiveRecord.where("age = ?", 1);
+        relation.findInBatches(User.class, 100, recorder());
+
+        assertEquals(1, relation.getConditions().size());
+        assertFalse(relation.hasOrder());
+        assertFalse(relation.hasLimit());
+    }
+}
@@ -0,0 +1,168 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import tech.arauk.ark.activerecord.connectionadapters.JdbcAdapter;
+
+public class BulkWriteTest extends AdapterTestCase {
+    @Override
+    protected void configure(HashMap<String, String> settings) {
+        settings.put("batch_size", "100");
+    }
+
+    @Override
+    protected void createSchema() {
+        mAdapter.execute("CREATE TABLE users (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255), age INT, created_at TIMESTAMP)");
+    }
+
+    private static User newUser(Long id, String name, int age) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setAge(age);
+        return user;
+    }
+
+    private static List<User> newUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            users.add(newUser((long) i, "user " + i, i % 90));
+        }
+        return users;
+    }
+
+    public void testInsertAllWritesEveryRecordInBatches() {
+        BulkResult result = ActiveRecord.insertAll(newUsers(250));
+
+        assertEquals(250, result.getRowCount());
+        assertEquals(250, result.getUpdateCount());
+        assertEquals(3, result.getBatchCount());
+        assertTrue(result.getRowsPerSecond() > 0);
+        assertTrue(result.getElapsedTime(TimeUnit.NANOSECONDS) > 0);
+
+        List<User> users = ActiveRecord.order("id").all(User.class);
+        assertEquals(250, users.size());
+        assertEquals("user 1", users.get(0).getName());
+        assertEquals(Long.valueOf(250), users.get(249).getId());
+        assertEquals(250 % 90, users.get(249).getAge());
+    }
+
+    public void testInsertAllUsesTheGivenBatchSize() {
+        assertEquals(25, ActiveRecord.insertAll(newUsers(250), 10).getBatchCount());
+        assertEquals(1, ActiveRecord.insertAll(Collections.singletonList(newUser(251L, "last", 1)), 10).getBatchCount());
+    }
+
+    public void testInsertAllWritesDatesAndLetsTheDatabaseGenerateMissingKeys() {
+        User user = newUser(null, "generated", 30);
+        user.setCreatedAt(new Date(1000));
+
+        ActiveRecord.insertAll(Arrays.asList(newUser(10L, "keyed", 20), user));
+
+        User generated = ActiveRecord.where("name = ?", "generated").first(User.class);
+        assertNotNull(generated.getId());
+        assertEquals(1000, generated.getCreatedAt().getTime());
+        assertEquals(2, ActiveRecord.all(User.class).size());
+    }
+
+    public void testInsertAllRollsEveryBatchBackOnFailure() {
+        List<User> users = newUsers(250);
+        users.add(newUser(1L, "duplicate", 1));
+
+        try {
+            ActiveRecord.insertAll(users);
+            fail();
+        } catch (ActiveRecordException acReEx) {
+            assertTrue(acReEx.getMessage().contains("INSERT INTO users"));
+        }
+
+        assertTrue(ActiveRecord.all(User.class).isEmpty());
+        assertFalse(mAdapter.isTransactionOpen());
+        assertEquals(0, mAdapter.getConnectionPool().getBusyCount());
+    }
+
+    public void testInsertAllJoinsTheOpenTransaction() {
+        mAdapter.beginTransaction();
+        ActiveRecord.insertAll(newUsers(10));
+        assertTrue(mAdapter.isTransactionOpen());
+        mAdapter.rollbackTransaction();
+
+        assertTrue(ActiveRecord.all(User.class).isEmpty());
+    }
+
+    public void testUpsertAllInsertsAndUpdates() {
+        ActiveRecord.insertAll(newUsers(5));
+
+        BulkResult result = ActiveRecord.upsertAll(Arrays.asList(newUser(5L, "updated", 50), newUser(6L, "inserted", 60)));
+        assertEquals(2, result.getRowCount());
+
+        List<User> users = ActiveRecord.order("id").all(User.class);
+        assertEquals(6, users.size());
+        assertEquals("updated", users.get(4).getName());
+        assertEquals(50, users.get(4).getAge());
+        assertEquals("inserted", users.get(5).getName());
+    }
+
+    public void testUpsertAllRequiresPrimaryKeys() {
+        try {
+            ActiveRecord.upsertAll(Collections.singletonList(newUser(null, "anonymous", 1)));
+            fail();
+        } catch (IllegalArgumentException ilArEx) {
+            assertTrue(ActiveRecord.all(User.class).isEmpty());
+        }
+    }
+
+    public void testEmptyCollectionsWriteNothing() {
+        BulkResult result = ActiveRecord.insertAll(new ArrayList<User>());
+
+        assertEquals(0, result.getRowCount());
+        assertEquals(0, result.getBatchCount());
+        assertEquals(0.0, result.getRowsPerSecond());
+    }
+
+    public void testBatchSizeMustBePositive() {
+        try {
+            ActiveRecord.insertAll(newUsers(1), 0);
+            fail();
+        } catch (IllegalArgumentException ilArEx) {
+            assertTrue(ActiveRecord.all(User.class).isEmpty());
+        }
+    }
+
+    public void testUpsertSQLFollowsTheDatabaseOfTheUrl() {
+        List<String> columns = Arrays.asList("id", "name");
+
+        assertEquals("MERGE INTO users (id, name) KEY (id) VALUES (?, ?)",
+                UpsertAdapter.upsertSQL("jdbc:h2:mem:test", columns));
+        assertEquals("INSERT INTO users (id, name) VALUES (?, ?) ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name",
+                UpsertAdapter.upsertSQL("jdbc:postgresql://localhost/test", columns));
+        assertEquals("INSERT INTO users (id, name) VALUES (?, ?) ON DUPLICATE KEY UPDATE name = VALUES(name)",
+                UpsertAdapter.upsertSQL("jdbc:mysql://localhost/test", columns));
+        assertEquals("INSERT OR REPLACE INTO users (id, name) VALUES (?, ?)",
+                UpsertAdapter.upsertSQL("jdbc:sqlite:test.db", columns));
+
+        try {
+            UpsertAdapter.upsertSQL("jdbc:derby:test", columns);
+            fail();
+        } catch (UnsupportedOperationException unOpEx) {
+            assertTrue(unOpEx.getMessage().contains("jdbc:derby:test"));
+        }
+    }
+
+    private static class UpsertAdapter extends JdbcAdapter {
+        static String upsertSQL(String url, List<String> columns) {
+            HashMap<String, String> settings = new HashMap<>();
+            settings.put("url", url);
+            return new UpsertAdapter(settings).buildUpsertSQL("users", columns);
+        }
+
+        UpsertAdapter(HashMap<String, String> settings) {
+            super(settings);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.Arrays;
+
+
+public class CalculationTest extends AdapterTestCase {
+    @Override
+    protected void createSchema() {
+        super.createSchema();
+        mAdapter.execute("INSERT INTO users (id, name, age) VALUES (1, 'Alice', 30), (2, 'Bob', 40), (3, 'Carol', 15)");
+    }
+
+    public void testCount() {
+        assertEquals(3, ActiveRecord.count(User.class));
+        assertEquals(2, ActiveRecord.where("age > ?", 18).count(User.class));
+        assertEquals(0, ActiveRecord.where("age > ?", 50).count(User.class));
+    }
+
+    public void testCountWithinTheLimitAndOffset() {
+        assertEquals(2, ActiveRecord.order("id").limit(2).count(User.class));
+        assertEquals(1, ActiveRecord.order("id").limit(2).offset(2).count(User.class));
+        assertEquals(0, ActiveRecord.limit(0).count(User.class));
+    }
+
+    public void testExists() {
+        assertTrue(ActiveRecord.exists(User.class));
+        assertTrue(ActiveRecord.where("name = ?", "Bob").exists(User.class));
+        assertFalse(ActiveRecord.where("name = ?", "Dave").exists(User.class));
+        assertFalse(ActiveRecord.order("id").offset(3).exists(User.class));
+        assertFalse(ActiveRecord.limit(0).exists(User.class));
+    }
+
+    public void testSum() {
+        assertEquals(85L, ActiveRecord.sum(User.class, "age").longValue());
+        assertEquals(70L, ActiveRecord.where("age > ?", 18).sum(User.class, "age").longValue());
+        assertEquals(45L, ActiveRecord.order("age").limit(2).sum(User.class, "age").longValue());
+        assertEquals(0L, ActiveRecord.where("age > ?", 50).sum(User.class, "age").longValue());
+    }
+
+    public void testMinAndMax() {
+        assertEquals(15, ((Number) ActiveRecord.min(User.class, "age")).intValue());
+        assertEquals(40, ((Number) ActiveRecord.max(User.class, "age")).intValue());
+        assertEquals("Alice", ActiveRecord.min(User.class, "name"));
+        assertEquals(30, ((Number) ActiveRecord.order("age DESC").limit(2).offset(1).max(User.class, "age")).intValue());
+        assertNull(ActiveRecord.where("age > ?", 50).max(User.class, "age"));
+    }
+
+    public void testAverage() {
+        assertEquals(85 / 3.0, ActiveRecord.average(User.class, "age"), 0.0001);
+        assertEquals(35.0, ActiveRecord.where("age > ?", 18).average(User.class, "age"), 0.0001);
+        assertNull(ActiveRecord.where("age > ?", 50).average(User.class, "age"));
+    }
+
+    public void testPluck() {
+        assertEquals(Arrays.<Object>asList("Carol", "Alice", "Bob"), ActiveRecord.order("age").pluck(User.class, "name"));
+        assertEquals(Arrays.<Object>asList("Bob"), ActiveRecord.order("age DESC").limit(1).pluck(User.class, "name"));
+        assertEquals(Arrays.<Object>asList(31, 41), ActiveRecord.where("age > ?", 18).order("id").pluck(User.class, "age + 1"));
+        assertTrue(ActiveRecord.where("age > ?", 50).pluck(User.class, "name").isEmpty());
+    }
+
+    public void testPrimitivePluck() {
+        assertTrue(Arrays.equals(new long[]{3, 1, 2}, ActiveRecord.order("age").pluckLongs(User.class, "id").toArray()));
+        assertTrue(Arrays.equals(new int[]{30, 40}, ActiveRecord.where("age > ?", 18).order("id").pluckInts(User.class, "age").toArray()));
+        assertTrue(Arrays.equals(new double[]{40.5}, ActiveRecord.order("age DESC").limit(1).pluckDoubles(User.class, "age + 0.5").toArray()));
+        assertTrue(ActiveRecord.where("age > ?", 50).pluckLongs(User.class, "id").isEmpty());
+    }
+
+    public void testPrimitivePluckRejectsNullValues() {
+        mAdapter.execute("INSERT INTO users (id, name) VALUES (4, 'Dave')");
+
+        try {
+            ActiveRecord.order("id").pluckInts(User.class, "age");
+            fail();
+        } catch (ActiveRecordException acReEx) {
+            assertEquals("The column age has null values, which cannot be plucked as primitives.", acReEx.getMessage());
+        }
+        try {
+            ActiveRecord.pluckLongs(User.class, "CASE WHEN id = 4 THEN NULL ELSE id END");
+            fail();
+        } catch (ActiveRecordException acReEx) {
+            assertTrue(acReEx.getMessage().startsWith("The column CASE WHEN id = 4"));
+        }
+        try {
+            ActiveRecord.pluckDoubles(User.class, "age * 1.5");
+            fail();
+        } catch (ActiveRecordException acReEx) {
+            assertEquals("The column age * 1.5 has null values, which cannot be plucked as primitives.", acReEx.getMessage());
+        }
+
+        assertTrue(Arrays.equals(new int[]{30, 40, 15}, ActiveRecord.where("age IS NOT NULL").order("id").pluckInts(User.class, "age").toArray()));
+    }
+
+    public void testCalculationsIgnoreTheSelect() {
+        assertEquals(3, ActiveRecord.select("name").count(User.class));
+        assertEquals(Arrays.<Object>asList(1L, 2L, 3L), ActiveRecord.select("name").order("id").pluck(User.class, "id"));
+    }
+}
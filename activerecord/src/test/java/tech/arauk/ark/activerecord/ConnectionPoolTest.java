@@ -0,0 +1,219 @@
+package tech.arauk.ark.activerecord;
+
+import junit.framework.TestCase;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import tech.arauk.ark.activerecord.connectionadapters.ConnectionPool;
+import tech.arauk.ark.activerecord.connectionadapters.ConnectionTimeoutException;
+
+public class ConnectionPoolTest extends TestCase {
+    private HashMap<String, String> mSettings;
+    private ConnectionPool mPool;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        Class.forName("org.h2.Driver");
+
+        mSettings = new HashMap<>();
+        mSettings.put("url", "jdbc:h2:mem:" + getName());
+        mSettings.put("reaping_frequency", "0");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (mPool != null) {
+            mPool.close();
+        }
+        super.tearDown();
+    }
+
+    public void testFillOpensTheMinimumSize() {
+        mSettings.put("min_pool", "3");
+        mPool = new ConnectionPool(mSettings);
+        assertEquals(0, mPool.getSize());
+
+        mPool.fill();
+        assertEquals(3, mPool.getSize());
+        assertEquals(3, mPool.getIdleCount());
+        assertEquals(3, mPool.getCreatedCount());
+    }
+
+    public void testReusesCheckedInConnections() {
+        mPool = new ConnectionPool(mSettings);
+
+        Connection first = mPool.checkout();
+        assertEquals(1, mPool.getBusyCount());
+        mPool.checkin(first);
+
+        assertSame(first, mPool.checkout());
+        assertEquals(1, mPool.getSize());
+        assertEquals(1, mPool.getCreatedCount());
+        assertEquals(2, mPool.getCheckoutCount());
+    }
+
+    public void testTimesOutWhenEveryConnectionIsBusy() {
+        mSettings.put("pool", "1");
+        mSettings.put("checkout_timeout", "0.05");
+        mPool = new ConnectionPool(mSettings);
+
+        mPool.checkout();
+        try {
+            mPool.checkout();
+            fail();
+        } catch (ConnectionTimeoutException coTiEx) {
+            assertEquals(1, mPool.getTimeoutCount());
+            assertEquals(1, mPool.getSize());
+        }
+    }
+
+    public void testWaitingThreadsGetCheckedInConnections() throws Exception {
+        mSettings.put("pool", "2");
+        mPool = new ConnectionPool(mSettings);
+
+        final List<Connection> connections = new ArrayList<>();
+        connections.add(mPool.checkout());
+        connections.add(mPool.checkout());
+
+        final CountDownLatch done = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    mPool.checkin(mPool.checkout());
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        while (mPool.getWaitingCount() < 4) {
+            Thread.sleep(1);
+        }
+        for (Connection connection : connections) {
+            mPool.checkin(connection);
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, mPool.getSize());
+        assertEquals(2, mPool.getIdleCount());
+        assertEquals(0, mPool.getWaitingCount());
+        assertEquals(6, mPool.getCheckoutCount());
+    }
+
+    public void testReapsIdleConnectionsDownToTheMinimumSize() {
+        mSettings.put("min_pool", "1");
+        mSettings.put("idle_timeout", "0");
+        mPool = new ConnectionPool(mSettings);
+
+        Connection first = mPool.checkout();
+        Connection second = mPool.checkout();
+        Connection third = mPool.checkout();
+        mPool.checkin(first);
+        mPool.checkin(second);
+        mPool.checkin(third);
+
+        assertEquals(2, mPool.reap());
+        assertEquals(1, mPool.getSize());
+        assertEquals(2, mPool.getDestroyedCount());
+        assertSame(third, mPool.checkout());
+    }
+
+    public void testKeepsConnectionsUsedWithinTheIdleTimeout() {
+        mPool = new ConnectionPool(mSettings);
+        mPool.checkin(mPool.checkout());
+
+        assertEquals(0, mPool.reap());
+        assertEquals(1, mPool.getIdleCount());
+    }
+
+    public void testDiscardsConnectionsThatFailValidation() throws Exception {
+        mSettings.put("validation_query", "SELECT 1");
+        mPool = new ConnectionPool(mSettings);
+
+        Connection broken = mPool.checkout();
+        mPool.checkin(broken);
+        broken.close();
+
+        Connection connection = mPool.checkout();
+        assertNotSame(broken, connection);
+        assertFalse(connection.isClosed());
+        assertEquals(1, mPool.getDestroyedCount());
+        assertEquals(1, mPool.getSize());
+    }
+
+    public void testRollsBackTransactionsLeftOpen() throws Exception {
+        mPool = new ConnectionPool(mSettings);
+
+        Connection connection = mPool.checkout();
+        connection.setAutoCommit(false);
+        mPool.checkin(connection);
+
+        assertTrue(mPool.checkout().getAutoCommit());
+    }
+
+    public void testRejectsForeignConnections() throws Exception {
+        mPool = new ConnectionPool(mSettings);
+
+        Connection connection = DriverManager.getConnection(mSettings.get("url"));
+        try {
+            mPool.checkin(connection);
+            fail();
+        } catch (IllegalArgumentException ilArEx) {
+            assertEquals(0, mPool.getSize());
+        } finally {
+            connection.close();
+        }
+    }
+
+    public void testClosingClosesIdleConnectionsAndRejectsCheckouts() throws Exception {
+        mPool = new ConnectionPool(mSettings);
+
+        Connection idle = mPool.checkout();
+        Connection busy = mPool.checkout();
+        mPool.checkin(idle);
+        mPool.close();
+
+        assertTrue(idle.isClosed());
+        assertFalse(busy.isClosed());
+        mPool.checkin(busy);
+        assertTrue(busy.isClosed());
+        assertEquals(0, mPool.getSize());
+
+        try {
+            mPool.checkout();
+            fail();
+        } catch (ActiveRecordException acReEx) {
+            assertTrue(mPool.isClosed());
+        }
+    }
+
+    public void testStatistics() {
+        mSettings.put("pool", "4");
+        mPool = new ConnectionPool(mSettings);
+        mPool.checkout();
+        mPool.checkin(mPool.checkout());
+
+        assertEquals(Long.valueOf(2), mPool.getStatistics().get("size"));
+        assertEquals(Long.valueOf(1), mPool.getStatistics().get("busy"));
+        assertEquals(Long.valueOf(1), mPool.getStatistics().get("idle"));
+        assertEquals(Long.valueOf(4), mPool.getStatistics().get("maximum_size"));
+        assertEquals(Long.valueOf(2), mPool.getStatistics().get("checkouts"));
+    }
+
+    public void testRequiresAnUrl() {
+        mSettings.remove("url");
+        try {
+            new ConnectionPool(mSettings);
+            fail();
+        } catch (IllegalArgumentException ilArEx) {
+            assertTrue(ilArEx.getMessage().contains("url"));
+        }
+    }
+}
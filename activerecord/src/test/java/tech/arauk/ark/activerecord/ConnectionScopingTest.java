@@ -0,0 +1,278 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import tech.arauk.ark.activerecord.connectionadapters.ConnectionPool;
+import tech.arauk.ark.activerecord.connectionadapters.JdbcAdapter;
+
+public class ConnectionScopingTest extends AdapterTestCase {
+    private ConnectionPool mPool;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mPool = mAdapter.getConnectionPool();
+    }
+
+    @Override
+    protected void configure(HashMap<String, String> settings) {
+        settings.put("pool", "4");
+    }
+
+    @Override
+    protected void createSchema() {
+        super.createSchema();
+        mAdapter.execute("INSERT INTO users (id, name, age) VALUES (1, 'Alice', 30), (2, 'Bob', 40)");
+    }
+
+    private static JdbcAdapter newAdapter(String database) {
+        HashMap<String, String> settings = new HashMap<>();
+        settings.put("url", getDatabaseURL(database));
+        settings.put("pool", "4");
+        return new JdbcAdapter(settings);
+    }
+
+    public void testWithConnectionRunsEveryQueryOnOneConnection() {
+        long checkouts = mPool.getCheckoutCount();
+
+        String name = ActiveRecord.withConnection(new Callable<String>() {
+            @Override
+            public String call() {
+                assertTrue(mAdapter.isConnectionBound());
+                assertEquals(1, mPool.getBusyCount());
+
+                ActiveRecord.where("id = ?", 1).first(User.class);
+                ActiveRecord.all(User.class);
+                return ActiveRecord.last(User.class).getName();
+            }
+        });
+
+        assertEquals("Bob", name);
+        assertEquals(checkouts + 1, mPool.getCheckoutCount());
+        assertEquals(0, mPool.getBusyCount());
+        assertFalse(mAdapter.isConnectionBound());
+    }
+
+    public void testBindingsNest() {
+        ActiveRecord.withConnection(new Callable<Void>() {
+            @Override
+            public Void call() {
+                ActiveRecord.withConnection(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        assertEquals(1, mPool.getBusyCount());
+                        return null;
+                    }
+                });
+
+                assertTrue(mAdapter.isConnectionBound());
+                assertEquals(1, mPool.getBusyCount());
+                return null;
+            }
+        });
+
+        assertEquals(0, mPool.getBusyCount());
+    }
+
+    public void testTransactionsRunOnTheBoundConnection() {
+        ActiveRecord.withConnection(new Callable<Void>() {
+            @Override
+            public Void call() {
+                mAdapter.beginTransaction();
+                mAdapter.execute("DELETE FROM users");
+                assertEquals(1, mPool.getBusyCount());
+                mAdapter.rollbackTransaction();
+
+                // Auto-commit is back on, the next write commits on its own.
+                mAdapter.execute("UPDATE users SET name = ? WHERE id = ?", "Renamed", 1);
+                assertTrue(mAdapter.isConnectionBound());
+                return null;
+            }
+        });
+
+        assertEquals(2, ActiveRecord.all(User.class).size());
+        assertEquals("Renamed", ActiveRecord.first(User.class).getName());
+    }
+
+    public void testCursorsRestoreAutoCommitOnTheBoundConnection() {
+        ActiveRecord.withConnection(new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (User ignored : ActiveRecord.cursor(User.class)) {
+                    assertEquals(1, mPool.getBusyCount());
+                }
+
+                mAdapter.execute("UPDATE users SET name = ? WHERE id = ?", "Renamed", 1);
+                return null;
+            }
+        });
+
+        assertEquals("Renamed", ActiveRecord.first(User.class).getName());
+    }
+
+    public void testWritesCommitOnTheBoundConnectionWhileACursorIsOpen() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        mAdapter.bindConnection();
+        Cursor<User> cursor = ActiveRecord.cursor(User.class);
+        try {
+            mAdapter.execute("UPDATE users SET name = ? WHERE id = ?", "Renamed", 1);
+
+            Future<String> name = executor.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    return ActiveRecord.where("id = ?", 1).first(User.class).getName();
+                }
+            });
+            assertEquals("Renamed", name.get(5, TimeUnit.SECONDS));
+        } finally {
+            cursor.close();
+            mAdapter.unbindConnection();
+            executor.shutdown();
+        }
+    }
+
+    public void testTransactionCommitsOrRollsBack() {
+        ActiveRecord.transaction(new Callable<Void>() {
+            @Override
+            public Void call() {
+                mAdapter.execute("DELETE FROM users WHERE id = ?", 1);
+                return null;
+            }
+        });
+
+        try {
+            ActiveRecord.transaction(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    mAdapter.execute("DELETE FROM users");
+                    throw new Exception("Failure");
+                }
+            });
+            fail();
+        } catch (ActiveRecordException acReEx) {
+            assertEquals("Failure", acReEx.getCause().getMessage());
+        }
+
+        assertEquals(1, ActiveRecord.all(User.class).size());
+        assertFalse(mAdapter.isTransactionOpen());
+    }
+
+    public void testConnectedToBindsAnAdapterToTheThread() throws Exception {
+        final JdbcAdapter replica = newAdapter(getName() + "_replica");
+        replica.initializeConnection();
+        try {
+            replica.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, name VARCHAR(255), age INT)");
+
+            int count = ActiveRecord.connectedTo(replica, new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    assertSame(replica, ActiveRecord.getConnectionAdapter());
+
+                    // Other threads keep the established adapter.
+                    ExecutorService executor = Executors.newSingleThreadExecutor();
+                    try {
+                        assertSame(mAdapter, executor.submit(new Callable<Object>() {
+                            @Override
+                            public Object call() {
+                                return ActiveRecord.getConnectionAdapter();
+                            }
+                        }).get());
+                    } finally {
+                        executor.shutdown();
+                    }
+
+                    return ActiveRecord.all(User.class).size();
+                }
+            });
+
+            assertEquals(0, count);
+            assertSame(mAdapter, ActiveRecord.getConnectionAdapter());
+            assertEquals(2, ActiveRecord.all(User.class).size());
+        } finally {
+            replica.execute("DROP ALL OBJECTS");
+            replica.terminateConnection();
+        }
+    }
+
+    public void testRelationsBuiltBeforeConnectedToRunOnItsAdapter() throws Exception {
+        final ActiveRelation adults = ActiveRecord.where("age > ?", 18).order("id");
+        JdbcAdapter replica = newAdapter(getName() + "_replica");
+        replica.initializeConnection();
+        try {
+            replica.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, name VARCHAR(255), age INT)");
+            replica.execute("INSERT INTO users VALUES (3, 'Carol', 50)");
+
+            List<User> users = ActiveRecord.connectedTo(replica, new Callable<List<User>>() {
+                @Override
+                public List<User> call() {
+                    return adults.all(User.class);
+                }
+            });
+
+            assertEquals(1, users.size());
+            assertEquals("Carol", users.get(0).getName());
+            assertEquals(2, adults.all(User.class).size());
+        } finally {
+            replica.execute("DROP ALL OBJECTS");
+            replica.terminateConnection();
+        }
+    }
+
+    public void testThreadsRunOnTheirOwnConnections() throws Exception {
+        final int threads = 4;
+        final CountDownLatch bound = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                final long id = i % 2 + 1;
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        return ActiveRecord.withConnection(new Callable<Integer>() {
+                            @Override
+                            public Integer call() throws Exception {
+                                // Every thread holds a connection at the same time.
+                                bound.countDown();
+                                assertTrue(bound.await(5, TimeUnit.SECONDS));
+
+                                int sum = 0;
+                                for (int j = 0; j < 100; j++) {
+                                    sum += ActiveRecord.where("id = ?", id).first(User.class).getAge();
+                                }
+                                return sum;
+                            }
+                        });
+                    }
+                }));
+            }
+
+            for (int i = 0; i < threads; i++) {
+                assertEquals(i % 2 == 0 ? 3000 : 4000, futures.get(i).get().intValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(0, mPool.getBusyCount());
+        assertEquals(0, mPool.getTimeoutCount());
+    }
+
+    public void testUnbindingWithoutBindingFails() {
+        try {
+            mAdapter.unbindConnection();
+            fail();
+        } catch (IllegalStateException ilStEx) {
+            assertFalse(mAdapter.isConnectionBound());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+
+import tech.arauk.ark.activerecord.connectionadapters.ConnectionPool;
+
+public class CursorTest extends AdapterTestCase {
+    private static final int COUNT = 10000;
+    private ConnectionPool mPool;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mPool = mAdapter.getConnectionPool();
+    }
+
+    @Override
+    protected void configure(HashMap<String, String> settings) {
+        settings.put("fetch_size", "100");
+    }
+
+    @Override
+    protected void createSchema() {
+        super.createSchema();
+        mAdapter.execute("INSERT INTO users (id, name, age) SELECT x, 'user ' || x, MOD(x, 100) FROM SYSTEM_RANGE(1, " + COUNT + ")");
+    }
+
+    public void testIteratesOverEveryRecord() {
+        Cursor<User> cursor = ActiveRecord.order("id").fetchSize(250).cursor(User.class);
+        assertEquals(1, mPool.getBusyCount());
+
+        long expectedId = 1;
+        for (User user : cursor) {
+            assertEquals(Long.valueOf(expectedId), user.getId());
+            assertEquals("user " + expectedId, user.getName());
+            expectedId++;
+        }
+
+        assertEquals(COUNT + 1, expectedId);
+        assertFalse(cursor.hasNext());
+        assertEquals(0, mPool.getBusyCount());
+    }
+
+    public void testClosingEarlyReleasesTheConnection() {
+        Cursor<User> cursor = ActiveRecord.where("age = ?", 7).order("id").cursor(User.class);
+        try {
+            assertEquals(Long.valueOf(7), cursor.next().getId());
+            assertEquals(Long.valueOf(107), cursor.next().getId());
+        } finally {
+            cursor.close();
+        }
+
+        cursor.close();
+        assertEquals(0, mPool.getBusyCount());
+        assertFalse(cursor.hasNext());
+
+        try {
+            cursor.next();
+            fail();
+        } catch (NoSuchElementException noSuElEx) {
+            assertEquals(0, mPool.getBusyCount());
+        }
+    }
+
+    public void testEachPassesEveryRecordToTheCallback() {
+        final long[] sum = new long[1];
+        ActiveRecord.where("age = ?", 99).each(User.class, new RecordCallback<User>() {
+            @Override
+            public void call(User user) {
+                sum[0] += user.getId();
+            }
+        });
+
+        long expected = 0;
+        for (long id = 99; id <= COUNT; id += 100) {
+            expected += id;
+        }
+
+        assertEquals(expected, sum[0]);
+        assertEquals(0, mPool.getBusyCount());
+    }
+
+    public void testFailingCallbacksCloseTheCursor() {
+        try {
+            ActiveRecord.each(User.class, new RecordCallback<User>() {
+                @Override
+                public void call(User user) {
+                    throw new IllegalStateException();
+                }
+            });
+            fail();
+        } catch (IllegalStateException ilStEx) {
+            assertEquals(0, mPool.getBusyCount());
+        }
+    }
+
+    public void testCursorsRunInsideTheTransaction() {
+        mAdapter.beginTransaction();
+        try {
+            mAdapter.execute("DELETE FROM users WHERE id > ?", 10);
+
+            Cursor<User> cursor = ActiveRecord.cursor(User.class);
+            int count = 0;
+            while (cursor.hasNext()) {
+                cursor.next();
+                count++;
+            }
+
+            assertEquals(10, count);
+            assertEquals(1, mPool.getBusyCount());
+        } finally {
+            mAdapter.rollbackTransaction();
+        }
+
+        assertEquals(COUNT, ActiveRecord.all(User.class).size());
+    }
+
+    public void testCursorsLeaveTheConnectionOfTheTransactionToIt() {
+        mAdapter.beginTransaction();
+        Cursor<User> cursor = ActiveRecord.limit(1).cursor(User.class);
+        mAdapter.commitTransaction();
+        int idleCount = mPool.getIdleCount();
+
+        cursor.close();
+
+        assertEquals(0, mPool.getBusyCount());
+        assertEquals(idleCount, mPool.getIdleCount());
+    }
+
+    public void testCursorsClosedOnAnotherThreadReleaseTheirConnection() throws Exception {
+        final Cursor<User> cursor = ActiveRecord.limit(1).cursor(User.class);
+        mAdapter.bindConnection();
+        try {
+            Thread closer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    cursor.close();
+                }
+            });
+            closer.start();
+            closer.join();
+
+            assertEquals(1, mPool.getBusyCount());
+        } finally {
+            mAdapter.unbindConnection();
+        }
+
+        assertEquals(0, mPool.getBusyCount());
+    }
+
+    public void testCursorsMayOnlyBeIteratedOnce() {
+        Cursor<User> cursor = ActiveRecord.limit(1).cursor(User.class);
+        try {
+            cursor.iterator();
+            cursor.iterator();
+            fail();
+        } catch (IllegalStateException ilStEx) {
+            cursor.close();
+        }
+
+        try {
+            cursor.remove();
+            fail();
+        } catch (UnsupportedOperationException unOpEx) {
+            assertEquals(0, mPool.getBusyCount());
+        }
+    }
+
+    public void testInvalidQueriesReleaseTheConnection() {
+        try {
+            ActiveRecord.where("missing = ?", 1).cursor(User.class);
+            fail();
+        } catch (ActiveRecordException acReEx) {
+            assertEquals(0, mPool.getBusyCount());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.HashMap;
+import java.util.List;
+
+import tech.arauk.ark.activerecord.connectionadapters.IdentityMap;
+
+public class IdentityMapTest extends AdapterTestCase {
+    @Override
+    protected void configure(HashMap<String, String> settings) {
+        settings.put("identity_map", "true");
+    }
+
+    @Override
+    protected void createSchema() {
+        super.createSchema();
+        mAdapter.execute("INSERT INTO users (id, name, age) VALUES (1, 'Alice', 30), (2, 'Bob', 40)");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (mAdapter.isTransactionOpen()) {
+            mAdapter.rollbackTransaction();
+        }
+        super.tearDown();
+    }
+
+    public void testLookupsByPrimaryKeyReturnTheSameInstance() {
+        mAdapter.beginTransaction();
+
+        User user = ActiveRecord.where("id = ?", 1).first(User.class);
+        // Renaming the row directly proves the second lookup skips the database.
+        renameBehindTheAdapter(1, "Renamed");
+        User same = ActiveRecord.where("users.id = ?", 1L).first(User.class);
+
+        assertSame(user, same);
+        assertEquals("Alice", same.getName());
+
+        IdentityMap identityMap = mAdapter.getIdentityMap();
+        assertEquals(1, identityMap.getHitCount());
+        assertEquals(1, identityMap.getMissCount());
+    }
+
+    public void testLoadedRecordsAreReplacedByTheInstancesInTheMap() {
+        mAdapter.beginTransaction();
+
+        User alice = ActiveRecord.where("id = ?", 1).first(User.class);
+        List<User> users = ActiveRecord.order("id").all(User.class);
+
+        assertEquals(2, users.size());
+        assertSame(alice, users.get(0));
+        assertSame(users.get(1), ActiveRecord.where("id = ?", 2).first(User.class));
+        assertSame(users.get(1), ActiveRecord.last(User.class));
+    }
+
+    public void testRelationsWithSelectOrOtherConditionsQueryTheDatabase() {
+        mAdapter.beginTransaction();
+
+        User alice = ActiveRecord.where("id = ?", 1).first(User.class);
+
+        User partial = ActiveRecord.select("id").where("id = ?", 1).first(User.class);
+        assertNotSame(alice, partial);
+        assertNull(partial.getName());
+
+        assertSame(alice, ActiveRecord.where("id = ? AND age > ?", 1, 18).first(User.class));
+        assertEquals(1, mAdapter.getIdentityMap().getMissCount());
+        assertEquals(0, mAdapter.getIdentityMap().getHitCount());
+    }
+
+    public void testWritesClearTheMap() {
+        mAdapter.beginTransaction();
+
+        User user = ActiveRecord.where("id = ?", 1).first(User.class);
+        mAdapter.execute("UPDATE users SET name = ? WHERE id = ?", "Renamed", 1);
+        User reloaded = ActiveRecord.where("id = ?", 1).first(User.class);
+
+        assertNotSame(user, reloaded);
+        assertEquals("Renamed", reloaded.getName());
+        assertEquals(2, mAdapter.getIdentityMap().getMissCount());
+    }
+
+    public void testTheMapIsScopedToTheTransaction() {
+        assertNull(mAdapter.getIdentityMap());
+
+        mAdapter.beginTransaction();
+        User user = ActiveRecord.where("id = ?", 1).first(User.class);
+        ActiveRecord.where("id = ?", 1).first(User.class);
+        mAdapter.commitTransaction();
+
+        assertNull(mAdapter.getIdentityMap());
+        assertNotSame(user, ActiveRecord.where("id = ?", 1).first(User.class));
+        assertEquals(1, mAdapter.getIdentityMapHitCount());
+        assertEquals(1, mAdapter.getIdentityMapMissCount());
+
+        mAdapter.beginTransaction();
+        assertEquals(0, mAdapter.getIdentityMap().getSize());
+        mAdapter.rollbackTransaction();
+    }
+
+    public void testTheMapIsOptional() {
+        mAdapter.setIdentityMapEnabled(false);
+        mAdapter.beginTransaction();
+
+        assertNull(mAdapter.getIdentityMap());
+        assertNotSame(ActiveRecord.where("id = ?", 1).first(User.class), ActiveRecord.where("id = ?", 1).first(User.class));
+    }
+}
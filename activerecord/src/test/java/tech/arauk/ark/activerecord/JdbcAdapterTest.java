@@ -0,0 +1,227 @@
+package tech.arauk.ark.activerecord;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+
+import tech.arauk.ark.activerecord.connectionadapters.ConnectionPool;
+import tech.arauk.ark.activerecord.connectionadapters.JdbcAdapter;
+import tech.arauk.ark.activerecord.connectionadapters.SQLCache;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+
+public class JdbcAdapterTest extends AdapterTestCase {
+    @Override
+    protected void configure(HashMap<String, String> settings) {
+        settings.put("driver", "org.h2.Driver");
+        settings.put("min_pool", "1");
+        settings.put("pool", "2");
+    }
+
+    @Override
+    protected void createSchema() {
+        super.createSchema();
+        mAdapter.execute("INSERT INTO users VALUES (1, 'Ada', 36, CURRENT_TIMESTAMP)");
+        mAdapter.execute("INSERT INTO users VALUES (2, 'Grace', 85, CURRENT_TIMESTAMP)");
+        mAdapter.execute("INSERT INTO users VALUES (3, 'Linus', 21, NULL)");
+        mAdapter.execute("INSERT INTO users VALUES (4, 'Barbara', NULL, NULL)");
+    }
+
+    public void testToSQL() {
+        String sql = ActiveRecord.where("age > ?", 18).where("name <> ?", "Ada")
+                .order("name DESC").limit(2).offset(1).select("id", "name").toSQL(User.class);
+
+        assertEquals("SELECT id, name FROM users WHERE (age > ?) AND (name <> ?) ORDER BY name DESC LIMIT 2 OFFSET 1", sql);
+    }
+
+    public void testMapsColumnsToFields() {
+        User user = ActiveRecord.where("name = ?", "Ada").first(User.class);
+
+        assertEquals(Long.valueOf(1), user.getId());
+        assertEquals("Ada", user.getName());
+        assertEquals(36, user.getAge());
+        assertNotNull(user.getCreatedAt());
+
+        User barbara = ActiveRecord.where("id = ?", 4L).first(User.class);
+        assertEquals(0, barbara.getAge());
+        assertNull(barbara.getCreatedAt());
+    }
+
+    public void testAllBindsTheConditionsArguments() {
+        List<User> users = ActiveRecord.where("age > ?", 30).order("age DESC").all(User.class);
+
+        assertEquals(2, users.size());
+        assertEquals("Grace", users.get(0).getName());
+        assertEquals("Ada", users.get(1).getName());
+    }
+
+    public void testFirstAndLastOrderByThePrimaryKey() {
+        assertEquals("Ada", ActiveRecord.first(User.class).getName());
+        assertEquals("Barbara", ActiveRecord.last(User.class).getName());
+
+        List<User> last = ActiveRecord.last(User.class, 2);
+        assertEquals(2, last.size());
+        assertEquals("Linus", last.get(0).getName());
+        assertEquals("Barbara", last.get(1).getName());
+    }
+
+    public void testLastReversesTheOrder() {
+        List<User> users = ActiveRecord.order("name").last(User.class, 2);
+
+        assertEquals("Grace", users.get(0).getName());
+        assertEquals("Linus", users.get(1).getName());
+        assertNull(ActiveRecord.where("age > ?", 100).last(User.class));
+    }
+
+    public void testLastReversesOrdersWithCommasInTheirExpressions() {
+        List<User> users = ActiveRecord.order("COALESCE(age, 0) DESC, id").last(User.class, 2);
+
+        assertEquals("Linus", users.get(0).getName());
+        assertEquals("Barbara", users.get(1).getName());
+        assertEquals("Barbara", ActiveRecord.order("CASE WHEN name = 'Ada, Grace' THEN 0 ELSE 1 END, id").last(User.class).getName());
+    }
+
+    public void testInvalidQueriesRaiseActiveRecordException() {
+        try {
+            ActiveRecord.where("missing_column = ?", 1).all(User.class);
+            fail();
+        } catch (ActiveRecordException acReEx) {
+            assertTrue(acReEx.getCause() instanceof SQLException);
+        }
+
+        assertEquals(0, mAdapter.getConnectionPool().getBusyCount());
+    }
+
+    public void testExecuteBindsTheArguments() {
+        assertEquals(2, mAdapter.execute("UPDATE users SET age = age + ? WHERE age < ?", 1, 40));
+        assertEquals(37, ActiveRecord.where("id = ?", 1).first(User.class).getAge());
+    }
+
+    public void testRolledBackTransactionsAreDiscarded() {
+        mAdapter.beginTransaction();
+        assertTrue(mAdapter.isTransactionOpen());
+        mAdapter.execute("INSERT INTO users VALUES (?, ?, ?, ?)", 5, "Edsger", 72, new java.util.Date());
+        assertEquals(5, ActiveRecord.all(User.class).size());
+
+        mAdapter.rollbackTransaction();
+        assertFalse(mAdapter.isTransactionOpen());
+        assertEquals(4, ActiveRecord.all(User.class).size());
+    }
+
+    public void testTransactionsAreBoundToTheThread() throws Exception {
+        mAdapter.beginTransaction();
+        mAdapter.execute("UPDATE users SET age = 37 WHERE id = 1");
+
+        final int[] ages = new int[1];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ages[0] = ActiveRecord.where("id = ?", 1).first(User.class).getAge();
+            }
+        });
+        thread.start();
+        thread.join();
+        assertEquals(36, ages[0]);
+
+        mAdapter.commitTransaction();
+        assertEquals(0, mAdapter.getConnectionPool().getBusyCount());
+        assertEquals(37, ActiveRecord.where("id = ?", 1).first(User.class).getAge());
+    }
+
+    public void testQueriesInsideATransactionUseItsConnection() {
+        mAdapter.beginTransaction();
+        try {
+            assertEquals(1, mAdapter.getConnectionPool().getBusyCount());
+            assertEquals(4, ActiveRecord.all(User.class).size());
+            assertEquals(1, mAdapter.getConnectionPool().getBusyCount());
+        } finally {
+            mAdapter.rollbackTransaction();
+        }
+
+        try {
+            mAdapter.commitTransaction();
+            fail();
+        } catch (IllegalStateException ilStEx) {
+            assertFalse(mAdapter.isTransactionOpen());
+        }
+    }
+
+    public void testRepeatedFindersReuseTheirPreparedStatements() {
+        ConnectionPool pool = mAdapter.getConnectionPool();
+        long misses = pool.getStatementCacheMissCount();
+        long hits = pool.getStatementCacheHitCount();
+
+        for (long id = 1; id <= 4; id++) {
+            assertEquals(Long.valueOf(id), ActiveRecord.where("id = ?", id).first(User.class).getId());
+        }
+
+        assertEquals(misses + 1, pool.getStatementCacheMissCount());
+        assertEquals(hits + 3, pool.getStatementCacheHitCount());
+        assertEquals(Long.valueOf(hits + 3), pool.getStatistics().get("statement_cache_hits"));
+    }
+
+    public void testFailedStatementsArePreparedAgain() {
+        ConnectionPool pool = mAdapter.getConnectionPool();
+        mAdapter.execute("CREATE TABLE counters (id BIGINT PRIMARY KEY)");
+
+        mAdapter.execute("INSERT INTO counters VALUES (?)", 1);
+        try {
+            mAdapter.execute("INSERT INTO counters VALUES (?)", 1);
+            fail();
+        } catch (ActiveRecordException acReEx) {
+            long misses = pool.getStatementCacheMissCount();
+            mAdapter.execute("INSERT INTO counters VALUES (?)", 2);
+            assertEquals(misses + 1, pool.getStatementCacheMissCount());
+        }
+    }
+
+    public void testPreparedStatementsCanBeDisabled() {
+        HashMap<String, String> settings = new HashMap<>();
+        settings.put("url", "jdbc:h2:mem:" + getName() + "Uncached");
+        settings.put("prepared_statements", "false");
+
+        JdbcAdapter adapter = new JdbcAdapter(settings);
+        adapter.initializeConnection();
+        try {
+            adapter.execute("SELECT 1");
+            adapter.execute("SELECT 1");
+
+            assertEquals(0, adapter.getConnectionPool().getStatementLimit());
+            assertEquals(0, adapter.getConnectionPool().getStatementCacheHitCount());
+            assertEquals(0, adapter.getConnectionPool().getStatementCacheMissCount());
+        } finally {
+            adapter.terminateConnection();
+        }
+    }
+
+    public void testCachesTheSQLOfRelationsWithTheSameFingerprint() {
+        SQLCache sqlCache = mAdapter.getSQLCache();
+        sqlCache.clear();
+        long hits = sqlCache.getHitCount();
+
+        assertEquals("Ada", ActiveRecord.where("name = ?", "Ada").first(User.class).getName());
+        assertEquals("Grace", ActiveRecord.where("name = ?", "Grace").first(User.class).getName());
+        assertEquals("Grace", ActiveRecord.where("name = ?", "Grace").last(User.class).getName());
+        assertEquals(1, ActiveRecord.where("name = ?", "Linus").all(User.class).size());
+
+        assertEquals(hits + 1, sqlCache.getHitCount());
+        assertEquals(3, sqlCache.getSize());
+    }
+
+    public void testCachedSQLFollowsTheInflections() {
+        assertEquals("SELECT * FROM users", ActiveRecord.select().toSQL(User.class));
+
+        DefaultInflections.getDefaultInflections().irregular("user", "members");
+        assertEquals("SELECT * FROM members", ActiveRecord.select().toSQL(User.class));
+    }
+
+    public void testSQLCacheCanBeDisabled() {
+        mAdapter.setSQLCacheEnabled(false);
+        assertNull(mAdapter.getSQLCache());
+        assertEquals(4, ActiveRecord.all(User.class).size());
+
+        mAdapter.setSQLCacheEnabled(true);
+        assertTrue(mAdapter.isSQLCacheEnabled());
+        assertEquals(4, ActiveRecord.all(User.class).size());
+        assertEquals(1, mAdapter.getSQLCache().getSize());
+    }
+}
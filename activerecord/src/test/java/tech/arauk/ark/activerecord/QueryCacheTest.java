@@ -0,0 +1,317 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import tech.arauk.ark.activerecord.connectionadapters.InMemoryQueryCache;
+import tech.arauk.ark.activerecord.connectionadapters.QueryCache;
+
+public class QueryCacheTest extends AdapterTestCase {
+    private InMemoryQueryCache mQueryCache;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mQueryCache = (InMemoryQueryCache) mAdapter.getQueryCache();
+    }
+
+    @Override
+    protected void createSchema() {
+        super.createSchema();
+        mAdapter.execute("INSERT INTO users (id, name, age) VALUES (1, 'Alice', 30), (2, 'Bob', 40)");
+    }
+
+    private static ActiveRelation adults() {
+        return ActiveRecord.cached(1, TimeUnit.MINUTES).where("age > ?", 18).order("id");
+    }
+
+    public void testCachedRelationsAreReadOnce() {
+        List<User> users = adults().all(User.class);
+        renameBehindTheAdapter(1, "Renamed");
+        List<User> cachedUsers = adults().all(User.class);
+
+        assertEquals(2, cachedUsers.size());
+        assertEquals("Alice", cachedUsers.get(0).getName());
+        assertEquals(1, mQueryCache.getHitCount());
+        assertEquals(1, mQueryCache.getMissCount());
+    }
+
+    public void testEveryCallerGetsItsOwnCopies() {
+        List<User> users = adults().all(User.class);
+        users.get(0).setName("Changed");
+        List<User> cachedUsers = adults().all(User.class);
+        cachedUsers.get(1).setName("Changed");
+
+        assertNotSame(users.get(0), cachedUsers.get(0));
+        assertEquals("Alice", cachedUsers.get(0).getName());
+        assertEquals("Bob", adults().all(User.class).get(1).getName());
+        assertEquals("Bob", adults().last(User.class).getName());
+        assertEquals("Alice", adults().all(User.class).get(0).getName());
+    }
+
+    public void testArgumentsArePartOfTheKey() {
+        ActiveRecord.cached(1, TimeUnit.MINUTES).where("age > ?", 18).all(User.class);
+
+        assertEquals(1, ActiveRecord.cached(1, TimeUnit.MINUTES).where("age > ?", 35).all(User.class).size());
+        assertEquals(2, mQueryCache.getSize());
+    }
+
+    public void testRelationsAreOnlyCachedOnDemand() {
+        ActiveRecord.where("age > ?", 18).all(User.class);
+        ActiveRecord.where("age > ?", 18).first(User.class);
+
+        assertEquals(0, mQueryCache.getSize());
+        assertEquals(0, mQueryCache.getMissCount());
+    }
+
+    public void testWritesToTheTableInvalidateTheCachedQueries() {
+        adults().all(User.class);
+        adults().first(User.class);
+        assertEquals(2, mQueryCache.getSize());
+
+        mAdapter.execute("UPDATE users SET name = ? WHERE id = ?", "Renamed", 1);
+
+        assertEquals(0, mQueryCache.getSize());
+        assertEquals(2, mQueryCache.getInvalidationCount());
+        assertEquals("Renamed", adults().first(User.class).getName());
+    }
+
+    public void testWritesToOtherTablesKeepTheCachedQueries() {
+        mAdapter.execute("CREATE TABLE groups (id BIGINT PRIMARY KEY)");
+        adults().all(User.class);
+
+        mAdapter.execute("INSERT INTO groups VALUES (1)");
+
+        assertEquals(1, mQueryCache.getSize());
+    }
+
+    public void testStatementsWithoutATableInvalidateEverything() {
+        adults().all(User.class);
+
+        mAdapter.execute("CREATE TABLE groups (id BIGINT PRIMARY KEY)");
+
+        assertEquals(0, mQueryCache.getSize());
+    }
+
+    public void testBulkWritesInvalidateTheCachedQueries() {
+        adults().all(User.class);
+
+        User user = new User();
+        user.setId(3L);
+        user.setName("Carol");
+        user.setAge(50);
+        ActiveRecord.insertAll(Collections.singletonList(user));
+
+        assertEquals(3, adults().all(User.class).size());
+    }
+
+    public void testRowsCachedByAnotherThreadDuringAWriteAreInvalidated() throws Exception {
+        mAdapter.setQueryCache(new ReadingQueryCache(mQueryCache));
+
+        mAdapter.execute("UPDATE users SET name = ? WHERE id = ?", "Renamed", 1);
+
+        assertEquals("Renamed", adults().all(User.class).get(0).getName());
+    }
+
+    public void testRowsCachedByAnotherThreadDuringABulkWriteAreInvalidated() throws Exception {
+        mAdapter.setQueryCache(new ReadingQueryCache(mQueryCache));
+
+        User user = new User();
+        user.setId(3L);
+        user.setName("Carol");
+        user.setAge(50);
+        ActiveRecord.insertAll(Collections.singletonList(user));
+
+        assertEquals(3, adults().all(User.class).size());
+    }
+
+    public void testRowsReadBeforeAWriteCommitsAreNotCachedAfterIt() throws Exception {
+        final CountDownLatch queried = new CountDownLatch(1);
+        final CountDownLatch written = new CountDownLatch(1);
+        mAdapter.setQueryCache(new PausingQueryCache(mQueryCache, queried, written));
+
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                adults().all(User.class);
+            }
+        });
+        reader.start();
+        assertTrue(queried.await(5, TimeUnit.SECONDS));
+
+        mAdapter.execute("UPDATE users SET name = ? WHERE id = ?", "Renamed", 1);
+        written.countDown();
+        reader.join();
+
+        assertEquals(0, mQueryCache.getSize());
+        assertEquals(1, mQueryCache.getDiscardCount());
+        assertEquals("Renamed", adults().all(User.class).get(0).getName());
+    }
+
+    public void testTransactionsBypassTheCache() {
+        adults().all(User.class);
+
+        mAdapter.beginTransaction();
+        mAdapter.execute("UPDATE users SET name = ? WHERE id = ?", "Renamed", 1);
+        assertEquals("Renamed", adults().first(User.class).getName());
+        assertEquals(0, mQueryCache.getSize());
+        mAdapter.rollbackTransaction();
+
+        assertEquals("Alice", adults().first(User.class).getName());
+    }
+
+    public void testQueriesExpireAfterTheirTimeToLive() throws InterruptedException {
+        ActiveRecord.cached(1, TimeUnit.MILLISECONDS).all(User.class);
+        Thread.sleep(5);
+        ActiveRecord.cached(1, TimeUnit.MILLISECONDS).all(User.class);
+
+        assertEquals(1, mQueryCache.getExpirationCount());
+        assertEquals(2, mQueryCache.getMissCount());
+    }
+
+    public void testLeastRecentlyUsedQueriesAreEvicted() {
+        InMemoryQueryCache queryCache = new InMemoryQueryCache(2);
+        QueryCache.Key first = new QueryCache.Key(User.class, "SELECT 1", Collections.<Object>emptyList());
+        QueryCache.Key second = new QueryCache.Key(User.class, "SELECT 2", Collections.<Object>emptyList());
+        QueryCache.Key third = new QueryCache.Key(User.class, "SELECT 3", Collections.<Object>emptyList());
+        List<User> records = Collections.singletonList(new User());
+
+        queryCache.put(first, Collections.singleton("users"), 0, records, 1, TimeUnit.MINUTES);
+        queryCache.put(second, Collections.singleton("users"), 0, records, 1, TimeUnit.MINUTES);
+        queryCache.get(first);
+        queryCache.put(third, Collections.singleton("users"), 0, records, 1, TimeUnit.MINUTES);
+
+        assertNotNull(queryCache.get(first));
+        assertNull(queryCache.get(second));
+        assertEquals(1, queryCache.getEvictionCount());
+
+        queryCache.invalidate("users");
+        assertEquals(0, queryCache.getSize());
+    }
+
+    public void testTheCacheCanBeDisabled() {
+        mAdapter.setQueryCache(null);
+        adults().all(User.class);
+        renameBehindTheAdapter(1, "Renamed");
+
+        assertEquals("Renamed", adults().first(User.class).getName());
+    }
+
+    public void testTimeToLiveMustBePositive() {
+        try {
+            ActiveRecord.cached(0, TimeUnit.SECONDS);
+            fail();
+        } catch (IllegalArgumentException ilArEx) {
+            assertTrue(ilArEx.getMessage().contains("time to live"));
+        }
+    }
+
+    /**
+     * Holds the first query between the moment it ran and the moment it is
+     * cached, until a write let it go.
+     */
+    private static class PausingQueryCache implements QueryCache {
+        private final InMemoryQueryCache mQueryCache;
+        private final CountDownLatch mQueried;
+        private final CountDownLatch mWritten;
+
+        PausingQueryCache(InMemoryQueryCache queryCache, CountDownLatch queried, CountDownLatch written) {
+            mQueryCache = queryCache;
+            mQueried = queried;
+            mWritten = written;
+        }
+
+        @Override
+        public List<? extends ActiveRecord> get(Key key) {
+            return mQueryCache.get(key);
+        }
+
+        @Override
+        public long getGeneration(Set<String> tables) {
+            return mQueryCache.getGeneration(tables);
+        }
+
+        @Override
+        public void put(Key key, Set<String> tables, long generation, List<? extends ActiveRecord> records, long ttl, TimeUnit unit) {
+            if (mQueried.getCount() > 0) {
+                mQueried.countDown();
+                try {
+                    mWritten.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException inEx) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            mQueryCache.put(key, tables, generation, records, ttl, unit);
+        }
+
+        @Override
+        public void invalidate(String table) {
+            mQueryCache.invalidate(table);
+        }
+
+        @Override
+        public void clear() {
+            mQueryCache.clear();
+        }
+    }
+
+    /**
+     * Reads and caches the adults on another thread the first time a table is
+     * invalidated, before the write that invalidated it commits.
+     */
+    private static class ReadingQueryCache implements QueryCache {
+        private final InMemoryQueryCache mQueryCache;
+        private boolean mRead;
+
+        ReadingQueryCache(InMemoryQueryCache queryCache) {
+            mQueryCache = queryCache;
+        }
+
+        @Override
+        public List<? extends ActiveRecord> get(Key key) {
+            return mQueryCache.get(key);
+        }
+
+        @Override
+        public long getGeneration(Set<String> tables) {
+            return mQueryCache.getGeneration(tables);
+        }
+
+        @Override
+        public void put(Key key, Set<String> tables, long generation, List<? extends ActiveRecord> records, long ttl, TimeUnit unit) {
+            mQueryCache.put(key, tables, generation, records, ttl, unit);
+        }
+
+        @Override
+        public void invalidate(String table) {
+            mQueryCache.invalidate(table);
+            if (mRead) {
+                return;
+            }
+            mRead = true;
+
+            Thread reader = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    adults().all(User.class);
+                }
+            });
+            reader.start();
+            try {
+                reader.join();
+            } catch (InterruptedException inEx) {
+                Thread.currentThread().interrupt();
+            }
+            // The reader cached the rows as they were before the write.
+            assertEquals(1, mQueryCache.getSize());
+        }
+
+        @Override
+        public void clear() {
+            mQueryCache.clear();
+        }
+    }
+}
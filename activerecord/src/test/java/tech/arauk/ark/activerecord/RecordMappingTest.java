@@ -0,0 +1,138 @@
+package tech.arauk.ark.activerecord;
+
+import junit.framework.TestCase;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+import tech.arauk.ark.activerecord.connectionadapters.RecordMapping;
+
+public class RecordMappingTest extends TestCase {
+    public void testMappingsAreBuiltOncePerClass() {
+        assertSame(RecordMapping.of(Account.class), RecordMapping.of(Account.class));
+        assertNotSame(RecordMapping.of(Account.class), RecordMapping.of(User.class));
+    }
+
+    public void testColumnsAreMappedByNameCamelCaseOrPrefix() {
+        RecordMapping<Account> mapping = RecordMapping.of(Account.class);
+
+        assertEquals("mId", mapping.getAttribute("ID").getName());
+        assertEquals("mId", mapping.getAttribute("id").getName());
+        assertEquals("balance", mapping.getAttribute("balance").getName());
+        assertEquals("openedAt", mapping.getAttribute("OPENED_AT").getName());
+        assertEquals("mKind", mapping.getAttribute("kind").getName());
+        assertNull(mapping.getAttribute("missing"));
+        assertNull(mapping.getAttribute("VERSION"));
+        assertNull(mapping.getAttribute("cache"));
+    }
+
+    public void testSetConvertsTheValues() {
+        RecordMapping<Account> mapping = RecordMapping.of(Account.class);
+        Account account = mapping.newInstance();
+
+        mapping.getAttribute("id").set(account, 7);
+        mapping.getAttribute("balance").set(account, 12.5d);
+        mapping.getAttribute("active").set(account, 1);
+        mapping.getAttribute("kind").set(account, "SAVINGS");
+        mapping.getAttribute("name").set(account, 42L);
+        mapping.getAttribute("opened_at").set(account, new Timestamp(1000));
+
+        assertEquals(Long.valueOf(7), account.mId);
+        assertEquals(new BigDecimal("12.5"), account.balance);
+        assertTrue(account.mActive);
+        assertEquals(Kind.SAVINGS, account.mKind);
+        assertEquals("42", account.mName);
+        assertEquals(1000, account.openedAt.getTime());
+        assertEquals(Long.valueOf(7), mapping.getAttribute("id").get(account));
+    }
+
+    public void testNullsLeavePrimitivesUnchanged() {
+        RecordMapping<Account> mapping = RecordMapping.of(Account.class);
+        Account account = mapping.newInstance();
+        account.mActive = true;
+
+        mapping.getAttribute("active").set(account, null);
+        mapping.getAttribute("name").set(account, null);
+
+        assertTrue(account.mActive);
+        assertNull(account.mName);
+    }
+
+    public void testIncompatibleValuesRaiseActiveRecordException() {
+        RecordMapping<Account> mapping = RecordMapping.of(Account.class);
+
+        try {
+            mapping.getAttribute("id").set(mapping.newInstance(), "seven");
+            fail();
+        } catch (ActiveRecordException acReEx) {
+            assertTrue(acReEx.getMessage().contains("mId"));
+        }
+    }
+
+    public void testInheritedFieldsAreMapped() {
+        RecordMapping<PremiumAccount> mapping = RecordMapping.of(PremiumAccount.class);
+        PremiumAccount account = mapping.newInstance();
+
+        mapping.getAttribute("id").set(account, 3L);
+        mapping.getAttribute("level").set(account, 2L);
+
+        assertEquals(Long.valueOf(3), ((Account) account).mId);
+        assertEquals(2, account.mLevel);
+    }
+
+    public void testPlansAreBuiltOncePerColumns() {
+        RecordMapping<Account> mapping = RecordMapping.of(Account.class);
+
+        assertSame(mapping.getPlan("id", "name"), mapping.getPlan("id", "name"));
+        assertNotSame(mapping.getPlan("id", "name"), mapping.getPlan("name", "id"));
+    }
+
+    public void testPlansMapRowsOfValues() {
+        RecordMapping.Plan<Account> plan = RecordMapping.of(Account.class).getPlan("id", "missing", "balance", "active", "kind", "opened_at");
+
+        Account account = plan.map(new Object[]{7, "ignored", 12.5d, 1, "SAVINGS", new Timestamp(1000)});
+        assertEquals(Long.valueOf(7), account.mId);
+        assertEquals(new BigDecimal("12.5"), account.balance);
+        assertTrue(account.mActive);
+        assertEquals(Kind.SAVINGS, account.mKind);
+        assertEquals(1000, account.openedAt.getTime());
+
+        Account empty = plan.map(new Object[]{null, null, null, null, null, null});
+        assertNull(empty.mId);
+        assertFalse(empty.mActive);
+        assertNotSame(account, empty);
+    }
+
+    public void testPlansRaiseActiveRecordExceptionOnIncompatibleValues() {
+        RecordMapping.Plan<Account> plan = RecordMapping.of(Account.class).getPlan("name", "id");
+
+        try {
+            plan.map(new Object[]{"name", "seven"});
+            fail();
+        } catch (ActiveRecordException acReEx) {
+            assertTrue(acReEx.getMessage().contains("mId"));
+        }
+    }
+
+    public enum Kind {
+        CHECKING, SAVINGS
+    }
+
+    public static class Account extends ActiveRecord {
+        private static String VERSION = "1";
+        private transient Object cache;
+        private Long mId;
+        private String mName;
+        private BigDecimal balance;
+        private boolean mActive;
+        private Kind mKind;
+        private java.util.Date openedAt;
+
+        private Account() {
+        }
+    }
+
+    public static class PremiumAccount extends Account {
+        private int mLevel;
+    }
+}
@@ -0,0 +1,96 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.List;
+
+import tech.arauk.ark.activerecord.connectionadapters.SQLCache;
+
+public class ScopeTest extends AdapterTestCase {
+    @Override
+    protected void createSchema() {
+        super.createSchema();
+        mAdapter.execute("INSERT INTO users (id, name, age) VALUES (1, 'Alice', 30), (2, 'Bob', 40), (3, 'Carol', 15)");
+    }
+
+    public void testScopesRunWithTheirArguments() {
+        Scope<User> olderThan = ActiveRecord.scope(User.class, "olderThan",
+                new ActiveRelation().where("age > ?").order("name DESC"));
+
+        List<User> users = olderThan.all(18);
+
+        assertEquals(2, users.size());
+        assertEquals("Bob", users.get(0).getName());
+        assertEquals("Alice", users.get(1).getName());
+        assertEquals(1, olderThan.all(35).size());
+    }
+
+    public void testFirstOrdersByPrimaryKeyWithoutAnOrder() {
+        Scope<User> between = ActiveRecord.scope(User.class, "between",
+                new ActiveRelation().where("age >= ?").where("age <= ?"));
+
+        assertEquals("Alice", between.first(10, 40).getName());
+        assertEquals("Carol", between.first(10, 20).getName());
+        assertNull(between.first(50, 60));
+    }
+
+    public void testScopesAreLookedUpByName() {
+        Scope<User> named = ActiveRecord.scope(User.class, "named", new ActiveRelation().where("name = ?"));
+
+        assertSame(named, ActiveRecord.scope(User.class, "named"));
+        assertEquals("Bob", ActiveRecord.scope(User.class, "named").first("Bob").getName());
+
+        try {
+            ActiveRecord.scope(User.class, "undefined");
+            fail();
+        } catch (IllegalArgumentException ilArEx) {
+            assertEquals("Undefined scope undefined of User.", ilArEx.getMessage());
+        }
+    }
+
+    public void testTheSQLIsOnlyGeneratedOnce() {
+        Scope<User> byId = ActiveRecord.scope(User.class, "byId", new ActiveRelation().where("id = ?"));
+        ActiveRecord.compileScopes();
+
+        SQLCache sqlCache = mAdapter.getSQLCache();
+        long hitCount = sqlCache.getHitCount();
+        long missCount = sqlCache.getMissCount();
+
+        for (long id = 1; id <= 3; id++) {
+            assertEquals(Long.valueOf(id), byId.first(id).getId());
+            assertEquals(1, byId.all(id).size());
+        }
+
+        assertEquals("SELECT * FROM users WHERE (id = ?)", byId.getSQL());
+        assertEquals(hitCount, sqlCache.getHitCount());
+        assertEquals(missCount, sqlCache.getMissCount());
+    }
+
+    public void testInvalidScopesFailWhenCompiled() {
+        Scope<User> invalid = ActiveRecord.scope(User.class, "invalid", new ActiveRelation().where("missing = ?"));
+
+        try {
+            invalid.compile();
+            fail();
+        } catch (ActiveRecordException acReEx) {
+            assertEquals("Invalid scope invalid of User.", acReEx.getMessage());
+        } finally {
+            ActiveRecord.scope(User.class, "invalid", new ActiveRelation().where("id = ?"));
+        }
+    }
+
+    public void testScopesTakeTheirArgumentsWhenTheyRun() {
+        try {
+            ActiveRecord.scope(User.class, "adults", new ActiveRelation().where("age > ?", 18));
+            fail();
+        } catch (IllegalArgumentException ilArEx) {
+            assertEquals("The scope adults must take its arguments when it runs.", ilArEx.getMessage());
+        }
+
+        Scope<User> olderThan = ActiveRecord.scope(User.class, "olderThan", new ActiveRelation().where("age > ?"));
+        try {
+            olderThan.all(18, 30);
+            fail();
+        } catch (IllegalArgumentException ilArEx) {
+            assertEquals("The scope User.olderThan takes 1 arguments, 2 given.", ilArEx.getMessage());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package tech.arauk.ark.activerecord;
+
+import junit.framework.TestCase;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+
+import tech.arauk.ark.activerecord.connectionadapters.StatementCache;
+
+public class StatementCacheTest extends TestCase {
+    private Connection mConnection;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        Class.forName("org.h2.Driver");
+        mConnection = DriverManager.getConnection("jdbc:h2:mem:" + getName());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mConnection.close();
+        super.tearDown();
+    }
+
+    public void testNormalize() {
+        String normalized = "SELECT * FROM users WHERE (id = ?)";
+        assertSame(normalized, StatementCache.normalize(normalized));
+
+        assertEquals(normalized, StatementCache.normalize("  SELECT *\n  FROM users\tWHERE (id = ?) "));
+        assertEquals("SELECT * FROM users WHERE name = 'a  b'", StatementCache.normalize("SELECT *  FROM users WHERE name = 'a  b'"));
+        assertEquals("SELECT \"full  name\" FROM users", StatementCache.normalize("SELECT   \"full  name\"\nFROM users"));
+    }
+
+    public void testReusesStatementsWithTheSameShape() throws Exception {
+        StatementCache cache = new StatementCache(10);
+
+        PreparedStatement statement = cache.prepare(mConnection, "SELECT ? FROM DUAL");
+        assertSame(statement, cache.prepare(mConnection, "SELECT ?  FROM DUAL"));
+        assertSame(statement, cache.prepare(mConnection, "SELECT ?\nFROM DUAL"));
+
+        assertEquals(1, cache.getSize());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    public void testEvictsAndClosesTheLeastRecentlyUsedStatement() throws Exception {
+        StatementCache cache = new StatementCache(2);
+
+        PreparedStatement first = cache.prepare(mConnection, "SELECT 1");
+        PreparedStatement second = cache.prepare(mConnection, "SELECT 2");
+        cache.prepare(mConnection, "SELECT 1");
+        cache.prepare(mConnection, "SELECT 3");
+
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictionCount());
+        assertTrue(second.isClosed());
+        assertFalse(first.isClosed());
+        assertSame(first, cache.prepare(mConnection, "SELECT 1"));
+    }
+
+    public void testRemoveAndClearCloseTheStatements() throws Exception {
+        StatementCache cache = new StatementCache(10);
+
+        PreparedStatement first = cache.prepare(mConnection, "SELECT 1");
+        PreparedStatement second = cache.prepare(mConnection, "SELECT 2");
+
+        cache.remove(" SELECT  1 ");
+        assertTrue(first.isClosed());
+        assertEquals(1, cache.getSize());
+
+        cache.clear();
+        assertTrue(second.isClosed());
+        assertEquals(0, cache.getSize());
+    }
+}
@@ -0,0 +1,42 @@
+package tech.arauk.ark.activerecord;
+
+import java.util.Date;
+
+public class User extends ActiveRecord {
+    private Long mId;
+    private String mName;
+    private int mAge;
+    private Date mCreatedAt;
+
+    public Long getId() {
+        return mId;
+    }
+
+    public void setId(Long id) {
+        mId = id;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public void setName(String name) {
+        mName = name;
+    }
+
+    public int getAge() {
+        return mAge;
+    }
+
+    public void setAge(int age) {
+        mAge = age;
+    }
+
+    public Date getCreatedAt() {
+        return mCreatedAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        mCreatedAt = createdAt;
+    }
+}
@@ -7,6 +7,7 @@ import java.util.regex.Pattern;
 
 import tech.arauk.ark.activesupport.annotations.Beta;
 import tech.arauk.ark.activesupport.core_ext.StringUtils;
+import tech.arauk.ark.activesupport.inflector.CompiledRules;
 import tech.arauk.ark.activesupport.inflector.Inflections;
 import tech.arauk.ark.activesupport.inflector.Transliterator;
 
@@ -27,6 +28,9 @@ import tech.arauk.ark.activesupport.inflector.Transliterator;
  */
 @Beta
 public class Inflector {
+    private static final Pattern LAST_WORD_PATTERN = Pattern.compile("\\b\\w+\\Z");
+    private static volatile InflectorCache sCache;
+
     public static Inflections inflections() {
         return inflections("en-US");
     }
@@ -35,6 +39,31 @@ public class Inflector {
         return Inflections.getInstance(locale);
     }
 
+    /**
+     * Returns the cache used for the results of the Inflector, if any.
+     *
+     * @return The current {@link InflectorCache} or null if results are not
+     * cached.
+     */
+    public static InflectorCache getCache() {
+        return sCache;
+    }
+
+    /**
+     * Sets the cache used for the results of {@link #camelize(String)},
+     * {@link #classify(String)}, {@link #pluralize(String)},
+     * {@link #singularize(String)}, {@link #tableize(String)} and
+     * {@link #underscore(String)}. Passing null disables caching.
+     * <pre>{@code
+     * Inflector.setCache(new InflectorCache(4096));
+     * }</pre>
+     *
+     * @param cache The cache to be used or null to disable caching.
+     */
+    public static void setCache(InflectorCache cache) {
+        sCache = cache;
+    }
+
     /**
      * Converts strings to UpperCamelCase. If the uppercaseFirstLetter parameter
      * is set to false, then produces lowerCamelCase.
@@ -86,6 +115,23 @@ public class Inflector {
      * @return A new camel case string.
      */
     public static String camelize(String term, boolean uppercaseFirstLetter) {
+        InflectorCache.Operation operation = uppercaseFirstLetter ? InflectorCache.Operation.CAMELIZE : InflectorCache.Operation.LOWER_CAMELIZE;
+        InflectorCache cache = getCache(operation, term);
+        if (cache == null) {
+            return uncachedCamelize(term, uppercaseFirstLetter);
+        }
+
+        long revision = getRevision("en-US");
+        String camelized = cache.get(operation, "en-US", term, revision);
+        if (camelized == null) {
+            camelized = uncachedCamelize(term, uppercaseFirstLetter);
+            cache.put(operation, "en-US", term, revision, camelized);
+        }
+
+        return camelized;
+    }
+
+    private static String uncachedCamelize(String term, boolean uppercaseFirstLetter) {
         Map<String, String> acronyms = inflections().getAcronyms();
 
         String camelizedString = term;
@@ -157,6 +203,22 @@ public class Inflector {
      * @return A new class name string.
      */
     public static String classify(String tableName) {
+        InflectorCache cache = getCache(InflectorCache.Operation.CLASSIFY, tableName);
+        if (cache == null) {
+            return uncachedClassify(tableName);
+        }
+
+        long revision = getRevision("en-US");
+        String classified = cache.get(InflectorCache.Operation.CLASSIFY, "en-US", tableName, revision);
+        if (classified == null) {
+            classified = uncachedClassify(tableName);
+            cache.put(InflectorCache.Operation.CLASSIFY, "en-US", tableName, revision, classified);
+        }
+
+        return classified;
+    }
+
+    private static String uncachedClassify(String tableName) {
         String classified = tableName;
 
         classified = classified.replaceFirst(".*\\.", "");
@@ -389,16 +451,14 @@ public class Inflector {
 
         Pattern pattern;
         Matcher matcher;
-        Boolean matched = false;
         String group;
 
         List<Inflections.Rule> humans = inflections().getHumans();
         for (Inflections.Rule human : humans) {
-            pattern = Pattern.compile(human.rule, human.flags);
-            matcher = pattern.matcher(humanizedString);
-            while (matcher.find() && !matched) {
-                humanizedString = humanizedString.replaceFirst(human.rule, human.replacement);
-                matched = true;
+            String humanized = human.apply(humanizedString);
+            if (humanized != null) {
+                humanizedString = humanized;
+                break;
             }
         }
 
@@ -622,7 +682,19 @@ public class Inflector {
      * @return A new string with the plural form of the word.
      */
     public static String pluralize(String word, String locale) {
-        return applyInflections(word, inflections(locale).getPlurals());
+        InflectorCache cache = getCache(InflectorCache.Operation.PLURALIZE, word);
+        if (cache == null) {
+            return applyInflections(word, inflections(locale).getCompiledPlurals());
+        }
+
+        long revision = getRevision(locale);
+        String pluralized = cache.get(InflectorCache.Operation.PLURALIZE, locale, word, revision);
+        if (pluralized == null) {
+            pluralized = applyInflections(word, inflections(locale).getCompiledPlurals());
+            cache.put(InflectorCache.Operation.PLURALIZE, locale, word, revision, pluralized);
+        }
+
+        return pluralized;
     }
 
     /**
@@ -697,7 +769,19 @@ public class Inflector {
      * @return A new string with the singular form of the word.
      */
     public static String singularize(String word, String locale) {
-        return applyInflections(word, inflections(locale).getSingulars());
+        InflectorCache cache = getCache(InflectorCache.Operation.SINGULARIZE, word);
+        if (cache == null) {
+            return applyInflections(word, inflections(locale).getCompiledSingulars());
+        }
+
+        long revision = getRevision(locale);
+        String singularized = cache.get(InflectorCache.Operation.SINGULARIZE, locale, word, revision);
+        if (singularized == null) {
+            singularized = applyInflections(word, inflections(locale).getCompiledSingulars());
+            cache.put(InflectorCache.Operation.SINGULARIZE, locale, word, revision, singularized);
+        }
+
+        return singularized;
     }
 
     /**
@@ -715,6 +799,22 @@ public class Inflector {
      * @return A new string with the table name.
      */
     public static String tableize(String className) {
+        InflectorCache cache = getCache(InflectorCache.Operation.TABLEIZE, className);
+        if (cache == null) {
+            return uncachedTableize(className);
+        }
+
+        long revision = getRevision("en-US");
+        String tableized = cache.get(InflectorCache.Operation.TABLEIZE, "en-US", className, revision);
+        if (tableized == null) {
+            tableized = uncachedTableize(className);
+            cache.put(InflectorCache.Operation.TABLEIZE, "en-US", className, revision, tableized);
+        }
+
+        return tableized;
+    }
+
+    private static String uncachedTableize(String className) {
         String tableizedString = className;
         tableizedString = underscore(tableizedString);
         tableizedString = pluralize(tableizedString);
@@ -799,6 +899,22 @@ public class Inflector {
      * @return A new string in the underscored format.
      */
     public static String underscore(String camelCasedWord) {
+        InflectorCache cache = getCache(InflectorCache.Operation.UNDERSCORE, camelCasedWord);
+        if (cache == null) {
+            return uncachedUnderscore(camelCasedWord);
+        }
+
+        long revision = getRevision("en-US");
+        String underscored = cache.get(InflectorCache.Operation.UNDERSCORE, "en-US", camelCasedWord, revision);
+        if (underscored == null) {
+            underscored = uncachedUnderscore(camelCasedWord);
+            cache.put(InflectorCache.Operation.UNDERSCORE, "en-US", camelCasedWord, revision, underscored);
+        }
+
+        return underscored;
+    }
+
+    private static String uncachedUnderscore(String camelCasedWord) {
         Pattern pattern;
         Matcher matcher;
 
@@ -830,42 +946,80 @@ public class Inflector {
         return underscoredString;
     }
 
+    /**
+     * Returns the cache to be used for an operation, or null if the result of
+     * the operation should not be cached.
+     */
+    private static InflectorCache getCache(InflectorCache.Operation operation, String input) {
+        InflectorCache cache = sCache;
+        if (cache != null && input != null && cache.isEnabled(operation)) {
+            return cache;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the revision of the inflections a cached result depends on.
+     * Uncountable words are always looked up in the default locale, so its
+     * revision is taken into account for every other locale as well.
+     */
+    private static long getRevision(String locale) {
+        long revision = inflections().getRevision();
+        if (!"en-US".equals(locale)) {
+            revision += inflections(locale).getRevision();
+        }
+        return revision;
+    }
+
     /**
      * Applies inflection rules for {@link #singularize(String)} and
      * {@link #pluralize(String)}.
      * <pre>{@code
-     * Inflector.applyInflections("post", inflections.plurals) == "posts"
-     * Inflector.applyInflections("posts", inflections.singulars) == "post"
+     * Inflector.applyInflections("post", inflections.getCompiledPlurals()) == "posts"
+     * Inflector.applyInflections("posts", inflections.getCompiledSingulars()) == "post"
      * }</pre>
      *
      * @param word  The word to be inflected.
      * @param rules The rules to be used for the inflection.
      * @return A new string in the inflected format.
      */
-    private static String applyInflections(String word, List<Inflections.Rule> rules) {
-        String result = word;
+    private static String applyInflections(String word, CompiledRules rules) {
+        if (StringUtils.isEmpty(word)) {
+            return word;
+        }
 
-        Pattern pattern;
-        Matcher matcher;
+        if (inflections().isUncountable(lastWord(word).toLowerCase())) {
+            return word;
+        }
 
-        pattern = Pattern.compile("\\b\\w+\\Z");
-        matcher = pattern.matcher(word);
+        String result = rules.apply(word);
 
-        String uncountableWord = matcher.find() ? matcher.group() : word;
+        return result != null ? result : word;
+    }
 
-        if (StringUtils.isEmpty(word) || inflections().getUncountables().contains(uncountableWord.toLowerCase())) {
-            return result;
-        } else {
-            for (Inflections.Rule rule : rules) {
-                pattern = Pattern.compile(rule.rule, rule.flags);
-                matcher = pattern.matcher(result);
-                if (matcher.find()) {
-                    result = matcher.replaceFirst(rule.replacement);
-                    return result;
-                }
-            }
+    /**
+     * Returns the last word of the string, as matched by "\b\w+\Z", or the
+     * whole string if there is no such word. The common case of a string
+     * ending in an ASCII word is resolved without running the regex.
+     */
+    private static String lastWord(String word) {
+        int end = word.length();
+        int start = end;
+
+        while (start > 0 && isWordCharacter(word.charAt(start - 1))) {
+            start--;
+        }
 
-            return result;
+        if (start < end && (start == 0 || word.charAt(start - 1) < 0x80)) {
+            return start == 0 ? word : word.substring(start);
         }
+
+        Matcher matcher = LAST_WORD_PATTERN.matcher(word);
+
+        return matcher.find() ? matcher.group() : word;
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
     }
 }
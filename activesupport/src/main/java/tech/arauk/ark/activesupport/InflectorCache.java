@@ -0,0 +1,282 @@
+package tech.arauk.ark.activesupport;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * A bounded, least recently used cache for the results of the
+ * {@link tech.arauk.ark.activesupport.Inflector Inflector}. Model and column
+ * names come from a small vocabulary, so caching them saves running the same
+ * regular expressions over and over again.
+ * <pre>{@code
+ * Inflector.setCache(new InflectorCache(4096));
+ * Inflector.tableize("RawScaledScorer"); // computed
+ * Inflector.tableize("RawScaledScorer"); // served from the cache
+ * }</pre>
+ * Every entry remembers the revision of the
+ * {@link tech.arauk.ark.activesupport.inflector.Inflections Inflections} it was
+ * computed with, so entries are invalidated as soon as the rules of the
+ * matching locale are changed.
+ * <p/>
+ * The entries are spread over several independently locked segments to reduce
+ * contention. Subclasses may override {@link #get(Operation, String, String, long)}
+ * and {@link #put(Operation, String, String, long, String)} to plug in another
+ * storage or eviction policy.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public class InflectorCache {
+    public static final int DEFAULT_MAXIMUM_SIZE = 4096;
+    private static final int SEGMENT_COUNT = 16;
+    private final AtomicLong mEvictionCount;
+    private final AtomicLong mHitCount;
+    private final AtomicLong mMissCount;
+    private final Segment[] mSegments;
+    private final int mMaximumSize;
+    private volatile Set<Operation> mEnabledOperations;
+
+    public InflectorCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a cache that holds at most the given number of results.
+     *
+     * @param maximumSize The maximum number of results held by the cache.
+     */
+    public InflectorCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive.");
+        }
+
+        mEvictionCount = new AtomicLong();
+        mHitCount = new AtomicLong();
+        mMissCount = new AtomicLong();
+        mEnabledOperations = EnumSet.allOf(Operation.class);
+        mMaximumSize = maximumSize;
+
+        int segmentCount = Math.min(SEGMENT_COUNT, maximumSize);
+        int segmentSize = (maximumSize + segmentCount - 1) / segmentCount;
+
+        mSegments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            mSegments[i] = new Segment(segmentSize);
+        }
+    }
+
+    public int getMaximumSize() {
+        return mMaximumSize;
+    }
+
+    public long getEvictionCount() {
+        return mEvictionCount.get();
+    }
+
+    public long getHitCount() {
+        return mHitCount.get();
+    }
+
+    public long getMissCount() {
+        return mMissCount.get();
+    }
+
+    /**
+     * Checks to see whether or not the results of an operation are cached.
+     *
+     * @param operation The inflector operation.
+     * @return Whether or not the results of the operation are cached.
+     */
+    public boolean isEnabled(Operation operation) {
+        return mEnabledOperations.contains(operation);
+    }
+
+    /**
+     * Starts caching the results of an operation.
+     *
+     * @param operation The inflector operation.
+     */
+    public synchronized void enable(Operation operation) {
+        Set<Operation> enabledOperations = EnumSet.copyOf(mEnabledOperations);
+        enabledOperations.add(operation);
+        mEnabledOperations = enabledOperations;
+    }
+
+    /**
+     * Stops caching the results of an operation. Results already cached for
+     * the operation are no longer served.
+     *
+     * @param operation The inflector operation.
+     */
+    public synchronized void disable(Operation operation) {
+        Set<Operation> enabledOperations = EnumSet.copyOf(mEnabledOperations);
+        enabledOperations.remove(operation);
+        mEnabledOperations = enabledOperations;
+    }
+
+    /**
+     * Returns a cached result.
+     *
+     * @param operation The inflector operation.
+     * @param locale    The locale of the inflections used by the operation.
+     * @param input     The string given to the operation.
+     * @param revision  The current revision of the inflections.
+     * @return The cached result or null if there is no result cached for the
+     * given revision.
+     */
+    public String get(Operation operation, String locale, String input, long revision) {
+        Key key = new Key(operation, locale, input);
+        Segment segment = segmentFor(key);
+
+        CachedResult cachedResult;
+        synchronized (segment) {
+            cachedResult = segment.get(key);
+            if (cachedResult != null && cachedResult.revision != revision) {
+                segment.remove(key);
+                cachedResult = null;
+            }
+        }
+
+        if (cachedResult == null) {
+            mMissCount.incrementAndGet();
+            return null;
+        }
+
+        mHitCount.incrementAndGet();
+        return cachedResult.value;
+    }
+
+    /**
+     * Caches the result of an operation.
+     *
+     * @param operation The inflector operation.
+     * @param locale    The locale of the inflections used by the operation.
+     * @param input     The string given to the operation.
+     * @param revision  The revision of the inflections used to compute the
+     *                  result.
+     * @param result    The result of the operation.
+     */
+    public void put(Operation operation, String locale, String input, long revision, String result) {
+        Key key = new Key(operation, locale, input);
+        Segment segment = segmentFor(key);
+
+        synchronized (segment) {
+            segment.put(key, new CachedResult(result, revision));
+        }
+    }
+
+    /**
+     * Returns the number of results currently cached.
+     *
+     * @return The number of results currently cached.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : mSegments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes all the cached results and resets the counters.
+     */
+    public void clear() {
+        for (Segment segment : mSegments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+
+        mEvictionCount.set(0);
+        mHitCount.set(0);
+        mMissCount.set(0);
+    }
+
+    private Segment segmentFor(Key key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return mSegments[(hash & 0x7fffffff) % mSegments.length];
+    }
+
+    /**
+     * The inflector operations whose results may be cached.
+     */
+    public enum Operation {
+        CAMELIZE,
+        CLASSIFY,
+        LOWER_CAMELIZE,
+        PLURALIZE,
+        SINGULARIZE,
+        TABLEIZE,
+        UNDERSCORE
+    }
+
+    private static class CachedResult {
+        final String value;
+        final long revision;
+
+        CachedResult(String value, long revision) {
+            this.value = value;
+            this.revision = revision;
+        }
+    }
+
+    private static class Key {
+        final Operation operation;
+        final String locale;
+        final String input;
+        final int hash;
+
+        Key(Operation operation, String locale, String input) {
+            this.operation = operation;
+            this.locale = locale;
+            this.input = input;
+            this.hash = 31 * (31 * operation.hashCode() + locale.hashCode()) + input.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) other;
+            return operation == key.operation && locale.equals(key.locale) && input.equals(key.input);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private class Segment extends LinkedHashMap<Key, CachedResult> {
+        private static final long serialVersionUID = 1L;
+        private final int mCapacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            mCapacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CachedResult> eldest) {
+            if (size() > mCapacity) {
+                mEvictionCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
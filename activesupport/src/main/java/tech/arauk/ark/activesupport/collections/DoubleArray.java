@@ -0,0 +1,167 @@
+package tech.arauk.ark.activesupport.collections;
+
+import java.util.Arrays;
+
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * A growable array of double values, which stores them unboxed:
+ * <pre>{@code
+ * DoubleArray balances = new DoubleArray();
+ * balances.add(10.5);
+ * balances.add(20.0);
+ * double[] values = balances.toArray();
+ * }</pre>
+ * Takes 8 bytes per value, where a {@code List<Double>} takes the 16
+ * bytes of a Double on top of the reference to it.
+ * <p/>
+ * Like an ArrayList, it must not be changed by several threads at once.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public final class DoubleArray {
+    public static final int DEFAULT_CAPACITY = 16;
+    private static final double[] EMPTY = new double[0];
+    private double[] mElements;
+    private int mSize;
+
+    public DoubleArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an array that holds the given number of values before it
+     * grows.
+     *
+     * @param initialCapacity The initial capacity.
+     */
+    public DoubleArray(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("The capacity must not be negative.");
+        }
+
+        mElements = initialCapacity == 0 ? EMPTY : new double[initialCapacity];
+    }
+
+    /**
+     * Appends a value, growing the array by half when it is full.
+     *
+     * @param value The value.
+     */
+    public void add(double value) {
+        if (mSize == mElements.length) {
+            grow(mSize + 1);
+        }
+        mElements[mSize++] = value;
+    }
+
+    public double get(int index) {
+        checkIndex(index);
+        return mElements[index];
+    }
+
+    public void set(int index, double value) {
+        checkIndex(index);
+        mElements[index] = value;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Removes every value, keeping the capacity.
+     */
+    public void clear() {
+        mSize = 0;
+    }
+
+    /**
+     * Makes room for the given number of values.
+     *
+     * @param capacity The minimum capacity.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > mElements.length) {
+            grow(capacity);
+        }
+    }
+
+    /**
+     * Shrinks the capacity to the number of values.
+     */
+    public void trimToSize() {
+        if (mSize < mElements.length) {
+            mElements = mSize == 0 ? EMPTY : Arrays.copyOf(mElements, mSize);
+        }
+    }
+
+    /**
+     * @return A copy of the values.
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(mElements, mSize);
+    }
+
+    private void grow(int capacity) {
+        if (capacity < 0) {
+            throw new OutOfMemoryError("The array cannot hold more than " + Integer.MAX_VALUE + " values.");
+        }
+
+        int newCapacity = mElements.length + (mElements.length >> 1);
+        if (newCapacity - capacity < 0) {
+            newCapacity = Math.max(capacity, DEFAULT_CAPACITY);
+        }
+        if (newCapacity < 0) {
+            newCapacity = Integer.MAX_VALUE;
+        }
+        mElements = Arrays.copyOf(mElements, newCapacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof DoubleArray)) {
+            return false;
+        }
+
+        DoubleArray array = (DoubleArray) object;
+        if (mSize != array.mSize) {
+            return false;
+        }
+        for (int i = 0; i < mSize; i++) {
+            if (Double.doubleToLongBits(mElements[i]) != Double.doubleToLongBits(array.mElements[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 1;
+        for (int i = 0; i < mSize; i++) {
+            long bits = Double.doubleToLongBits(mElements[i]);
+            hashCode = 31 * hashCode + (int) (bits ^ (bits >>> 32));
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
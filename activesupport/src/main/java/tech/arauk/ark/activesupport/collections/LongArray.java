@@ -0,0 +1,166 @@
+package tech.arauk.ark.activesupport.collections;
+
+import java.util.Arrays;
+
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * A growable array of long values, which stores them unboxed:
+ * <pre>{@code
+ * LongArray ids = new LongArray();
+ * ids.add(1L);
+ * ids.add(2L);
+ * long[] values = ids.toArray();
+ * }</pre>
+ * Takes 8 bytes per value, where a {@code List<Long>} takes the 16
+ * bytes of a Long on top of the reference to it.
+ * <p/>
+ * Like an ArrayList, it must not be changed by several threads at once.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public final class LongArray {
+    public static final int DEFAULT_CAPACITY = 16;
+    private static final long[] EMPTY = new long[0];
+    private long[] mElements;
+    private int mSize;
+
+    public LongArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an array that holds the given number of values before it
+     * grows.
+     *
+     * @param initialCapacity The initial capacity.
+     */
+    public LongArray(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("The capacity must not be negative.");
+        }
+
+        mElements = initialCapacity == 0 ? EMPTY : new long[initialCapacity];
+    }
+
+    /**
+     * Appends a value, growing the array by half when it is full.
+     *
+     * @param value The value.
+     */
+    public void add(long value) {
+        if (mSize == mElements.length) {
+            grow(mSize + 1);
+        }
+        mElements[mSize++] = value;
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return mElements[index];
+    }
+
+    public void set(int index, long value) {
+        checkIndex(index);
+        mElements[index] = value;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Removes every value, keeping the capacity.
+     */
+    public void clear() {
+        mSize = 0;
+    }
+
+    /**
+     * Makes room for the given number of values.
+     *
+     * @param capacity The minimum capacity.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > mElements.length) {
+            grow(capacity);
+        }
+    }
+
+    /**
+     * Shrinks the capacity to the number of values.
+     */
+    public void trimToSize() {
+        if (mSize < mElements.length) {
+            mElements = mSize == 0 ? EMPTY : Arrays.copyOf(mElements, mSize);
+        }
+    }
+
+    /**
+     * @return A copy of the values.
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(mElements, mSize);
+    }
+
+    private void grow(int capacity) {
+        if (capacity < 0) {
+            throw new OutOfMemoryError("The array cannot hold more than " + Integer.MAX_VALUE + " values.");
+        }
+
+        int newCapacity = mElements.length + (mElements.length >> 1);
+        if (newCapacity - capacity < 0) {
+            newCapacity = Math.max(capacity, DEFAULT_CAPACITY);
+        }
+        if (newCapacity < 0) {
+            newCapacity = Integer.MAX_VALUE;
+        }
+        mElements = Arrays.copyOf(mElements, newCapacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof LongArray)) {
+            return false;
+        }
+
+        LongArray array = (LongArray) object;
+        if (mSize != array.mSize) {
+            return false;
+        }
+        for (int i = 0; i < mSize; i++) {
+            if (mElements[i] != array.mElements[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 1;
+        for (int i = 0; i < mSize; i++) {
+            hashCode = 31 * hashCode + (int) (mElements[i] ^ (mElements[i] >>> 32));
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,254 @@
+package tech.arauk.ark.activesupport.inflector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * An ordered list of inflection rules prepared to be applied to many words.
+ * <p/>
+ * Rules registered through
+ * {@link Inflections#irregular(String, String) irregular} match a literal
+ * suffix of the word, so instead of being tried one by one as regular
+ * expressions they are kept in a trie of reversed suffixes, which finds every
+ * matching irregular in a single pass over the end of the word. The remaining
+ * rules are still tried in order, but only the ones with a higher priority than
+ * the best irregular match need to run. The first matching rule wins, exactly
+ * as if every rule had been tried in order.
+ * <p/>
+ * When the inflections are {@link Inflections#setCompiled(boolean) compiled},
+ * the remaining rules are also merged into a single automaton which finds the
+ * first of them to match in one pass over the word. Only the rules the
+ * automaton does not understand are still tried one by one.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public final class CompiledRules {
+    private final Inflections.Rule[] mRules;
+    private final int[] mRegexPositions;
+    private final SuffixNode mSuffixes;
+    private final RuleAutomaton mAutomaton;
+
+    CompiledRules(List<Inflections.Rule> rules, boolean compiled) {
+        mRules = rules.toArray(new Inflections.Rule[rules.size()]);
+
+        List<Integer> regexPositions = new ArrayList<>();
+        List<Integer> automatonPositions = new ArrayList<>();
+        SuffixNode.Builder suffixes = new SuffixNode.Builder();
+
+        for (int position = 0; position < mRules.length; position++) {
+            Inflections.Literal literal = mRules[position].literal;
+            if (literal != null) {
+                suffixes.add(literal, position);
+            } else if (compiled && RuleAutomaton.isSupported(mRules[position])) {
+                automatonPositions.add(position);
+            } else {
+                regexPositions.add(position);
+            }
+        }
+
+        RuleAutomaton automaton = null;
+        if (!automatonPositions.isEmpty()) {
+            automaton = RuleAutomaton.build(mRules, toArray(automatonPositions));
+            if (automaton == null) {
+                // Too many states, so every rule is tried as a regex instead.
+                regexPositions.addAll(automatonPositions);
+                Collections.sort(regexPositions);
+            }
+        }
+
+        mRegexPositions = toArray(regexPositions);
+        mSuffixes = suffixes.build();
+        mAutomaton = automaton;
+    }
+
+    /**
+     * Checks to see whether or not the rules were merged into an automaton.
+     *
+     * @return Whether or not an automaton is used to find the first matching
+     * rule.
+     */
+    public boolean isAutomatonEnabled() {
+        return mAutomaton != null;
+    }
+
+    /**
+     * Applies the first matching rule to the word.
+     *
+     * @param word The word to be inflected.
+     * @return The inflected word, or null if no rule matches.
+     */
+    public String apply(String word) {
+        if (endsWithLineTerminator(word)) {
+            // "$" also matches before a final line terminator, which the
+            // suffix index does not model, so every rule runs as a regex.
+            return applyInOrder(word);
+        }
+
+        int bestPosition = mSuffixes.match(word, mRules);
+
+        if (mAutomaton != null) {
+            int automatonPosition = word.isEmpty() ? -2 : mAutomaton.match(word);
+            if (automatonPosition == -2) {
+                return applyInOrder(word);
+            }
+            if (automatonPosition >= 0 && (bestPosition < 0 || automatonPosition < bestPosition)) {
+                bestPosition = automatonPosition;
+            }
+        }
+
+        for (int position : mRegexPositions) {
+            if (bestPosition >= 0 && position > bestPosition) {
+                break;
+            }
+
+            String result = mRules[position].apply(word);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        if (bestPosition >= 0) {
+            Inflections.Rule rule = mRules[bestPosition];
+            return rule.literal != null ? rule.literal.apply(word) : rule.apply(word);
+        }
+
+        return null;
+    }
+
+    private String applyInOrder(String word) {
+        for (Inflections.Rule rule : mRules) {
+            String result = rule.apply(word);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    private static boolean endsWithLineTerminator(String word) {
+        if (word.isEmpty()) {
+            return false;
+        }
+
+        char last = word.charAt(word.length() - 1);
+        return last == '\n' || last == '\r' || last == '\u0085' || last == '\u2028' || last == '\u2029';
+    }
+
+    static char fold(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * A node of a trie built from the reversed literal suffixes.
+     */
+    private static final class SuffixNode {
+        private final char[] mKeys;
+        private final SuffixNode[] mChildren;
+        private final int[] mPositions;
+
+        private SuffixNode(char[] keys, SuffixNode[] children, int[] positions) {
+            mKeys = keys;
+            mChildren = children;
+            mPositions = positions;
+        }
+
+        /**
+         * Returns the position of the first literal rule matching the word,
+         * or -1 if none does.
+         */
+        int match(String word, Inflections.Rule[] rules) {
+            int best = -1;
+            SuffixNode node = this;
+
+            for (int i = word.length() - 1; i >= 0 && node != null; i--) {
+                node = node.child(fold(word.charAt(i)));
+                if (node == null) {
+                    break;
+                }
+
+                for (int position : node.mPositions) {
+                    if ((best < 0 || position < best) && rules[position].literal.matchesAt(word, i)) {
+                        best = position;
+                    }
+                }
+            }
+
+            return best;
+        }
+
+        private SuffixNode child(char key) {
+            int low = 0;
+            int high = mKeys.length - 1;
+
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char current = mKeys[middle];
+
+                if (current < key) {
+                    low = middle + 1;
+                } else if (current > key) {
+                    high = middle - 1;
+                } else {
+                    return mChildren[middle];
+                }
+            }
+
+            return null;
+        }
+
+        static final class Builder {
+            private final Map<Character, Builder> mChildren = new TreeMap<>();
+            private final List<Integer> mPositions = new ArrayList<>();
+
+            void add(Inflections.Literal literal, int position) {
+                Builder node = this;
+                String suffix = literal.suffix;
+
+                for (int i = suffix.length() - 1; i >= 0; i--) {
+                    Character key = suffix.charAt(i);
+                    Builder child = node.mChildren.get(key);
+                    if (child == null) {
+                        child = new Builder();
+                        node.mChildren.put(key, child);
+                    }
+                    node = child;
+                }
+
+                node.mPositions.add(position);
+            }
+
+            SuffixNode build() {
+                char[] keys = new char[mChildren.size()];
+                SuffixNode[] children = new SuffixNode[mChildren.size()];
+
+                int i = 0;
+                for (Map.Entry<Character, Builder> child : mChildren.entrySet()) {
+                    keys[i] = child.getKey();
+                    children[i] = child.getValue().build();
+                    i++;
+                }
+
+                int[] positions = new int[mPositions.size()];
+                for (int j = 0; j < positions.length; j++) {
+                    positions[j] = mPositions.get(j);
+                }
+
+                return new SuffixNode(keys, children, positions);
+            }
+        }
+    }
+}
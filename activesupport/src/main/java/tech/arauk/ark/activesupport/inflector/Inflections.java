@@ -1,9 +1,15 @@
 package tech.arauk.ark.activesupport.inflector;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import tech.arauk.ark.activesupport.annotations.Beta;
@@ -27,29 +33,32 @@ import tech.arauk.ark.activesupport.core_ext.StringUtils;
  * for octopus will now be the first of the pluralization and singularization
  * rules that is runs. This guarantees that your rules run before any of the
  * rules that may already have been loaded.
+ * <p/>
+ * Inflections are safe to be shared between threads. The rules are kept in an
+ * immutable snapshot which is replaced as a whole whenever a rule is added or
+ * cleared, so reading the rules never takes a lock and never observes a
+ * partially applied change.
  *
  * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
  */
 @Beta
 public class Inflections {
-    private static Map<String, Inflections> INSTANCE_HOLDER;
-    private Map<String, String> mAcronyms;
-    private String mAcronymRegex;
-    private List<Rule> mHumans;
-    private List<Rule> mPlurals;
-    private List<Rule> mSingulars;
-    private List<String> mUncountables;
+    private static final String EMPTY_ACRONYM_REGEX = "(?=a)b";
+    private static final AtomicReference<Map<String, Inflections>> INSTANCE_HOLDER = new AtomicReference<>(Collections.<String, Inflections>emptyMap());
+    private final AtomicReference<State> mState;
 
     public Inflections() {
-        clear();
+        mState = new AtomicReference<>(new State(0, false));
     }
 
+    /**
+     * Returns an immutable snapshot of the registered inflections, indexed by
+     * locale.
+     *
+     * @return The registered inflections.
+     */
     public static Map<String, Inflections> getInstances() {
-        if (INSTANCE_HOLDER == null) {
-            INSTANCE_HOLDER = new HashMap<>();
-        }
-
-        return INSTANCE_HOLDER;
+        return INSTANCE_HOLDER.get();
     }
 
     /**
@@ -89,154 +98,512 @@ public class Inflections {
      * you can specify additional inflector rules..
      */
     public static Inflections getInstance(String locale) {
-        Map<String, Inflections> instances = getInstances();
+        Inflections instance = INSTANCE_HOLDER.get().get(locale);
+        if (instance != null) {
+            return instance;
+        }
+
+        Inflections created = new Inflections();
+        while (true) {
+            Map<String, Inflections> instances = INSTANCE_HOLDER.get();
+
+            instance = instances.get(locale);
+            if (instance != null) {
+                return instance;
+            }
 
-        instances.put(locale, instances.containsKey(locale) ? instances.get(locale) : new Inflections());
+            Map<String, Inflections> updated = new HashMap<>(instances);
+            updated.put(locale, created);
 
-        return instances.get(locale);
+            if (INSTANCE_HOLDER.compareAndSet(instances, Collections.unmodifiableMap(updated))) {
+                return created;
+            }
+        }
+    }
+
+    /**
+     * Returns a number that changes every time these inflections are changed.
+     * It is used to invalidate results that were computed with older rules.
+     *
+     * @return The current revision of these inflections.
+     */
+    public long getRevision() {
+        return mState.get().revision;
     }
 
     public Map<String, String> getAcronyms() {
-        return mAcronyms;
+        return mState.get().acronyms;
     }
 
     public String getAcronymRegex() {
-        return mAcronymRegex;
+        return mState.get().acronymRegex;
     }
 
     public List<Rule> getHumans() {
-        return mHumans;
+        return mState.get().humans;
     }
 
     public List<Rule> getPlurals() {
-        return mPlurals;
+        return mState.get().plurals;
     }
 
     public List<Rule> getSingulars() {
-        return mSingulars;
+        return mState.get().singulars;
     }
 
     public List<String> getUncountables() {
-        return mUncountables;
+        return mState.get().uncountables;
+    }
+
+    /**
+     * Returns the plural rules prepared to be applied to many words.
+     *
+     * @return The compiled plural rules.
+     */
+    public CompiledRules getCompiledPlurals() {
+        return mState.get().getCompiledPlurals();
+    }
+
+    /**
+     * Returns the singular rules prepared to be applied to many words.
+     *
+     * @return The compiled singular rules.
+     */
+    public CompiledRules getCompiledSingulars() {
+        return mState.get().getCompiledSingulars();
+    }
+
+    /**
+     * Checks to see whether or not a word was registered as uncountable. The
+     * lookup is a hash lookup instead of a scan of the uncountable words.
+     *
+     * @param word The lower case word.
+     * @return Whether or not the word is uncountable.
+     */
+    public boolean isUncountable(String word) {
+        return mState.get().uncountableSet.contains(word);
+    }
+
+    /**
+     * Checks to see whether or not the plural and singular rules are compiled
+     * into a single automaton.
+     *
+     * @return Whether or not the rules are compiled into an automaton.
+     * @see #setCompiled(boolean)
+     */
+    public boolean isCompiled() {
+        return mState.get().compiled;
+    }
+
+    /**
+     * Sets whether or not the plural and singular rules are compiled into a
+     * single automaton, which finds the first matching rule in one pass over
+     * the word no matter how many rules there are. It pays off for locales
+     * with hundreds of rules, at the cost of building the automaton again
+     * after every change to the rules.
+     * <p/>
+     * Rules using regex features the automaton does not understand, such as
+     * lookarounds or back references, are still applied as regexes, so the
+     * results are the same either way.
+     * <p/>
+     * <pre>{@code
+     * Inflector.inflections("pt-BR").setCompiled(true);
+     * }</pre>
+     *
+     * @param compiled Whether or not the rules are compiled into an automaton.
+     */
+    public void setCompiled(final boolean compiled) {
+        update(new Mutation() {
+            @Override
+            State apply(State state) {
+                return state.withCompiled(compiled);
+            }
+        });
     }
 
-    public void acronym(String word) {
-        mAcronyms.put(word.toLowerCase(), word);
-        mAcronymRegex = StringUtils.join(mAcronyms.values(), "|");
+    public void acronym(final String word) {
+        update(new Mutation() {
+            @Override
+            State apply(State state) {
+                return state.withAcronym(word);
+            }
+        });
     }
 
     public void plural(String rule, String replacement) {
         plural(rule, replacement, 0);
     }
 
-    public void plural(String rule, String replacement, int flags) {
-        mUncountables.remove(rule);
-        mUncountables.remove(replacement);
-        mPlurals.add(0, new Rule(rule, replacement, flags));
+    public void plural(final String rule, final String replacement, int flags) {
+        final Rule plural = new Rule(rule, replacement, flags);
+
+        update(new Mutation() {
+            @Override
+            State apply(State state) {
+                return state.withoutUncountables(rule, replacement).withPlural(plural);
+            }
+        });
     }
 
     public void singular(String rule, String replacement) {
         singular(rule, replacement, 0);
     }
 
-    public void singular(String rule, String replacement, int flags) {
-        mUncountables.remove(rule);
-        mUncountables.remove(replacement);
-        mSingulars.add(0, new Rule(rule, replacement, flags));
-    }
+    public void singular(final String rule, final String replacement, int flags) {
+        final Rule singular = new Rule(rule, replacement, flags);
 
-    public void irregular(String singular, String plural) {
-        mUncountables.remove(singular);
-        mUncountables.remove(plural);
+        update(new Mutation() {
+            @Override
+            State apply(State state) {
+                return state.withoutUncountables(rule, replacement).withSingular(singular);
+            }
+        });
+    }
 
+    public void irregular(final String singular, final String plural) {
         String s0 = singular.substring(0, 1);
         String sRest = singular.substring(1);
 
         String p0 = plural.substring(0, 1);
         String pRest = plural.substring(1);
 
+        // Irregulars made of plain letters and digits are matched through the
+        // suffix index of CompiledRules instead of running their regexes.
+        boolean literal = Literal.isLiteral(singular) && Literal.isLiteral(plural);
+
+        final List<Rule> plurals = new ArrayList<>();
+        final List<Rule> singulars = new ArrayList<>();
+
         if (s0.toUpperCase().equals(p0.toUpperCase())) {
-            plural("(" + s0 + ")" + sRest + "$", "$1" + pRest, Pattern.CASE_INSENSITIVE);
-            plural("(" + p0 + ")" + pRest + "$", "$1" + pRest, Pattern.CASE_INSENSITIVE);
+            plurals.add(new Rule("(" + s0 + ")" + sRest + "$", "$1" + pRest, Pattern.CASE_INSENSITIVE, literal ? Literal.keepingFirst(singular, pRest) : null));
+            plurals.add(new Rule("(" + p0 + ")" + pRest + "$", "$1" + pRest, Pattern.CASE_INSENSITIVE, literal ? Literal.keepingFirst(plural, pRest) : null));
 
-            singular("(" + s0 + ")" + sRest + "$", "$1" + sRest, Pattern.CASE_INSENSITIVE);
-            singular("(" + p0 + ")" + pRest + "$", "$1" + sRest, Pattern.CASE_INSENSITIVE);
+            singulars.add(new Rule("(" + s0 + ")" + sRest + "$", "$1" + sRest, Pattern.CASE_INSENSITIVE, literal ? Literal.keepingFirst(singular, sRest) : null));
+            singulars.add(new Rule("(" + p0 + ")" + pRest + "$", "$1" + sRest, Pattern.CASE_INSENSITIVE, literal ? Literal.keepingFirst(plural, sRest) : null));
         } else {
-            plural(s0.toUpperCase() + "(?i)" + sRest + "$", p0.toUpperCase() + pRest);
-            plural(s0.toLowerCase() + "(?i)" + sRest + "$", p0.toLowerCase() + pRest);
-            plural(p0.toUpperCase() + "(?i)" + pRest + "$", p0.toUpperCase() + pRest);
-            plural(p0.toLowerCase() + "(?i)" + pRest + "$", p0.toLowerCase() + pRest);
-
-            singular(s0.toUpperCase() + "(?i)" + sRest + "$", s0.toUpperCase() + sRest);
-            singular(s0.toLowerCase() + "(?i)" + sRest + "$", s0.toLowerCase() + sRest);
-            singular(p0.toUpperCase() + "(?i)" + pRest + "$", s0.toUpperCase() + sRest);
-            singular(p0.toLowerCase() + "(?i)" + pRest + "$", s0.toLowerCase() + sRest);
+            plurals.add(new Rule(s0.toUpperCase() + "(?i)" + sRest + "$", p0.toUpperCase() + pRest, 0, literal ? Literal.replacing(s0.toUpperCase() + sRest, p0.toUpperCase() + pRest) : null));
+            plurals.add(new Rule(s0.toLowerCase() + "(?i)" + sRest + "$", p0.toLowerCase() + pRest, 0, literal ? Literal.replacing(s0.toLowerCase() + sRest, p0.toLowerCase() + pRest) : null));
+            plurals.add(new Rule(p0.toUpperCase() + "(?i)" + pRest + "$", p0.toUpperCase() + pRest, 0, literal ? Literal.replacing(p0.toUpperCase() + pRest, p0.toUpperCase() + pRest) : null));
+            plurals.add(new Rule(p0.toLowerCase() + "(?i)" + pRest + "$", p0.toLowerCase() + pRest, 0, literal ? Literal.replacing(p0.toLowerCase() + pRest, p0.toLowerCase() + pRest) : null));
+
+            singulars.add(new Rule(s0.toUpperCase() + "(?i)" + sRest + "$", s0.toUpperCase() + sRest, 0, literal ? Literal.replacing(s0.toUpperCase() + sRest, s0.toUpperCase() + sRest) : null));
+            singulars.add(new Rule(s0.toLowerCase() + "(?i)" + sRest + "$", s0.toLowerCase() + sRest, 0, literal ? Literal.replacing(s0.toLowerCase() + sRest, s0.toLowerCase() + sRest) : null));
+            singulars.add(new Rule(p0.toUpperCase() + "(?i)" + pRest + "$", s0.toUpperCase() + sRest, 0, literal ? Literal.replacing(p0.toUpperCase() + pRest, s0.toUpperCase() + sRest) : null));
+            singulars.add(new Rule(p0.toLowerCase() + "(?i)" + pRest + "$", s0.toLowerCase() + sRest, 0, literal ? Literal.replacing(p0.toLowerCase() + pRest, s0.toLowerCase() + sRest) : null));
         }
+
+        update(new Mutation() {
+            @Override
+            State apply(State state) {
+                State updated = state.withoutUncountables(singular, plural);
+                for (Rule rule : plurals) {
+                    updated = updated.withoutUncountables(rule.rule, rule.replacement).withPlural(rule);
+                }
+                for (Rule rule : singulars) {
+                    updated = updated.withoutUncountables(rule.rule, rule.replacement).withSingular(rule);
+                }
+                return updated;
+            }
+        });
     }
 
-    public void uncountable(String... words) {
-        for (String word : words) {
-            mUncountables.add(word.toLowerCase());
-        }
+    public void uncountable(final String... words) {
+        update(new Mutation() {
+            @Override
+            State apply(State state) {
+                return state.withUncountables(words);
+            }
+        });
     }
 
     public void human(String rule, String replacement) {
-        mHumans.add(0, new Rule(rule, replacement));
+        final Rule human = new Rule(rule, replacement);
+
+        update(new Mutation() {
+            @Override
+            State apply(State state) {
+                return state.withHuman(human);
+            }
+        });
     }
 
     public void clear() {
-        mAcronyms = new HashMap<>();
-        mAcronymRegex = "(?=a)b";
-        mHumans = new ArrayList<>();
-        mPlurals = new ArrayList<>();
-        mSingulars = new ArrayList<>();
-        mUncountables = new ArrayList<>();
+        clear("all");
     }
 
-    public void clear(String scope) {
-        if (scope == null) {
-            clear();
-        } else {
+    public void clear(final String scope) {
+        update(new Mutation() {
+            @Override
+            State apply(State state) {
+                return state.cleared(scope == null ? "all" : scope);
+            }
+        });
+    }
+
+    /**
+     * Applies a change to the current snapshot and publishes the result. If
+     * another thread published a snapshot in the meantime, the change is
+     * applied again on top of it.
+     */
+    private void update(Mutation mutation) {
+        State current;
+        State updated;
+        do {
+            current = mState.get();
+            updated = mutation.apply(current);
+        } while (!mState.compareAndSet(current, updated));
+    }
+
+    /**
+     * A change to be applied to a snapshot of the inflections.
+     */
+    private abstract static class Mutation {
+        abstract State apply(State state);
+    }
+
+    /**
+     * An immutable snapshot of the inflection rules. Every change produces a
+     * new snapshot with a higher revision.
+     */
+    private static final class State {
+        final long revision;
+        final Map<String, String> acronyms;
+        final String acronymRegex;
+        final List<Rule> humans;
+        final List<Rule> plurals;
+        final List<Rule> singulars;
+        final List<String> uncountables;
+        final Set<String> uncountableSet;
+        final boolean compiled;
+        private volatile CompiledRules mCompiledPlurals;
+        private volatile CompiledRules mCompiledSingulars;
+
+        State(long revision, boolean compiled) {
+            this(revision, Collections.<String, String>emptyMap(), EMPTY_ACRONYM_REGEX, Collections.<Rule>emptyList(), Collections.<Rule>emptyList(), Collections.<Rule>emptyList(), Collections.<String>emptyList(), compiled);
+        }
+
+        State(long revision, Map<String, String> acronyms, String acronymRegex, List<Rule> humans, List<Rule> plurals, List<Rule> singulars, List<String> uncountables, boolean compiled) {
+            this.revision = revision;
+            this.acronyms = acronyms;
+            this.acronymRegex = acronymRegex;
+            this.humans = humans;
+            this.plurals = plurals;
+            this.singulars = singulars;
+            this.uncountables = uncountables;
+            this.uncountableSet = new HashSet<>(uncountables);
+            this.compiled = compiled;
+        }
+
+        CompiledRules getCompiledPlurals() {
+            CompiledRules compiledPlurals = mCompiledPlurals;
+            if (compiledPlurals == null) {
+                compiledPlurals = new CompiledRules(plurals, compiled);
+                mCompiledPlurals = compiledPlurals;
+            }
+            return compiledPlurals;
+        }
+
+        CompiledRules getCompiledSingulars() {
+            CompiledRules compiledSingulars = mCompiledSingulars;
+            if (compiledSingulars == null) {
+                compiledSingulars = new CompiledRules(singulars, compiled);
+                mCompiledSingulars = compiledSingulars;
+            }
+            return compiledSingulars;
+        }
+
+        State withCompiled(boolean compiled) {
+            if (compiled == this.compiled) {
+                return this;
+            }
+
+            return new State(revision + 1, acronyms, acronymRegex, humans, plurals, singulars, uncountables, compiled);
+        }
+
+        State withAcronym(String word) {
+            Map<String, String> updated = new LinkedHashMap<>(acronyms);
+            updated.put(word.toLowerCase(), word);
+
+            return new State(revision + 1, Collections.unmodifiableMap(updated), StringUtils.join(updated.values(), "|"), humans, plurals, singulars, uncountables, compiled);
+        }
+
+        State withHuman(Rule rule) {
+            return new State(revision + 1, acronyms, acronymRegex, prepend(rule, humans), plurals, singulars, uncountables, compiled);
+        }
+
+        State withPlural(Rule rule) {
+            return new State(revision + 1, acronyms, acronymRegex, humans, prepend(rule, plurals), singulars, uncountables, compiled);
+        }
+
+        State withSingular(Rule rule) {
+            return new State(revision + 1, acronyms, acronymRegex, humans, plurals, prepend(rule, singulars), uncountables, compiled);
+        }
+
+        State withUncountables(String... words) {
+            List<String> updated = new ArrayList<>(uncountables.size() + words.length);
+            updated.addAll(uncountables);
+            for (String word : words) {
+                updated.add(word.toLowerCase());
+            }
+
+            return new State(revision + 1, acronyms, acronymRegex, humans, plurals, singulars, Collections.unmodifiableList(updated), compiled);
+        }
+
+        State withoutUncountables(String... words) {
+            List<String> updated = new ArrayList<>(uncountables);
+
+            boolean changed = false;
+            for (String word : words) {
+                changed |= updated.remove(word);
+            }
+
+            if (!changed) {
+                return this;
+            }
+
+            return new State(revision + 1, acronyms, acronymRegex, humans, plurals, singulars, Collections.unmodifiableList(updated), compiled);
+        }
+
+        State cleared(String scope) {
             switch (scope) {
                 case "all":
-                    clear();
-                    break;
+                    return new State(revision + 1, compiled);
                 case "acronyms":
-                    mAcronyms = new HashMap<>();
-                    mAcronymRegex = "(?=a)b";
-                    break;
+                    return new State(revision + 1, Collections.<String, String>emptyMap(), EMPTY_ACRONYM_REGEX, humans, plurals, singulars, uncountables, compiled);
                 case "humans":
-                    mHumans = new ArrayList<>();
-                    break;
+                    return new State(revision + 1, acronyms, acronymRegex, Collections.<Rule>emptyList(), plurals, singulars, uncountables, compiled);
                 case "plurals":
-                    mPlurals = new ArrayList<>();
-                    break;
+                    return new State(revision + 1, acronyms, acronymRegex, humans, Collections.<Rule>emptyList(), singulars, uncountables, compiled);
                 case "singulars":
-                    mSingulars = new ArrayList<>();
-                    break;
+                    return new State(revision + 1, acronyms, acronymRegex, humans, plurals, Collections.<Rule>emptyList(), uncountables, compiled);
                 case "uncountables":
-                    mUncountables = new ArrayList<>();
-                    break;
+                    return new State(revision + 1, acronyms, acronymRegex, humans, plurals, singulars, Collections.<String>emptyList(), compiled);
                 default:
                     throw new IllegalArgumentException();
             }
         }
+
+        private static List<Rule> prepend(Rule rule, List<Rule> rules) {
+            List<Rule> updated = new ArrayList<>(rules.size() + 1);
+            updated.add(rule);
+            updated.addAll(rules);
+
+            return Collections.unmodifiableList(updated);
+        }
     }
 
+    /**
+     * A single inflection rule. The regular expression is compiled once, when
+     * the rule is registered, so applying it does not pay for
+     * {@link Pattern#compile(String, int)} on every inflected word.
+     */
     public class Rule {
-        public String rule;
-        public String replacement;
-        public int flags;
+        public final String rule;
+        public final String replacement;
+        public final int flags;
+        public final Pattern pattern;
+        final Literal literal;
 
         public Rule(String rule, String replacement) {
-            this.rule = rule;
-            this.replacement = replacement;
+            this(rule, replacement, 0);
         }
 
         public Rule(String rule, String replacement, int flags) {
+            this(rule, replacement, flags, null);
+        }
+
+        private Rule(String rule, String replacement, int flags, Literal literal) {
             this.rule = rule;
             this.replacement = replacement;
             this.flags = flags;
+            this.pattern = Pattern.compile(rule, flags);
+            this.literal = literal;
+        }
+
+        /**
+         * Applies this rule to the word.
+         *
+         * @param word The word to be inflected.
+         * @return The inflected word, or null if the rule does not match.
+         */
+        public String apply(String word) {
+            Matcher matcher = pattern.matcher(word);
+            if (matcher.find()) {
+                return matcher.replaceFirst(replacement);
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * The literal form of an irregular rule: a suffix matched without regard
+     * to the case of ASCII letters, replaced by a fixed tail. It is equivalent
+     * to the regex of the rule for words without a trailing line terminator.
+     */
+    static final class Literal {
+        final String suffix;
+        final char first;
+        final boolean keepFirst;
+        final String tail;
+
+        private Literal(String suffix, char first, boolean keepFirst, String tail) {
+            this.suffix = suffix;
+            this.first = first;
+            this.keepFirst = keepFirst;
+            this.tail = tail;
+        }
+
+        /**
+         * For rules like "(p)erson$" replaced by "$1eople": the whole form is
+         * matched ignoring case and its first character is kept.
+         */
+        static Literal keepingFirst(String form, String tail) {
+            return new Literal(fold(form), (char) 0, true, tail);
+        }
+
+        /**
+         * For rules like "P(?i)erson$" replaced by "People": the first
+         * character must match exactly and the whole form is replaced.
+         */
+        static Literal replacing(String form, String replacement) {
+            return new Literal(fold(form), form.charAt(0), false, replacement);
+        }
+
+        static boolean isLiteral(String word) {
+            if (word.isEmpty()) {
+                return false;
+            }
+
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private static String fold(String form) {
+            char[] folded = new char[form.length()];
+            for (int i = 0; i < folded.length; i++) {
+                folded[i] = CompiledRules.fold(form.charAt(i));
+            }
+            return new String(folded);
+        }
+
+        /**
+         * Checks the parts of the match the suffix index does not: the exact
+         * first character, when it is case sensitive.
+         */
+        boolean matchesAt(String word, int start) {
+            return keepFirst || word.charAt(start) == first;
+        }
+
+        String apply(String word) {
+            int start = word.length() - suffix.length();
+            return word.substring(0, keepFirst ? start + 1 : start) + tail;
         }
     }
 }
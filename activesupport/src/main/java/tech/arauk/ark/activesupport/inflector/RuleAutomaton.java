@@ -0,0 +1,912 @@
+package tech.arauk.ark.activesupport.inflector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * A deterministic automaton that tells which of many inflection rules is the
+ * first one to match a word, in a single pass over the word.
+ * <p/>
+ * Inflection rules are almost always anchored at the end of the word, so the
+ * rules are reversed and the word is read from its last character to its
+ * first. Every rule keeps its position in the rule list and, whenever more than
+ * one rule matches, the one with the lowest position wins, so the result is the
+ * same as trying the rules in order. The automaton only decides which rule
+ * applies; the replacement is still done by the regex of that rule.
+ * <p/>
+ * Only a subset of the regex syntax is understood: literals, character
+ * classes, groups, alternation, the "?", "*" and "+" quantifiers, "." and
+ * the "^" and "$" anchors, optionally with
+ * {@link Pattern#CASE_INSENSITIVE}. {@link #isSupported(Inflections.Rule)}
+ * tells whether a rule can be part of the automaton.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+final class RuleAutomaton {
+    /**
+     * Above this number of states the automaton is not built and the rules
+     * are applied one by one.
+     */
+    static final int MAXIMUM_STATES = 20000;
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final int[] mBoundaries;
+    private final int[] mLatinClasses;
+    private final int[][] mTransitions;
+    private final int[] mVerdicts;
+    private final boolean[] mDecided;
+
+    private RuleAutomaton(int[] boundaries, int[][] transitions, int[] verdicts, boolean[] decided) {
+        mBoundaries = boundaries;
+        mTransitions = transitions;
+        mVerdicts = verdicts;
+        mDecided = decided;
+
+        mLatinClasses = new int[256];
+        for (char c = 0; c < mLatinClasses.length; c++) {
+            mLatinClasses[c] = searchClass(c);
+        }
+    }
+
+    /**
+     * Checks to see whether or not a rule only uses the regex features
+     * understood by the automaton.
+     *
+     * @param rule The rule to be checked.
+     * @return Whether or not the rule can be part of an automaton.
+     */
+    static boolean isSupported(Inflections.Rule rule) {
+        return Parser.parse(rule.rule, rule.flags) != null;
+    }
+
+    /**
+     * Builds an automaton for the given rules.
+     *
+     * @param rules     The rules, indexed by their position.
+     * @param positions The positions of the rules that are part of the
+     *                  automaton. Every one of them must be supported.
+     * @return The automaton, or null if it would have more than
+     * {@link #MAXIMUM_STATES} states.
+     */
+    static RuleAutomaton build(Inflections.Rule[] rules, int[] positions) {
+        Nfa nfa = new Nfa();
+        for (int position : positions) {
+            Node node = Parser.parse(rules[position].rule, rules[position].flags);
+            nfa.addRule(node, position);
+        }
+        return new Builder(nfa).build();
+    }
+
+    /**
+     * Returns the position of the first rule matching the word.
+     *
+     * @param word The word to be matched.
+     * @return The position of the first matching rule, -1 if none of the rules
+     * matches or -2 if the word cannot be matched by the automaton.
+     */
+    int match(String word) {
+        int state = 0;
+
+        for (int i = word.length() - 1; i >= 0; i--) {
+            if (mDecided[state]) {
+                break;
+            }
+
+            char c = word.charAt(i);
+            if (Character.isSurrogate(c)) {
+                // Regexes match supplementary characters as a whole, the
+                // automaton works on chars.
+                return -2;
+            }
+
+            state = mTransitions[state][classOf(c)];
+        }
+
+        int verdict = mVerdicts[state];
+        return verdict == NO_MATCH ? -1 : verdict;
+    }
+
+    private int classOf(char c) {
+        return c < mLatinClasses.length ? mLatinClasses[c] : searchClass(c);
+    }
+
+    private int searchClass(char c) {
+        int low = 0;
+        int high = mBoundaries.length;
+
+        // The class of a char is the number of boundaries not greater than it.
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (mBoundaries[middle] <= c) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * A parsed regular expression.
+     */
+    private abstract static class Node {
+    }
+
+    private static final class CharNode extends Node {
+        final CharSet chars;
+
+        CharNode(CharSet chars) {
+            this.chars = chars;
+        }
+    }
+
+    private static final class SequenceNode extends Node {
+        final List<Node> nodes;
+
+        SequenceNode(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+    }
+
+    private static final class ChoiceNode extends Node {
+        final List<Node> nodes;
+
+        ChoiceNode(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+    }
+
+    private static final class RepeatNode extends Node {
+        final Node node;
+        final boolean optional;
+        final boolean repeated;
+
+        RepeatNode(Node node, boolean optional, boolean repeated) {
+            this.node = node;
+            this.optional = optional;
+            this.repeated = repeated;
+        }
+    }
+
+    private static final class AnchorNode extends Node {
+        final boolean start;
+
+        AnchorNode(boolean start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * A set of chars, kept as sorted and disjoint inclusive ranges.
+     */
+    private static final class CharSet {
+        static final CharSet ANY = new CharSet(new int[]{0, Character.MAX_VALUE});
+        final int[] ranges;
+
+        CharSet(int[] ranges) {
+            this.ranges = ranges;
+        }
+
+        static CharSet of(List<int[]> ranges, boolean caseInsensitive, boolean negated) {
+            List<int[]> all = new ArrayList<>(ranges);
+            if (caseInsensitive) {
+                // Without UNICODE_CASE only ASCII letters are case insensitive.
+                for (int[] range : ranges) {
+                    addCase(all, range, 'a', 'z', 'A' - 'a');
+                    addCase(all, range, 'A', 'Z', 'a' - 'A');
+                }
+            }
+
+            int[][] sorted = all.toArray(new int[all.size()][]);
+            Arrays.sort(sorted, new java.util.Comparator<int[]>() {
+                @Override
+                public int compare(int[] a, int[] b) {
+                    return a[0] - b[0];
+                }
+            });
+
+            List<int[]> merged = new ArrayList<>();
+            for (int[] range : sorted) {
+                int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && range[0] <= last[1] + 1) {
+                    last[1] = Math.max(last[1], range[1]);
+                } else {
+                    merged.add(new int[]{range[0], range[1]});
+                }
+            }
+
+            if (negated) {
+                List<int[]> complement = new ArrayList<>();
+                int next = 0;
+                for (int[] range : merged) {
+                    if (range[0] > next) {
+                        complement.add(new int[]{next, range[0] - 1});
+                    }
+                    next = range[1] + 1;
+                }
+                if (next <= Character.MAX_VALUE) {
+                    complement.add(new int[]{next, Character.MAX_VALUE});
+                }
+                merged = complement;
+            }
+
+            int[] flat = new int[merged.size() * 2];
+            for (int i = 0; i < merged.size(); i++) {
+                flat[2 * i] = merged.get(i)[0];
+                flat[2 * i + 1] = merged.get(i)[1];
+            }
+            return new CharSet(flat);
+        }
+
+        private static void addCase(List<int[]> ranges, int[] range, char from, char to, int offset) {
+            int low = Math.max(range[0], from);
+            int high = Math.min(range[1], to);
+            if (low <= high) {
+                ranges.add(new int[]{low + offset, high + offset});
+            }
+        }
+    }
+
+    /**
+     * A recursive descent parser for the supported subset of the regex syntax.
+     * It returns null as soon as it finds anything it does not understand.
+     */
+    private static final class Parser {
+        private final String mPattern;
+        private final boolean mCaseInsensitive;
+        private int mPosition;
+
+        private Parser(String pattern, boolean caseInsensitive) {
+            mPattern = pattern;
+            mCaseInsensitive = caseInsensitive;
+        }
+
+        static Node parse(String pattern, int flags) {
+            if ((flags & ~Pattern.CASE_INSENSITIVE) != 0) {
+                return null;
+            }
+
+            Parser parser = new Parser(pattern, (flags & Pattern.CASE_INSENSITIVE) != 0);
+            try {
+                Node node = parser.choice();
+                return parser.mPosition == pattern.length() ? node : null;
+            } catch (Unsupported unEx) {
+                return null;
+            }
+        }
+
+        private Node choice() {
+            List<Node> nodes = new ArrayList<>();
+            nodes.add(sequence());
+            while (peek() == '|') {
+                mPosition++;
+                nodes.add(sequence());
+            }
+            return nodes.size() == 1 ? nodes.get(0) : new ChoiceNode(nodes);
+        }
+
+        private Node sequence() {
+            List<Node> nodes = new ArrayList<>();
+            while (mPosition < mPattern.length() && peek() != '|' && peek() != ')') {
+                nodes.add(repeat());
+            }
+            return new SequenceNode(nodes);
+        }
+
+        private Node repeat() {
+            Node node = atom();
+
+            char c = peek();
+            if (c == '?' || c == '*' || c == '+') {
+                if (node instanceof AnchorNode) {
+                    throw Unsupported.INSTANCE;
+                }
+                mPosition++;
+
+                char modifier = peek();
+                if (modifier == '+') {
+                    // Possessive quantifiers can make a match fail.
+                    throw Unsupported.INSTANCE;
+                } else if (modifier == '?') {
+                    // Reluctant quantifiers match the same words.
+                    mPosition++;
+                }
+
+                node = new RepeatNode(node, c != '+', c != '?');
+            } else if (c == '{') {
+                throw Unsupported.INSTANCE;
+            }
+
+            return node;
+        }
+
+        private Node atom() {
+            char c = mPattern.charAt(mPosition++);
+            switch (c) {
+                case '^':
+                    return new AnchorNode(true);
+                case '$':
+                    return new AnchorNode(false);
+                case '.':
+                    List<int[]> terminators = new ArrayList<>();
+                    terminators.add(new int[]{'\n', '\n'});
+                    terminators.add(new int[]{'\r', '\r'});
+                    terminators.add(new int[]{'\u0085', '\u0085'});
+                    terminators.add(new int[]{'\u2028', '\u2029'});
+                    return new CharNode(CharSet.of(terminators, false, true));
+                case '(':
+                    if (peek() == '?') {
+                        if (mPosition + 1 < mPattern.length() && mPattern.charAt(mPosition + 1) == ':') {
+                            mPosition += 2;
+                        } else {
+                            throw Unsupported.INSTANCE;
+                        }
+                    }
+                    Node group = choice();
+                    expect(')');
+                    return group;
+                case '[':
+                    return new CharNode(charClass());
+                case '\\':
+                    return new CharNode(escape());
+                case ')':
+                case '|':
+                case '?':
+                case '*':
+                case '+':
+                case '{':
+                    throw Unsupported.INSTANCE;
+                default:
+                    return new CharNode(single(c));
+            }
+        }
+
+        private CharSet charClass() {
+            boolean negated = false;
+            if (peek() == '^') {
+                negated = true;
+                mPosition++;
+            }
+
+            List<int[]> ranges = new ArrayList<>();
+            boolean first = true;
+            while (true) {
+                if (mPosition >= mPattern.length()) {
+                    throw Unsupported.INSTANCE;
+                }
+
+                char c = mPattern.charAt(mPosition++);
+                if (c == ']' && !first) {
+                    break;
+                }
+                if (c == '[' || c == '&' || c == ']') {
+                    // Unions, intersections and a leading "]" are not supported.
+                    throw Unsupported.INSTANCE;
+                }
+                first = false;
+
+                int low;
+                if (c == '\\') {
+                    CharSet escaped = escape();
+                    if (escaped.ranges.length != 2 || escaped.ranges[0] != escaped.ranges[1]) {
+                        for (int i = 0; i < escaped.ranges.length; i += 2) {
+                            ranges.add(new int[]{escaped.ranges[i], escaped.ranges[i + 1]});
+                        }
+                        continue;
+                    }
+                    low = escaped.ranges[0];
+                } else {
+                    low = c;
+                }
+
+                int high = low;
+                if (peek() == '-' && mPosition + 1 < mPattern.length() && mPattern.charAt(mPosition + 1) != ']') {
+                    mPosition++;
+                    char end = mPattern.charAt(mPosition++);
+                    if (end == '\\' || end == '[') {
+                        throw Unsupported.INSTANCE;
+                    }
+                    high = end;
+                    if (high < low) {
+                        throw Unsupported.INSTANCE;
+                    }
+                }
+
+                ranges.add(new int[]{low, high});
+            }
+
+            return CharSet.of(ranges, mCaseInsensitive, negated);
+        }
+
+        private CharSet escape() {
+            if (mPosition >= mPattern.length()) {
+                throw Unsupported.INSTANCE;
+            }
+
+            char c = mPattern.charAt(mPosition++);
+            List<int[]> ranges = new ArrayList<>();
+            switch (c) {
+                case 'd':
+                    ranges.add(new int[]{'0', '9'});
+                    return CharSet.of(ranges, false, false);
+                case 'w':
+                    ranges.add(new int[]{'a', 'z'});
+                    ranges.add(new int[]{'A', 'Z'});
+                    ranges.add(new int[]{'0', '9'});
+                    ranges.add(new int[]{'_', '_'});
+                    return CharSet.of(ranges, false, false);
+                case 's':
+                    ranges.add(new int[]{' ', ' '});
+                    ranges.add(new int[]{'\t', '\r'});
+                    return CharSet.of(ranges, false, false);
+                case 't':
+                    return single('\t');
+                case 'n':
+                    return single('\n');
+                default:
+                    if (Character.isLetterOrDigit(c)) {
+                        throw Unsupported.INSTANCE;
+                    }
+                    return single(c);
+            }
+        }
+
+        private CharSet single(char c) {
+            List<int[]> ranges = new ArrayList<>();
+            ranges.add(new int[]{c, c});
+            return CharSet.of(ranges, mCaseInsensitive, false);
+        }
+
+        private char peek() {
+            return mPosition < mPattern.length() ? mPattern.charAt(mPosition) : 0;
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw Unsupported.INSTANCE;
+            }
+            mPosition++;
+        }
+
+        /**
+         * Thrown by the parser as soon as it finds anything it does not
+         * understand, and caught by {@link #parse(String, int)}. It is never
+         * reported, so a single instance without a stack trace is thrown.
+         */
+        private static final class Unsupported extends RuntimeException {
+            private static final long serialVersionUID = 1L;
+            static final Unsupported INSTANCE = new Unsupported();
+
+            private Unsupported() {
+                super(null, null, false, false);
+            }
+        }
+    }
+
+    /**
+     * A nondeterministic automaton of the reversed rules. Every state belongs
+     * to the rule at the given position, except for the shared start state.
+     */
+    private static final class Nfa {
+        static final int START = 0;
+        final List<CharSet> charSets = new ArrayList<>();
+        final List<int[]> charEdges = new ArrayList<>();
+        final List<int[]> epsilonEdges = new ArrayList<>();
+        final List<int[]> startEdges = new ArrayList<>();
+        final List<int[]> endEdges = new ArrayList<>();
+        final List<Integer> rules = new ArrayList<>();
+        final Map<Integer, Integer> accepting = new HashMap<>();
+
+        Nfa() {
+            int start = newState(-1);
+            addCharEdge(start, CharSet.ANY, start);
+        }
+
+        int size() {
+            return rules.size();
+        }
+
+        void addRule(Node node, int position) {
+            int[] fragment = fragment(node, position);
+
+            int accept = newState(position);
+            addCharEdge(accept, CharSet.ANY, accept);
+            accepting.put(accept, position);
+
+            epsilonEdges.add(new int[]{START, fragment[0]});
+            epsilonEdges.add(new int[]{fragment[1], accept});
+        }
+
+        /**
+         * Builds the states for the reversed node and returns its entry and
+         * exit states.
+         */
+        private int[] fragment(Node node, int position) {
+            int entry = newState(position);
+            int exit = newState(position);
+
+            if (node instanceof CharNode) {
+                addCharEdge(entry, ((CharNode) node).chars, exit);
+            } else if (node instanceof AnchorNode) {
+                // A "^" can only be crossed after reading the whole reversed
+                // word and a "$" before reading any of it.
+                (((AnchorNode) node).start ? endEdges : startEdges).add(new int[]{entry, exit});
+            } else if (node instanceof SequenceNode) {
+                List<Node> nodes = ((SequenceNode) node).nodes;
+                int current = entry;
+                for (int i = nodes.size() - 1; i >= 0; i--) {
+                    int[] child = fragment(nodes.get(i), position);
+                    epsilonEdges.add(new int[]{current, child[0]});
+                    current = child[1];
+                }
+                epsilonEdges.add(new int[]{current, exit});
+            } else if (node instanceof ChoiceNode) {
+                for (Node choice : ((ChoiceNode) node).nodes) {
+                    int[] child = fragment(choice, position);
+                    epsilonEdges.add(new int[]{entry, child[0]});
+                    epsilonEdges.add(new int[]{child[1], exit});
+                }
+            } else {
+                RepeatNode repeat = (RepeatNode) node;
+                int[] child = fragment(repeat.node, position);
+                epsilonEdges.add(new int[]{entry, child[0]});
+                epsilonEdges.add(new int[]{child[1], exit});
+                if (repeat.optional) {
+                    epsilonEdges.add(new int[]{entry, exit});
+                }
+                if (repeat.repeated) {
+                    epsilonEdges.add(new int[]{child[1], child[0]});
+                }
+            }
+
+            return new int[]{entry, exit};
+        }
+
+        private int newState(int position) {
+            rules.add(position);
+            return rules.size() - 1;
+        }
+
+        private void addCharEdge(int from, CharSet chars, int to) {
+            charSets.add(chars);
+            charEdges.add(new int[]{from, to});
+        }
+    }
+
+    /**
+     * Turns the nondeterministic automaton into a deterministic one through
+     * the subset construction.
+     */
+    private static final class Builder {
+        private final Nfa mNfa;
+        private final int[] mBoundaries;
+        private final int mClassCount;
+        private final int[][] mEpsilon;
+        private final int[][] mStart;
+        private final int[][] mEnd;
+        private final int[][] mCharEdges;
+        private final int[] mCharTargets;
+        private final BitSet[] mCharClasses;
+        private final int[] mRules;
+        private final int[] mAccepting;
+        private final BitSet mStartClosure;
+        private final Map<StateKey, Integer> mStates = new HashMap<>();
+        private final List<int[]> mSets = new ArrayList<>();
+        private final List<int[]> mTransitions = new ArrayList<>();
+        private final List<Integer> mVerdicts = new ArrayList<>();
+        private final List<Boolean> mDecided = new ArrayList<>();
+
+        Builder(Nfa nfa) {
+            mNfa = nfa;
+
+            TreeSet<Integer> boundaries = new TreeSet<>();
+            for (CharSet chars : nfa.charSets) {
+                for (int i = 0; i < chars.ranges.length; i += 2) {
+                    if (chars.ranges[i] > 0) {
+                        boundaries.add(chars.ranges[i]);
+                    }
+                    if (chars.ranges[i + 1] < Character.MAX_VALUE) {
+                        boundaries.add(chars.ranges[i + 1] + 1);
+                    }
+                }
+            }
+
+            mBoundaries = new int[boundaries.size()];
+            int i = 0;
+            for (int boundary : boundaries) {
+                mBoundaries[i++] = boundary;
+            }
+            mClassCount = mBoundaries.length + 1;
+
+            int size = nfa.size();
+            mEpsilon = adjacency(nfa.epsilonEdges, size);
+            mStart = adjacency(nfa.startEdges, size);
+            mEnd = adjacency(nfa.endEdges, size);
+
+            List<List<Integer>> edges = new ArrayList<>();
+            for (int state = 0; state < size; state++) {
+                edges.add(new ArrayList<Integer>());
+            }
+            for (int edge = 0; edge < nfa.charEdges.size(); edge++) {
+                edges.get(nfa.charEdges.get(edge)[0]).add(edge);
+            }
+
+            mCharEdges = new int[size][];
+            for (int state = 0; state < size; state++) {
+                List<Integer> stateEdges = edges.get(state);
+                mCharEdges[state] = new int[stateEdges.size()];
+                for (int j = 0; j < stateEdges.size(); j++) {
+                    mCharEdges[state][j] = stateEdges.get(j);
+                }
+            }
+
+            mCharTargets = new int[nfa.charEdges.size()];
+            mCharClasses = new BitSet[nfa.charEdges.size()];
+            for (int edge = 0; edge < nfa.charEdges.size(); edge++) {
+                mCharTargets[edge] = nfa.charEdges.get(edge)[1];
+                mCharClasses[edge] = classes(nfa.charSets.get(edge));
+            }
+
+            mRules = new int[size];
+            mAccepting = new int[size];
+            for (int state = 0; state < size; state++) {
+                mRules[state] = nfa.rules.get(state);
+                Integer position = nfa.accepting.get(state);
+                mAccepting[state] = position == null ? -1 : position;
+            }
+
+            BitSet start = new BitSet();
+            start.set(Nfa.START);
+            mStartClosure = closure(start, false);
+        }
+
+        RuleAutomaton build() {
+            BitSet initial = new BitSet();
+            initial.set(Nfa.START);
+            addState(closure(initial, true));
+
+            for (int state = 0; state < mSets.size(); state++) {
+                if (mDecided.get(state)) {
+                    mTransitions.add(null);
+                    continue;
+                }
+
+                int[] set = mSets.get(state);
+                int best = mVerdicts.get(state);
+                int[] transitions = new int[mClassCount];
+
+                for (int charClass = 0; charClass < mClassCount; charClass++) {
+                    BitSet moved = new BitSet();
+                    for (int nfaState : set) {
+                        for (int edge : mCharEdges[nfaState]) {
+                            if (mCharClasses[edge].get(charClass)) {
+                                moved.set(mCharTargets[edge]);
+                            }
+                        }
+                    }
+
+                    int target = addState(prune(closure(moved, false), best));
+                    if (target < 0) {
+                        return null;
+                    }
+                    transitions[charClass] = target;
+                }
+
+                mTransitions.add(transitions);
+            }
+
+            int count = mSets.size();
+            int[][] transitions = mTransitions.toArray(new int[count][]);
+            int[] verdicts = new int[count];
+            boolean[] decided = new boolean[count];
+            for (int state = 0; state < count; state++) {
+                verdicts[state] = finalVerdict(mSets.get(state), mVerdicts.get(state));
+                decided[state] = mDecided.get(state);
+            }
+
+            return new RuleAutomaton(mBoundaries, transitions, verdicts, decided);
+        }
+
+        /**
+         * Registers a set of states and returns its index, or -1 if there are
+         * already too many states.
+         */
+        private int addState(BitSet set) {
+            StateKey key = new StateKey(set);
+            Integer index = mStates.get(key);
+            if (index != null) {
+                return index;
+            }
+            if (mSets.size() >= MAXIMUM_STATES) {
+                return -1;
+            }
+
+            int best = NO_MATCH;
+            for (int state = set.nextSetBit(0); state >= 0; state = set.nextSetBit(state + 1)) {
+                if (mAccepting[state] >= 0 && mAccepting[state] < best) {
+                    best = mAccepting[state];
+                }
+            }
+
+            // Once a rule matched, the word is decided when no rule before it
+            // can still match.
+            boolean decided = best != NO_MATCH;
+            for (int state = set.nextSetBit(0); state >= 0 && decided; state = set.nextSetBit(state + 1)) {
+                if (mRules[state] >= 0 && mRules[state] < best) {
+                    decided = false;
+                }
+            }
+
+            index = mSets.size();
+            mStates.put(key, index);
+            mSets.add(key.states);
+            mVerdicts.add(best);
+            mDecided.add(decided);
+            return index;
+        }
+
+        /**
+         * Drops the states of rules that can no longer be the first match.
+         */
+        private BitSet prune(BitSet set, int best) {
+            if (best == NO_MATCH) {
+                return set;
+            }
+            for (int state = set.nextSetBit(0); state >= 0; state = set.nextSetBit(state + 1)) {
+                if (mRules[state] > best) {
+                    set.clear(state);
+                }
+            }
+            return set;
+        }
+
+        /**
+         * Returns the first matching rule once the whole word was read, when
+         * the "^" anchors can be crossed.
+         */
+        private int finalVerdict(int[] set, int best) {
+            BitSet reached = new BitSet();
+            List<Integer> pending = new ArrayList<>();
+            for (int state : set) {
+                reached.set(state);
+                pending.add(state);
+            }
+
+            while (!pending.isEmpty()) {
+                int state = pending.remove(pending.size() - 1);
+                if (mAccepting[state] >= 0 && mAccepting[state] < best) {
+                    best = mAccepting[state];
+                }
+                for (int[] targets : new int[][]{mEpsilon[state], mEnd[state]}) {
+                    for (int target : targets) {
+                        if (!reached.get(target)) {
+                            reached.set(target);
+                            pending.add(target);
+                        }
+                    }
+                }
+            }
+
+            return best;
+        }
+
+        /**
+         * Follows the empty transitions from the given states, and the "$"
+         * anchors if no char was read yet. Only the states that read a char,
+         * cross a "^" or accept are kept, as the others play no further part.
+         */
+        private BitSet closure(BitSet states, boolean atStart) {
+            BitSet reached = new BitSet();
+            List<Integer> pending = new ArrayList<>();
+            for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+                if (state == Nfa.START && !atStart && mStartClosure != null) {
+                    // Every set holds the shared start state, so its closure
+                    // is only computed once.
+                    reached.or(mStartClosure);
+                    continue;
+                }
+                reached.set(state);
+                pending.add(state);
+            }
+
+            while (!pending.isEmpty()) {
+                int state = pending.remove(pending.size() - 1);
+                for (int target : mEpsilon[state]) {
+                    if (!reached.get(target)) {
+                        reached.set(target);
+                        pending.add(target);
+                    }
+                }
+                if (atStart) {
+                    for (int target : mStart[state]) {
+                        if (!reached.get(target)) {
+                            reached.set(target);
+                            pending.add(target);
+                        }
+                    }
+                }
+            }
+
+            for (int state = reached.nextSetBit(0); state >= 0; state = reached.nextSetBit(state + 1)) {
+                if (mCharEdges[state].length == 0 && mEnd[state].length == 0 && mAccepting[state] < 0) {
+                    reached.clear(state);
+                }
+            }
+
+            return reached;
+        }
+
+        private BitSet classes(CharSet chars) {
+            BitSet classes = new BitSet(mClassCount);
+            for (int i = 0; i < chars.ranges.length; i += 2) {
+                int first = classOf(chars.ranges[i]);
+                int last = classOf(chars.ranges[i + 1]);
+                classes.set(first, last + 1);
+            }
+            return classes;
+        }
+
+        private int classOf(int c) {
+            int low = 0;
+            int high = mBoundaries.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (mBoundaries[middle] <= c) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static int[][] adjacency(List<int[]> edges, int size) {
+            int[] counts = new int[size];
+            for (int[] edge : edges) {
+                counts[edge[0]]++;
+            }
+
+            int[][] adjacency = new int[size][];
+            for (int state = 0; state < size; state++) {
+                adjacency[state] = new int[counts[state]];
+            }
+
+            int[] filled = new int[size];
+            for (int[] edge : edges) {
+                adjacency[edge[0]][filled[edge[0]]++] = edge[1];
+            }
+            return adjacency;
+        }
+    }
+
+    private static final class StateKey {
+        final int[] states;
+        final int hash;
+
+        StateKey(BitSet set) {
+            states = new int[set.cardinality()];
+            int i = 0;
+            for (int state = set.nextSetBit(0); state >= 0; state = set.nextSetBit(state + 1)) {
+                states[i++] = state;
+            }
+            hash = Arrays.hashCode(states);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof StateKey && Arrays.equals(states, ((StateKey) other).states);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
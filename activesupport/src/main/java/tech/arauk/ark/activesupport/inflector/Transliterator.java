@@ -2,9 +2,7 @@ package tech.arauk.ark.activesupport.inflector;
 
 import tech.arauk.ark.activesupport.core_ext.StringUtils;
 
-import java.text.Normalizer;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -15,6 +13,7 @@ import java.util.regex.Pattern;
  */
 public class Transliterator {
     private static final String sDefaultReplacementChar = "?";
+    private static final Pattern NON_PARAMETER_PATTERN = Pattern.compile("[^a-z0-9\\-_]+", Pattern.CASE_INSENSITIVE);
     private static final String[][] sDefaultApproximations = new String[][] {
             {"À", "A"},  {"Á", "A"},  {"Â", "A"},  {"Ã", "A"},  {"Ä", "A"},
             {"Å", "A"},  {"Æ", "AE"}, {"Ç", "C"},  {"È", "E"},  {"É", "E"},
@@ -56,69 +55,219 @@ public class Transliterator {
             {"ź", "z"},  {"Ż", "Z"},  {"ż", "z"},  {"Ž", "Z"},  {"ž", "z"}
     };
 
+    /**
+     * Approximations indexed by char, built once from the table above. Chars
+     * without an approximation are null.
+     */
+    private static final String[] sApproximationTable = buildApproximationTable();
+
+    /**
+     * Replaces non-ASCII characters with an ASCII approximation, or if none
+     * exists, with "?".
+     * <p/>
+     * <pre>{@code
+     * Transliterator.transliterate("Ærøskøbing"); // => "AEroskobing"
+     * }</pre>
+     *
+     * @param string The string to be transliterated.
+     * @return The transliterated string, or the string itself when it is
+     * already ASCII.
+     */
     public static String transliterate(String string) {
         return transliterate(string, sDefaultReplacementChar);
     }
 
+    /**
+     * Replaces non-ASCII characters with an ASCII approximation, or if none
+     * exists, with the replacement. An empty replacement is replaced with "?".
+     *
+     * @param string      The string to be transliterated.
+     * @param replacement The replacement for characters without an
+     *                    approximation.
+     * @return The transliterated string, or the string itself when it is
+     * already ASCII.
+     */
     public static String transliterate(String string, String replacement) {
-        Map<String, String> defaultApproximations = new HashMap<>();
-        for (String[] defaultApproximation : sDefaultApproximations) {
-            defaultApproximations.put(defaultApproximation[0], defaultApproximation[1]);
+        int first = firstNonAscii(string);
+        if (first < 0) {
+            return string;
         }
 
-        String transliterated = string;
+        StringBuilder transliterated = new StringBuilder(string.length() + 16);
+        transliterated.append(string, 0, first);
+        appendTransliterated(string, first, replacementFor(replacement), transliterated);
+        return transliterated.toString();
+    }
 
-        Pattern pattern;
-        Matcher matcher;
+    /**
+     * Writes the transliteration of a sequence into a caller supplied
+     * buffer, without building an intermediate string.
+     * <p/>
+     * <pre>{@code
+     * StringBuilder builder = new StringBuilder();
+     * Transliterator.transliterate("Ærøskøbing", builder);
+     * }</pre>
+     *
+     * @param sequence The sequence to be transliterated.
+     * @param out      The buffer the transliteration is appended to.
+     * @throws IOException If the buffer fails to append.
+     */
+    public static void transliterate(CharSequence sequence, Appendable out) throws IOException {
+        transliterate(sequence, sDefaultReplacementChar, out);
+    }
 
-        pattern = Pattern.compile("[^\\x00-\\x7f]");
-        matcher = pattern.matcher(transliterated);
+    /**
+     * Writes the transliteration of a sequence into a caller supplied buffer,
+     * replacing characters without an approximation with the replacement.
+     *
+     * @param sequence    The sequence to be transliterated.
+     * @param replacement The replacement for characters without an
+     *                    approximation.
+     * @param out         The buffer the transliteration is appended to.
+     * @throws IOException If the buffer fails to append.
+     */
+    public static void transliterate(CharSequence sequence, String replacement, Appendable out) throws IOException {
+        int first = firstNonAscii(sequence);
+        if (first < 0) {
+            out.append(sequence);
+            return;
+        }
 
-        while (matcher.find()) {
-            String group = matcher.group();
-            String groupReplacement;
+        out.append(sequence, 0, first);
+        appendTransliterated(sequence, first, replacementFor(replacement), out);
+    }
 
-            if (defaultApproximations.containsKey(group)) {
-                groupReplacement = defaultApproximations.get(group);
-            } else if (!StringUtils.isEmpty(replacement)) {
-                groupReplacement = replacement;
-            } else {
-                groupReplacement = sDefaultReplacementChar;
+    /**
+     * Returns the ASCII approximation of a code point, or null if it has none.
+     */
+    static String approximationOf(int codePoint) {
+        return codePoint < sApproximationTable.length ? sApproximationTable[codePoint] : null;
+    }
+
+    static String replacementFor(String replacement) {
+        return StringUtils.isEmpty(replacement) ? sDefaultReplacementChar : replacement;
+    }
+
+    static int firstNonAscii(CharSequence sequence) {
+        for (int i = 0; i < sequence.length(); i++) {
+            if (sequence.charAt(i) > 0x7f) {
+                return i;
             }
+        }
+        return -1;
+    }
+
+    private static void appendTransliterated(CharSequence sequence, int start, String replacement, Appendable out) throws IOException {
+        int length = sequence.length();
+        int i = start;
 
-            transliterated = transliterated.replaceAll(group, groupReplacement);
+        while (i < length) {
+            char c = sequence.charAt(i);
+            if (c <= 0x7f) {
+                out.append(c);
+                i++;
+                continue;
+            }
+
+            // A surrogate pair is a single character to be replaced.
+            int codePoint = Character.codePointAt(sequence, i);
+            String approximation = approximationOf(codePoint);
+            out.append(approximation != null ? approximation : replacement);
+            i += Character.charCount(codePoint);
         }
+    }
 
-        return transliterated;
+    private static void appendTransliterated(String string, int start, String replacement, StringBuilder out) {
+        try {
+            appendTransliterated((CharSequence) string, start, replacement, out);
+        } catch (IOException ioEx) {
+            // A StringBuilder never throws.
+            throw new AssertionError(ioEx);
+        }
     }
 
+    private static String[] buildApproximationTable() {
+        int size = 0;
+        for (String[] approximation : sDefaultApproximations) {
+            size = Math.max(size, approximation[0].charAt(0) + 1);
+        }
+
+        String[] table = new String[size];
+        for (String[] approximation : sDefaultApproximations) {
+            table[approximation[0].charAt(0)] = approximation[1];
+        }
+        return table;
+    }
+
+    /**
+     * Replaces special characters in a string so that it may be used as part
+     * of a "pretty" URL.
+     * <p/>
+     * Empty separators and single character separators other than letters,
+     * digits, "$", "\\" and line terminators are handled in a single pass
+     * that transliterates, squeezes and trims the separators and changes the
+     * case at once. Other separators go through the equivalent regexes.
+     *
+     * @param string       The string to be parameterized.
+     * @param separator    The separator to be used.
+     * @param preserveCase Whether or not to preserve the case of the
+     *                     characters.
+     * @return A new string without special characters.
+     */
     public static String parameterize(String string, String separator, boolean preserveCase) {
+        if (separator == null || (separator.length() > 1) || (separator.length() == 1 && !isPlainSeparator(separator.charAt(0)))) {
+            return parameterizeWithRegexes(string, separator, preserveCase);
+        }
+
+        Parameterizer parameterizer = new Parameterizer(string.length(), separator, preserveCase);
+        int length = string.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = string.charAt(i);
+            if (c <= 0x7f) {
+                parameterizer.append(c);
+                i++;
+                continue;
+            }
+
+            int codePoint = string.codePointAt(i);
+            String approximation = approximationOf(codePoint);
+            if (approximation == null) {
+                parameterizer.appendSeparator();
+            } else {
+                for (int j = 0; j < approximation.length(); j++) {
+                    parameterizer.append(approximation.charAt(j));
+                }
+            }
+            i += Character.charCount(codePoint);
+        }
+
+        return parameterizer.toString();
+    }
+
+    private static boolean isPlainSeparator(char separator) {
+        // "$" and "\" are special in regex replacements and a line terminator
+        // before the end is matched by "$", so the regexes handle those.
+        return !Character.isLetterOrDigit(separator) && separator != '$' && separator != '\\'
+                && separator != '\n' && separator != '\r' && separator != '\u0085' && separator != '\u2028' && separator != '\u2029';
+    }
+
+    private static String parameterizeWithRegexes(String string, String separator, boolean preserveCase) {
         String parameterized = string;
 
         parameterized = transliterate(parameterized);
 
-        Pattern pattern;
-        Matcher matcher;
-
-        pattern = Pattern.compile("[^a-z0-9\\-_]+", Pattern.CASE_INSENSITIVE);
-        matcher = pattern.matcher(parameterized);
+        Matcher matcher = NON_PARAMETER_PATTERN.matcher(parameterized);
 
         if (matcher.find()) {
             parameterized = matcher.replaceAll(separator);
         }
 
         if (!StringUtils.isEmpty(separator)) {
-            Pattern duplicateSeparator;
-            Pattern leadingTrailingSeparator;
-
-            if ("-".equals(separator)) {
-                duplicateSeparator = Pattern.compile("-{2,}");
-                leadingTrailingSeparator = Pattern.compile("^-|-$", Pattern.CASE_INSENSITIVE);
-            } else {
-                String regexpSeparator = Pattern.quote(separator);
-                duplicateSeparator = Pattern.compile("" + regexpSeparator + "{2,}");
-                leadingTrailingSeparator = Pattern.compile("^" + regexpSeparator + "|" + regexpSeparator + "$", Pattern.CASE_INSENSITIVE);
-            }
+            String regexpSeparator = Pattern.quote(separator);
+            Pattern duplicateSeparator = Pattern.compile("" + regexpSeparator + "{2,}");
+            Pattern leadingTrailingSeparator = Pattern.compile("^" + regexpSeparator + "|" + regexpSeparator + "$", Pattern.CASE_INSENSITIVE);
 
             // No more than one of the separator in a row.
             matcher = duplicateSeparator.matcher(parameterized);
@@ -139,4 +288,55 @@ public class Transliterator {
 
         return parameterized;
     }
+
+    /**
+     * Builds a parameterized string one character at a time. Runs of
+     * characters other than letters, digits, "-" and "_", as well as runs of
+     * the separator itself, become a single separator, which is only written
+     * once a character follows it, so there are no leading or trailing
+     * separators.
+     */
+    private static final class Parameterizer {
+        private final StringBuilder mBuilder;
+        private final char mSeparator;
+        private final boolean mHasSeparator;
+        private final boolean mPreserveCase;
+        private boolean mPendingSeparator;
+
+        Parameterizer(int capacity, String separator, boolean preserveCase) {
+            mBuilder = new StringBuilder(capacity);
+            mHasSeparator = !separator.isEmpty();
+            mSeparator = mHasSeparator ? separator.charAt(0) : 0;
+            mPreserveCase = preserveCase;
+        }
+
+        void append(char c) {
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+            if (!allowed || (mHasSeparator && c == mSeparator)) {
+                appendSeparator();
+                return;
+            }
+
+            if (mPendingSeparator) {
+                if (mBuilder.length() > 0) {
+                    mBuilder.append(mSeparator);
+                }
+                mPendingSeparator = false;
+            }
+
+            if (!mPreserveCase && c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            mBuilder.append(c);
+        }
+
+        void appendSeparator() {
+            mPendingSeparator = mHasSeparator;
+        }
+
+        @Override
+        public String toString() {
+            return mBuilder.toString();
+        }
+    }
 }
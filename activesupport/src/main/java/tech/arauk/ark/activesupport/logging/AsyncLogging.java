@@ -0,0 +1,505 @@
+package tech.arauk.ark.activesupport.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * A {@link Logging} implementation that hands log messages over to another
+ * {@link Logging} on a dedicated thread, so a slow logging library does not
+ * stall the threads that log.
+ * <p/>
+ * Messages are placed into a bounded, lock-free ring buffer and delivered to
+ * the delegate in batches by a daemon thread, in the order they were placed.
+ * What happens when the buffer is full is decided by the
+ * {@link OverflowPolicy}.
+ * <p/>
+ * <pre>{@code
+ * AsyncLogging logging = new AsyncLogging(new ConsoleLogging(), 8192, AsyncLogging.OverflowPolicy.DROP_NEWEST);
+ * Logger.getDefaultLogger().setLogger(logging);
+ * }</pre>
+ * <p/>
+ * Usually it is enabled through {@link Logger#enableAsync()} instead.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public class AsyncLogging implements Logging {
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int DEFAULT_SAMPLE_RATE = 10;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Logging mDelegate;
+    private final OverflowPolicy mOverflowPolicy;
+    private final int mBatchSize;
+    private final int mSampleRate;
+    private final int mMask;
+    private final AtomicReferenceArray<Event> mBuffer;
+    private final AtomicLongArray mSequences;
+    private final AtomicLong mHead = new AtomicLong();
+    private final AtomicLong mTail = new AtomicLong();
+    private final AtomicLong mEnqueued = new AtomicLong();
+    private final AtomicLong mDropped = new AtomicLong();
+    private final AtomicLong mFailed = new AtomicLong();
+    private final AtomicLong mSampled = new AtomicLong();
+    private final Thread mConsumer;
+    private final Thread mShutdownHook;
+    private volatile boolean mRunning = true;
+    private volatile boolean mWaiting;
+    private volatile boolean mDelivering;
+
+    /**
+     * Creates an asynchronous logging with the default capacity that blocks
+     * the logging thread while the buffer is full.
+     *
+     * @param delegate The logging library the messages are delivered to.
+     */
+    public AsyncLogging(Logging delegate) {
+        this(delegate, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Creates an asynchronous logging.
+     *
+     * @param delegate       The logging library the messages are delivered to.
+     * @param capacity       The number of messages the buffer holds. It is
+     *                       rounded up to a power of two.
+     * @param overflowPolicy What to do with messages logged while the buffer
+     *                       is full.
+     */
+    public AsyncLogging(Logging delegate, int capacity, OverflowPolicy overflowPolicy) {
+        this(delegate, capacity, overflowPolicy, DEFAULT_BATCH_SIZE, DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * Creates an asynchronous logging.
+     *
+     * @param delegate       The logging library the messages are delivered to.
+     * @param capacity       The number of messages the buffer holds. It is
+     *                       rounded up to a power of two.
+     * @param overflowPolicy What to do with messages logged while the buffer
+     *                       is full.
+     * @param batchSize      The maximum number of messages taken from the
+     *                       buffer at once.
+     * @param sampleRate     With {@link OverflowPolicy#SAMPLE}, one out of how
+     *                       many messages is kept while the buffer is more
+     *                       than half full.
+     */
+    public AsyncLogging(Logging delegate, int capacity, OverflowPolicy overflowPolicy, int batchSize, int sampleRate) {
+        if (delegate == null || overflowPolicy == null) {
+            throw new NullPointerException();
+        }
+        if (capacity < 2 || capacity > (1 << 30) || batchSize < 1 || sampleRate < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+
+        mDelegate = delegate;
+        mOverflowPolicy = overflowPolicy;
+        mBatchSize = batchSize;
+        mSampleRate = sampleRate;
+        mMask = size - 1;
+        mBuffer = new AtomicReferenceArray<>(size);
+        mSequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            mSequences.set(i, i);
+        }
+
+        mConsumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                consume();
+            }
+        }, "ark-async-logging");
+        mConsumer.setDaemon(true);
+        mConsumer.start();
+
+        mShutdownHook = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                stop();
+            }
+        }, "ark-async-logging-shutdown");
+        Runtime.getRuntime().addShutdownHook(mShutdownHook);
+    }
+
+    /**
+     * Returns the logging library the messages are delivered to.
+     *
+     * @return The delegate logging library.
+     */
+    public Logging getDelegate() {
+        return mDelegate;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return mOverflowPolicy;
+    }
+
+    /**
+     * Returns the number of messages the buffer holds.
+     *
+     * @return The capacity of the buffer.
+     */
+    public int getCapacity() {
+        return mMask + 1;
+    }
+
+    /**
+     * Returns the number of messages waiting to be delivered.
+     *
+     * @return The number of messages in the buffer.
+     */
+    public int getPendingCount() {
+        long size = mTail.get() - mHead.get();
+        return (int) Math.max(0, Math.min(size, mMask + 1));
+    }
+
+    /**
+     * Returns the number of messages placed into the buffer.
+     *
+     * @return The number of enqueued messages.
+     */
+    public long getEnqueuedCount() {
+        return mEnqueued.get();
+    }
+
+    /**
+     * Returns the number of messages discarded because the buffer was full.
+     *
+     * @return The number of dropped messages.
+     */
+    public long getDroppedCount() {
+        return mDropped.get();
+    }
+
+    /**
+     * Returns the number of messages the delegate failed to log by throwing
+     * an exception.
+     *
+     * @return The number of failed messages.
+     */
+    public long getFailedCount() {
+        return mFailed.get();
+    }
+
+    /**
+     * Checks to see whether or not messages are still delivered on the
+     * dedicated thread.
+     *
+     * @return Whether or not the asynchronous logging is running.
+     */
+    public boolean isRunning() {
+        return mRunning;
+    }
+
+    @Override
+    public void debug(String tag, String message, Throwable throwable) {
+        log(Level.DEBUG, tag, message, throwable);
+    }
+
+    @Override
+    public void error(String tag, String message, Throwable throwable) {
+        log(Level.ERROR, tag, message, throwable);
+    }
+
+    @Override
+    public void info(String tag, String message, Throwable throwable) {
+        log(Level.INFO, tag, message, throwable);
+    }
+
+    @Override
+    public void verbose(String tag, String message, Throwable throwable) {
+        log(Level.VERBOSE, tag, message, throwable);
+    }
+
+    @Override
+    public void warn(String tag, String message, Throwable throwable) {
+        log(Level.WARN, tag, message, throwable);
+    }
+
+    /**
+     * Waits until every message placed into the buffer so far was delivered
+     * to the delegate.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The unit of the timeout.
+     * @return Whether or not the buffer was flushed before the timeout.
+     * @throws InterruptedException If the thread is interrupted while
+     *                              waiting.
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        // The pending count has to be read first: the consumer is flagged as
+        // delivering before it takes anything from the buffer.
+        while (getPendingCount() > 0 || mDelivering) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+
+            LockSupport.unpark(mConsumer);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+
+        return true;
+    }
+
+    /**
+     * Stops the dedicated thread after delivering every pending message.
+     * Messages logged afterwards are delivered on the thread that logs them.
+     *
+     * @param timeout The maximum time to wait for the pending messages.
+     * @param unit    The unit of the timeout.
+     * @return Whether or not every pending message was delivered before the
+     * timeout.
+     * @throws InterruptedException If the thread is interrupted while
+     *                              waiting.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        mRunning = false;
+        LockSupport.unpark(mConsumer);
+        mConsumer.join(Math.max(1, unit.toMillis(timeout)));
+        if (!mConsumer.isAlive()) {
+            drain();
+        }
+
+        try {
+            Runtime.getRuntime().removeShutdownHook(mShutdownHook);
+        } catch (IllegalStateException ilStEx) {
+            // The virtual machine is already shutting down.
+        }
+
+        return !mConsumer.isAlive() && getPendingCount() == 0;
+    }
+
+    private void stop() {
+        mRunning = false;
+        LockSupport.unpark(mConsumer);
+        try {
+            mConsumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException inEx) {
+            Thread.currentThread().interrupt();
+        }
+        if (!mConsumer.isAlive()) {
+            drain();
+        }
+    }
+
+    /**
+     * Delivers the pending messages on the current thread.
+     */
+    private void drain() {
+        Event event;
+        while ((event = poll()) != null) {
+            deliver(event);
+        }
+    }
+
+    private void log(Level level, String tag, String message, Throwable throwable) {
+        Event event = new Event(level, tag, message, throwable);
+
+        if (!mRunning) {
+            deliver(event);
+            return;
+        }
+
+        if (mOverflowPolicy == OverflowPolicy.SAMPLE && getPendingCount() > (mMask + 1) / 2) {
+            if (mSampled.getAndIncrement() % mSampleRate != 0) {
+                mDropped.incrementAndGet();
+                return;
+            }
+        }
+
+        while (!offer(event)) {
+            switch (mOverflowPolicy) {
+                case BLOCK:
+                    if (!mRunning) {
+                        deliver(event);
+                        return;
+                    }
+                    LockSupport.unpark(mConsumer);
+                    LockSupport.parkNanos(FULL_PARK_NANOS);
+                    break;
+                case DROP_OLDEST:
+                    if (poll() != null) {
+                        mDropped.incrementAndGet();
+                    }
+                    break;
+                default:
+                    mDropped.incrementAndGet();
+                    return;
+            }
+        }
+
+        mEnqueued.incrementAndGet();
+        if (!mRunning && !mConsumer.isAlive()) {
+            // Stopped while the message was being placed.
+            drain();
+        } else if (mWaiting) {
+            LockSupport.unpark(mConsumer);
+        }
+    }
+
+    /**
+     * Places an event into the buffer, or returns false if it is full.
+     */
+    private boolean offer(Event event) {
+        long position = mTail.get();
+
+        while (true) {
+            int index = (int) (position & mMask);
+            long difference = mSequences.get(index) - position;
+
+            if (difference == 0) {
+                if (mTail.compareAndSet(position, position + 1)) {
+                    mBuffer.set(index, event);
+                    mSequences.set(index, position + 1);
+                    return true;
+                }
+                position = mTail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = mTail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest event from the buffer, or returns null if it is
+     * empty.
+     */
+    private Event poll() {
+        long position = mHead.get();
+
+        while (true) {
+            int index = (int) (position & mMask);
+            long difference = mSequences.get(index) - (position + 1);
+
+            if (difference == 0) {
+                if (mHead.compareAndSet(position, position + 1)) {
+                    Event event = mBuffer.get(index);
+                    mBuffer.set(index, null);
+                    mSequences.set(index, position + mMask + 1);
+                    return event;
+                }
+                position = mHead.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = mHead.get();
+            }
+        }
+    }
+
+    private void consume() {
+        Event[] batch = new Event[mBatchSize];
+
+        while (true) {
+            mDelivering = true;
+
+            int count = 0;
+            Event event;
+            while (count < batch.length && (event = poll()) != null) {
+                batch[count++] = event;
+            }
+
+            for (int i = 0; i < count; i++) {
+                deliver(batch[i]);
+                batch[i] = null;
+            }
+
+            mDelivering = false;
+
+            if (count == 0) {
+                if (!mRunning) {
+                    return;
+                }
+
+                mWaiting = true;
+                if (getPendingCount() == 0 && mRunning) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                mWaiting = false;
+            }
+        }
+    }
+
+    private void deliver(Event event) {
+        try {
+            switch (event.level) {
+                case VERBOSE:
+                    mDelegate.verbose(event.tag, event.message, event.throwable);
+                    break;
+                case DEBUG:
+                    mDelegate.debug(event.tag, event.message, event.throwable);
+                    break;
+                case ERROR:
+                    mDelegate.error(event.tag, event.message, event.throwable);
+                    break;
+                case INFO:
+                    mDelegate.info(event.tag, event.message, event.throwable);
+                    break;
+                default:
+                    mDelegate.warn(event.tag, event.message, event.throwable);
+                    break;
+            }
+        } catch (RuntimeException ruEx) {
+            // A failing logging library must not stop the delivery of the
+            // following messages.
+            mFailed.incrementAndGet();
+        }
+    }
+
+    /**
+     * What to do with a message logged while the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Waits until there is room in the buffer. No message is lost.
+         */
+        BLOCK,
+
+        /**
+         * Discards the message being logged.
+         */
+        DROP_NEWEST,
+
+        /**
+         * Discards the oldest message in the buffer to make room.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Keeps only one out of every few messages while the buffer is more
+         * than half full and discards the message being logged while it is
+         * full.
+         */
+        SAMPLE
+    }
+
+    private static final class Event {
+        final Level level;
+        final String tag;
+        final String message;
+        final Throwable throwable;
+
+        Event(Level level, String tag, String message, Throwable throwable) {
+            this.level = level;
+            this.tag = tag;
+            this.message = message;
+            this.throwable = throwable;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package tech.arauk.ark.activesupport.logging;
+
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * The levels of log messages, from the most to the least verbose.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ * @see Logger#setLevel(Level)
+ */
+@Beta
+public enum Level {
+    VERBOSE,
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR;
+
+    /**
+     * Checks to see whether or not messages of this level pass a threshold.
+     *
+     * @param threshold The least severe level to be logged.
+     * @return Whether or not this level is at least as severe as the
+     * threshold.
+     */
+    public boolean isAtLeast(Level threshold) {
+        return ordinal() >= threshold.ordinal();
+    }
+}
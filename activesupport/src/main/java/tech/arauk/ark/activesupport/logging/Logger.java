@@ -1,5 +1,7 @@
 package tech.arauk.ark.activesupport.logging;
 
+import java.util.concurrent.TimeUnit;
+
 import tech.arauk.ark.activesupport.annotations.Beta;
 
 /**
@@ -15,9 +17,11 @@ import tech.arauk.ark.activesupport.annotations.Beta;
 @Beta
 public class Logger {
     private static final String LOGGER_TAG = "tech.arauk.ark.activesupport.logging";
+    private static final long ASYNC_SHUTDOWN_TIMEOUT_SECONDS = 5;
     private static Logger INSTANCE_HOLDER;
     private Boolean mIsEnabled;
-    private Logging mLogger;
+    private volatile Level mLevel = Level.VERBOSE;
+    private volatile Logging mLogger;
     private String mLoggerTag;
 
     private Logger(String loggerTag) {
@@ -60,8 +64,87 @@ public class Logger {
      *               {@link tech.arauk.ark.activesupport.logging.Logging Logging}
      *               interface.
      */
-    public void setLogger(Logging logger) {
+    public synchronized void setLogger(Logging logger) {
+        Logging previous = mLogger;
         mLogger = logger;
+
+        // Messages still waiting go to the previous logging library.
+        if (previous instanceof AsyncLogging && previous != logger) {
+            shutdown((AsyncLogging) previous);
+        }
+    }
+
+    /**
+     * Delivers log messages to the logging library on a dedicated thread,
+     * buffering up to {@link AsyncLogging#DEFAULT_CAPACITY} messages and
+     * blocking the logging thread while the buffer is full.
+     *
+     * @see #enableAsync(int, AsyncLogging.OverflowPolicy)
+     */
+    public void enableAsync() {
+        enableAsync(AsyncLogging.DEFAULT_CAPACITY, AsyncLogging.OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Delivers log messages to the logging library on a dedicated thread, so
+     * a slow logging library does not stall the threads that log.
+     * <pre>{@code
+     * Logger logger = Logger.getDefaultLogger(new ConsoleLogging());
+     * logger.enableAsync(8192, AsyncLogging.OverflowPolicy.DROP_NEWEST);
+     * }</pre>
+     *
+     * @param capacity       The number of messages waiting to be delivered
+     *                       the buffer holds.
+     * @param overflowPolicy What to do with messages logged while the buffer
+     *                       is full.
+     * @throws IllegalStateException If no logging library was set.
+     */
+    public synchronized void enableAsync(int capacity, AsyncLogging.OverflowPolicy overflowPolicy) {
+        Logging logger = mLogger;
+        if (logger == null) {
+            throw new IllegalStateException("No logging library was set");
+        }
+
+        if (logger instanceof AsyncLogging) {
+            AsyncLogging asyncLogger = (AsyncLogging) logger;
+            if (asyncLogger.getCapacity() >= capacity && asyncLogger.getOverflowPolicy() == overflowPolicy) {
+                return;
+            }
+            logger = asyncLogger.getDelegate();
+            shutdown(asyncLogger);
+        }
+
+        mLogger = new AsyncLogging(logger, capacity, overflowPolicy);
+    }
+
+    /**
+     * Delivers log messages on the threads that log them again, after
+     * delivering the messages still waiting in the buffer.
+     */
+    public synchronized void disableAsync() {
+        Logging logger = mLogger;
+        if (logger instanceof AsyncLogging) {
+            mLogger = ((AsyncLogging) logger).getDelegate();
+            shutdown((AsyncLogging) logger);
+        }
+    }
+
+    /**
+     * Checks to see whether or not log messages are delivered on a dedicated
+     * thread.
+     *
+     * @return Whether or not the Logger is asynchronous.
+     */
+    public Boolean isAsync() {
+        return mLogger instanceof AsyncLogging;
+    }
+
+    private static void shutdown(AsyncLogging asyncLogger) {
+        try {
+            asyncLogger.shutdown(ASYNC_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException inEx) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
@@ -98,6 +181,44 @@ public class Logger {
         mLoggerTag = loggerTag;
     }
 
+    /**
+     * Returns the least severe level of the messages that are logged.
+     *
+     * @return The level threshold.
+     */
+    public Level getLevel() {
+        return mLevel;
+    }
+
+    /**
+     * Sets the least severe level of the messages to be logged. Messages of
+     * less severe levels are discarded before their formatting or supplier
+     * runs. By default every level is logged.
+     * <pre>{@code
+     * Logger.getDefaultLogger().setLevel(Level.WARN);
+     * }</pre>
+     *
+     * @param level The level threshold.
+     */
+    public void setLevel(Level level) {
+        if (level == null) {
+            throw new NullPointerException();
+        }
+        mLevel = level;
+    }
+
+    /**
+     * Checks to see whether or not messages of a level are logged, which is
+     * when the Logger is available, enabled and the level passes the
+     * threshold.
+     *
+     * @param level The level of the message.
+     * @return Whether or not messages of the level are logged.
+     */
+    public Boolean isLoggable(Level level) {
+        return mLogger != null && mIsEnabled && level.isAtLeast(mLevel);
+    }
+
     /**
      * Manually enables the Logger.
      */
@@ -151,11 +272,78 @@ public class Logger {
      * @param throwable An exception to log.
      */
     public void debug(String tag, String message, Throwable throwable) {
-        if (isAvailable() && isEnabled()) {
+        if (isLoggable(Level.DEBUG)) {
             mLogger.debug(tag, message, throwable);
         }
     }
 
+    /**
+     * Send a Debug log message built from a format string. The message is only
+     * formatted if Debug messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param arg    The argument referenced by the format string.
+     */
+    public void debugf(String format, Object arg) {
+        if (isLoggable(Level.DEBUG)) {
+            mLogger.debug(getLoggerTag(), String.format(format, arg), null);
+        }
+    }
+
+    /**
+     * Send a Debug log message built from a format string. The message is only
+     * formatted if Debug messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param arg1   The first argument referenced by the format string.
+     * @param arg2   The second argument referenced by the format string.
+     */
+    public void debugf(String format, Object arg1, Object arg2) {
+        if (isLoggable(Level.DEBUG)) {
+            mLogger.debug(getLoggerTag(), String.format(format, arg1, arg2), null);
+        }
+    }
+
+    /**
+     * Send a Debug log message built from a format string. The message is only
+     * formatted if Debug messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param args   The arguments referenced by the format string.
+     */
+    public void debugf(String format, Object... args) {
+        if (isLoggable(Level.DEBUG)) {
+            mLogger.debug(getLoggerTag(), String.format(format, args), null);
+        }
+    }
+
+    /**
+     * Send a Debug log message built by a supplier. The supplier is only called
+     * if Debug messages are logged.
+     *
+     * @param supplier Builds the message you would like logged.
+     */
+    public void debug(MessageSupplier supplier) {
+        debug(getLoggerTag(), supplier);
+    }
+
+    /**
+     * Send a Debug log message built by a supplier. The supplier is only called
+     * if Debug messages are logged.
+     *
+     * @param tag      Used to identify the source of a log message. It usually
+     *                 identifies the class or activity where the log call occurs.
+     * @param supplier Builds the message you would like logged.
+     */
+    public void debug(String tag, MessageSupplier supplier) {
+        if (isLoggable(Level.DEBUG)) {
+            mLogger.debug(tag, supplier.get(), null);
+        }
+    }
+
     /**
      * Send an Error log message.
      *
@@ -193,11 +381,78 @@ public class Logger {
      * @param throwable An exception to log.
      */
     public void error(String tag, String message, Throwable throwable) {
-        if (isAvailable() && isEnabled()) {
+        if (isLoggable(Level.ERROR)) {
             mLogger.error(tag, message, throwable);
         }
     }
 
+    /**
+     * Send an Error log message built from a format string. The message is only
+     * formatted if Error messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param arg    The argument referenced by the format string.
+     */
+    public void errorf(String format, Object arg) {
+        if (isLoggable(Level.ERROR)) {
+            mLogger.error(getLoggerTag(), String.format(format, arg), null);
+        }
+    }
+
+    /**
+     * Send an Error log message built from a format string. The message is only
+     * formatted if Error messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param arg1   The first argument referenced by the format string.
+     * @param arg2   The second argument referenced by the format string.
+     */
+    public void errorf(String format, Object arg1, Object arg2) {
+        if (isLoggable(Level.ERROR)) {
+            mLogger.error(getLoggerTag(), String.format(format, arg1, arg2), null);
+        }
+    }
+
+    /**
+     * Send an Error log message built from a format string. The message is only
+     * formatted if Error messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param args   The arguments referenced by the format string.
+     */
+    public void errorf(String format, Object... args) {
+        if (isLoggable(Level.ERROR)) {
+            mLogger.error(getLoggerTag(), String.format(format, args), null);
+        }
+    }
+
+    /**
+     * Send an Error log message built by a supplier. The supplier is only called
+     * if Error messages are logged.
+     *
+     * @param supplier Builds the message you would like logged.
+     */
+    public void error(MessageSupplier supplier) {
+        error(getLoggerTag(), supplier);
+    }
+
+    /**
+     * Send an Error log message built by a supplier. The supplier is only called
+     * if Error messages are logged.
+     *
+     * @param tag      Used to identify the source of a log message. It usually
+     *                 identifies the class or activity where the log call occurs.
+     * @param supplier Builds the message you would like logged.
+     */
+    public void error(String tag, MessageSupplier supplier) {
+        if (isLoggable(Level.ERROR)) {
+            mLogger.error(tag, supplier.get(), null);
+        }
+    }
+
     /**
      * Send an Info log message.
      *
@@ -235,11 +490,78 @@ public class Logger {
      * @param throwable An exception to log.
      */
     public void info(String tag, String message, Throwable throwable) {
-        if (isAvailable() && isEnabled()) {
+        if (isLoggable(Level.INFO)) {
             mLogger.info(tag, message, throwable);
         }
     }
 
+    /**
+     * Send an Info log message built from a format string. The message is only
+     * formatted if Info messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param arg    The argument referenced by the format string.
+     */
+    public void infof(String format, Object arg) {
+        if (isLoggable(Level.INFO)) {
+            mLogger.info(getLoggerTag(), String.format(format, arg), null);
+        }
+    }
+
+    /**
+     * Send an Info log message built from a format string. The message is only
+     * formatted if Info messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param arg1   The first argument referenced by the format string.
+     * @param arg2   The second argument referenced by the format string.
+     */
+    public void infof(String format, Object arg1, Object arg2) {
+        if (isLoggable(Level.INFO)) {
+            mLogger.info(getLoggerTag(), String.format(format, arg1, arg2), null);
+        }
+    }
+
+    /**
+     * Send an Info log message built from a format string. The message is only
+     * formatted if Info messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param args   The arguments referenced by the format string.
+     */
+    public void infof(String format, Object... args) {
+        if (isLoggable(Level.INFO)) {
+            mLogger.info(getLoggerTag(), String.format(format, args), null);
+        }
+    }
+
+    /**
+     * Send an Info log message built by a supplier. The supplier is only called
+     * if Info messages are logged.
+     *
+     * @param supplier Builds the message you would like logged.
+     */
+    public void info(MessageSupplier supplier) {
+        info(getLoggerTag(), supplier);
+    }
+
+    /**
+     * Send an Info log message built by a supplier. The supplier is only called
+     * if Info messages are logged.
+     *
+     * @param tag      Used to identify the source of a log message. It usually
+     *                 identifies the class or activity where the log call occurs.
+     * @param supplier Builds the message you would like logged.
+     */
+    public void info(String tag, MessageSupplier supplier) {
+        if (isLoggable(Level.INFO)) {
+            mLogger.info(tag, supplier.get(), null);
+        }
+    }
+
     /**
      * Send a Verbose log message.
      *
@@ -277,11 +599,78 @@ public class Logger {
      * @param throwable An exception to log.
      */
     public void verbose(String tag, String message, Throwable throwable) {
-        if (isAvailable() && isEnabled()) {
+        if (isLoggable(Level.VERBOSE)) {
             mLogger.verbose(tag, message, throwable);
         }
     }
 
+    /**
+     * Send a Verbose log message built from a format string. The message is only
+     * formatted if Verbose messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param arg    The argument referenced by the format string.
+     */
+    public void verbosef(String format, Object arg) {
+        if (isLoggable(Level.VERBOSE)) {
+            mLogger.verbose(getLoggerTag(), String.format(format, arg), null);
+        }
+    }
+
+    /**
+     * Send a Verbose log message built from a format string. The message is only
+     * formatted if Verbose messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param arg1   The first argument referenced by the format string.
+     * @param arg2   The second argument referenced by the format string.
+     */
+    public void verbosef(String format, Object arg1, Object arg2) {
+        if (isLoggable(Level.VERBOSE)) {
+            mLogger.verbose(getLoggerTag(), String.format(format, arg1, arg2), null);
+        }
+    }
+
+    /**
+     * Send a Verbose log message built from a format string. The message is only
+     * formatted if Verbose messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param args   The arguments referenced by the format string.
+     */
+    public void verbosef(String format, Object... args) {
+        if (isLoggable(Level.VERBOSE)) {
+            mLogger.verbose(getLoggerTag(), String.format(format, args), null);
+        }
+    }
+
+    /**
+     * Send a Verbose log message built by a supplier. The supplier is only called
+     * if Verbose messages are logged.
+     *
+     * @param supplier Builds the message you would like logged.
+     */
+    public void verbose(MessageSupplier supplier) {
+        verbose(getLoggerTag(), supplier);
+    }
+
+    /**
+     * Send a Verbose log message built by a supplier. The supplier is only called
+     * if Verbose messages are logged.
+     *
+     * @param tag      Used to identify the source of a log message. It usually
+     *                 identifies the class or activity where the log call occurs.
+     * @param supplier Builds the message you would like logged.
+     */
+    public void verbose(String tag, MessageSupplier supplier) {
+        if (isLoggable(Level.VERBOSE)) {
+            mLogger.verbose(tag, supplier.get(), null);
+        }
+    }
+
     /**
      * Send a Warn log message.
      *
@@ -319,8 +708,75 @@ public class Logger {
      * @param throwable An exception to log.
      */
     public void warn(String tag, String message, Throwable throwable) {
-        if (isAvailable() && isEnabled()) {
+        if (isLoggable(Level.WARN)) {
             mLogger.warn(tag, message, throwable);
         }
     }
+
+    /**
+     * Send a Warn log message built from a format string. The message is only
+     * formatted if Warn messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param arg    The argument referenced by the format string.
+     */
+    public void warnf(String format, Object arg) {
+        if (isLoggable(Level.WARN)) {
+            mLogger.warn(getLoggerTag(), String.format(format, arg), null);
+        }
+    }
+
+    /**
+     * Send a Warn log message built from a format string. The message is only
+     * formatted if Warn messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param arg1   The first argument referenced by the format string.
+     * @param arg2   The second argument referenced by the format string.
+     */
+    public void warnf(String format, Object arg1, Object arg2) {
+        if (isLoggable(Level.WARN)) {
+            mLogger.warn(getLoggerTag(), String.format(format, arg1, arg2), null);
+        }
+    }
+
+    /**
+     * Send a Warn log message built from a format string. The message is only
+     * formatted if Warn messages are logged.
+     *
+     * @param format The format string, as in
+     *               {@link String#format(String, Object...)}.
+     * @param args   The arguments referenced by the format string.
+     */
+    public void warnf(String format, Object... args) {
+        if (isLoggable(Level.WARN)) {
+            mLogger.warn(getLoggerTag(), String.format(format, args), null);
+        }
+    }
+
+    /**
+     * Send a Warn log message built by a supplier. The supplier is only called
+     * if Warn messages are logged.
+     *
+     * @param supplier Builds the message you would like logged.
+     */
+    public void warn(MessageSupplier supplier) {
+        warn(getLoggerTag(), supplier);
+    }
+
+    /**
+     * Send a Warn log message built by a supplier. The supplier is only called
+     * if Warn messages are logged.
+     *
+     * @param tag      Used to identify the source of a log message. It usually
+     *                 identifies the class or activity where the log call occurs.
+     * @param supplier Builds the message you would like logged.
+     */
+    public void warn(String tag, MessageSupplier supplier) {
+        if (isLoggable(Level.WARN)) {
+            mLogger.warn(tag, supplier.get(), null);
+        }
+    }
 }
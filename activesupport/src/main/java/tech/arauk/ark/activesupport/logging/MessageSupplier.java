@@ -0,0 +1,26 @@
+package tech.arauk.ark.activesupport.logging;
+
+import tech.arauk.ark.activesupport.annotations.Beta;
+
+/**
+ * Builds a log message only when it is going to be logged.
+ * <p/>
+ * <pre>{@code
+ * Logger.getDefaultLogger().debug(new MessageSupplier() {
+ *     public String get() {
+ *         return "Loaded " + records.size() + " records";
+ *     }
+ * });
+ * }</pre>
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@Beta
+public interface MessageSupplier {
+    /**
+     * Builds the message.
+     *
+     * @return The message to be logged.
+     */
+    String get();
+}
@@ -0,0 +1,266 @@
+package tech.arauk.ark.activesupport;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import tech.arauk.ark.activesupport.logging.AsyncLogging;
+import tech.arauk.ark.activesupport.logging.Logger;
+import tech.arauk.ark.activesupport.logging.Logging;
+
+public class AsyncLoggingTest extends TestCase {
+    private RecordingLogging mRecording;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mRecording = new RecordingLogging();
+    }
+
+    public void testDeliversMessagesInOrderOnAnotherThread() throws Exception {
+        AsyncLogging logging = new AsyncLogging(mRecording, 16, AsyncLogging.OverflowPolicy.BLOCK);
+        for (int i = 0; i < 1000; i++) {
+            logging.info("tag", "message " + i, null);
+        }
+
+        assertTrue(logging.flush(5, TimeUnit.SECONDS));
+        assertEquals(1000, mRecording.messages.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("info tag message " + i, mRecording.messages.get(i));
+        }
+        assertEquals(1000, logging.getEnqueuedCount());
+        assertEquals(0, logging.getDroppedCount());
+        assertFalse(mRecording.threads.contains(Thread.currentThread()));
+
+        assertTrue(logging.shutdown(5, TimeUnit.SECONDS));
+    }
+
+    public void testBlockingKeepsEveryMessageFromManyThreads() throws Exception {
+        final AsyncLogging logging = new AsyncLogging(mRecording, 8, AsyncLogging.OverflowPolicy.BLOCK);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            final int producer = i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException inEx) {
+                        return;
+                    }
+                    for (int j = 0; j < 500; j++) {
+                        logging.debug("producer-" + producer, String.valueOf(j), null);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(logging.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(2000, mRecording.messages.size());
+        assertEquals(2000, logging.getEnqueuedCount());
+        assertEquals(0, logging.getDroppedCount());
+    }
+
+    public void testDropNewestDiscardsMessagesLoggedWhileFull() throws Exception {
+        mRecording.block();
+        AsyncLogging logging = new AsyncLogging(mRecording, 4, AsyncLogging.OverflowPolicy.DROP_NEWEST);
+
+        logging.warn("tag", "first", null);
+        mRecording.awaitBlocked();
+        for (int i = 0; i < 10; i++) {
+            logging.warn("tag", String.valueOf(i), null);
+        }
+
+        assertEquals(6, logging.getDroppedCount());
+        assertEquals(5, logging.getEnqueuedCount());
+
+        mRecording.unblock();
+        assertTrue(logging.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("warn tag first", "warn tag 0", "warn tag 1", "warn tag 2", "warn tag 3"), mRecording.messages);
+    }
+
+    public void testDropOldestKeepsTheLatestMessages() throws Exception {
+        mRecording.block();
+        AsyncLogging logging = new AsyncLogging(mRecording, 4, AsyncLogging.OverflowPolicy.DROP_OLDEST);
+
+        logging.error("tag", "first", null);
+        mRecording.awaitBlocked();
+        for (int i = 0; i < 10; i++) {
+            logging.error("tag", String.valueOf(i), null);
+        }
+
+        assertEquals(6, logging.getDroppedCount());
+        assertEquals(11, logging.getEnqueuedCount());
+
+        mRecording.unblock();
+        assertTrue(logging.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("error tag first", "error tag 6", "error tag 7", "error tag 8", "error tag 9"), mRecording.messages);
+    }
+
+    public void testSampleKeepsSomeMessagesWhileUnderPressure() throws Exception {
+        mRecording.block();
+        AsyncLogging logging = new AsyncLogging(mRecording, 64, AsyncLogging.OverflowPolicy.SAMPLE, 16, 4);
+
+        logging.verbose("tag", "first", null);
+        mRecording.awaitBlocked();
+        for (int i = 0; i < 200; i++) {
+            logging.verbose("tag", String.valueOf(i), null);
+        }
+
+        assertTrue(logging.getDroppedCount() > 0);
+        assertTrue(logging.getEnqueuedCount() > 33);
+        assertEquals(201, logging.getEnqueuedCount() + logging.getDroppedCount());
+
+        mRecording.unblock();
+        assertTrue(logging.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(logging.getEnqueuedCount(), mRecording.messages.size());
+    }
+
+    public void testMessagesAfterShutdownAreDeliveredOnTheCallingThread() throws Exception {
+        AsyncLogging logging = new AsyncLogging(mRecording);
+        assertTrue(logging.shutdown(5, TimeUnit.SECONDS));
+        assertFalse(logging.isRunning());
+
+        logging.info("tag", "late", null);
+        assertEquals(Arrays.asList("info tag late"), mRecording.messages);
+        assertTrue(mRecording.threads.contains(Thread.currentThread()));
+    }
+
+    public void testFailingDelegateDoesNotStopTheDelivery() throws Exception {
+        AsyncLogging logging = new AsyncLogging(new Logging() {
+            @Override
+            public void debug(String tag, String message, Throwable throwable) {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public void error(String tag, String message, Throwable throwable) {
+                mRecording.error(tag, message, throwable);
+            }
+
+            @Override
+            public void info(String tag, String message, Throwable throwable) {
+            }
+
+            @Override
+            public void verbose(String tag, String message, Throwable throwable) {
+            }
+
+            @Override
+            public void warn(String tag, String message, Throwable throwable) {
+            }
+        });
+
+        logging.debug("tag", "fails", null);
+        logging.error("tag", "delivered", null);
+
+        assertTrue(logging.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(1, logging.getFailedCount());
+        assertEquals(Arrays.asList("error tag delivered"), mRecording.messages);
+    }
+
+    public void testLoggerEnablesAndDisablesAsync() throws Exception {
+        Logger logger = Logger.getDefaultLogger();
+        logger.setLogger(mRecording);
+        try {
+            logger.enableAsync(32, AsyncLogging.OverflowPolicy.BLOCK);
+            assertTrue(logger.isAsync());
+
+            for (int i = 0; i < 100; i++) {
+                logger.info("tag", String.valueOf(i));
+            }
+
+            logger.disableAsync();
+            assertFalse(logger.isAsync());
+            assertEquals(100, mRecording.messages.size());
+            assertEquals("info tag 99", mRecording.messages.get(99));
+        } finally {
+            logger.setLogger(null);
+        }
+    }
+
+    public void testLoggerRequiresALoggingLibraryForAsync() {
+        Logger logger = Logger.getDefaultLogger();
+        logger.setLogger(null);
+
+        try {
+            logger.enableAsync();
+            fail();
+        } catch (IllegalStateException ilStEx) {
+            assertFalse(logger.isAsync());
+        }
+    }
+
+    private static final class RecordingLogging implements Logging {
+        final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        private final CountDownLatch mBlocked = new CountDownLatch(1);
+        private volatile CountDownLatch mGate;
+
+        void block() {
+            mGate = new CountDownLatch(1);
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertTrue(mBlocked.await(5, TimeUnit.SECONDS));
+        }
+
+        void unblock() {
+            mGate.countDown();
+        }
+
+        @Override
+        public void debug(String tag, String message, Throwable throwable) {
+            record("debug", tag, message);
+        }
+
+        @Override
+        public void error(String tag, String message, Throwable throwable) {
+            record("error", tag, message);
+        }
+
+        @Override
+        public void info(String tag, String message, Throwable throwable) {
+            record("info", tag, message);
+        }
+
+        @Override
+        public void verbose(String tag, String message, Throwable throwable) {
+            record("verbose", tag, message);
+        }
+
+        @Override
+        public void warn(String tag, String message, Throwable throwable) {
+            record("warn", tag, message);
+        }
+
+        private void record(String level, String tag, String message) {
+            messages.add(level + " " + tag + " " + message);
+            threads.add(Thread.currentThread());
+
+            CountDownLatch gate = mGate;
+            if (gate != null) {
+                mBlocked.countDown();
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException inEx) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package tech.arauk.ark.activesupport;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import tech.arauk.ark.activesupport.inflector.CompiledRules;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+import tech.arauk.ark.activesupport.inflector.Inflections;
+
+public class CompiledRulesTest extends TestCase {
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        DefaultInflections.initializeDefaultInflections();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        DefaultInflections.getDefaultInflections().clear();
+    }
+
+    public void testMatchesTheRulesAppliedInOrder() {
+        Inflections inflect = Inflector.inflections();
+        for (String[] irregularity : InflectorTestCases.IRREGULARITIES) {
+            inflect.irregular(irregularity[0], irregularity[1]);
+        }
+        inflect.plural("(ox)$", "$1en", 0);
+
+        for (String word : words()) {
+            assertEquals(word, applyInOrder(word, inflect.getPlurals()), inflect.getCompiledPlurals().apply(word));
+            assertEquals(word, applyInOrder(word, inflect.getSingulars()), inflect.getCompiledSingulars().apply(word));
+        }
+    }
+
+    public void testAutomatonMatchesTheRulesAppliedInOrder() {
+        Inflections inflect = Inflector.inflections();
+        for (String[] irregularity : InflectorTestCases.IRREGULARITIES) {
+            inflect.irregular(irregularity[0], irregularity[1]);
+        }
+        inflect.plural("(ox)$", "$1en", 0);
+        inflect.plural("^(?:b|c)a[a-c]+d?$", "$0s");
+        inflect.plural("o.e", "$0s");
+        inflect.plural("(?<=qu)iz$", "izzes");
+        inflect.plural("([\\w-]+)_id$", "$1_ids");
+        inflect.singular("^(analy)ses$", "$1sis");
+        inflect.singular("(x|ch)es", "$1", Pattern.CASE_INSENSITIVE);
+        inflect.singular("([^f\\d])ves$", "$1fe");
+        inflect.setCompiled(true);
+
+        assertTrue(inflect.getCompiledPlurals().isAutomatonEnabled());
+        assertTrue(inflect.getCompiledSingulars().isAutomatonEnabled());
+
+        List<String> words = words();
+        words.addAll(Arrays.asList("", "baac", "cabbd", "xbaac", "ODE", "node", "quiz", "QUIZ", "user_id", "a-b_id", "analyses", "Analyses", "paralyses", "boxes", "BOXES", "KNIVES", "knives", "2ves", "ves", "\ud83d\ude00oxes", "\u00f1oxes"));
+
+        for (String word : words) {
+            assertEquals(word, applyInOrder(word, inflect.getPlurals()), inflect.getCompiledPlurals().apply(word));
+            assertEquals(word, applyInOrder(word, inflect.getSingulars()), inflect.getCompiledSingulars().apply(word));
+        }
+    }
+
+    public void testCompiledModeSurvivesChangesToTheRules() {
+        Inflections inflect = Inflector.inflections();
+        inflect.setCompiled(true);
+        assertTrue(inflect.isCompiled());
+
+        inflect.plural("(matr)ix$", "$1ices");
+        inflect.clear("plurals");
+        assertTrue(inflect.isCompiled());
+        assertEquals("matrix", Inflector.pluralize("matrix"));
+
+        inflect.plural("(matr)ix$", "$1ices");
+        assertEquals("matrices", Inflector.pluralize("matrix"));
+
+        inflect.setCompiled(false);
+        assertFalse(inflect.getCompiledPlurals().isAutomatonEnabled());
+        assertEquals("matrices", Inflector.pluralize("matrix"));
+    }
+
+    public void testRegexRulesAddedAfterAnIrregularTakePrecedence() {
+        Inflections inflect = Inflector.inflections();
+        assertEquals("people", Inflector.pluralize("person"));
+
+        inflect.plural("(pers)on$", "$1ons");
+        assertEquals("persons", Inflector.pluralize("person"));
+
+        inflect.irregular("person", "people");
+        assertEquals("people", Inflector.pluralize("person"));
+    }
+
+    public void testIrregularsKeepTheCaseOfTheWord() {
+        assertEquals("salespeople", Inflector.pluralize("salesperson"));
+        assertEquals("SalesPeople", Inflector.pluralize("SalesPerson"));
+        assertEquals("Children", Inflector.pluralize("CHILD"));
+        assertEquals("people\n", Inflector.pluralize("person\n"));
+    }
+
+    public void testUncountablesAreLookedUpByTheirLastWord() {
+        assertEquals("funky jeans", Inflector.pluralize("funky jeans"));
+        assertEquals("my money", Inflector.pluralize("my money"));
+        assertEquals("my_moneys", Inflector.pluralize("my_money"));
+        assertEquals("Rice", Inflector.pluralize("Rice"));
+        assertEquals("chicken-rice", Inflector.pluralize("chicken-rice"));
+        assertEquals("riceballs", Inflector.pluralize("riceball"));
+    }
+
+    private static List<String> words() {
+        List<String> words = new ArrayList<>();
+        for (String[][] cases : new String[][][]{InflectorTestCases.SINGULAR_TO_PLURAL, InflectorTestCases.IRREGULARITIES}) {
+            for (String[] pair : cases) {
+                for (String word : pair) {
+                    words.add(word);
+                    words.add(Inflector.capitalize(word));
+                    words.add(word.toUpperCase());
+                    words.add("prefix" + word);
+                    words.add(word + "\n");
+                }
+            }
+        }
+        return words;
+    }
+
+    private static String applyInOrder(String word, List<Inflections.Rule> rules) {
+        for (Inflections.Rule rule : rules) {
+            String result = rule.apply(word);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,128 @@
+package tech.arauk.ark.activesupport;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+import tech.arauk.ark.activesupport.inflector.Inflections;
+
+public class InflectionsConcurrencyTest extends TestCase {
+    private static final int THREADS = 8;
+    private ExecutorService mExecutor;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        DefaultInflections.initializeDefaultInflections();
+        mExecutor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        mExecutor.shutdownNow();
+        mExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        DefaultInflections.getDefaultInflections().clear();
+        Inflector.inflections("stress").clear();
+    }
+
+    public void testConcurrentLookupsYieldASingleInstancePerLocale() throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Inflections>>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(mExecutor.submit(new Callable<List<Inflections>>() {
+                @Override
+                public List<Inflections> call() throws Exception {
+                    start.await();
+
+                    List<Inflections> instances = new ArrayList<>();
+                    for (int j = 0; j < 100; j++) {
+                        instances.add(Inflector.inflections("locale-" + j));
+                    }
+                    return instances;
+                }
+            }));
+        }
+
+        start.countDown();
+
+        List<Inflections> expected = futures.get(0).get();
+        for (Future<List<Inflections>> future : futures) {
+            List<Inflections> instances = future.get();
+            for (int j = 0; j < expected.size(); j++) {
+                assertSame(expected.get(j), instances.get(j));
+                assertSame(expected.get(j), Inflections.getInstances().get("locale-" + j));
+            }
+        }
+    }
+
+    public void testReadersNeverObserveAPartialChange() throws Exception {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> readers = new ArrayList<>();
+
+        for (int i = 0; i < THREADS - 1; i++) {
+            readers.add(mExecutor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    start.await();
+
+                    int iterations = 0;
+                    do {
+                        for (int j = 0; j < InflectorTestCases.SINGULAR_TO_PLURAL.length; j++) {
+                            String singular = InflectorTestCases.SINGULAR_TO_PLURAL[j][0];
+                            String plural = InflectorTestCases.SINGULAR_TO_PLURAL[j][1];
+
+                            assertEquals(plural, Inflector.pluralize(singular));
+                            assertEquals(singular, Inflector.singularize(plural));
+                        }
+
+                        String word = Inflector.pluralize("ox", "stress");
+                        assertTrue(word, "ox".equals(word) || "oxen".equals(word));
+                        iterations++;
+                    } while (running.get());
+                    return iterations;
+                }
+            }));
+        }
+
+        Future<Integer> writer = mExecutor.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                start.await();
+
+                int iterations;
+                for (iterations = 0; iterations < 500; iterations++) {
+                    Inflections inflect = Inflector.inflections("stress");
+                    inflect.irregular("ox", "oxen");
+                    inflect.clear();
+
+                    Inflector.inflections().irregular("person", "people");
+                }
+                return iterations;
+            }
+        });
+
+        start.countDown();
+
+        try {
+            assertTrue(writer.get() > 0);
+        } finally {
+            running.set(false);
+        }
+
+        for (Future<Integer> reader : readers) {
+            assertTrue(reader.get() > 0);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package tech.arauk.ark.activesupport;
+
+import junit.framework.TestCase;
+
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+
+public class InflectorCacheTest extends TestCase {
+    private InflectorCache mCache;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        DefaultInflections.initializeDefaultInflections();
+        mCache = new InflectorCache(64);
+        Inflector.setCache(mCache);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        Inflector.setCache(null);
+        DefaultInflections.getDefaultInflections().clear();
+        Inflector.inflections("es").clear();
+    }
+
+    public void testCachedResultsMatchUncachedResults() {
+        for (int i = 0; i < InflectorTestCases.SINGULAR_TO_PLURAL.length; i++) {
+            String singular = InflectorTestCases.SINGULAR_TO_PLURAL[i][0];
+            String plural = InflectorTestCases.SINGULAR_TO_PLURAL[i][1];
+
+            assertEquals(plural, Inflector.pluralize(singular));
+            assertEquals(plural, Inflector.pluralize(singular));
+            assertEquals(singular, Inflector.singularize(plural));
+            assertEquals(singular, Inflector.singularize(plural));
+        }
+
+        for (int i = 0; i < InflectorTestCases.CAMEL_TO_UNDERSCORE.length; i++) {
+            String camel = InflectorTestCases.CAMEL_TO_UNDERSCORE[i][0];
+            String underscore = InflectorTestCases.CAMEL_TO_UNDERSCORE[i][1];
+
+            assertEquals(camel, Inflector.camelize(underscore));
+            assertEquals(camel, Inflector.camelize(underscore));
+            assertEquals(underscore, Inflector.underscore(camel));
+            assertEquals(underscore, Inflector.underscore(camel));
+        }
+    }
+
+    public void testHitAndMissCounters() {
+        assertEquals("raw_scaled_scorers", Inflector.tableize("RawScaledScorer"));
+        long misses = mCache.getMissCount();
+        assertTrue(misses > 0);
+        assertEquals(0, mCache.getHitCount());
+
+        assertEquals("raw_scaled_scorers", Inflector.tableize("RawScaledScorer"));
+        assertEquals(misses, mCache.getMissCount());
+        assertEquals(1, mCache.getHitCount());
+    }
+
+    public void testCamelizeVariantsAreCachedSeparately() {
+        assertEquals("ActiveModel", Inflector.camelize("active_model"));
+        assertEquals("activeModel", Inflector.camelize("active_model", false));
+        assertEquals("ActiveModel", Inflector.camelize("active_model"));
+    }
+
+    public void testSizeIsBounded() {
+        for (int i = 0; i < 1000; i++) {
+            Inflector.pluralize("word" + i);
+        }
+
+        assertTrue(mCache.size() <= mCache.getMaximumSize());
+        assertTrue(mCache.getEvictionCount() > 0);
+    }
+
+    public void testInvalidatedWhenInflectionsChange() {
+        assertEquals("series", Inflector.singularize("series"));
+        Inflector.inflections().singular("series", "serie");
+        assertEquals("serie", Inflector.singularize("series"));
+
+        assertEquals("fish", Inflector.pluralize("fish"));
+        Inflector.inflections().clear("uncountables");
+        assertEquals("fishes", Inflector.pluralize("fish"));
+
+        assertEquals("Html", Inflector.camelize("html"));
+        Inflector.inflections().acronym("HTML");
+        assertEquals("HTML", Inflector.camelize("html"));
+    }
+
+    public void testInvalidatedOnlyForTheChangedLocale() {
+        Inflector.inflections("es").plural("$", "s");
+        assertEquals("hijos", Inflector.pluralize("hijo", "es"));
+        assertEquals("posts", Inflector.pluralize("post"));
+        long hits = mCache.getHitCount();
+
+        Inflector.inflections("es").plural("o$", "es");
+        assertEquals("hijes", Inflector.pluralize("hijo", "es"));
+        assertEquals("posts", Inflector.pluralize("post"));
+        assertEquals(hits + 1, mCache.getHitCount());
+    }
+
+    public void testDisabledOperationsAreNotCached() {
+        mCache.disable(InflectorCache.Operation.PLURALIZE);
+        assertFalse(mCache.isEnabled(InflectorCache.Operation.PLURALIZE));
+
+        Inflector.pluralize("post");
+        Inflector.pluralize("post");
+        assertEquals(0, mCache.getHitCount());
+        assertEquals(0, mCache.getMissCount());
+
+        mCache.enable(InflectorCache.Operation.PLURALIZE);
+        Inflector.pluralize("post");
+        Inflector.pluralize("post");
+        assertEquals(1, mCache.getHitCount());
+    }
+}
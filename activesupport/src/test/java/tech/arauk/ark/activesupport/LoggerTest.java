@@ -0,0 +1,129 @@
+package tech.arauk.ark.activesupport;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import tech.arauk.ark.activesupport.logging.Level;
+import tech.arauk.ark.activesupport.logging.Logger;
+import tech.arauk.ark.activesupport.logging.Logging;
+import tech.arauk.ark.activesupport.logging.MessageSupplier;
+
+public class LoggerTest extends TestCase {
+    private Logger mLogger;
+    private List<String> mMessages;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mMessages = new ArrayList<>();
+        mLogger = Logger.getDefaultLogger();
+        mLogger.setLogger(new Logging() {
+            @Override
+            public void debug(String tag, String message, Throwable throwable) {
+                mMessages.add("debug " + message);
+            }
+
+            @Override
+            public void error(String tag, String message, Throwable throwable) {
+                mMessages.add("error " + message);
+            }
+
+            @Override
+            public void info(String tag, String message, Throwable throwable) {
+                mMessages.add("info " + message);
+            }
+
+            @Override
+            public void verbose(String tag, String message, Throwable throwable) {
+                mMessages.add("verbose " + message);
+            }
+
+            @Override
+            public void warn(String tag, String message, Throwable throwable) {
+                mMessages.add("warn " + message);
+            }
+        });
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        mLogger.setLevel(Level.VERBOSE);
+        mLogger.enable();
+        mLogger.setLogger(null);
+    }
+
+    public void testEveryLevelIsLoggedByDefault() {
+        assertEquals(Level.VERBOSE, mLogger.getLevel());
+
+        mLogger.verbose("a");
+        mLogger.debug("b");
+        mLogger.info("c");
+        mLogger.warn("d");
+        mLogger.error("e");
+
+        assertEquals(Arrays.asList("verbose a", "debug b", "info c", "warn d", "error e"), mMessages);
+    }
+
+    public void testLevelsBelowTheThresholdAreDiscarded() {
+        mLogger.setLevel(Level.WARN);
+
+        assertFalse(mLogger.isLoggable(Level.INFO));
+        assertTrue(mLogger.isLoggable(Level.WARN));
+
+        mLogger.verbose("a");
+        mLogger.debug("b");
+        mLogger.info("c");
+        mLogger.warn("d");
+        mLogger.error("e");
+
+        assertEquals(Arrays.asList("warn d", "error e"), mMessages);
+    }
+
+    public void testFormattedMessages() {
+        mLogger.infof("%s records", 3);
+        mLogger.warnf("%s of %s", "a", "b");
+        mLogger.errorf("%s-%s-%s", 1, 2, 3);
+
+        assertEquals(Arrays.asList("info 3 records", "warn a of b", "error 1-2-3"), mMessages);
+    }
+
+    public void testDiscardedMessagesAreNeverFormatted() {
+        mLogger.setLevel(Level.ERROR);
+
+        // An invalid format string would throw if it was formatted.
+        mLogger.debugf("%d", "not a number");
+        mLogger.infof("%d %d", "a", "b");
+        mLogger.warnf("%d %d %d", "a", "b", "c");
+
+        assertTrue(mMessages.isEmpty());
+    }
+
+    public void testSuppliersAreOnlyCalledWhenLogged() {
+        final int[] calls = new int[1];
+        MessageSupplier supplier = new MessageSupplier() {
+            @Override
+            public String get() {
+                calls[0]++;
+                return "built";
+            }
+        };
+
+        mLogger.setLevel(Level.INFO);
+        mLogger.debug(supplier);
+        mLogger.verbose("tag", supplier);
+        assertEquals(0, calls[0]);
+
+        mLogger.info(supplier);
+        mLogger.error("tag", supplier);
+        assertEquals(2, calls[0]);
+        assertEquals(Arrays.asList("info built", "error built"), mMessages);
+
+        mLogger.disable();
+        mLogger.error(supplier);
+        assertEquals(2, calls[0]);
+    }
+}
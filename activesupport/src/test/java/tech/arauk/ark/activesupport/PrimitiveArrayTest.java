@@ -0,0 +1,96 @@
+package tech.arauk.ark.activesupport;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+import tech.arauk.ark.activesupport.collections.DoubleArray;
+import tech.arauk.ark.activesupport.collections.IntArray;
+import tech.arauk.ark.activesupport.collections.LongArray;
+
+public class PrimitiveArrayTest extends TestCase {
+    public void testGrowsPastItsCapacity() {
+        LongArray array = new LongArray(0);
+        for (long i = 0; i < 1000; i++) {
+            array.add(i * 3);
+        }
+
+        assertEquals(1000, array.size());
+        assertEquals(0L, array.get(0));
+        assertEquals(2997L, array.get(999));
+    }
+
+    public void testSetReplacesAValue() {
+        IntArray array = new IntArray();
+        array.add(1);
+        array.add(2);
+        array.set(1, 5);
+
+        assertTrue(Arrays.equals(new int[]{1, 5}, array.toArray()));
+    }
+
+    public void testIndexesAreChecked() {
+        DoubleArray array = new DoubleArray(4);
+        array.add(1.5);
+
+        try {
+            array.get(1);
+            fail();
+        } catch (IndexOutOfBoundsException inOuOfBoEx) {
+            assertEquals("Index: 1, Size: 1", inOuOfBoEx.getMessage());
+        }
+        try {
+            array.set(-1, 0.0);
+            fail();
+        } catch (IndexOutOfBoundsException inOuOfBoEx) {
+            assertEquals("Index: -1, Size: 1", inOuOfBoEx.getMessage());
+        }
+    }
+
+    public void testNegativeCapacitiesAreRejected() {
+        try {
+            new LongArray(-1);
+            fail();
+        } catch (IllegalArgumentException ilArEx) {
+            assertEquals("The capacity must not be negative.", ilArEx.getMessage());
+        }
+    }
+
+    public void testToArrayReturnsACopy() {
+        LongArray array = new LongArray();
+        array.add(7L);
+
+        long[] values = array.toArray();
+        values[0] = 8L;
+
+        assertEquals(7L, array.get(0));
+    }
+
+    public void testClearAndTrimToSize() {
+        IntArray array = new IntArray();
+        array.add(1);
+        array.add(2);
+        array.trimToSize();
+        assertEquals(2, array.size());
+
+        array.clear();
+        assertTrue(array.isEmpty());
+        array.trimToSize();
+        array.add(3);
+        assertEquals("[3]", array.toString());
+    }
+
+    public void testEqualsComparesTheValues() {
+        LongArray first = new LongArray(2);
+        LongArray second = new LongArray(64);
+        first.add(1L);
+        second.add(1L);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+
+        second.add(2L);
+        assertFalse(first.equals(second));
+        assertEquals(new DoubleArray(), new DoubleArray(1));
+    }
+}
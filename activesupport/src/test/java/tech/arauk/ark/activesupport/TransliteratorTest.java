@@ -0,0 +1,80 @@
+package tech.arauk.ark.activesupport;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import tech.arauk.ark.activesupport.inflector.Transliterator;
+
+public class TransliteratorTest extends TestCase {
+    public void testAsciiStringsAreReturnedUnchanged() {
+        String ascii = "Donald E. Knuth!@#";
+        assertSame(ascii, Transliterator.transliterate(ascii));
+    }
+
+    public void testApproximations() {
+        assertEquals("AEroskobing", Transliterator.transliterate("Ærøskøbing"));
+        assertEquals("Malmo, Dusseldorf, Lodz", Transliterator.transliterate("Malmö, Düsseldorf, Łódź"));
+        assertEquals("Strasse 'n", Transliterator.transliterate("Straße ŉ"));
+    }
+
+    public void testCharactersWithoutApproximation() {
+        assertEquals("Ni hao ?? world", Transliterator.transliterate("Ni hao 你好 world"));
+        assertEquals("smile *", Transliterator.transliterate("smile 😀", "*"));
+        assertEquals("a?b", Transliterator.transliterate("a世b", ""));
+        assertEquals("a?b", Transliterator.transliterate("a世b", (String) null));
+    }
+
+    public void testRepeatedCharactersAreAllReplaced() {
+        assertEquals("eee aaa", Transliterator.transliterate("éèë àáâ"));
+    }
+
+    public void testTransliterateIntoABuffer() throws IOException {
+        StringBuilder builder = new StringBuilder("city: ");
+        Transliterator.transliterate("São Paulo", builder);
+        Transliterator.transliterate(", Zürich", builder);
+        Transliterator.transliterate(new StringBuilder(", 東京"), "_", builder);
+
+        assertEquals("city: Sao Paulo, Zurich, __", builder.toString());
+    }
+
+    public void testParameterizeMatchesTheRegexPipeline() {
+        String[] separators = {"-", "_", "", "+", " ", ".", "__sep__", "x"};
+        List<String> strings = new ArrayList<>();
+        for (String[][] cases : new String[][][]{InflectorTestCases.STRING_TO_PARAMETERIZED, InflectorTestCases.STRING_TO_PARAMETERIZED_AND_NORMALIZED, InflectorTestCases.STRING_TO_PARAMETERIZED_WITH_UNDERSCORE, InflectorTestCases.STRING_TO_PARAMETERIZED_WITH_NO_SEPARATOR}) {
+            for (String[] pair : cases) {
+                strings.add(pair[0]);
+            }
+        }
+        strings.addAll(Arrays.asList("", "-", "--a--", "_a_b__", "+a++b+", "Straße ŉ Łódź", "smile 😀 now", "a.b..c", "x-axis"));
+
+        for (String string : strings) {
+            for (String separator : separators) {
+                for (boolean preserveCase : new boolean[]{false, true}) {
+                    String message = string + " / " + separator + " / " + preserveCase;
+                    assertEquals(message, parameterizeWithRegexes(string, separator, preserveCase), Transliterator.parameterize(string, separator, preserveCase));
+                }
+            }
+        }
+    }
+
+    /**
+     * The regex pipeline parameterize used before it was done in one pass.
+     */
+    private static String parameterizeWithRegexes(String string, String separator, boolean preserveCase) {
+        String parameterized = Transliterator.transliterate(string);
+        parameterized = Pattern.compile("[^a-z0-9\\-_]+", Pattern.CASE_INSENSITIVE).matcher(parameterized).replaceAll(separator);
+
+        if (!separator.isEmpty()) {
+            String regexpSeparator = Pattern.quote(separator);
+            parameterized = Pattern.compile(regexpSeparator + "{2,}").matcher(parameterized).replaceAll(separator);
+            parameterized = Pattern.compile("^" + regexpSeparator + "|" + regexpSeparator + "$").matcher(parameterized).replaceAll("");
+        }
+
+        return preserveCase ? parameterized : parameterized.toLowerCase();
+    }
+}
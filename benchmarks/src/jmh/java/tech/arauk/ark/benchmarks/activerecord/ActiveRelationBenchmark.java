@@ -0,0 +1,82 @@
+package tech.arauk.ark.benchmarks.activerecord;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tech.arauk.ark.activerecord.ActiveRecord;
+import tech.arauk.ark.activerecord.ActiveRelation;
+import tech.arauk.ark.activerecord.connectionadapters.JdbcAdapter;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+
+/**
+ * Measures the generation of the SQL of a relation, with and without the
+ * {@link tech.arauk.ark.activerecord.connectionadapters.SQLCache SQLCache} of
+ * the {@link JdbcAdapter}. Every invocation builds a new relation with new
+ * arguments, as an application issuing the same finder repeatedly does. No
+ * database is involved.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ActiveRelationBenchmark {
+    @Param({"true", "false"})
+    public boolean sqlCache;
+
+    private JdbcAdapter mAdapter;
+    private int mId;
+
+    @Setup
+    public void setUp() {
+        DefaultInflections.initializeDefaultInflections();
+
+        mAdapter = new JdbcAdapter();
+        mAdapter.setSQLCacheEnabled(sqlCache);
+    }
+
+    @TearDown
+    public void tearDown() {
+        DefaultInflections.getDefaultInflections().clear();
+    }
+
+    private ActiveRelation relation() {
+        return new ActiveRelation(mAdapter);
+    }
+
+    @Benchmark
+    public String findById() {
+        return mAdapter.toSQL(relation().where("id = ?", ++mId).limit(1), BlogPost.class);
+    }
+
+    @Benchmark
+    public String search() {
+        return relation()
+                .select("id", "title", "published_at")
+                .where("author_id = ?", ++mId)
+                .where("published_at > ?", mId)
+                .where("title LIKE ?", "%java%")
+                .order("published_at DESC")
+                .limit(20)
+                .offset(40)
+                .toSQL(BlogPost.class);
+    }
+
+    public static class BlogPost extends ActiveRecord {
+    }
+}
@@ -0,0 +1,117 @@
+package tech.arauk.ark.benchmarks.activerecord;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tech.arauk.ark.activerecord.ActiveRecord;
+import tech.arauk.ark.activerecord.BulkResult;
+import tech.arauk.ark.activerecord.connectionadapters.JdbcAdapter;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+
+/**
+ * Measures writing 10000 records to an in-memory H2 database with
+ * {@link ActiveRecord#insertAll} and {@link ActiveRecord#upsertAll} at
+ * several batch sizes, against one INSERT statement per record within a
+ * transaction. Multiply the score by 10000 for the rows per second.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkWriteBenchmark {
+    private static final int RECORDS = 10000;
+
+    @Param({"1", "100", "1000"})
+    public int batchSize;
+
+    private JdbcAdapter mAdapter;
+    private List<Customer> mCustomers;
+
+    @Setup
+    public void setUp() {
+        DefaultInflections.initializeDefaultInflections();
+
+        HashMap<String, String> settings = new HashMap<>();
+        settings.put("url", "jdbc:h2:mem:bulk_write;DB_CLOSE_DELAY=-1");
+
+        mAdapter = new JdbcAdapter(settings);
+        ActiveRecord.establishConnection(mAdapter);
+        mAdapter.execute("CREATE TABLE customers (id BIGINT PRIMARY KEY, name VARCHAR(255), age INT)");
+
+        mCustomers = new ArrayList<>();
+        for (int i = 1; i <= RECORDS; i++) {
+            Customer customer = new Customer();
+            customer.mId = (long) i;
+            customer.mName = "customer " + i;
+            customer.mAge = i % 90;
+            mCustomers.add(customer);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate() {
+        mAdapter.execute("TRUNCATE TABLE customers");
+    }
+
+    @TearDown
+    public void tearDown() {
+        mAdapter.execute("DROP ALL OBJECTS");
+        mAdapter.terminateConnection();
+        DefaultInflections.getDefaultInflections().clear();
+    }
+
+    @Benchmark
+    public BulkResult insertAll() {
+        return ActiveRecord.insertAll(mCustomers, batchSize);
+    }
+
+    @Benchmark
+    public BulkResult upsertAll() {
+        return ActiveRecord.upsertAll(mCustomers, batchSize);
+    }
+
+    @Benchmark
+    public int rowByRow() {
+        int updateCount = 0;
+
+        mAdapter.beginTransaction();
+        try {
+            for (Customer customer : mCustomers) {
+                updateCount += mAdapter.execute("INSERT INTO customers (id, name, age) VALUES (?, ?, ?)",
+                        customer.mId, customer.mName, customer.mAge);
+            }
+            mAdapter.commitTransaction();
+        } catch (RuntimeException ex) {
+            mAdapter.rollbackTransaction();
+            throw ex;
+        }
+
+        return updateCount;
+    }
+
+    public static class Customer extends ActiveRecord {
+        private Long mId;
+        private String mName;
+        private int mAge;
+    }
+}
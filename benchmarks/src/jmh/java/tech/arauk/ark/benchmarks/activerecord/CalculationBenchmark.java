@@ -0,0 +1,106 @@
+package tech.arauk.ark.benchmarks.activerecord;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tech.arauk.ark.activerecord.ActiveRecord;
+import tech.arauk.ark.activerecord.connectionadapters.JdbcAdapter;
+import tech.arauk.ark.activesupport.collections.LongArray;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+
+/**
+ * Measures counting and reading a column of 1000 records of an in-memory H2
+ * database with the calculations of
+ * {@link tech.arauk.ark.activerecord.ActiveRelation}, against retrieving the
+ * records and computing the same results from them.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalculationBenchmark {
+    private static final int RECORDS = 1000;
+
+    private JdbcAdapter mAdapter;
+
+    @Setup
+    public void setUp() {
+        DefaultInflections.initializeDefaultInflections();
+
+        HashMap<String, String> settings = new HashMap<>();
+        settings.put("url", "jdbc:h2:mem:calculation;DB_CLOSE_DELAY=-1");
+
+        mAdapter = new JdbcAdapter(settings);
+        ActiveRecord.establishConnection(mAdapter);
+        mAdapter.execute("CREATE TABLE accounts (id BIGINT PRIMARY KEY, name VARCHAR(255), balance INT)");
+        for (int i = 1; i <= RECORDS; i++) {
+            mAdapter.execute("INSERT INTO accounts (id, name, balance) VALUES (?, ?, ?)", i, "account " + i, i * 10);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mAdapter.execute("DROP ALL OBJECTS");
+        mAdapter.terminateConnection();
+        DefaultInflections.getDefaultInflections().clear();
+    }
+
+    @Benchmark
+    public long count() {
+        return ActiveRecord.where("balance > ?", 0).count(Account.class);
+    }
+
+    @Benchmark
+    public long countRecords() {
+        return ActiveRecord.where("balance > ?", 0).all(Account.class).size();
+    }
+
+    @Benchmark
+    public List<Object> pluck() {
+        return ActiveRecord.where("balance > ?", 0).pluck(Account.class, "name");
+    }
+
+    @Benchmark
+    public List<Object> pluckRecords() {
+        List<Account> accounts = ActiveRecord.where("balance > ?", 0).all(Account.class);
+        List<Object> names = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            names.add(account.mName);
+        }
+        return names;
+    }
+
+    @Benchmark
+    public List<Object> pluckIds() {
+        return ActiveRecord.where("balance > ?", 0).pluck(Account.class, "id");
+    }
+
+    @Benchmark
+    public LongArray pluckLongs() {
+        return ActiveRecord.where("balance > ?", 0).pluckLongs(Account.class, "id");
+    }
+
+    public static class Account extends ActiveRecord {
+        private Long mId;
+        private String mName;
+        private int mBalance;
+    }
+}
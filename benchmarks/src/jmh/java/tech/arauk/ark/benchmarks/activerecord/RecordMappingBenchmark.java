@@ -0,0 +1,138 @@
+package tech.arauk.ark.benchmarks.activerecord;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import tech.arauk.ark.activerecord.ActiveRecord;
+import tech.arauk.ark.activerecord.connectionadapters.RecordMapping;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+
+/**
+ * Measures filling records from rows of values with a {@link RecordMapping}
+ * against plain reflection over the same fields and against hand-written
+ * setters. The rows are arrays of the values a JDBC driver returns, so no
+ * database is involved.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordMappingBenchmark {
+    private static final String[] COLUMNS = {"id", "name", "age", "balance", "created_at", "active"};
+    private Object[][] mRows;
+    private RecordMapping.Plan<Customer> mPlan;
+    private Constructor<Customer> mConstructor;
+    private Field[] mFields;
+
+    @Setup
+    public void setUp() throws Exception {
+        DefaultInflections.initializeDefaultInflections();
+
+        mRows = new Object[1000][];
+        for (int i = 0; i < mRows.length; i++) {
+            mRows[i] = new Object[]{(long) i, "customer " + i, i % 90, new BigDecimal(i + ".50"), new Timestamp(i * 1000L), i % 2 == 0};
+        }
+
+        RecordMapping<Customer> mapping = RecordMapping.of(Customer.class);
+        mPlan = mapping.getPlan(COLUMNS);
+
+        mConstructor = Customer.class.getDeclaredConstructor();
+        mConstructor.setAccessible(true);
+        mFields = new Field[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            mFields[i] = Customer.class.getDeclaredField(mapping.getAttribute(COLUMNS[i]).getName());
+            mFields[i].setAccessible(true);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        DefaultInflections.getDefaultInflections().clear();
+    }
+
+    @Benchmark
+    public void recordMapping(Blackhole blackhole) {
+        for (Object[] row : mRows) {
+            blackhole.consume(mPlan.map(row));
+        }
+    }
+
+    @Benchmark
+    public void reflection(Blackhole blackhole) throws Exception {
+        for (Object[] row : mRows) {
+            Customer customer = mConstructor.newInstance();
+            for (int i = 0; i < row.length; i++) {
+                mFields[i].set(customer, row[i]);
+            }
+            blackhole.consume(customer);
+        }
+    }
+
+    @Benchmark
+    public void handWritten(Blackhole blackhole) {
+        for (Object[] row : mRows) {
+            Customer customer = new Customer();
+            customer.setId((Long) row[0]);
+            customer.setName((String) row[1]);
+            customer.setAge((Integer) row[2]);
+            customer.setBalance((BigDecimal) row[3]);
+            customer.setCreatedAt((Date) row[4]);
+            customer.setActive((Boolean) row[5]);
+            blackhole.consume(customer);
+        }
+    }
+
+    public static class Customer extends ActiveRecord {
+        private Long mId;
+        private String mName;
+        private int mAge;
+        private BigDecimal mBalance;
+        private Date mCreatedAt;
+        private boolean mActive;
+
+        public void setId(Long id) {
+            mId = id;
+        }
+
+        public void setName(String name) {
+            mName = name;
+        }
+
+        public void setAge(int age) {
+            mAge = age;
+        }
+
+        public void setBalance(BigDecimal balance) {
+            mBalance = balance;
+        }
+
+        public void setCreatedAt(Date createdAt) {
+            mCreatedAt = createdAt;
+        }
+
+        public void setActive(boolean active) {
+            mActive = active;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package tech.arauk.ark.benchmarks.activerecord;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tech.arauk.ark.activerecord.ActiveRecord;
+import tech.arauk.ark.activerecord.ActiveRelation;
+import tech.arauk.ark.activerecord.connectionadapters.JdbcAdapter;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+
+/**
+ * Measures a lookup by primary key on an in-memory H2 database through a
+ * {@link tech.arauk.ark.activerecord.Scope}, whose SQL is generated once,
+ * against a relation built on every invocation, with and without the
+ * {@link tech.arauk.ark.activerecord.connectionadapters.SQLCache SQLCache}.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScopeBenchmark {
+    private static final int RECORDS = 1000;
+
+    @Param({"true", "false"})
+    public boolean sqlCache;
+
+    private JdbcAdapter mAdapter;
+    private tech.arauk.ark.activerecord.Scope<Account> mById;
+    private long mId;
+
+    @Setup
+    public void setUp() {
+        DefaultInflections.initializeDefaultInflections();
+
+        HashMap<String, String> settings = new HashMap<>();
+        settings.put("url", "jdbc:h2:mem:scope;DB_CLOSE_DELAY=-1");
+
+        mAdapter = new JdbcAdapter(settings);
+        ActiveRecord.establishConnection(mAdapter);
+        mAdapter.setSQLCacheEnabled(sqlCache);
+        mAdapter.execute("CREATE TABLE accounts (id BIGINT PRIMARY KEY, name VARCHAR(255), balance INT)");
+        for (int i = 1; i <= RECORDS; i++) {
+            mAdapter.execute("INSERT INTO accounts (id, name, balance) VALUES (?, ?, ?)", i, "account " + i, i * 10);
+        }
+
+        mById = ActiveRecord.scope(Account.class, "byId", new ActiveRelation().where("id = ?"));
+        ActiveRecord.compileScopes();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mAdapter.execute("DROP ALL OBJECTS");
+        mAdapter.terminateConnection();
+        DefaultInflections.getDefaultInflections().clear();
+    }
+
+    private long nextId() {
+        return mId++ % RECORDS + 1;
+    }
+
+    @Benchmark
+    public Account relation() {
+        return ActiveRecord.where("id = ?", nextId()).first(Account.class);
+    }
+
+    @Benchmark
+    public Account scope() {
+        return mById.first(nextId());
+    }
+
+    public static class Account extends ActiveRecord {
+        private Long mId;
+        private String mName;
+        private int mBalance;
+    }
+}
@@ -0,0 +1,139 @@
+package tech.arauk.ark.benchmarks.activesupport;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import tech.arauk.ark.activesupport.Inflector;
+import tech.arauk.ark.activesupport.InflectorTestCases;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+import tech.arauk.ark.activesupport.inflector.Inflections;
+
+/**
+ * Measures how pluralize and singularize scale with the number of rules of a
+ * locale, with and without the rules compiled into a single automaton.
+ * <p/>
+ * The locale holds the default English rules plus enough generated rules to
+ * reach the given count. The generated rules have a higher priority and match
+ * none of the words, which is the worst case for trying the rules in order.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InflectionAutomatonBenchmark {
+    private static final String LOCALE = "benchmark-automaton";
+
+    @Param({"30", "100", "500", "2000"})
+    public int ruleCount;
+
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    private String[] mSingulars;
+    private String[] mPlurals;
+
+    @Setup
+    public void setUp() {
+        DefaultInflections.initializeDefaultInflections();
+
+        Inflections defaults = Inflector.inflections();
+        Inflections inflect = Inflector.inflections(LOCALE);
+        inflect.clear();
+        inflect.setCompiled(compiled);
+
+        copy(defaults.getPlurals(), inflect, true);
+        copy(defaults.getSingulars(), inflect, false);
+
+        for (int i = inflect.getPlurals().size(); i < ruleCount; i++) {
+            String stem = stem(i);
+            switch (i % 3) {
+                case 0:
+                    inflect.plural("([^aeiou])" + stem + "y$", "$1" + stem + "ies");
+                    inflect.singular("([^aeiou])" + stem + "ies$", "$1" + stem + "y");
+                    break;
+                case 1:
+                    inflect.plural("(" + stem + ")us$", "$1i", Pattern.CASE_INSENSITIVE);
+                    inflect.singular("(" + stem + ")i$", "$1us", Pattern.CASE_INSENSITIVE);
+                    break;
+                default:
+                    inflect.plural("^(" + stem + ")(?:x|ch)$", "$0es");
+                    inflect.singular("^(" + stem + ")(?:x|ch)es$", "$1");
+                    break;
+            }
+        }
+
+        // Builds the rules before measuring.
+        inflect.getCompiledPlurals();
+        inflect.getCompiledSingulars();
+
+        mSingulars = new String[InflectorTestCases.SINGULAR_TO_PLURAL.length];
+        mPlurals = new String[InflectorTestCases.SINGULAR_TO_PLURAL.length];
+        for (int i = 0; i < InflectorTestCases.SINGULAR_TO_PLURAL.length; i++) {
+            mSingulars[i] = InflectorTestCases.SINGULAR_TO_PLURAL[i][0];
+            mPlurals[i] = InflectorTestCases.SINGULAR_TO_PLURAL[i][1];
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Inflector.inflections(LOCALE).clear();
+        DefaultInflections.getDefaultInflections().clear();
+    }
+
+    @Benchmark
+    public void pluralize(Blackhole blackhole) {
+        for (String singular : mSingulars) {
+            blackhole.consume(Inflector.pluralize(singular, LOCALE));
+        }
+    }
+
+    @Benchmark
+    public void singularize(Blackhole blackhole) {
+        for (String plural : mPlurals) {
+            blackhole.consume(Inflector.singularize(plural, LOCALE));
+        }
+    }
+
+    private static void copy(List<Inflections.Rule> rules, Inflections inflect, boolean plural) {
+        // Rules are prepended, so they are copied from the last one.
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            Inflections.Rule rule = rules.get(i);
+            if (plural) {
+                inflect.plural(rule.rule, rule.replacement, rule.flags);
+            } else {
+                inflect.singular(rule.rule, rule.replacement, rule.flags);
+            }
+        }
+    }
+
+    /**
+     * Returns a made up word stem, unique for every index.
+     */
+    private static String stem(int index) {
+        StringBuilder stem = new StringBuilder("zq");
+        do {
+            stem.append((char) ('a' + index % 26));
+            index /= 26;
+        } while (index > 0);
+        return stem.toString();
+    }
+}
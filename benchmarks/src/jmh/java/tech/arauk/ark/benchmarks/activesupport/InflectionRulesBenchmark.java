@@ -0,0 +1,112 @@
+package tech.arauk.ark.benchmarks.activesupport;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import tech.arauk.ark.activesupport.Inflector;
+import tech.arauk.ark.activesupport.InflectorTestCases;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+import tech.arauk.ark.activesupport.inflector.Inflections;
+
+/**
+ * Compares applying the precompiled inflection rules against compiling every
+ * rule on each call, which is how the rules used to be applied.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InflectionRulesBenchmark {
+    private String[] mSingulars;
+    private String[] mPlurals;
+
+    @Setup
+    public void setUp() {
+        DefaultInflections.initializeDefaultInflections();
+
+        mSingulars = new String[InflectorTestCases.SINGULAR_TO_PLURAL.length];
+        mPlurals = new String[InflectorTestCases.SINGULAR_TO_PLURAL.length];
+        for (int i = 0; i < InflectorTestCases.SINGULAR_TO_PLURAL.length; i++) {
+            mSingulars[i] = InflectorTestCases.SINGULAR_TO_PLURAL[i][0];
+            mPlurals[i] = InflectorTestCases.SINGULAR_TO_PLURAL[i][1];
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        DefaultInflections.getDefaultInflections().clear();
+    }
+
+    @Benchmark
+    public void pluralizePrecompiled(Blackhole blackhole) {
+        for (String singular : mSingulars) {
+            blackhole.consume(Inflector.pluralize(singular));
+        }
+    }
+
+    @Benchmark
+    public void pluralizeCompiledPerCall(Blackhole blackhole) {
+        List<Inflections.Rule> rules = Inflector.inflections().getPlurals();
+        for (String singular : mSingulars) {
+            blackhole.consume(applyCompilingPerCall(singular, rules));
+        }
+    }
+
+    @Benchmark
+    public void singularizePrecompiled(Blackhole blackhole) {
+        for (String plural : mPlurals) {
+            blackhole.consume(Inflector.singularize(plural));
+        }
+    }
+
+    @Benchmark
+    public void singularizeCompiledPerCall(Blackhole blackhole) {
+        List<Inflections.Rule> rules = Inflector.inflections().getSingulars();
+        for (String plural : mPlurals) {
+            blackhole.consume(applyCompilingPerCall(plural, rules));
+        }
+    }
+
+    /**
+     * The rule application loop as it was before the rules were precompiled.
+     */
+    private static String applyCompilingPerCall(String word, List<Inflections.Rule> rules) {
+        Pattern pattern = Pattern.compile("\\b\\w+\\Z");
+        Matcher matcher = pattern.matcher(word);
+
+        String uncountableWord = matcher.find() ? matcher.group() : word;
+
+        if (word.isEmpty() || Inflector.inflections().getUncountables().contains(uncountableWord.toLowerCase())) {
+            return word;
+        }
+
+        for (Inflections.Rule rule : rules) {
+            pattern = Pattern.compile(rule.rule, rule.flags);
+            matcher = pattern.matcher(word);
+            if (matcher.find()) {
+                return matcher.replaceFirst(rule.replacement);
+            }
+        }
+
+        return word;
+    }
+}
@@ -0,0 +1,77 @@
+package tech.arauk.ark.benchmarks.activesupport;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tech.arauk.ark.activesupport.Inflector;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+import tech.arauk.ark.activesupport.inflector.Inflections;
+
+/**
+ * Measures the Inflections registry and rules under concurrent access, with
+ * and without a thread that keeps changing the rules of another locale.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InflectionsContentionBenchmark {
+    private static final String WRITER_LOCALE = "benchmark";
+
+    @Setup
+    public void setUp() {
+        DefaultInflections.initializeDefaultInflections();
+    }
+
+    @TearDown
+    public void tearDown() {
+        DefaultInflections.getDefaultInflections().clear();
+        Inflector.inflections(WRITER_LOCALE).clear();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Inflections getInstance() {
+        return Inflections.getInstance("en-US");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String pluralize() {
+        return Inflector.pluralize("category");
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public String readWhileWriting() {
+        return Inflector.pluralize("category");
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void writeWhileReading() {
+        Inflections inflect = Inflector.inflections(WRITER_LOCALE);
+        inflect.irregular("ox", "oxen");
+        inflect.clear();
+    }
+}
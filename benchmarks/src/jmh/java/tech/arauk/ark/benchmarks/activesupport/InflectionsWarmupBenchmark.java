@@ -0,0 +1,105 @@
+package tech.arauk.ark.benchmarks.activesupport;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import tech.arauk.ark.activesupport.Inflector;
+import tech.arauk.ark.activesupport.InflectorTestCases;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+
+/**
+ * Compares the first pass over the corpus after the inflections changed, which
+ * has to prepare the new rules, with a pass over inflections already in use.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 100)
+@Fork(1)
+public class InflectionsWarmupBenchmark {
+    @Benchmark
+    public void cold(ColdInflections inflections, Blackhole blackhole) {
+        pass(inflections.singulars, blackhole);
+    }
+
+    @Benchmark
+    public void warm(WarmInflections inflections, Blackhole blackhole) {
+        pass(inflections.singulars, blackhole);
+    }
+
+    private static void pass(String[] singulars, Blackhole blackhole) {
+        for (String singular : singulars) {
+            blackhole.consume(Inflector.pluralize(singular));
+            blackhole.consume(Inflector.singularize(singular));
+        }
+    }
+
+    /**
+     * Inflections registered again before every invocation.
+     */
+    @State(Scope.Benchmark)
+    public static class ColdInflections {
+        @Param({"false", "true"})
+        public boolean compiled;
+
+        String[] singulars = InflectorBenchmark.column(InflectorTestCases.SINGULAR_TO_PLURAL, 0);
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            DefaultInflections.getDefaultInflections().clear();
+            DefaultInflections.initializeDefaultInflections();
+            Inflector.inflections().setCompiled(compiled);
+        }
+
+        @TearDown
+        public void tearDown() {
+            Inflector.inflections().setCompiled(false);
+            DefaultInflections.getDefaultInflections().clear();
+        }
+    }
+
+    /**
+     * Inflections registered once and already used before measuring.
+     */
+    @State(Scope.Benchmark)
+    public static class WarmInflections {
+        @Param({"false", "true"})
+        public boolean compiled;
+
+        String[] singulars = InflectorBenchmark.column(InflectorTestCases.SINGULAR_TO_PLURAL, 0);
+
+        @Setup
+        public void setUp() {
+            DefaultInflections.getDefaultInflections().clear();
+            DefaultInflections.initializeDefaultInflections();
+            Inflector.inflections().setCompiled(compiled);
+
+            for (String singular : singulars) {
+                Inflector.pluralize(singular);
+                Inflector.singularize(singular);
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            Inflector.inflections().setCompiled(false);
+            DefaultInflections.getDefaultInflections().clear();
+        }
+    }
+}
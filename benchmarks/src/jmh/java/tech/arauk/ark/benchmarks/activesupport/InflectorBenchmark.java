@@ -0,0 +1,257 @@
+package tech.arauk.ark.benchmarks.activesupport;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import tech.arauk.ark.activesupport.ConstantizeTestCases;
+import tech.arauk.ark.activesupport.Inflector;
+import tech.arauk.ark.activesupport.InflectorCache;
+import tech.arauk.ark.activesupport.InflectorTestCases;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+
+/**
+ * Measures every public method of the {@link Inflector} over the word corpora
+ * of {@link InflectorTestCases}, with warm inflections and with and without
+ * the result cache. Every operation is a pass over the whole corpus of the
+ * method.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InflectorBenchmark {
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private String[] mSingulars;
+    private String[] mPlurals;
+    private String[] mCamelCased;
+    private String[] mUnderscored;
+    private String[] mLowerCamelUnderscored;
+    private String[] mPackagedClassNames;
+    private String[] mClassNames;
+    private String[] mTableNames;
+    private String[] mParameterizable;
+    private String[] mHumanizable;
+    private String[] mTitleizable;
+    private String[] mNumbers;
+    private String[] mDasherizable;
+    private String[] mConstants;
+    private String[] mUnknownConstants;
+
+    @Setup
+    public void setUp() {
+        DefaultInflections.initializeDefaultInflections();
+        Inflector.setCache(cached ? new InflectorCache() : null);
+
+        mSingulars = column(InflectorTestCases.SINGULAR_TO_PLURAL, 0);
+        mPlurals = column(InflectorTestCases.SINGULAR_TO_PLURAL, 1);
+        mCamelCased = column(InflectorTestCases.CAMEL_TO_UNDERSCORE, 0);
+        mUnderscored = column(InflectorTestCases.CAMEL_TO_UNDERSCORE, 1);
+        mLowerCamelUnderscored = column(InflectorTestCases.UNDERSCORE_TO_LOWER_CAMEL, 0);
+        mPackagedClassNames = column(InflectorTestCases.CAMEL_WITH_PACKAGE_TO_UNDERSCORE_WITH_SLASH, 0);
+        mClassNames = column(InflectorTestCases.CLASS_NAME_TO_TABLE_NAME, 0);
+        mTableNames = column(InflectorTestCases.CLASS_NAME_TO_TABLE_NAME, 1);
+        mParameterizable = column(InflectorTestCases.STRING_TO_PARAMETERIZED, 0);
+        mHumanizable = column(InflectorTestCases.UNDERSCORE_TO_HUMAN, 0);
+        mTitleizable = column(InflectorTestCases.MIXTURE_TO_TITLE_CASE, 0);
+        mNumbers = column(InflectorTestCases.ORDINAL_NUMBERS, 0);
+        mDasherizable = column(InflectorTestCases.UNDERSCORES_TO_DASHES, 0);
+        mUnknownConstants = ConstantizeTestCases.UNKNOWN_CONSTANTS;
+
+        mConstants = new String[ConstantizeTestCases.EXISTING_CONSTANTS.length];
+        for (int i = 0; i < mConstants.length; i++) {
+            mConstants[i] = ConstantizeTestCases.CONSTANTIZE_BASE_PACKAGE + ConstantizeTestCases.EXISTING_CONSTANTS[i][0];
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Inflector.setCache(null);
+        DefaultInflections.getDefaultInflections().clear();
+    }
+
+    @Benchmark
+    public void camelize(Blackhole blackhole) {
+        for (String word : mUnderscored) {
+            blackhole.consume(Inflector.camelize(word));
+        }
+    }
+
+    @Benchmark
+    public void camelizeLower(Blackhole blackhole) {
+        for (String word : mLowerCamelUnderscored) {
+            blackhole.consume(Inflector.camelize(word, false));
+        }
+    }
+
+    @Benchmark
+    public void capitalize(Blackhole blackhole) {
+        for (String word : mSingulars) {
+            blackhole.consume(Inflector.capitalize(word));
+        }
+    }
+
+    @Benchmark
+    public void classify(Blackhole blackhole) {
+        for (String word : mTableNames) {
+            blackhole.consume(Inflector.classify(word));
+        }
+    }
+
+    @Benchmark
+    public void constantize(Blackhole blackhole) throws ClassNotFoundException {
+        for (String word : mConstants) {
+            blackhole.consume(Inflector.constantize(word));
+        }
+    }
+
+    @Benchmark
+    public void dasherize(Blackhole blackhole) {
+        for (String word : mDasherizable) {
+            blackhole.consume(Inflector.dasherize(word));
+        }
+    }
+
+    @Benchmark
+    public void deconstantize(Blackhole blackhole) {
+        for (String word : mConstants) {
+            blackhole.consume(Inflector.deconstantize(word));
+        }
+    }
+
+    @Benchmark
+    public void demodulize(Blackhole blackhole) {
+        for (String word : mConstants) {
+            blackhole.consume(Inflector.demodulize(word));
+        }
+    }
+
+    @Benchmark
+    public void foreignKey(Blackhole blackhole) {
+        for (String word : mClassNames) {
+            blackhole.consume(Inflector.foreignKey(word));
+            blackhole.consume(Inflector.foreignKey(word, false));
+        }
+    }
+
+    @Benchmark
+    public void humanize(Blackhole blackhole) {
+        for (String word : mHumanizable) {
+            blackhole.consume(Inflector.humanize(word));
+            blackhole.consume(Inflector.humanize(word, false));
+        }
+    }
+
+    @Benchmark
+    public void ordinal(Blackhole blackhole) {
+        for (String number : mNumbers) {
+            blackhole.consume(Inflector.ordinal(number));
+        }
+    }
+
+    @Benchmark
+    public void ordinalize(Blackhole blackhole) {
+        for (String number : mNumbers) {
+            blackhole.consume(Inflector.ordinalize(number));
+        }
+    }
+
+    @Benchmark
+    public void parameterize(Blackhole blackhole) {
+        for (String string : mParameterizable) {
+            blackhole.consume(Inflector.parameterize(string));
+        }
+    }
+
+    @Benchmark
+    public void parameterizeWithSeparator(Blackhole blackhole) {
+        for (String string : mParameterizable) {
+            blackhole.consume(Inflector.parameterize(string, "__sep__"));
+        }
+    }
+
+    @Benchmark
+    public void parameterizePreservingCase(Blackhole blackhole) {
+        for (String string : mParameterizable) {
+            blackhole.consume(Inflector.parameterize(string, "_", true));
+        }
+    }
+
+    @Benchmark
+    public void pluralize(Blackhole blackhole) {
+        for (String word : mSingulars) {
+            blackhole.consume(Inflector.pluralize(word));
+        }
+    }
+
+    @Benchmark
+    public void safeConstantize(Blackhole blackhole) {
+        for (String word : mUnknownConstants) {
+            blackhole.consume(Inflector.safeConstantize(word));
+        }
+    }
+
+    @Benchmark
+    public void singularize(Blackhole blackhole) {
+        for (String word : mPlurals) {
+            blackhole.consume(Inflector.singularize(word));
+        }
+    }
+
+    @Benchmark
+    public void tableize(Blackhole blackhole) {
+        for (String word : mClassNames) {
+            blackhole.consume(Inflector.tableize(word));
+        }
+    }
+
+    @Benchmark
+    public void titlecase(Blackhole blackhole) {
+        for (String word : mTitleizable) {
+            blackhole.consume(Inflector.titlecase(word));
+        }
+    }
+
+    @Benchmark
+    public void titleize(Blackhole blackhole) {
+        for (String word : mTitleizable) {
+            blackhole.consume(Inflector.titleize(word));
+        }
+    }
+
+    @Benchmark
+    public void underscore(Blackhole blackhole) {
+        for (String word : mCamelCased) {
+            blackhole.consume(Inflector.underscore(word));
+        }
+        for (String word : mPackagedClassNames) {
+            blackhole.consume(Inflector.underscore(word));
+        }
+    }
+
+    static String[] column(String[][] cases, int index) {
+        String[] column = new String[cases.length];
+        for (int i = 0; i < cases.length; i++) {
+            column[i] = cases[i][index];
+        }
+        return column;
+    }
+}
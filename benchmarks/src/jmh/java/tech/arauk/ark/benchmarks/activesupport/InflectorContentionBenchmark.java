@@ -0,0 +1,100 @@
+package tech.arauk.ark.benchmarks.activesupport;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import tech.arauk.ark.activesupport.Inflector;
+import tech.arauk.ark.activesupport.InflectorCache;
+import tech.arauk.ark.activesupport.InflectorTestCases;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+
+/**
+ * Measures the most used {@link Inflector} methods over their corpora from
+ * several threads at once, with and without the shared result cache.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class InflectorContentionBenchmark {
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private String[] mSingulars;
+    private String[] mPlurals;
+    private String[] mCamelCased;
+    private String[] mUnderscored;
+    private String[] mClassNames;
+
+    @Setup
+    public void setUp() {
+        DefaultInflections.initializeDefaultInflections();
+        Inflector.setCache(cached ? new InflectorCache() : null);
+
+        mSingulars = InflectorBenchmark.column(InflectorTestCases.SINGULAR_TO_PLURAL, 0);
+        mPlurals = InflectorBenchmark.column(InflectorTestCases.SINGULAR_TO_PLURAL, 1);
+        mCamelCased = InflectorBenchmark.column(InflectorTestCases.CAMEL_TO_UNDERSCORE, 0);
+        mUnderscored = InflectorBenchmark.column(InflectorTestCases.CAMEL_TO_UNDERSCORE, 1);
+        mClassNames = InflectorBenchmark.column(InflectorTestCases.CLASS_NAME_TO_TABLE_NAME, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Inflector.setCache(null);
+        DefaultInflections.getDefaultInflections().clear();
+    }
+
+    @Benchmark
+    public void camelize(Blackhole blackhole) {
+        for (String word : mUnderscored) {
+            blackhole.consume(Inflector.camelize(word));
+        }
+    }
+
+    @Benchmark
+    public void pluralize(Blackhole blackhole) {
+        for (String word : mSingulars) {
+            blackhole.consume(Inflector.pluralize(word));
+        }
+    }
+
+    @Benchmark
+    public void singularize(Blackhole blackhole) {
+        for (String word : mPlurals) {
+            blackhole.consume(Inflector.singularize(word));
+        }
+    }
+
+    @Benchmark
+    public void tableize(Blackhole blackhole) {
+        for (String word : mClassNames) {
+            blackhole.consume(Inflector.tableize(word));
+        }
+    }
+
+    @Benchmark
+    public void underscore(Blackhole blackhole) {
+        for (String word : mCamelCased) {
+            blackhole.consume(Inflector.underscore(word));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package tech.arauk.ark.benchmarks.activesupport;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import tech.arauk.ark.activesupport.logging.Level;
+import tech.arauk.ark.activesupport.logging.Logger;
+import tech.arauk.ark.activesupport.logging.Logging;
+import tech.arauk.ark.activesupport.logging.MessageSupplier;
+
+/**
+ * Measures log calls of a level below the threshold, which should cost close
+ * to nothing and allocate nothing unless the message is concatenated before
+ * the call, against a call that is logged. Run it with the "gc" profiler,
+ * <code>-prof gc</code>, to see the allocation rate of each call.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggerBenchmark {
+    private Logger mLogger;
+    private Integer mCount;
+    private String mName;
+    private MessageSupplier mSupplier;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        mCount = 1234;
+        mName = "records";
+        mSupplier = new MessageSupplier() {
+            @Override
+            public String get() {
+                return "Loaded " + mCount + " " + mName;
+            }
+        };
+
+        mLogger = Logger.getDefaultLogger();
+        mLogger.setLogger(new Logging() {
+            @Override
+            public void debug(String tag, String message, Throwable throwable) {
+                blackhole.consume(message);
+            }
+
+            @Override
+            public void error(String tag, String message, Throwable throwable) {
+                blackhole.consume(message);
+            }
+
+            @Override
+            public void info(String tag, String message, Throwable throwable) {
+                blackhole.consume(message);
+            }
+
+            @Override
+            public void verbose(String tag, String message, Throwable throwable) {
+                blackhole.consume(message);
+            }
+
+            @Override
+            public void warn(String tag, String message, Throwable throwable) {
+                blackhole.consume(message);
+            }
+        });
+        mLogger.setLevel(Level.INFO);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mLogger.setLevel(Level.VERBOSE);
+        mLogger.setLogger(null);
+    }
+
+    @Benchmark
+    public void disabledConcatenated() {
+        mLogger.debug("Loaded " + mCount + " " + mName);
+    }
+
+    @Benchmark
+    public void disabledFormatted() {
+        mLogger.debugf("Loaded %d %s", mCount, mName);
+    }
+
+    @Benchmark
+    public void disabledVarargsFormatted() {
+        mLogger.debugf("Loaded %d %s in %d ms", mCount, mName, mCount);
+    }
+
+    @Benchmark
+    public void disabledSupplied() {
+        mLogger.debug(mSupplier);
+    }
+
+    @Benchmark
+    public void enabledFormatted() {
+        mLogger.infof("Loaded %d %s", mCount, mName);
+    }
+
+    @Benchmark
+    public void enabledSupplied() {
+        mLogger.info(mSupplier);
+    }
+}
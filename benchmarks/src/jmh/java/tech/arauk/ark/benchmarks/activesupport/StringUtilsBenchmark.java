@@ -0,0 +1,69 @@
+package tech.arauk.ark.benchmarks.activesupport;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import tech.arauk.ark.activesupport.InflectorTestCases;
+import tech.arauk.ark.activesupport.core_ext.StringUtils;
+import tech.arauk.ark.activesupport.inflector.DefaultInflections;
+
+/**
+ * Measures the {@link StringUtils} methods that do more than delegating to the
+ * Inflector.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StringUtilsBenchmark {
+    private String[] mSingulars;
+    private List<String> mSingularList;
+
+    @Setup
+    public void setUp() {
+        DefaultInflections.initializeDefaultInflections();
+
+        mSingulars = InflectorBenchmark.column(InflectorTestCases.SINGULAR_TO_PLURAL, 0);
+        mSingularList = Arrays.asList(mSingulars);
+    }
+
+    @TearDown
+    public void tearDown() {
+        DefaultInflections.getDefaultInflections().clear();
+    }
+
+    @Benchmark
+    public void pluralizeWithCount(Blackhole blackhole) {
+        for (int i = 0; i < mSingulars.length; i++) {
+            blackhole.consume(StringUtils.pluralize(mSingulars[i], i % 3));
+        }
+    }
+
+    @Benchmark
+    public String joinArray() {
+        return StringUtils.join(mSingulars, ", ");
+    }
+
+    @Benchmark
+    public String joinList() {
+        return StringUtils.join(mSingularList, ", ");
+    }
+}
@@ -0,0 +1,91 @@
+package tech.arauk.ark.benchmarks.activesupport;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import tech.arauk.ark.activesupport.core_ext.StringUtils;
+import tech.arauk.ark.activesupport.inflector.Transliterator;
+
+/**
+ * Measures transliteration and parameterization of ASCII and accented text of
+ * growing length, and the {@link StringUtils} helpers built on top of them.
+ *
+ * @author Rodrigo Scomazzon do Nascimento <rodrigo.sc.na@gmail.com>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransliteratorBenchmark {
+    private static final String ASCII_TEXT = "Donald E. Knuth, The Art of Computer Programming! ";
+    private static final String ACCENTED_TEXT = "Ærøskøbing, São Paulo, Düsseldorf & Łódź — 東京! ";
+
+    @Param({"50", "5000"})
+    public int length;
+
+    private String mAscii;
+    private String mAccented;
+    private StringBuilder mBuffer;
+
+    @Setup
+    public void setUp() {
+        mAscii = repeat(ASCII_TEXT, length);
+        mAccented = repeat(ACCENTED_TEXT, length);
+        mBuffer = new StringBuilder(length * 2);
+    }
+
+    @Benchmark
+    public String transliterateAscii() {
+        return Transliterator.transliterate(mAscii);
+    }
+
+    @Benchmark
+    public String transliterateAccented() {
+        return Transliterator.transliterate(mAccented);
+    }
+
+    @Benchmark
+    public void transliterateIntoBuffer(Blackhole blackhole) throws IOException {
+        mBuffer.setLength(0);
+        Transliterator.transliterate(mAccented, mBuffer);
+        blackhole.consume(mBuffer);
+    }
+
+    @Benchmark
+    public String parameterizeAscii() {
+        return StringUtils.parameterize(mAscii);
+    }
+
+    @Benchmark
+    public String parameterizeAccented() {
+        return StringUtils.parameterize(mAccented);
+    }
+
+    @Benchmark
+    public String parameterizeWithMultiCharacterSeparator() {
+        return Transliterator.parameterize(mAccented, "__sep__", false);
+    }
+
+    private static String repeat(String text, int length) {
+        StringBuilder builder = new StringBuilder(length + text.length());
+        while (builder.length() < length) {
+            builder.append(text);
+        }
+        return builder.substring(0, length);
+    }
+}